@@ -0,0 +1,73 @@
+package com.kna.benchmark;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.kna.dao.AnswerDAO;
+import com.kna.dao.QuestionDAO;
+import com.kna.dao.UserDAO;
+import com.kna.model.Answer;
+import com.kna.service.AnswerService;
+import com.kna.util.SessionManager;
+
+/**
+ * AnswerBenchmark - Answer listing, voting and acceptance
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AnswerBenchmark {
+
+    private AnswerDAO answerDAO;
+    private AnswerService answerService;
+    private int acceptAnswerId;
+
+    @Setup(Level.Trial)
+    public void setUp(KnaState state) throws SQLException {
+        answerDAO = new AnswerDAO();
+        answerService = new AnswerService();
+    }
+
+    /**
+     * Log in as the owner of a random answered question so acceptAnswer passes its checks
+     */
+    @Setup(Level.Iteration)
+    public void pickAnswerToAccept(KnaState state) throws SQLException {
+        Answer answer = answerDAO.findById(state.randomAnswerId());
+        int ownerId = new QuestionDAO().findById(answer.getQuestionId()).getUserId();
+        SessionManager.getInstance().setCurrentUser(new UserDAO().findById(ownerId));
+        acceptAnswerId = answer.getAnswerId();
+    }
+
+    @Benchmark
+    public List<Answer> getAnswersByQuestionId(KnaState state) throws SQLException {
+        return answerDAO.getAnswersByQuestionId(state.randomQuestionId());
+    }
+
+    @Benchmark
+    public boolean voteAnswer(KnaState state) throws SQLException {
+        // Repeated votes by the same user toggle between add and remove
+        return answerDAO.voteAnswer(state.randomAnswerId(), state.randomUserId(), "upvote");
+    }
+
+    @Benchmark
+    public void acceptAnswer() throws Exception {
+        answerService.acceptAnswer(acceptAnswerId, 5);
+    }
+}
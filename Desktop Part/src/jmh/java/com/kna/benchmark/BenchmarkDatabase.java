@@ -0,0 +1,60 @@
+package com.kna.benchmark;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+import com.kna.tools.DataGenerator;
+
+/**
+ * BenchmarkDatabase - Builds and caches SQLite databases of a given scale for the benchmarks.
+ * Scale is the number of questions; users, answers and votes are derived from it.
+ * Each trial runs on a private copy of the cached template so writes never leak between runs.
+ */
+public final class BenchmarkDatabase {
+
+    private static final Path DB_DIR = Paths.get("target", "bench-db");
+
+    static final String[] CATEGORIES = DataGenerator.CATEGORIES;
+    static final String[] TOPICS = DataGenerator.TOPICS;
+
+    private BenchmarkDatabase() {}
+
+    /**
+     * Point DatabaseManager at a fresh copy of the database for this scale.
+     * Must be called before DatabaseManager.getInstance() in the benchmark JVM.
+     */
+    public static Path prepare(int scale) throws Exception {
+        Files.createDirectories(DB_DIR);
+        Path template = DB_DIR.resolve("kna-" + scale + ".db");
+        if (!Files.exists(template)) {
+            new DataGenerator(config(scale)).generate(template);
+        }
+
+        Path working = Files.createTempFile(DB_DIR, "kna-" + scale + "-", ".db");
+        Files.copy(template, working, StandardCopyOption.REPLACE_EXISTING);
+        working.toFile().deleteOnExit();
+        System.setProperty("kna.db.path", working.toString());
+        return working;
+    }
+
+    /**
+     * Generated user ids run from 2 to userCount + 1; id 1 is the admin
+     */
+    public static int userCount(int scale) {
+        return Math.max(10, scale / 10);
+    }
+
+    public static int answerCount(int scale) {
+        return config(scale).answerCount();
+    }
+
+    private static DataGenerator.Config config(int scale) {
+        DataGenerator.Config config = new DataGenerator.Config();
+        config.questions = scale;
+        config.users = userCount(scale);
+        config.seed = 42;
+        return config;
+    }
+}
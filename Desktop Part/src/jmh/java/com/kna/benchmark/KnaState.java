@@ -0,0 +1,49 @@
+package com.kna.benchmark;
+
+import java.util.SplittableRandom;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.kna.util.DatabaseManager;
+
+/**
+ * KnaState - Shared benchmark state: a generated database at the requested scale
+ */
+@State(Scope.Benchmark)
+public class KnaState {
+
+    /** Number of questions in the generated database */
+    @Param({"1000", "100000", "1000000"})
+    public int scale;
+
+    public SplittableRandom random;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        BenchmarkDatabase.prepare(scale);
+        DatabaseManager.getInstance().initializeDatabase();
+        random = new SplittableRandom(7);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        DatabaseManager.getInstance().closeConnection();
+    }
+
+    public int randomQuestionId() {
+        return 1 + random.nextInt(scale);
+    }
+
+    public int randomAnswerId() {
+        return 1 + random.nextInt(BenchmarkDatabase.answerCount(scale));
+    }
+
+    public int randomUserId() {
+        return 2 + random.nextInt(BenchmarkDatabase.userCount(scale));
+    }
+}
@@ -0,0 +1,42 @@
+package com.kna.benchmark;
+
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.kna.dao.NotificationDAO;
+
+/**
+ * NotificationDAOBenchmark - Announcement fan-out to every active user
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class NotificationDAOBenchmark {
+
+    private NotificationDAO notificationDAO;
+
+    @Setup(Level.Trial)
+    public void setUp(KnaState state) {
+        notificationDAO = new NotificationDAO();
+    }
+
+    @Benchmark
+    public void createAnnouncement(KnaState state) throws SQLException {
+        notificationDAO.createAnnouncement("Exam week", "Library hours are extended until midnight.");
+    }
+}
@@ -0,0 +1,55 @@
+package com.kna.benchmark;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.kna.dao.QuestionDAO;
+import com.kna.model.Question;
+
+/**
+ * QuestionDAOBenchmark - Feed and search queries
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class QuestionDAOBenchmark {
+
+    private QuestionDAO questionDAO;
+
+    @Setup(Level.Trial)
+    public void setUp(KnaState state) {
+        questionDAO = new QuestionDAO();
+    }
+
+    @Benchmark
+    public List<Question> getAllQuestions(KnaState state) throws SQLException {
+        return questionDAO.getAllQuestions("All", null, null, 50, 0);
+    }
+
+    @Benchmark
+    public List<Question> getAllQuestionsByCategory(KnaState state) throws SQLException {
+        String category = BenchmarkDatabase.CATEGORIES[state.random.nextInt(BenchmarkDatabase.CATEGORIES.length)];
+        return questionDAO.getAllQuestions(category, null, true, 50, 0);
+    }
+
+    @Benchmark
+    public List<Question> searchQuestions(KnaState state) throws SQLException {
+        return questionDAO.searchQuestions(BenchmarkDatabase.TOPICS[state.random.nextInt(BenchmarkDatabase.TOPICS.length)]);
+    }
+}
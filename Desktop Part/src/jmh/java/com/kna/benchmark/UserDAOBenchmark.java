@@ -0,0 +1,44 @@
+package com.kna.benchmark;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.kna.dao.UserDAO;
+import com.kna.model.User;
+
+/**
+ * UserDAOBenchmark - Leaderboard query
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UserDAOBenchmark {
+
+    private UserDAO userDAO;
+
+    @Setup(Level.Trial)
+    public void setUp(KnaState state) {
+        userDAO = new UserDAO();
+    }
+
+    @Benchmark
+    public List<User> getTopUsersByReputation(KnaState state) throws SQLException {
+        return userDAO.getTopUsersByReputation(50);
+    }
+}
@@ -1,53 +1,206 @@
 package com.kna;
 
+import com.kna.client.RemoteClient;
+import com.kna.service.ArchiveService;
+import com.kna.service.AuthService;
+import com.kna.service.BackupService;
+import com.kna.service.DuplicateService;
+import com.kna.service.HotScoreService;
+import com.kna.service.MaintenanceService;
+import com.kna.service.PasswordService;
+import com.kna.service.QuestionActivityService;
+import com.kna.service.RecommendationService;
+import com.kna.service.SearchService;
+import com.kna.service.SessionStore;
 import com.kna.util.DatabaseManager;
+import com.kna.util.StartupTimer;
+import com.kna.util.ViewRegistry;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javafx.application.Application;
-import javafx.fxml.FXMLLoader;
-import javafx.scene.Parent;
+import javafx.application.Platform;
+import javafx.css.CssParser;
+import javafx.geometry.Pos;
 import javafx.scene.Scene;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressIndicator;
 import javafx.scene.image.Image;
+import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
+import javafx.stage.StageStyle;
 
 /**
  * Main entry point for the KnA application
  */
 public class Main extends Application {
 
+    // Possible first views; preloaded while the database and session are checked
+    private static final String[] START_VIEWS = {"/fxml/Login.fxml", "/fxml/Dashboard.fxml"};
+    // Views used on most navigation paths; preloaded in the background after the start views
+    private static final String[] PRELOADED_VIEWS = {
+        "/fxml/QuestionDetail.fxml", "/fxml/Profile.fxml", "/fxml/Leaderboard.fxml"
+    };
+
+    // Exit once the first window is shown: the training run of the cds profile in pom.xml
+    private static final boolean EXIT_WHEN_READY = Boolean.getBoolean("kna.startup.exitWhenReady");
+
     private static Stage primaryStage;
+    private static ViewRegistry.View currentView;
+    private final StartupTimer timer = new StartupTimer();
+    private final AtomicInteger startupThreads = new AtomicInteger();
 
     @Override
     public void start(Stage stage) {
-        try {
-            primaryStage = stage;
-            
-            // Initialize database and create tables if needed
+        primaryStage = stage;
+        Stage splash = showSplash();
+        timer.mark("splash shown");
+        
+        // Independent phases run in parallel; only the start view waits for the session check
+        ExecutorService startupPool = Executors.newFixedThreadPool(2, r -> {
+            Thread thread = new Thread(r, "kna-startup-" + startupThreads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        ViewRegistry views = ViewRegistry.getInstance();
+        
+        long viewsStart = System.nanoTime();
+        views.preload(START_VIEWS).thenCompose(v -> views.preload(PRELOADED_VIEWS))
+            .thenRun(() -> timer.record("view preload", viewsStart));
+        
+        CompletableFuture<Image> icon = CompletableFuture.supplyAsync(
+            () -> timer.time("resources", this::loadResources), startupPool);
+        
+        CompletableFuture<Void> database = CompletableFuture.runAsync(
+            () -> timer.time("database", this::initializeBackend), startupPool);
+        
+        // Skip the login screen when a remembered session is still valid (never in a training run,
+        // which would forget the remembered token since its database does not know it)
+        CompletableFuture<Boolean> resumed = database.thenApplyAsync(v -> !EXIT_WHEN_READY
+            && timer.time("session", () -> new AuthService().resumeRememberedSession() != null), startupPool);
+        
+        CompletableFuture<String> startView = resumed
+            .exceptionally(e -> {
+                System.err.println("Failed to restore session: " + e.getMessage());
+                return false;
+            })
+            .thenCompose(loggedIn -> {
+                String path = loggedIn ? "/fxml/Dashboard.fxml" : "/fxml/Login.fxml";
+                return views.preload(path).thenApply(v -> path);
+            });
+        
+        startView.thenAcceptBoth(icon.exceptionally(e -> null), (path, image) -> Platform.runLater(() -> {
+            startupPool.shutdown();
+            showMainWindow(path, image, splash);
+        }));
+    }
+
+    /**
+     * Small undecorated window shown while the application initializes.
+     * Styled inline so it does not wait for the stylesheet.
+     */
+    private Stage showSplash() {
+        Label title = new Label("KnA");
+        title.setStyle("-fx-font-size: 36px; -fx-font-weight: bold; -fx-text-fill: #1877F2;");
+        Label subtitle = new Label("Knowledge and Answers");
+        subtitle.setStyle("-fx-font-size: 14px; -fx-text-fill: #65676B;");
+        ProgressIndicator progress = new ProgressIndicator();
+        progress.setPrefSize(32, 32);
+        
+        VBox content = new VBox(12, title, subtitle, progress);
+        content.setAlignment(Pos.CENTER);
+        content.setStyle("-fx-background-color: white; -fx-border-color: #DADDE1; -fx-border-width: 1;");
+        
+        Stage splash = new Stage(StageStyle.UNDECORATED);
+        splash.setScene(new Scene(content, 360, 220));
+        splash.show();
+        return splash;
+    }
+
+    /**
+     * Open the database and create or upgrade tables (the server owns them in remote mode)
+     */
+    private Void initializeBackend() {
+        if (RemoteClient.isEnabled()) {
+            System.out.println("Remote backend: " + RemoteClient.getInstance().getBaseUrl());
+        } else {
             DatabaseManager.getInstance().initializeDatabase();
+            // Behind the splash, before anything else holds the database
+            MaintenanceService.getInstance().convertToIncrementalVacuum();
+            SessionStore.getInstance().startSweeper();
+            PasswordService.getInstance().startMigration();
+            SearchService.getInstance().startIndexing();
+            DuplicateService.getInstance().startIndexing();
+            HotScoreService.getInstance().startScoring();
+            RecommendationService.getInstance().startRecommending();
+            QuestionActivityService.getInstance().startRepair();
+            BackupService.getInstance().startBackups();
+            MaintenanceService.getInstance().startMaintenance();
+            ArchiveService.getInstance().startArchiving();
+        }
+        return null;
+    }
+
+    /**
+     * Load the window icon and parse the stylesheet once, so the CSS parser classes are
+     * loaded and the file is read before the first scene applies it
+     */
+    private Image loadResources() {
+        URL stylesheet = getClass().getResource("/css/application.css");
+        try {
+            if (stylesheet != null) {
+                new CssParser().parse(stylesheet);
+            }
+        } catch (IOException e) {
+            System.err.println("Could not read stylesheet: " + e.getMessage());
+        }
+        
+        try {
+            return new Image(getClass().getResourceAsStream("/images/icon.png"));
+        } catch (Exception iconError) {
+            System.err.println("Could not load application icon: " + iconError.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Replace the splash with the start view (on the FX thread)
+     */
+    private void showMainWindow(String startView, Image icon, Stage splash) {
+        try {
+            ViewRegistry views = ViewRegistry.getInstance();
+            long sceneStart = System.nanoTime();
+            currentView = views.getView(startView);
+            Scene scene = views.sceneFor(currentView);
+            boolean loggedIn = startView.endsWith("Dashboard.fxml");
             
-            // Load login screen
-            Parent root = FXMLLoader.load(getClass().getResource("/fxml/Login.fxml"));
-            Scene scene = new Scene(root);
-            
-            // Load CSS
-            scene.getStylesheets().add(getClass().getResource("/css/application.css").toExternalForm());
-            
-            stage.setTitle("KnA - Knowledge and Answers");
-            stage.setScene(scene);
-            stage.setMinWidth(1000);
-            stage.setMinHeight(700);
-            
-            // Set application icon
-            try {
-                stage.getIcons().add(new Image(getClass().getResourceAsStream("/images/icon.png")));
-            } catch (Exception iconError) {
-                System.err.println("Could not load application icon: " + iconError.getMessage());
+            primaryStage.setTitle(loggedIn ? "KnA - Dashboard" : "KnA - Knowledge and Answers");
+            primaryStage.setScene(scene);
+            primaryStage.setMinWidth(1000);
+            primaryStage.setMinHeight(700);
+            if (icon != null) {
+                primaryStage.getIcons().add(icon);
             }
             
-            stage.show();
+            primaryStage.show();
+            splash.close();
+            views.shown(currentView);
+            timer.record("first scene", sceneStart);
+            timer.mark("window shown");
+            System.out.println(timer.report());
             
+            if (EXIT_WHEN_READY) {
+                Platform.runLater(Platform::exit);
+            }
         } catch (Exception e) {
             e.printStackTrace();
             System.err.println("Failed to start application: " + e.getMessage());
+            splash.close();
         }
     }
 
@@ -59,17 +212,12 @@ public class Main extends Application {
     }
 
     /**
-     * Switch to a different scene
+     * Switch to a different scene. Warm views (see ViewRegistry) are reused with their scene;
+     * the others are loaded fresh.
      */
     public static void switchScene(String fxmlPath, String title) {
         try {
-            // Normalize the path - ensure it starts with /fxml/
-            String normalizedPath = fxmlPath;
-            if (!fxmlPath.startsWith("/")) {
-                normalizedPath = "/fxml/" + fxmlPath;
-            } else if (!fxmlPath.startsWith("/fxml/")) {
-                normalizedPath = "/fxml" + fxmlPath;
-            }
+            ViewRegistry views = ViewRegistry.getInstance();
             
             // Save current window state BEFORE changing scene
             boolean wasMaximized = primaryStage.isMaximized();
@@ -79,9 +227,9 @@ public class Main extends Application {
             double currentX = primaryStage.getX();
             double currentY = primaryStage.getY();
             
-            Parent root = FXMLLoader.load(Main.class.getResource(normalizedPath));
-            Scene scene = new Scene(root);
-            scene.getStylesheets().add(Main.class.getResource("/css/application.css").toExternalForm());
+            views.hidden(currentView);
+            ViewRegistry.View view = views.getView(fxmlPath);
+            Scene scene = views.sceneFor(view);
             
             // Temporarily disable maximized/fullscreen to set scene properly
             if (wasMaximized || wasFullScreen) {
@@ -91,12 +239,14 @@ public class Main extends Application {
             
             primaryStage.setScene(scene);
             primaryStage.setTitle(title);
+            currentView = view;
+            views.shown(view);
             
             // Immediately restore window state
             if (wasMaximized) {
-                javafx.application.Platform.runLater(() -> primaryStage.setMaximized(true));
+                Platform.runLater(() -> primaryStage.setMaximized(true));
             } else if (wasFullScreen) {
-                javafx.application.Platform.runLater(() -> primaryStage.setFullScreen(true));
+                Platform.runLater(() -> primaryStage.setFullScreen(true));
             } else {
                 // Only restore dimensions if not maximized or fullscreen
                 primaryStage.setWidth(currentWidth);
@@ -113,6 +263,7 @@ public class Main extends Application {
     @Override
     public void stop() {
         // Close database connection
+        SessionStore.getInstance().stopSweeper();
         DatabaseManager.getInstance().closeConnection();
     }
 
@@ -0,0 +1,37 @@
+package com.kna;
+
+import com.kna.server.ApiServer;
+
+/**
+ * Headless entry point: serves the KnA services as a JSON HTTP API so several
+ * desktop clients can share one database.
+ *
+ * Usage: java -cp ... com.kna.Server [--host 0.0.0.0] [--port 8080]
+ */
+public class Server {
+    public static void main(String[] args) {
+        String host = System.getProperty("kna.server.host", "0.0.0.0");
+        int port = Integer.getInteger("kna.server.port", 8080);
+
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--host") && i + 1 < args.length) {
+                host = args[++i];
+            } else if (args[i].equals("--port") && i + 1 < args.length) {
+                port = Integer.parseInt(args[++i]);
+            } else {
+                System.err.println("Usage: com.kna.Server [--host HOST] [--port PORT]");
+                System.exit(1);
+            }
+        }
+
+        try {
+            ApiServer server = new ApiServer(host, port);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> server.stop(2)));
+            server.start();
+        } catch (Exception e) {
+            e.printStackTrace();
+            System.err.println("Failed to start server: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
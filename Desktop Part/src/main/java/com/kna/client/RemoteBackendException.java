@@ -0,0 +1,32 @@
+package com.kna.client;
+
+import java.sql.SQLException;
+
+/**
+ * RemoteBackendException - A failed call to the KnA server.
+ * Extends SQLException so remote failures travel the same paths as local database errors
+ * in the services and controllers.
+ */
+public class RemoteBackendException extends SQLException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int status;
+
+    public RemoteBackendException(int status, String message) {
+        super(message);
+        this.status = status;
+    }
+
+    public RemoteBackendException(String message, Throwable cause) {
+        super(message, cause);
+        this.status = 0;
+    }
+
+    /**
+     * HTTP status of the response, or 0 when the server could not be reached
+     */
+    public int getStatus() {
+        return status;
+    }
+}
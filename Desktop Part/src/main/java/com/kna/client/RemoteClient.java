@@ -0,0 +1,124 @@
+package com.kna.client;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.kna.util.JsonUtil;
+import com.kna.util.SessionManager;
+
+/**
+ * RemoteClient - HTTP client for the KnA server (remote-backend mode).
+ * Enabled by starting the desktop app with -Dkna.server=http://host:port (or KNA_SERVER);
+ * the services then delegate to the server instead of the local database.
+ */
+public class RemoteClient {
+
+    private static final RemoteClient instance = create();
+
+    private final String baseUrl;
+    private final HttpClient httpClient;
+
+    private RemoteClient(String baseUrl) {
+        this.baseUrl = baseUrl.replaceAll("/+$", "");
+        this.httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    }
+
+    private static RemoteClient create() {
+        String server = System.getProperty("kna.server", System.getenv("KNA_SERVER"));
+        return server != null && !server.isBlank() ? new RemoteClient(server.trim()) : null;
+    }
+
+    /**
+     * Get the client, or null when the app runs against the local database
+     */
+    public static RemoteClient getInstance() {
+        return instance;
+    }
+
+    /**
+     * Check whether remote-backend mode is on
+     */
+    public static boolean isEnabled() {
+        return instance != null;
+    }
+
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    public <T> T get(String path, Type type) throws RemoteBackendException {
+        return send(HttpRequest.newBuilder(uri(path)).GET(), type);
+    }
+
+    public <T> T post(String path, Object body, Type type) throws RemoteBackendException {
+        String json = body != null ? JsonUtil.toJson(body) : "{}";
+        return send(HttpRequest.newBuilder(uri(path))
+            .header("Content-Type", "application/json; charset=utf-8")
+            .POST(HttpRequest.BodyPublishers.ofString(json, StandardCharsets.UTF_8)), type);
+    }
+
+    public void delete(String path) throws RemoteBackendException {
+        send(HttpRequest.newBuilder(uri(path)).DELETE(), null);
+    }
+
+    /**
+     * URL-encode a query parameter value
+     */
+    public static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    private URI uri(String path) {
+        return URI.create(baseUrl + path);
+    }
+
+    private <T> T send(HttpRequest.Builder builder, Type type) throws RemoteBackendException {
+        String token = SessionManager.getInstance().getSessionToken();
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        builder.timeout(Duration.ofSeconds(30));
+
+        HttpResponse<String> response;
+        try {
+            response = httpClient.send(builder.build(), HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new RemoteBackendException("Cannot reach server at " + baseUrl + ": " + e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RemoteBackendException("Request to server interrupted", e);
+        }
+
+        if (response.statusCode() >= 400) {
+            throw new RemoteBackendException(response.statusCode(), errorMessage(response));
+        }
+        return type != null ? JsonUtil.fromJson(response.body(), type) : null;
+    }
+
+    private static String errorMessage(HttpResponse<String> response) {
+        try {
+            JsonElement element = JsonParser.parseString(response.body());
+            if (element.isJsonObject()) {
+                JsonObject object = element.getAsJsonObject();
+                if (object.has("error") && !object.get("error").isJsonNull()) {
+                    return object.get("error").getAsString();
+                }
+            }
+        } catch (RuntimeException e) {
+            // Not a JSON error body; fall through to the status line
+        }
+        return "Server error (HTTP " + response.statusCode() + ")";
+    }
+}
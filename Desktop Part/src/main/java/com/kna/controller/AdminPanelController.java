@@ -1,26 +1,44 @@
 package com.kna.controller;
 
+import java.io.IOException;
 import java.sql.SQLException;
 import java.sql.Timestamp;
-import java.util.List;
+import java.time.format.DateTimeFormatter;
 
 import com.kna.Main;
 import com.kna.dao.QuestionDAO;
 import com.kna.dao.UserDAO;
+import com.kna.model.AdminStats;
 import com.kna.model.Question;
 import com.kna.model.User;
+import com.kna.service.AuthService;
+import com.kna.service.BackupService;
+import com.kna.service.StatsService;
+import com.kna.util.PagedTableLoader;
+import com.kna.util.QueryMetrics;
 import com.kna.util.SessionManager;
 import com.kna.util.ToastNotification;
 
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
+import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
+import javafx.scene.control.ButtonType;
 import javafx.scene.control.Label;
+import javafx.scene.control.Tab;
+import javafx.scene.control.TabPane;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
 import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.control.TableCell;
+import javafx.scene.control.TextArea;
+import javafx.scene.control.TextField;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyCodeCombination;
+import javafx.scene.input.KeyCombination;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.VBox;
 import javafx.util.Callback;
 import javafx.geometry.Pos;
 
@@ -30,6 +48,13 @@ import javafx.geometry.Pos;
  */
 public class AdminPanelController {
     
+    private static final KeyCombination TOGGLE_QUERY_STATS =
+        new KeyCodeCombination(KeyCode.Q, KeyCombination.SHORTCUT_DOWN, KeyCombination.SHIFT_DOWN);
+    private static final DateTimeFormatter BACKUP_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+    
+    @FXML private VBox adminRoot;
+    @FXML private TabPane adminTabPane;
+    
     // Users Tab Stats
     @FXML private Label totalUsersLabel;
     @FXML private Label totalAdminsLabel;
@@ -46,6 +71,7 @@ public class AdminPanelController {
     @FXML private Label resolvedReportsLabel;
     
     // Users Table
+    @FXML private TextField userFilterField;
     @FXML private TableView<User> usersTable;
     @FXML private TableColumn<User, Integer> userIdCol;
     @FXML private TableColumn<User, String> userUsernameCol;
@@ -56,6 +82,7 @@ public class AdminPanelController {
     @FXML private TableColumn<User, Void> userActionsCol;
     
     // Questions Table
+    @FXML private TextField questionFilterField;
     @FXML private TableView<Question> questionsTable;
     @FXML private TableColumn<Question, Integer> questionIdCol;
     @FXML private TableColumn<Question, String> questionTitleCol;
@@ -74,9 +101,34 @@ public class AdminPanelController {
     @FXML private TableColumn<?, Timestamp> reportDateCol;
     @FXML private TableColumn<?, Void> reportActionsCol;
     
+    // Backups Tab
+    @FXML private Label backupStatusLabel;
+    @FXML private Button backupNowButton;
+    @FXML private Button restoreBackupButton;
+    @FXML private TableView<BackupService.Snapshot> backupsTable;
+    @FXML private TableColumn<BackupService.Snapshot, String> backupNameCol;
+    @FXML private TableColumn<BackupService.Snapshot, String> backupCreatedCol;
+    @FXML private TableColumn<BackupService.Snapshot, String> backupSizeCol;
+    
+    // Query Metrics Tab (hidden)
+    @FXML private Tab queryStatsTab;
+    @FXML private Label queryStatsSummaryLabel;
+    @FXML private TableView<QueryMetrics.StatementStats> queryStatsTable;
+    @FXML private TableColumn<QueryMetrics.StatementStats, Long> queryCallsCol;
+    @FXML private TableColumn<QueryMetrics.StatementStats, String> queryRateCol;
+    @FXML private TableColumn<QueryMetrics.StatementStats, String> queryMeanCol;
+    @FXML private TableColumn<QueryMetrics.StatementStats, String> queryP95Col;
+    @FXML private TableColumn<QueryMetrics.StatementStats, String> queryP99Col;
+    @FXML private TableColumn<QueryMetrics.StatementStats, String> queryMaxCol;
+    @FXML private TableColumn<QueryMetrics.StatementStats, Long> queryRowsCol;
+    @FXML private TableColumn<QueryMetrics.StatementStats, String> querySqlCol;
+    @FXML private TextArea slowQueryLogArea;
+    
     private UserDAO userDAO;
     private QuestionDAO questionDAO;
     private User currentUser;
+    private PagedTableLoader<User> usersLoader;
+    private PagedTableLoader<Question> questionsLoader;
     
     /**
      * Initialize the controller.
@@ -94,9 +146,38 @@ public class AdminPanelController {
         }
         
         initializeTables();
+        initializeQueryStatsTab();
         loadStats();
         loadAllUsers();
         loadAllQuestions();
+        loadBackups();
+    }
+    
+    /**
+     * Page the users and questions tables from the database as they scroll;
+     * sorting and filtering run as queries (newest first by default).
+     */
+    private void initializePaging() {
+        if (usersTable != null) {
+            usersLoader = new PagedTableLoader<>(usersTable, userDAO::getUsersPage, "id", false)
+                .sortBy(userIdCol, "id")
+                .sortBy(userUsernameCol, "name")
+                .sortBy(userEmailCol, "email")
+                .sortBy(userCoinsCol, "coins")
+                .sortBy(userReputationCol, "reputation")
+                .sortBy(userRoleCol, "role")
+                .filterBy(userFilterField)
+                .onError(this::showError);
+        }
+        if (questionsTable != null) {
+            questionsLoader = new PagedTableLoader<>(questionsTable, questionDAO::getQuestionsPage, "id", false)
+                .sortBy(questionIdCol, "id")
+                .sortBy(questionCategoryCol, "category")
+                .sortBy(questionRewardCol, "reward")
+                .sortBy(questionUrgentCol, "urgent")
+                .filterBy(questionFilterField)
+                .onError(this::showError);
+        }
     }
     
     /**
@@ -115,19 +196,27 @@ public class AdminPanelController {
             );
         }
         
-        // Add Reset Password button to actions column
+        // Add Reset Password and Deactivate buttons to actions column
         if (userActionsCol != null) {
             Callback<TableColumn<User, Void>, TableCell<User, Void>> cellFactory = new Callback<>() {
                 @Override
                 public TableCell<User, Void> call(final TableColumn<User, Void> param) {
                     final TableCell<User, Void> cell = new TableCell<>() {
                         private final Button resetBtn = new Button("Reset Password");
+                        private final Button deactivateBtn = new Button("Deactivate");
+                        private final HBox buttons = new HBox(5, resetBtn, deactivateBtn);
                         {
                             resetBtn.getStyleClass().add("warning-button");
                             resetBtn.setOnAction(event -> {
                                 User user = getTableView().getItems().get(getIndex());
                                 resetPassword(user);
                             });
+                            deactivateBtn.getStyleClass().add("danger-button");
+                            deactivateBtn.setOnAction(event -> {
+                                User user = getTableView().getItems().get(getIndex());
+                                deactivateUser(user);
+                            });
+                            buttons.setAlignment(Pos.CENTER);
                         }
                         
                         @Override
@@ -136,7 +225,10 @@ public class AdminPanelController {
                             if (empty) {
                                 setGraphic(null);
                             } else {
-                                setGraphic(resetBtn);
+                                User user = getTableView().getItems().get(getIndex());
+                                deactivateBtn.setDisable(user == null || !user.isActive()
+                                    || user.getUserId() == currentUser.getUserId());
+                                setGraphic(buttons);
                                 setAlignment(Pos.CENTER);
                             }
                         }
@@ -154,42 +246,114 @@ public class AdminPanelController {
         if (questionRewardCol != null) questionRewardCol.setCellValueFactory(new PropertyValueFactory<>("coinReward"));
         if (questionUrgentCol != null) questionUrgentCol.setCellValueFactory(new PropertyValueFactory<>("urgent"));
         if (questionAskerCol != null) questionAskerCol.setCellValueFactory(new PropertyValueFactory<>("userName"));
+        
+        // Backups table
+        if (backupNameCol != null) backupNameCol.setCellValueFactory(new PropertyValueFactory<>("name"));
+        if (backupCreatedCol != null) {
+            backupCreatedCol.setCellValueFactory(cellData ->
+                new javafx.beans.property.SimpleStringProperty(cellData.getValue().getCreatedAt().format(BACKUP_TIME)));
+        }
+        if (backupSizeCol != null) {
+            backupSizeCol.setCellValueFactory(cellData ->
+                new javafx.beans.property.SimpleStringProperty(String.format("%.1f MB", cellData.getValue().getSizeBytes() / 1048576.0)));
+        }
+        
+        initializePaging();
+    }
+    
+    /**
+     * Set up the hidden query metrics tab, shown and hidden with Ctrl+Shift+Q.
+     */
+    private void initializeQueryStatsTab() {
+        if (adminTabPane == null || queryStatsTab == null) return;
+        
+        adminTabPane.getTabs().remove(queryStatsTab);
+        
+        if (queryCallsCol != null) queryCallsCol.setCellValueFactory(new PropertyValueFactory<>("calls"));
+        if (queryRateCol != null) queryRateCol.setCellValueFactory(cellData -> formatMetric(cellData.getValue().getCallsPerSecond()));
+        if (queryMeanCol != null) queryMeanCol.setCellValueFactory(cellData -> formatMetric(cellData.getValue().getMeanMillis()));
+        if (queryP95Col != null) queryP95Col.setCellValueFactory(cellData -> formatMetric(cellData.getValue().getP95Millis()));
+        if (queryP99Col != null) queryP99Col.setCellValueFactory(cellData -> formatMetric(cellData.getValue().getP99Millis()));
+        if (queryMaxCol != null) queryMaxCol.setCellValueFactory(cellData -> formatMetric(cellData.getValue().getMaxMillis()));
+        if (queryRowsCol != null) queryRowsCol.setCellValueFactory(new PropertyValueFactory<>("rows"));
+        if (querySqlCol != null) querySqlCol.setCellValueFactory(new PropertyValueFactory<>("sql"));
+        
+        if (adminRoot != null) {
+            adminRoot.addEventFilter(javafx.scene.input.KeyEvent.KEY_PRESSED, event -> {
+                if (TOGGLE_QUERY_STATS.match(event)) {
+                    toggleQueryStatsTab();
+                    event.consume();
+                }
+            });
+        }
+    }
+    
+    /**
+     * Show or hide the query metrics tab.
+     */
+    private void toggleQueryStatsTab() {
+        if (adminTabPane.getTabs().contains(queryStatsTab)) {
+            adminTabPane.getTabs().remove(queryStatsTab);
+        } else {
+            adminTabPane.getTabs().add(queryStatsTab);
+            adminTabPane.getSelectionModel().select(queryStatsTab);
+            refreshQueryStats();
+        }
+    }
+    
+    /**
+     * Reload query metrics and the slow query log.
+     */
+    @FXML
+    private void refreshQueryStats() {
+        QueryMetrics metrics = QueryMetrics.getInstance();
+        if (queryStatsTable != null) {
+            queryStatsTable.setItems(FXCollections.observableArrayList(metrics.getStatements()));
+        }
+        if (queryStatsSummaryLabel != null) {
+            queryStatsSummaryLabel.setText(String.format("%d calls, %d slow (> %d ms), statement cache %d hits / %d misses",
+                metrics.getTotalCalls(), metrics.getSlowQueryCount(), metrics.getSlowQueryThresholdMillis(),
+                metrics.getStatementCacheHits(), metrics.getStatementCacheMisses()));
+        }
+        if (slowQueryLogArea != null) {
+            slowQueryLogArea.setText(String.join("\n", metrics.getSlowQueries()));
+        }
+    }
+    
+    /**
+     * Clear all collected query metrics.
+     */
+    @FXML
+    private void resetQueryStats() {
+        QueryMetrics.getInstance().reset();
+        refreshQueryStats();
+    }
+    
+    private static javafx.beans.property.SimpleStringProperty formatMetric(double value) {
+        return new javafx.beans.property.SimpleStringProperty(String.format("%.2f", value));
     }
     
     /**
-     * Load all statistics.
+     * Load all statistics (aggregated in the database and cached until the data changes).
      */
     private void loadStats() {
         try {
-            List<User> allUsers = userDAO.getAllUsers();
-            List<Question> allQuestions = questionDAO.getAllQuestions(null, null, null, 1000, 0);
+            AdminStats stats = StatsService.getInstance().getAdminStats();
             
             // Users stats
-            if (totalUsersLabel != null) totalUsersLabel.setText(String.valueOf(allUsers.size()));
-            if (totalAdminsLabel != null) {
-                long adminCount = allUsers.stream().filter(User::isAdmin).count();
-                totalAdminsLabel.setText(String.valueOf(adminCount));
-            }
-            if (activeUsersLabel != null) {
-                long activeUsers = allUsers.stream().filter(User::isActive).count();
-                activeUsersLabel.setText(String.valueOf(activeUsers));
-            }
+            if (totalUsersLabel != null) totalUsersLabel.setText(String.valueOf(stats.getTotalUsers()));
+            if (totalAdminsLabel != null) totalAdminsLabel.setText(String.valueOf(stats.getAdminUsers()));
+            if (activeUsersLabel != null) activeUsersLabel.setText(String.valueOf(stats.getActiveUsers()));
             
             // Questions stats
-            if (totalQuestionsLabel != null) totalQuestionsLabel.setText(String.valueOf(allQuestions.size()));
-            if (answeredQuestionsLabel != null) {
-                long answeredCount = allQuestions.stream().filter(Question::isAnswered).count();
-                answeredQuestionsLabel.setText(String.valueOf(answeredCount));
-            }
-            if (urgentQuestionsLabel != null) {
-                long urgentCount = allQuestions.stream().filter(Question::isUrgent).count();
-                urgentQuestionsLabel.setText(String.valueOf(urgentCount));
-            }
+            if (totalQuestionsLabel != null) totalQuestionsLabel.setText(String.valueOf(stats.getTotalQuestions()));
+            if (answeredQuestionsLabel != null) answeredQuestionsLabel.setText(String.valueOf(stats.getAnsweredQuestions()));
+            if (urgentQuestionsLabel != null) urgentQuestionsLabel.setText(String.valueOf(stats.getUrgentQuestions()));
             
-            // Reports stats (placeholder - set to 0)
-            if (totalReportsLabel != null) totalReportsLabel.setText("0");
-            if (pendingReportsLabel != null) pendingReportsLabel.setText("0");
-            if (resolvedReportsLabel != null) resolvedReportsLabel.setText("0");
+            // Reports stats
+            if (totalReportsLabel != null) totalReportsLabel.setText(String.valueOf(stats.getTotalReports()));
+            if (pendingReportsLabel != null) pendingReportsLabel.setText(String.valueOf(stats.getPendingReports()));
+            if (resolvedReportsLabel != null) resolvedReportsLabel.setText(String.valueOf(stats.getResolvedReports()));
             
         } catch (SQLException e) {
             e.printStackTrace();
@@ -208,16 +372,14 @@ public class AdminPanelController {
     }
     
     /**
-     * Load all users into table.
+     * Load users into the table from the first page.
      */
     private void loadAllUsers() {
-        try {
-            List<User> users = userDAO.getAllUsers();
-            ObservableList<User> userList = FXCollections.observableArrayList(users);
-            if (usersTable != null) usersTable.setItems(userList);
-        } catch (SQLException e) {
-            e.printStackTrace();
-            showError("Failed to load users.");
+        if (usersLoader == null) return;
+        if (usersTable.getRowFactory() == null) {
+            usersLoader.install();
+        } else {
+            usersLoader.reload();
         }
     }
     
@@ -237,6 +399,29 @@ public class AdminPanelController {
         }
     }
     
+    /**
+     * Deactivate a user after confirmation; their sessions are revoked so they are logged out.
+     */
+    private void deactivateUser(User user) {
+        if (user == null) return;
+        
+        Alert confirmDialog = new Alert(Alert.AlertType.CONFIRMATION);
+        confirmDialog.setTitle("Deactivate User");
+        confirmDialog.setHeaderText("Deactivate " + user.getName() + "?");
+        confirmDialog.setContentText("They will be logged out everywhere and can no longer log in.");
+        if (confirmDialog.showAndWait().orElse(ButtonType.CANCEL) != ButtonType.OK) return;
+        
+        try {
+            new AuthService().deactivateUser(user.getUserId());
+            showSuccess("Deactivated user: " + user.getName());
+            loadAllUsers();
+            loadStats();
+        } catch (Exception e) {
+            e.printStackTrace();
+            showError("Failed to deactivate user: " + e.getMessage());
+        }
+    }
+    
     /**
      * Refresh questions data.
      */
@@ -248,16 +433,14 @@ public class AdminPanelController {
     }
     
     /**
-     * Load all questions into table.
+     * Load questions into the table from the first page.
      */
     private void loadAllQuestions() {
-        try {
-            List<Question> questions = questionDAO.getAllQuestions(null, null, null, 1000, 0);
-            ObservableList<Question> questionList = FXCollections.observableArrayList(questions);
-            if (questionsTable != null) questionsTable.setItems(questionList);
-        } catch (SQLException e) {
-            e.printStackTrace();
-            showError("Failed to load questions.");
+        if (questionsLoader == null) return;
+        if (questionsTable.getRowFactory() == null) {
+            questionsLoader.install();
+        } else {
+            questionsLoader.reload();
         }
     }
     
@@ -269,6 +452,82 @@ public class AdminPanelController {
         showInfo("Reports feature coming soon!");
     }
     
+    /**
+     * Reload the list of database snapshots.
+     */
+    @FXML
+    private void refreshBackups() {
+        loadBackups();
+    }
+    
+    private void loadBackups() {
+        if (backupsTable == null) return;
+        try {
+            backupsTable.setItems(FXCollections.observableArrayList(BackupService.getInstance().getSnapshots()));
+        } catch (IOException e) {
+            e.printStackTrace();
+            showError("Failed to list backups.");
+        }
+    }
+    
+    /**
+     * Take a snapshot of the database in the background.
+     */
+    @FXML
+    private void backupNow() {
+        setBackupRunning("Backing up...");
+        BackupService.getInstance().backupNow().whenComplete((snapshot, error) -> Platform.runLater(() -> {
+            setBackupRunning(null);
+            if (error != null) {
+                error.printStackTrace();
+                showError("Backup failed: " + error.getMessage());
+            } else {
+                showSuccess("Database backed up to " + snapshot.getName());
+                loadBackups();
+            }
+        }));
+    }
+    
+    /**
+     * Replace the database with the selected snapshot after confirmation.
+     */
+    @FXML
+    private void restoreBackup() {
+        BackupService.Snapshot snapshot = backupsTable.getSelectionModel().getSelectedItem();
+        if (snapshot == null) {
+            showInfo("Select a backup to restore.");
+            return;
+        }
+        
+        Alert confirmDialog = new Alert(Alert.AlertType.CONFIRMATION);
+        confirmDialog.setTitle("Restore Backup");
+        confirmDialog.setHeaderText("Restore the database from " + snapshot.getName() + "?");
+        confirmDialog.setContentText("Everything changed since " + snapshot.getCreatedAt().format(BACKUP_TIME)
+            + " will be replaced. The current database is backed up first.");
+        if (confirmDialog.showAndWait().orElse(ButtonType.CANCEL) != ButtonType.OK) return;
+        
+        setBackupRunning("Restoring...");
+        BackupService.getInstance().restore(snapshot).whenComplete((result, error) -> Platform.runLater(() -> {
+            setBackupRunning(null);
+            if (error != null) {
+                error.printStackTrace();
+                showError("Restore failed: " + error.getMessage());
+            } else {
+                showSuccess("Database restored from " + snapshot.getName() + ". Restart the app to refresh search and recommendations.");
+                loadBackups();
+                loadStats();
+                loadAllUsers();
+                loadAllQuestions();
+            }
+        }));
+    }
+    
+    private void setBackupRunning(String status) {
+        if (backupStatusLabel != null) backupStatusLabel.setText(status != null ? status : "");
+        if (backupNowButton != null) backupNowButton.setDisable(status != null);
+        if (restoreBackupButton != null) restoreBackupButton.setDisable(status != null);
+    }
+    
     /**
      * Navigate back to dashboard.
      */
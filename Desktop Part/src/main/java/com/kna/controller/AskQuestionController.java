@@ -1,22 +1,36 @@
 package com.kna.controller;
 
+import java.util.List;
+import java.util.Optional;
+
 import com.kna.Main;
 import com.kna.model.Question;
+import com.kna.model.SimilarQuestion;
 import com.kna.model.User;
 import com.kna.service.QuestionService;
+import com.kna.util.DebouncedLookup;
 import com.kna.util.SessionManager;
 import com.kna.util.ToastNotification;
+import com.kna.util.ViewRegistry;
 
 import javafx.fxml.FXML;
+import javafx.scene.Cursor;
+import javafx.scene.control.Alert;
+import javafx.scene.control.ButtonType;
 import javafx.scene.control.CheckBox;
 import javafx.scene.control.ComboBox;
 import javafx.scene.control.Label;
 import javafx.scene.control.TextArea;
 import javafx.scene.control.TextField;
+import javafx.scene.layout.StackPane;
+import javafx.scene.layout.VBox;
+import javafx.util.Duration;
 
 /**
  * Controller for the Ask Question page.
  * Allows users to post new questions with optional images and urgent mode.
+ * Similar existing questions are listed while the user types, and posting a near-exact
+ * duplicate asks for confirmation first.
  */
 public class AskQuestionController {
     
@@ -25,6 +39,7 @@ public class AskQuestionController {
     
     // Form Fields
     @FXML private TextField titleField;
+    @FXML private VBox similarQuestionsBox;
     @FXML private TextArea descriptionArea;
     @FXML private ComboBox<String> categoryComboBox;
     @FXML private CheckBox urgentCheckbox;
@@ -39,6 +54,13 @@ public class AskQuestionController {
     private QuestionService questionService;
     private User currentUser;
     private int currentReward = 5;
+    private DebouncedLookup<List<String>, List<SimilarQuestion>> similarLookup;
+    
+    // Wait for a pause in typing before looking for similar questions
+    private static final Duration SIMILAR_DEBOUNCE = Duration.millis(400);
+    private static final int SIMILAR_MIN_TITLE_LENGTH = 10;
+    // Posting a question at least this similar to an existing one needs confirmation
+    private static final double DUPLICATE_SIMILARITY = 0.8;
     
     /**
      * Initialize the controller.
@@ -65,6 +87,13 @@ public class AskQuestionController {
             });
         }
         
+        // Look for similar questions as the title and description are typed
+        similarLookup = new DebouncedLookup<>(SIMILAR_DEBOUNCE,
+            text -> questionService.findSimilarQuestions(text.get(0), text.get(1)),
+            this::showSimilarQuestions);
+        titleField.textProperty().addListener((obs, oldVal, newVal) -> requestSimilarQuestions());
+        descriptionArea.textProperty().addListener((obs, oldVal, newVal) -> requestSimilarQuestions());
+        
         // Setup urgent checkbox listener
         if (urgentCheckbox != null) {
             urgentCheckbox.selectedProperty().addListener((obs, oldVal, newVal) -> {
@@ -154,6 +183,10 @@ public class AskQuestionController {
             return;
         }
         
+        if (!confirmNotDuplicate(title, description)) {
+            return;
+        }
+        
         try {
             // Post question using QuestionService
             Question question = questionService.askQuestion(
@@ -182,6 +215,114 @@ public class AskQuestionController {
         }
     }
     
+    /**
+     * Look up similar questions for the current title and description after a pause in typing.
+     */
+    private void requestSimilarQuestions() {
+        String title = titleField.getText() != null ? titleField.getText().trim() : "";
+        String description = descriptionArea.getText() != null ? descriptionArea.getText().trim() : "";
+        if (title.length() < SIMILAR_MIN_TITLE_LENGTH) {
+            similarLookup.cancel();
+            showSimilarQuestions(List.of());
+        } else {
+            similarLookup.request(List.of(title, description));
+        }
+    }
+    
+    /**
+     * List similar questions under the title field; each opens the question when clicked.
+     */
+    private void showSimilarQuestions(List<SimilarQuestion> similar) {
+        if (similarQuestionsBox == null) {
+            return;
+        }
+        similarQuestionsBox.getChildren().clear();
+        boolean found = !similar.isEmpty();
+        similarQuestionsBox.setVisible(found);
+        similarQuestionsBox.setManaged(found);
+        if (!found) {
+            return;
+        }
+        
+        Label header = new Label("🔎 Similar questions have already been asked:");
+        header.getStyleClass().add("warning-text");
+        similarQuestionsBox.getChildren().add(header);
+        for (SimilarQuestion question : similar) {
+            Label link = new Label(question.getTitle() + "  ·  " + Math.round(question.getSimilarity() * 100) + "% similar"
+                + (question.isAnswered() ? "  ·  ✅ Answered" : ""));
+            link.getStyleClass().add("warning-subtext");
+            link.setWrapText(true);
+            link.setCursor(Cursor.HAND);
+            link.setOnMouseClicked(e -> viewQuestion(question.getQuestionId()));
+            similarQuestionsBox.getChildren().add(link);
+        }
+    }
+    
+    /**
+     * Ask for confirmation when the question is almost identical to an existing one.
+     */
+    private boolean confirmNotDuplicate(String title, String description) {
+        SimilarQuestion closest;
+        try {
+            List<SimilarQuestion> similar = questionService.findSimilarQuestions(title, description);
+            if (similar.isEmpty() || similar.get(0).getSimilarity() < DUPLICATE_SIMILARITY) {
+                return true;
+            }
+            closest = similar.get(0);
+        } catch (Exception e) {
+            // Not being able to check is no reason to stop the user from asking
+            System.err.println("Duplicate check failed: " + e.getMessage());
+            return true;
+        }
+        
+        Alert confirmDialog = new Alert(Alert.AlertType.CONFIRMATION);
+        confirmDialog.setTitle("Possible Duplicate");
+        confirmDialog.setHeaderText("A very similar question has already been asked");
+        confirmDialog.setContentText("\"" + closest.getTitle() + "\" (" +
+            Math.round(closest.getSimilarity() * 100) + "% similar" +
+            (closest.isAnswered() ? ", already answered" : "") + ")\n\n" +
+            "Post your question anyway?");
+        
+        Optional<ButtonType> result = confirmDialog.showAndWait();
+        return result.isPresent() && result.get() == ButtonType.OK;
+    }
+    
+    /**
+     * Open an existing question, inside the Dashboard when the form is shown there.
+     */
+    private void viewQuestion(int questionId) {
+        try {
+            similarLookup.cancel();
+            SessionManager.getInstance().setAttribute("viewQuestionId", questionId);
+            StackPane dashboardContentArea = findDashboardContentArea();
+            if (dashboardContentArea != null) {
+                ViewRegistry views = ViewRegistry.getInstance();
+                ViewRegistry.View questionView = views.getView("/fxml/QuestionDetail.fxml");
+                dashboardContentArea.getChildren().setAll(views.rootFor(questionView));
+                views.shown(questionView);
+            } else {
+                Main.switchScene("/fxml/QuestionDetail.fxml", "KnA - Question Details");
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+            showError("Failed to open question.");
+        }
+    }
+    
+    /**
+     * Find the Dashboard's content area by traversing up the scene graph.
+     */
+    private StackPane findDashboardContentArea() {
+        javafx.scene.Node node = titleField;
+        while (node != null) {
+            if (node instanceof StackPane && "contentArea".equals(node.getId())) {
+                return (StackPane) node;
+            }
+            node = node.getParent();
+        }
+        return null;
+    }
+    
     /**
      * Show error in the form error label.
      */
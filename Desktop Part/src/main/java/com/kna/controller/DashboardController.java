@@ -1,22 +1,28 @@
 package com.kna.controller;
 
+import java.io.IOException;
 import java.sql.SQLException;
 import java.util.List;
 
 import com.kna.Main;
-import com.kna.dao.NotificationDAO;
+import com.kna.dao.QuestionDAO;
 import com.kna.model.Question;
+import com.kna.model.SearchSuggestion;
 import com.kna.model.User;
 import com.kna.service.AuthService;
+import com.kna.service.NotificationService;
 import com.kna.service.QuestionService;
+import com.kna.service.RecommendationService;
+import com.kna.service.SearchService;
 import com.kna.util.SessionManager;
+import com.kna.util.SuggestionPopup;
 import com.kna.util.ToastNotification;
+import com.kna.util.ViewLifecycle;
+import com.kna.util.ViewRegistry;
 
 import javafx.application.Platform;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
 import javafx.geometry.Insets;
-import javafx.scene.Parent;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
 import javafx.scene.control.ButtonType;
@@ -30,9 +36,15 @@ import javafx.scene.layout.StackPane;
 import javafx.scene.layout.VBox;
 
 /**
- * DashboardController - Main dashboard controller
+ * DashboardController - Main dashboard controller (kept warm by the ViewRegistry)
  */
-public class DashboardController {
+public class DashboardController implements ViewLifecycle {
+    
+    private static final int RECOMMENDATIONS_SHOWN = 5;
+    
+    // Feed orders offered by the sort selector
+    private static final String SORT_NEWEST = "Newest";
+    private static final String SORT_HOT = "Hot";
     
     @FXML private TextField searchField;
     @FXML private Label coinLabel;
@@ -43,9 +55,13 @@ public class DashboardController {
     @FXML private StackPane contentArea;
     @FXML private ScrollPane homeScrollPane;
     @FXML private ComboBox<String> categoryFilter;
+    @FXML private ComboBox<String> sortFilter;
+    @FXML private Label feedTitleLabel;
     @FXML private CheckBox urgentOnlyCheckbox;
     @FXML private CheckBox unansweredOnlyCheckbox;
     @FXML private VBox questionFeedContainer;
+    @FXML private VBox recommendationsCard;
+    @FXML private VBox recommendationsContainer;
     
     // Dashboard stat labels
     @FXML private Label totalQuestionsLabel;
@@ -55,49 +71,88 @@ public class DashboardController {
     
     private final AuthService authService;
     private final QuestionService questionService;
-    private final NotificationDAO notificationDAO;
+    private final NotificationService notificationService;
     private User currentUser;
+    private ViewRegistry.View contentView;
+    private Thread notificationThread;
+    private SuggestionPopup<SearchSuggestion> searchSuggestions;
 
     public DashboardController() {
         this.authService = new AuthService();
         this.questionService = new QuestionService();
-        this.notificationDAO = new NotificationDAO();
+        this.notificationService = new NotificationService();
     }
 
     @FXML
     private void initialize() {
-        currentUser = SessionManager.getInstance().getCurrentUser();
-        
-        if (currentUser == null) {
-            ToastNotification.showError("Please login first");
-            Main.switchScene("/fxml/Login.fxml", "KnA - Login");
-            return;
-        }
-        
         // Populate category filter
         categoryFilter.getItems().addAll(
             "All", "CSE", "EEE", "ECE", "MTE", "CE", "ME", "IEM", "TE", "Arch", "URP", 
             "BME", "MSE", "LE", "ESE", "BECM", "ChE", "MATH", "HUM", "PHY", "CHEM", "General"
         );
         
-        // Update UI with user info
-        updateUserInfo();
-        
-        // Load question feed
-        loadQuestionFeed();
-        
         // Set default filter
         categoryFilter.setValue("All");
         
+        sortFilter.getItems().addAll(SORT_NEWEST, SORT_HOT);
+        sortFilter.setValue(SORT_NEWEST);
+    }
+
+    @Override
+    public void onShow() {
+        currentUser = SessionManager.getInstance().getCurrentUser();
+        
+        if (currentUser == null) {
+            ToastNotification.showError("Please login first");
+            Platform.runLater(() -> Main.switchScene("/fxml/Login.fxml", "KnA - Login"));
+            return;
+        }
+        
         // Show admin panel button if user is admin
-        if (currentUser.isAdmin()) {
-            adminPanelButton.setVisible(true);
+        adminPanelButton.setVisible(currentUser.isAdmin());
+        
+        // Created here rather than in initialize(), which may run off the FX thread during preloading
+        if (searchSuggestions == null) {
+            searchSuggestions = new SuggestionPopup<>(searchField, SearchService.getInstance()::suggest,
+                this::describeSuggestion, this::openSuggestion);
+            searchSuggestions.install();
         }
         
+        // Update UI with user info and load question feed
+        showHome();
+        
         // Start notification checker
         startNotificationChecker();
     }
 
+    @Override
+    public void onHide() {
+        if (searchSuggestions != null) {
+            searchSuggestions.hide();
+        }
+        stopNotificationChecker();
+        hideContentView();
+    }
+
+    /**
+     * Show a view in the content area
+     */
+    private void showContent(String fxmlPath) throws IOException {
+        ViewRegistry views = ViewRegistry.getInstance();
+        hideContentView();
+        ViewRegistry.View view = views.getView(fxmlPath);
+        contentArea.getChildren().setAll(views.rootFor(view));
+        contentView = view;
+        views.shown(view);
+    }
+
+    private void hideContentView() {
+        if (contentView != null) {
+            ViewRegistry.getInstance().hidden(contentView);
+            contentView = null;
+        }
+    }
+
     private void updateUserInfo() {
         coinLabel.setText(String.valueOf(currentUser.getCoins()));
         // Admin users don't have reputation points
@@ -110,7 +165,7 @@ public class DashboardController {
 
     private void updateNotificationBadge() {
         try {
-            int unreadCount = notificationDAO.getUnreadCount(currentUser.getUserId());
+            int unreadCount = notificationService.getUnreadCount();
             if (unreadCount > 0) {
                 notificationBadge.setText(String.valueOf(unreadCount));
                 notificationBadge.setVisible(true);
@@ -123,8 +178,10 @@ public class DashboardController {
     }
 
     private void startNotificationChecker() {
+        stopNotificationChecker();
+        
         // Check notifications every 30 seconds
-        Thread notificationThread = new Thread(() -> {
+        notificationThread = new Thread(() -> {
             while (true) {
                 try {
                     Thread.sleep(30000);
@@ -138,6 +195,13 @@ public class DashboardController {
         notificationThread.start();
     }
 
+    private void stopNotificationChecker() {
+        if (notificationThread != null) {
+            notificationThread.interrupt();
+            notificationThread = null;
+        }
+    }
+
     @FXML
     private void loadQuestionFeed() {
         questionFeedContainer.getChildren().clear();
@@ -146,11 +210,14 @@ public class DashboardController {
             String category = categoryFilter.getValue();
             boolean urgentOnly = urgentOnlyCheckbox.isSelected();
             boolean unansweredOnly = unansweredOnlyCheckbox.isSelected();
+            boolean hot = SORT_HOT.equals(sortFilter.getValue());
+            feedTitleLabel.setText(hot ? "🔥 Hot Questions" : "📚 Recent Questions");
 
             List<Question> questions = questionService.getQuestions(
                 category,
                 urgentOnly ? true : null,
                 unansweredOnly ? true : null,
+                hot ? QuestionDAO.SORT_HOT : QuestionDAO.SORT_NEWEST,
                 50,
                 0
             );
@@ -176,6 +243,47 @@ public class DashboardController {
         }
     }
     
+    /**
+     * Unanswered questions the user is likely to be able to answer, above the feed (not for admins)
+     */
+    private void loadRecommendations() {
+        recommendationsContainer.getChildren().clear();
+        List<Question> questions = List.of();
+        if (!currentUser.isAdmin()) {
+            try {
+                questions = RecommendationService.getInstance()
+                    .getRecommendations(currentUser.getUserId(), RECOMMENDATIONS_SHOWN);
+            } catch (Exception e) {
+                System.err.println("Failed to load recommendations: " + e.getMessage());
+                e.printStackTrace();
+            }
+        }
+        
+        for (Question question : questions) {
+            HBox row = new HBox(10);
+            row.setAlignment(javafx.geometry.Pos.CENTER_LEFT);
+            row.setCursor(javafx.scene.Cursor.HAND);
+            
+            Label categoryBadge = new Label(question.getCategory());
+            categoryBadge.getStyleClass().add("badge");
+            Label titleLabel = new Label(question.getTitle());
+            titleLabel.setStyle("-fx-font-weight: bold;");
+            Label coinLabel = new Label("💰 " + question.getCoinReward());
+            coinLabel.setStyle("-fx-text-fill: #E65100;");
+            row.getChildren().addAll(categoryBadge, titleLabel, coinLabel);
+            if (question.isUrgent()) {
+                Label urgentBadge = new Label("URGENT");
+                urgentBadge.getStyleClass().addAll("badge", "badge-urgent");
+                row.getChildren().add(urgentBadge);
+            }
+            
+            row.setOnMouseClicked(event -> viewQuestionDetails(question.getQuestionId()));
+            recommendationsContainer.getChildren().add(row);
+        }
+        recommendationsCard.setVisible(!questions.isEmpty());
+        recommendationsCard.setManaged(!questions.isEmpty());
+    }
+    
     private void updateDashboardStats(List<Question> questions) {
         if (totalQuestionsLabel != null) {
             int total = questions.size();
@@ -235,10 +343,14 @@ public class DashboardController {
             metaBox.getChildren().add(answeredBadge);
         }
         
+        Label answerCount = new Label("💬 " + question.getAnswerCount()
+            + (question.getAnswerCount() == 1 ? " answer" : " answers"));
+        answerCount.setStyle("-fx-text-fill: #757575; -fx-font-size: 12px;");
+        
         Label askedBy = new Label("Asked by: " + question.getUserName());
         askedBy.setStyle("-fx-text-fill: #757575; -fx-font-size: 12px;");
         
-        metaBox.getChildren().addAll(categoryBadge, coinBadge, askedBy);
+        metaBox.getChildren().addAll(categoryBadge, coinBadge, answerCount, askedBy);
         
         card.getChildren().addAll(titleLabel, descLabel, metaBox);
         
@@ -250,14 +362,9 @@ public class DashboardController {
 
     private void viewQuestionDetails(int questionId) {
         try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/QuestionDetail.fxml"));
-            Parent questionView = loader.load();
-            
-            QuestionDetailController controller = loader.getController();
-            controller.loadQuestion(questionId);
-            
-            contentArea.getChildren().clear();
-            contentArea.getChildren().add(questionView);
+            // QuestionDetailController picks the question up when shown
+            SessionManager.getInstance().setAttribute("viewQuestionId", questionId);
+            showContent("/fxml/QuestionDetail.fxml");
             
         } catch (Exception e) {
             ToastNotification.showError("Failed to load question: " + e.getMessage());
@@ -267,18 +374,47 @@ public class DashboardController {
 
     @FXML
     private void applyFilters() {
-        loadQuestionFeed();
+        // Also fired when initialize() sets the default filter, before anyone is logged in
+        if (currentUser != null) {
+            loadQuestionFeed();
+        }
     }
 
     @FXML
     private void refreshFeed() {
         loadQuestionFeed();
+        loadRecommendations();
         updateUserInfo();
         ToastNotification.showInfo("Feed refreshed");
     }
 
+    private String describeSuggestion(SearchSuggestion suggestion) {
+        String icon = switch (suggestion.getType()) {
+            case QUESTION -> "❓ ";
+            case USER -> "👤 ";
+            case CATEGORY -> "📚 ";
+        };
+        String detail = suggestion.getDetail() != null ? "  ·  " + suggestion.getDetail() : "";
+        return icon + suggestion.getText() + detail;
+    }
+
+    /**
+     * Questions open directly; users and categories run a full search for their name
+     */
+    private void openSuggestion(SearchSuggestion suggestion) {
+        if (suggestion.getType() == SearchSuggestion.Type.QUESTION) {
+            viewQuestionDetails(suggestion.getId());
+        } else {
+            searchField.setText(suggestion.getText());
+            handleSearch();
+        }
+    }
+
     @FXML
     private void handleSearch() {
+        if (searchSuggestions != null) {
+            searchSuggestions.hide();
+        }
         String searchTerm = searchField.getText();
         if (searchTerm == null || searchTerm.trim().isEmpty()) {
             ToastNotification.showWarning("Please enter a search query");
@@ -297,10 +433,7 @@ public class DashboardController {
     @FXML
     private void handleNotifications() {
         try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/Notifications.fxml"));
-            Parent notificationView = loader.load();
-            contentArea.getChildren().clear();
-            contentArea.getChildren().add(notificationView);
+            showContent("/fxml/Notifications.fxml");
         } catch (Exception e) {
             ToastNotification.showError("Failed to load notifications");
             e.printStackTrace();
@@ -310,10 +443,7 @@ public class DashboardController {
     @FXML
     private void handleProfile() {
         try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/Profile.fxml"));
-            Parent profileView = loader.load();
-            contentArea.getChildren().clear();
-            contentArea.getChildren().add(profileView);
+            showContent("/fxml/Profile.fxml");
         } catch (Exception e) {
             ToastNotification.showError("Failed to load profile");
             e.printStackTrace();
@@ -323,9 +453,10 @@ public class DashboardController {
     @FXML
     private void showHome() {
         // Show the home view without reloading the entire scene
-        contentArea.getChildren().clear();
-        contentArea.getChildren().add(homeScrollPane);
+        hideContentView();
+        contentArea.getChildren().setAll(homeScrollPane);
         loadQuestionFeed();
+        loadRecommendations();
         updateUserInfo();
     }
 
@@ -339,16 +470,18 @@ public class DashboardController {
                 return;
             }
             
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/AskQuestion.fxml"));
-            Parent askView = loader.load();
+            ViewRegistry views = ViewRegistry.getInstance();
+            hideContentView();
+            ViewRegistry.View askView = views.getView("/fxml/AskQuestion.fxml");
             
             // Wrap in ScrollPane for proper scrolling
-            ScrollPane scrollPane = new ScrollPane(askView);
+            ScrollPane scrollPane = new ScrollPane(views.rootFor(askView));
             scrollPane.setFitToWidth(true);
             scrollPane.setStyle("-fx-background-color: transparent;");
             
-            contentArea.getChildren().clear();
-            contentArea.getChildren().add(scrollPane);
+            contentArea.getChildren().setAll(scrollPane);
+            contentView = askView;
+            views.shown(askView);
         } catch (Exception e) {
             ToastNotification.showError("Failed to load ask question form");
             e.printStackTrace();
@@ -358,12 +491,8 @@ public class DashboardController {
     @FXML
     private void showMyQuestions() {
         try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/MyQuestions.fxml"));
-            Parent myQuestionsView = loader.load();
-            
             // MyQuestions already has its own ScrollPane, so just add it directly
-            contentArea.getChildren().clear();
-            contentArea.getChildren().add(myQuestionsView);
+            showContent("/fxml/MyQuestions.fxml");
         } catch (Exception e) {
             ToastNotification.showError("Failed to load your questions");
             e.printStackTrace();
@@ -373,12 +502,8 @@ public class DashboardController {
     @FXML
     private void showMyAnswers() {
         try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/MyAnswers.fxml"));
-            Parent myAnswersView = loader.load();
-            
             // MyAnswers already has its own ScrollPane, so just add it directly
-            contentArea.getChildren().clear();
-            contentArea.getChildren().add(myAnswersView);
+            showContent("/fxml/MyAnswers.fxml");
         } catch (Exception e) {
             ToastNotification.showError("Failed to load your answers");
             e.printStackTrace();
@@ -388,12 +513,8 @@ public class DashboardController {
     @FXML
     private void showLeaderboard() {
         try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/Leaderboard.fxml"));
-            Parent leaderboardView = loader.load();
-            
             // Leaderboard already has its own structure, add directly
-            contentArea.getChildren().clear();
-            contentArea.getChildren().add(leaderboardView);
+            showContent("/fxml/Leaderboard.fxml");
         } catch (Exception e) {
             ToastNotification.showError("Failed to load leaderboard");
             e.printStackTrace();
@@ -403,12 +524,8 @@ public class DashboardController {
     @FXML
     private void showCoinPurchase() {
         try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/CoinPurchase.fxml"));
-            Parent coinPurchaseView = loader.load();
-            
             // CoinPurchase already has ScrollPane, add directly
-            contentArea.getChildren().clear();
-            contentArea.getChildren().add(coinPurchaseView);
+            showContent("/fxml/CoinPurchase.fxml");
         } catch (Exception e) {
             ToastNotification.showError("Failed to load coin purchase");
             e.printStackTrace();
@@ -423,12 +540,8 @@ public class DashboardController {
         }
         
         try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/AdminPanel.fxml"));
-            Parent adminView = loader.load();
-            
             // AdminPanel already has its own structure, add directly
-            contentArea.getChildren().clear();
-            contentArea.getChildren().add(adminView);
+            showContent("/fxml/AdminPanel.fxml");
         } catch (Exception e) {
             ToastNotification.showError("Failed to load admin panel");
             e.printStackTrace();
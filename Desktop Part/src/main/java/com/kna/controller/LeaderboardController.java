@@ -8,7 +8,9 @@ import com.kna.dao.UserDAO;
 import com.kna.model.User;
 import com.kna.util.SessionManager;
 import com.kna.util.ToastNotification;
+import com.kna.util.ViewLifecycle;
 
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
@@ -21,8 +23,9 @@ import javafx.scene.layout.VBox;
 /**
  * Controller for the Leaderboard page.
  * Displays top users by reputation with weekly/monthly/all-time views.
+ * Kept warm by the ViewRegistry; rankings are reloaded every time the page is shown.
  */
-public class LeaderboardController {
+public class LeaderboardController implements ViewLifecycle {
     
     // Podium (Top 3) - Cards
     @FXML private VBox firstPlaceCard;
@@ -52,13 +55,20 @@ public class LeaderboardController {
     @FXML
     public void initialize() {
         userDAO = new UserDAO();
+    }
+    
+    /**
+     * Reload the rankings whenever the page is shown.
+     */
+    @Override
+    public void onShow() {
         currentUser = SessionManager.getInstance().getCurrentUser();
         
         if (currentUser != null) {
             loadLeaderboard();
         } else {
             showError("Session expired. Please login again.");
-            goToLogin();
+            Platform.runLater(this::goToLogin);
         }
     }
     
@@ -66,6 +76,7 @@ public class LeaderboardController {
      * Load and display leaderboard data.
      */
     private void loadLeaderboard() {
+        leaderboardList.getChildren().clear();
         try {
             List<User> topUsers = userDAO.getTopUsersByReputation(50); // Get top 50
             
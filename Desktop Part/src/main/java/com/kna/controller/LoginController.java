@@ -5,8 +5,10 @@ import com.kna.model.User;
 import com.kna.service.AuthService;
 import com.kna.util.ToastNotification;
 
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.scene.control.Button;
+import javafx.scene.control.CheckBox;
 import javafx.scene.control.Label;
 import javafx.scene.control.PasswordField;
 import javafx.scene.control.RadioButton;
@@ -19,9 +21,11 @@ public class LoginController {
     @FXML private PasswordField passwordField;
     @FXML private TextField passwordTextField;
     @FXML private Button togglePasswordBtn;
+    @FXML private Button loginButton;
     @FXML private Label errorLabel;
     @FXML private RadioButton userRadioButton;
     @FXML private RadioButton adminRadioButton;
+    @FXML private CheckBox rememberMeCheckBox;
     
     private final AuthService authService;
     private boolean passwordVisible = false;
@@ -63,6 +67,10 @@ public class LoginController {
 
     @FXML
     private void handleLogin() {
+        if (loginButton.isDisabled()) {
+            // A login is already in progress (Enter pressed again)
+            return;
+        }
         String username = usernameField.getText();
         String password = passwordField.getText();
         
@@ -82,33 +90,52 @@ public class LoginController {
         
         // Determine selected login type
         boolean isAdminLogin = adminRadioButton.isSelected();
+        boolean rememberMe = rememberMeCheckBox.isSelected();
         
-        try {
-            // Attempt login
-            User user = authService.login(username, password);
-            
-            // Validate login type matches user role
-            if (isAdminLogin && !user.isAdmin()) {
-                // Admin login selected but user is not admin
-                showError("Invalid email or password");
-                return;
+        // Password verification takes ~100ms of CPU, so keep it off the FX thread
+        loginButton.setDisable(true);
+        Thread loginThread = new Thread(() -> {
+            try {
+                User user = authService.login(username, password, rememberMe);
+                Platform.runLater(() -> completeLogin(user, isAdminLogin, rememberMe));
+            } catch (Exception e) {
+                Platform.runLater(() -> {
+                    loginButton.setDisable(false);
+                    showError(e.getMessage());
+                });
             }
-            
-            if (!isAdminLogin && user.isAdmin()) {
-                // User login selected but account is admin
-                showError("Invalid email or password");
-                return;
-            }
-            
-            // Show success message
-            ToastNotification.showSuccess("Welcome back, " + user.getName() + "!");
-            
-            // Navigate to dashboard
-            Main.switchScene("/fxml/Dashboard.fxml", "KnA - Dashboard");
-            
-        } catch (Exception e) {
-            showError(e.getMessage());
+        }, "kna-login");
+        loginThread.setDaemon(true);
+        loginThread.start();
+    }
+
+    private void completeLogin(User user, boolean isAdminLogin, boolean rememberMe) {
+        loginButton.setDisable(false);
+        
+        // Validate login type matches user role
+        if (isAdminLogin && !user.isAdmin()) {
+            // Admin login selected but user is not admin
+            authService.logout();
+            showError("Invalid email or password");
+            return;
         }
+        
+        if (!isAdminLogin && user.isAdmin()) {
+            // User login selected but account is admin
+            authService.logout();
+            showError("Invalid email or password");
+            return;
+        }
+        
+        if (rememberMe) {
+            authService.rememberSession();
+        }
+        
+        // Show success message
+        ToastNotification.showSuccess("Welcome back, " + user.getName() + "!");
+        
+        // Navigate to dashboard
+        Main.switchScene("/fxml/Dashboard.fxml", "KnA - Dashboard");
     }
 
     @FXML
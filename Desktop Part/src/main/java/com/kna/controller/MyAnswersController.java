@@ -2,24 +2,24 @@ package com.kna.controller;
 
 import java.sql.SQLException;
 import java.time.format.DateTimeFormatter;
-import java.util.List;
 import java.util.Optional;
 
 import com.kna.Main;
 import com.kna.dao.AnswerDAO;
-import com.kna.dao.QuestionDAO;
+import com.kna.dao.Page;
+import com.kna.dao.PageRequest;
+import com.kna.dao.StatsDAO;
 import com.kna.model.Answer;
-import com.kna.model.Question;
 import com.kna.model.User;
+import com.kna.model.UserActivityStats;
 import com.kna.service.AnswerService;
 import com.kna.util.SessionManager;
 import com.kna.util.ToastNotification;
+import com.kna.util.ViewRegistry;
 
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
-import javafx.scene.Parent;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
 import javafx.scene.control.ButtonType;
@@ -32,10 +32,12 @@ import javafx.scene.layout.VBox;
 
 /**
  * Controller for My Answers page.
- * Displays all answers submitted by the current user.
+ * Displays the answers submitted by the current user, a page at a time.
  */
 public class MyAnswersController {
     
+    private static final int PAGE_SIZE = 20;
+    
     // Stats
     @FXML private Label totalAnswersLabel;
     @FXML private Label acceptedAnswersLabel;
@@ -49,11 +51,12 @@ public class MyAnswersController {
     @FXML private VBox answersContainer;
     
     private AnswerDAO answerDAO;
-    private QuestionDAO questionDAO;
+    private StatsDAO statsDAO;
     private AnswerService answerService;
     private User currentUser;
     private String currentFilter = "all";
-    private List<Answer> allAnswers;
+    private PageRequest nextPage;
+    private Button loadMoreButton;
     
     /**
      * Initialize the controller.
@@ -61,7 +64,7 @@ public class MyAnswersController {
     @FXML
     public void initialize() {
         answerDAO = new AnswerDAO();
-        questionDAO = new QuestionDAO();
+        statsDAO = new StatsDAO();
         answerService = new AnswerService();
         currentUser = SessionManager.getInstance().getCurrentUser();
         
@@ -71,6 +74,11 @@ public class MyAnswersController {
             filterComboBox.setValue("All");
         }
         
+        loadMoreButton = new Button("Load more");
+        loadMoreButton.getStyleClass().add("secondary-button");
+        loadMoreButton.setMaxWidth(Double.MAX_VALUE);
+        loadMoreButton.setOnAction(e -> loadMoreAnswers());
+        
         if (currentUser != null) {
             loadAnswers();
             loadStats();
@@ -94,16 +102,44 @@ public class MyAnswersController {
             default -> "all";
         };
         
-        displayAnswers(allAnswers);
+        loadAnswers();
     }
     
     /**
-     * Load user's answers from database.
+     * Load the first page of the user's answers for the current filter.
      */
     private void loadAnswers() {
+        answersContainer.getChildren().clear();
+        nextPage = PageRequest.first(null, false, null, PAGE_SIZE);
+        loadMoreAnswers();
+    }
+    
+    /**
+     * Append the next page of answers; the filter is applied by the query.
+     */
+    private void loadMoreAnswers() {
+        if (nextPage == null) return;
+        
         try {
-            allAnswers = answerDAO.getAnswersByUserId(currentUser.getId());
-            displayAnswers(allAnswers);
+            boolean firstPage = nextPage.isFirstPage();
+            Page<Answer> page = answerDAO.getAnswersByUserPage(currentUser.getId(), currentFilter, nextPage);
+            nextPage = page.nextRequest();
+            answersContainer.getChildren().remove(loadMoreButton);
+            
+            if (firstPage && page.getItems().isEmpty()) {
+                // Show empty message
+                Label emptyLabel = new Label("No answers found");
+                emptyLabel.getStyleClass().add("empty-message");
+                answersContainer.getChildren().add(emptyLabel);
+                return;
+            }
+            
+            for (Answer answer : page.getItems()) {
+                answersContainer.getChildren().add(createAnswerCard(answer));
+            }
+            if (page.hasNext()) {
+                answersContainer.getChildren().add(loadMoreButton);
+            }
         } catch (SQLException e) {
             e.printStackTrace();
             showError("Failed to load answers.");
@@ -111,49 +147,19 @@ public class MyAnswersController {
     }
     
     /**
-     * Load and display statistics.
+     * Load and display statistics (counted by the database, coins from the ledger).
      */
     private void loadStats() {
-        if (allAnswers == null) return;
-        
-        int total = allAnswers.size();
-        long accepted = allAnswers.stream().filter(Answer::isAccepted).count();
-        long pending = allAnswers.stream().filter(a -> !a.isAccepted()).count();
-        int coinsEarned = allAnswers.stream()
-            .filter(Answer::isAccepted)
-            .mapToInt(Answer::getCoinsAwarded)
-            .sum();
-        
-        if (totalAnswersLabel != null) totalAnswersLabel.setText(String.valueOf(total));
-        if (acceptedAnswersLabel != null) acceptedAnswersLabel.setText(String.valueOf(accepted));
-        if (pendingAnswersLabel != null) pendingAnswersLabel.setText(String.valueOf(pending));
-        if (totalCoinsEarnedLabel != null) totalCoinsEarnedLabel.setText(String.valueOf(coinsEarned));
-    }
-    
-    /**
-     * Display answers based on current filter.
-     */
-    private void displayAnswers(List<Answer> answers) {
-        answersContainer.getChildren().clear();
-        
-        // Apply filter
-        List<Answer> filteredAnswers = switch (currentFilter) {
-            case "accepted" -> answers.stream().filter(Answer::isAccepted).toList();
-            case "pending" -> answers.stream().filter(a -> !a.isAccepted()).toList();
-            default -> answers;
-        };
-        
-        if (filteredAnswers.isEmpty()) {
-            // Show empty message
-            Label emptyLabel = new Label("No answers found");
-            emptyLabel.getStyleClass().add("empty-message");
-            answersContainer.getChildren().add(emptyLabel);
-            return;
-        }
-        
-        for (Answer answer : filteredAnswers) {
-            VBox answerCard = createAnswerCard(answer);
-            answersContainer.getChildren().add(answerCard);
+        try {
+            UserActivityStats stats = statsDAO.getUserActivityStats(currentUser.getId());
+            
+            if (totalAnswersLabel != null) totalAnswersLabel.setText(String.valueOf(stats.getTotalAnswers()));
+            if (acceptedAnswersLabel != null) acceptedAnswersLabel.setText(String.valueOf(stats.getAcceptedAnswers()));
+            if (pendingAnswersLabel != null) pendingAnswersLabel.setText(String.valueOf(stats.getPendingAnswers()));
+            if (totalCoinsEarnedLabel != null) totalCoinsEarnedLabel.setText(String.valueOf(stats.getCoinsEarned()));
+        } catch (SQLException e) {
+            e.printStackTrace();
+            showError("Failed to load statistics.");
         }
     }
     
@@ -165,16 +171,9 @@ public class MyAnswersController {
         card.getStyleClass().add("answer-card");
         card.setPadding(new Insets(15, 20, 15, 20));
         
-        // Get question title
-        String questionTitle = "Loading...";
-        try {
-            Question question = questionDAO.findById(answer.getQuestionId());
-            if (question != null) {
-                questionTitle = question.getTitle();
-            }
-        } catch (SQLException e) {
-            questionTitle = "Question #" + answer.getQuestionId();
-        }
+        // Question title comes with the page query
+        String questionTitle = answer.getQuestionTitle() != null
+            ? answer.getQuestionTitle() : "Question #" + answer.getQuestionId();
         
         // Header Row: Question Title
         HBox headerRow = new HBox(10);
@@ -247,7 +246,11 @@ public class MyAnswersController {
         deleteBtn.getStyleClass().add("danger-button");
         deleteBtn.setOnAction(e -> deleteAnswer(answer));
         
-        actionRow.getChildren().addAll(viewBtn, deleteBtn);
+        actionRow.getChildren().add(viewBtn);
+        // Archived posts are read-only
+        if (!answer.isArchived()) {
+            actionRow.getChildren().add(deleteBtn);
+        }
         
         card.getChildren().addAll(headerRow, content, infoRow, actionRow);
         
@@ -276,15 +279,12 @@ public class MyAnswersController {
             StackPane dashboardContentArea = findDashboardContentArea();
             
             if (dashboardContentArea != null) {
-                // Load into Dashboard's content area
-                FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/QuestionDetail.fxml"));
-                Parent questionView = loader.load();
-                
-                QuestionDetailController controller = loader.getController();
-                controller.loadQuestion(questionId);
-                
-                dashboardContentArea.getChildren().clear();
-                dashboardContentArea.getChildren().add(questionView);
+                // Load into Dashboard's content area; the controller picks the question up when shown
+                SessionManager.getInstance().setAttribute("viewQuestionId", questionId);
+                ViewRegistry views = ViewRegistry.getInstance();
+                ViewRegistry.View questionView = views.getView("/fxml/QuestionDetail.fxml");
+                dashboardContentArea.getChildren().setAll(views.rootFor(questionView));
+                views.shown(questionView);
             } else {
                 // Fallback to switching scene
                 SessionManager.getInstance().setAttribute("viewQuestionId", questionId);
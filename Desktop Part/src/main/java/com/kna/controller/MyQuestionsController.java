@@ -2,22 +2,24 @@ package com.kna.controller;
 
 import java.sql.SQLException;
 import java.time.format.DateTimeFormatter;
-import java.util.List;
 import java.util.Optional;
 
 import com.kna.Main;
+import com.kna.dao.Page;
+import com.kna.dao.PageRequest;
 import com.kna.dao.QuestionDAO;
+import com.kna.dao.StatsDAO;
 import com.kna.model.Question;
 import com.kna.model.User;
+import com.kna.model.UserActivityStats;
 import com.kna.service.QuestionService;
 import com.kna.util.SessionManager;
 import com.kna.util.ToastNotification;
+import com.kna.util.ViewRegistry;
 
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
-import javafx.scene.Parent;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
 import javafx.scene.control.ButtonType;
@@ -30,10 +32,12 @@ import javafx.scene.layout.VBox;
 
 /**
  * Controller for My Questions page.
- * Displays all questions asked by the current user.
+ * Displays the questions asked by the current user, a page at a time.
  */
 public class MyQuestionsController {
     
+    private static final int PAGE_SIZE = 20;
+    
     // Stats
     @FXML private Label totalQuestionsLabel;
     @FXML private Label answeredQuestionsLabel;
@@ -47,10 +51,12 @@ public class MyQuestionsController {
     @FXML private VBox questionsContainer;
     
     private QuestionDAO questionDAO;
+    private StatsDAO statsDAO;
     private QuestionService questionService;
     private User currentUser;
     private String currentFilter = "all";
-    private List<Question> allQuestions;
+    private PageRequest nextPage;
+    private Button loadMoreButton;
     
     /**
      * Initialize the controller.
@@ -58,6 +64,7 @@ public class MyQuestionsController {
     @FXML
     public void initialize() {
         questionDAO = new QuestionDAO();
+        statsDAO = new StatsDAO();
         questionService = new QuestionService();
         currentUser = SessionManager.getInstance().getCurrentUser();
         
@@ -67,6 +74,11 @@ public class MyQuestionsController {
             filterComboBox.setValue("All");
         }
         
+        loadMoreButton = new Button("Load more");
+        loadMoreButton.getStyleClass().add("secondary-button");
+        loadMoreButton.setMaxWidth(Double.MAX_VALUE);
+        loadMoreButton.setOnAction(e -> loadMoreQuestions());
+        
         if (currentUser != null) {
             loadQuestions();
             loadStats();
@@ -91,16 +103,44 @@ public class MyQuestionsController {
             default -> "all";
         };
         
-        displayQuestions(allQuestions);
+        loadQuestions();
     }
     
     /**
-     * Load user's questions from database.
+     * Load the first page of the user's questions for the current filter.
      */
     private void loadQuestions() {
+        questionsContainer.getChildren().clear();
+        nextPage = PageRequest.first(null, false, null, PAGE_SIZE);
+        loadMoreQuestions();
+    }
+    
+    /**
+     * Append the next page of questions; the filter is applied by the query.
+     */
+    private void loadMoreQuestions() {
+        if (nextPage == null) return;
+        
         try {
-            allQuestions = questionDAO.getQuestionsByUserId(currentUser.getId());
-            displayQuestions(allQuestions);
+            boolean firstPage = nextPage.isFirstPage();
+            Page<Question> page = questionDAO.getQuestionsByUserPage(currentUser.getId(), currentFilter, nextPage);
+            nextPage = page.nextRequest();
+            questionsContainer.getChildren().remove(loadMoreButton);
+            
+            if (firstPage && page.getItems().isEmpty()) {
+                // Show empty message
+                Label emptyLabel = new Label("No questions found");
+                emptyLabel.getStyleClass().add("empty-message");
+                questionsContainer.getChildren().add(emptyLabel);
+                return;
+            }
+            
+            for (Question question : page.getItems()) {
+                questionsContainer.getChildren().add(createQuestionCard(question));
+            }
+            if (page.hasNext()) {
+                questionsContainer.getChildren().add(loadMoreButton);
+            }
         } catch (SQLException e) {
             e.printStackTrace();
             showError("Failed to load questions.");
@@ -108,49 +148,19 @@ public class MyQuestionsController {
     }
     
     /**
-     * Load and display statistics.
+     * Load and display statistics (counted by the database, coins from the ledger).
      */
     private void loadStats() {
-        if (allQuestions == null) return;
-        
-        int total = allQuestions.size();
-        long answered = allQuestions.stream().filter(Question::isAnswered).count();
-        long pending = allQuestions.stream().filter(q -> !q.isAnswered()).count();
-        int coinsSpent = allQuestions.stream()
-            .mapToInt(q -> q.isUrgent() ? 30 : 20)
-            .sum();
-        
-        if (totalQuestionsLabel != null) totalQuestionsLabel.setText(String.valueOf(total));
-        if (answeredQuestionsLabel != null) answeredQuestionsLabel.setText(String.valueOf(answered));
-        if (pendingQuestionsLabel != null) pendingQuestionsLabel.setText(String.valueOf(pending));
-        if (totalCoinsSpentLabel != null) totalCoinsSpentLabel.setText(String.valueOf(coinsSpent));
-    }
-    
-    /**
-     * Display questions based on current filter.
-     */
-    private void displayQuestions(List<Question> questions) {
-        questionsContainer.getChildren().clear();
-        
-        // Apply filter
-        List<Question> filteredQuestions = switch (currentFilter) {
-            case "answered" -> questions.stream().filter(Question::isAnswered).toList();
-            case "pending" -> questions.stream().filter(q -> !q.isAnswered()).toList();
-            case "urgent" -> questions.stream().filter(Question::isUrgent).toList();
-            default -> questions;
-        };
-        
-        if (filteredQuestions.isEmpty()) {
-            // Show empty message
-            Label emptyLabel = new Label("No questions found");
-            emptyLabel.getStyleClass().add("empty-message");
-            questionsContainer.getChildren().add(emptyLabel);
-            return;
-        }
-        
-        for (Question question : filteredQuestions) {
-            VBox questionCard = createQuestionCard(question);
-            questionsContainer.getChildren().add(questionCard);
+        try {
+            UserActivityStats stats = statsDAO.getUserActivityStats(currentUser.getId());
+            
+            if (totalQuestionsLabel != null) totalQuestionsLabel.setText(String.valueOf(stats.getTotalQuestions()));
+            if (answeredQuestionsLabel != null) answeredQuestionsLabel.setText(String.valueOf(stats.getAnsweredQuestions()));
+            if (pendingQuestionsLabel != null) pendingQuestionsLabel.setText(String.valueOf(stats.getPendingQuestions()));
+            if (totalCoinsSpentLabel != null) totalCoinsSpentLabel.setText(String.valueOf(stats.getCoinsSpent()));
+        } catch (SQLException e) {
+            e.printStackTrace();
+            showError("Failed to load statistics.");
         }
     }
     
@@ -211,7 +221,7 @@ public class MyQuestionsController {
         Label answerCount = new Label("💬 " + question.getAnswerCount() + " answers");
         answerCount.getStyleClass().add("question-meta");
         
-        Label cost = new Label("💰 " + (question.isUrgent() ? "30" : "20") + " coins");
+        Label cost = new Label("💰 " + question.getCoinReward() + " coins");
         cost.getStyleClass().add("question-meta");
         
         Label views = new Label("👁 " + question.getViews() + " views");
@@ -231,7 +241,11 @@ public class MyQuestionsController {
         deleteBtn.getStyleClass().add("danger-button");
         deleteBtn.setOnAction(e -> deleteQuestion(question));
         
-        actionRow.getChildren().addAll(viewBtn, deleteBtn);
+        actionRow.getChildren().add(viewBtn);
+        // Archived posts are read-only
+        if (!question.isArchived()) {
+            actionRow.getChildren().add(deleteBtn);
+        }
         
         card.getChildren().addAll(headerRow, infoRow, actionRow);
         
@@ -260,15 +274,12 @@ public class MyQuestionsController {
             StackPane dashboardContentArea = findDashboardContentArea();
             
             if (dashboardContentArea != null) {
-                // Load into Dashboard's content area
-                FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/QuestionDetail.fxml"));
-                Parent questionView = loader.load();
-                
-                QuestionDetailController controller = loader.getController();
-                controller.loadQuestion(question.getId());
-                
-                dashboardContentArea.getChildren().clear();
-                dashboardContentArea.getChildren().add(questionView);
+                // Load into Dashboard's content area; the controller picks the question up when shown
+                SessionManager.getInstance().setAttribute("viewQuestionId", question.getId());
+                ViewRegistry views = ViewRegistry.getInstance();
+                ViewRegistry.View questionView = views.getView("/fxml/QuestionDetail.fxml");
+                dashboardContentArea.getChildren().setAll(views.rootFor(questionView));
+                views.shown(questionView);
             } else {
                 // Fallback to switching scene
                 SessionManager.getInstance().setAttribute("viewQuestionId", question.getId());
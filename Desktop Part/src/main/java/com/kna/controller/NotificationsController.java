@@ -7,9 +7,9 @@ import java.time.temporal.ChronoUnit;
 import java.util.List;
 
 import com.kna.Main;
-import com.kna.dao.NotificationDAO;
 import com.kna.model.Notification;
 import com.kna.model.User;
+import com.kna.service.NotificationService;
 import com.kna.util.SessionManager;
 import com.kna.util.ToastNotification;
 
@@ -33,7 +33,7 @@ public class NotificationsController {
     @FXML private VBox notificationsContainer;
     @FXML private VBox emptyState;
     
-    private NotificationDAO notificationDAO;
+    private NotificationService notificationService;
     private User currentUser;
     private String currentFilter = "all";
     
@@ -42,7 +42,7 @@ public class NotificationsController {
      */
     @FXML
     public void initialize() {
-        notificationDAO = new NotificationDAO();
+        notificationService = new NotificationService();
         currentUser = SessionManager.getInstance().getCurrentUser();
         
         if (currentUser != null) {
@@ -62,16 +62,16 @@ public class NotificationsController {
             
             switch (currentFilter) {
                 case "unread":
-                    notifications = notificationDAO.getUnreadNotifications(currentUser.getId());
+                    notifications = notificationService.getUnreadNotifications();
                     break;
                 case "answers":
-                    notifications = notificationDAO.getNotificationsByType(currentUser.getId(), "new_answer");
+                    notifications = notificationService.getNotificationsByType("new_answer");
                     break;
                 case "coins":
-                    notifications = filterCoinNotifications(notificationDAO.getNotificationsByUserId(currentUser.getId()));
+                    notifications = filterCoinNotifications(notificationService.getNotifications());
                     break;
                 default:
-                    notifications = notificationDAO.getNotificationsByUserId(currentUser.getId());
+                    notifications = notificationService.getNotifications();
                     break;
             }
             
@@ -235,7 +235,7 @@ public class NotificationsController {
      */
     private void markAsRead(Notification notification) {
         try {
-            notificationDAO.markAsRead(notification.getId());
+            notificationService.markAsRead(notification.getId());
             notification.setRead(true);
             loadNotifications(); // Refresh list
         } catch (SQLException e) {
@@ -250,7 +250,7 @@ public class NotificationsController {
     @FXML
     private void markAllAsRead() {
         try {
-            notificationDAO.markAllAsRead(currentUser.getId());
+            notificationService.markAllAsRead();
             showSuccess("All notifications marked as read.");
             loadNotifications(); // Refresh list
         } catch (SQLException e) {
@@ -4,9 +4,12 @@ import com.kna.Main;
 import com.kna.dao.UserDAO;
 import com.kna.model.User;
 import com.kna.service.AuthService;
+import com.kna.service.SearchService;
 import com.kna.util.SessionManager;
 import com.kna.util.ToastNotification;
+import com.kna.util.ViewLifecycle;
 
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
@@ -16,8 +19,9 @@ import javafx.scene.control.TextField;
 /**
  * Controller for the user profile page.
  * Displays user information, statistics, and allows editing profile details and password.
+ * Kept warm by the ViewRegistry; the profile is reloaded every time the page is shown.
  */
-public class ProfileController {
+public class ProfileController implements ViewLifecycle {
     
     @FXML private Button backButton;
     
@@ -59,13 +63,25 @@ public class ProfileController {
     public void initialize() {
         userDAO = new UserDAO();
         authService = new AuthService();
+    }
+    
+    /**
+     * Reload the profile of the current user whenever the page is shown.
+     */
+    @Override
+    public void onShow() {
         currentUser = SessionManager.getInstance().getCurrentUser();
         
+        // Clear password fields left over from the previous visit
+        currentPasswordField.clear();
+        newPasswordField.clear();
+        confirmPasswordField.clear();
+        
         if (currentUser != null) {
             loadUserProfile();
         } else {
             showError("Session expired. Please login again.");
-            goToLogin();
+            Platform.runLater(this::goToLogin);
         }
     }
     
@@ -100,9 +116,7 @@ public class ProfileController {
         // Set role badge
         if (roleBadge != null) {
             roleBadge.setText(currentUser.isAdmin() ? "ADMIN" : "USER");
-            if (currentUser.isAdmin()) {
-                roleBadge.setStyle("-fx-background-color: #f44336;");
-            }
+            roleBadge.setStyle(currentUser.isAdmin() ? "-fx-background-color: #f44336;" : "");
         }
         
         // Display statistics
@@ -157,12 +171,16 @@ public class ProfileController {
         }
         
         // Update user object
+        String oldName = currentUser.getName();
         currentUser.setName(name);
         currentUser.setEmail(email);
         
         // Save to database
         try {
             userDAO.updateUser(currentUser);
+            if (!name.equals(oldName)) {
+                SearchService.getInstance().userRenamed(currentUser.getUserId(), oldName, name);
+            }
             SessionManager.getInstance().setCurrentUser(currentUser);
             showSuccess("Profile updated successfully!");
             loadUserProfile(); // Refresh display
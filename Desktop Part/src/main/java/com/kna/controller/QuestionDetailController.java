@@ -12,6 +12,7 @@ import com.kna.service.AnswerService;
 import com.kna.service.QuestionService;
 import com.kna.util.SessionManager;
 import com.kna.util.ToastNotification;
+import com.kna.util.ViewLifecycle;
 
 import javafx.fxml.FXML;
 import javafx.geometry.Insets;
@@ -30,9 +31,14 @@ import javafx.scene.layout.Region;
 import javafx.scene.layout.VBox;
 
 /**
- * QuestionDetailController - Displays question details and answers
+ * QuestionDetailController - Displays question details and answers (kept warm by the ViewRegistry)
  */
-public class QuestionDetailController {
+public class QuestionDetailController implements ViewLifecycle {
+
+    // Answers fetched per "Load more"; popular questions only load the bodies that get shown
+    private static final int ANSWER_PAGE_SIZE = 20;
+    // The server returns at most this many answers per request
+    private static final int MAX_ANSWERS_PER_LOAD = 100;
     
     // Question Card
     @FXML private Label questionTitleLabel;
@@ -61,6 +67,9 @@ public class QuestionDetailController {
     private final AnswerService answerService;
     private Question currentQuestion;
     private User currentUser;
+    private int shownAnswers;
+    private int answerTotal;
+    private Button loadMoreAnswersButton;
 
     public QuestionDetailController() {
         this.questionService = new QuestionService();
@@ -69,13 +78,27 @@ public class QuestionDetailController {
 
     @FXML
     private void initialize() {
+        loadMoreAnswersButton = new Button("Load more answers");
+        loadMoreAnswersButton.getStyleClass().add("secondary-button");
+        loadMoreAnswersButton.setMaxWidth(Double.MAX_VALUE);
+        loadMoreAnswersButton.setOnAction(e -> loadMoreAnswers());
+    }
+
+    @Override
+    public void onShow() {
         currentUser = SessionManager.getInstance().getCurrentUser();
         
-        // Try to load question from session
+        // Clear what the previous visit left in the answer form
+        if (answerTextArea != null) answerTextArea.clear();
+        if (answerErrorLabel != null) answerErrorLabel.setText("");
+        
+        // Try to load question from session, otherwise refresh the one shown last
         Integer questionId = (Integer) SessionManager.getInstance().getAttribute("viewQuestionId");
         if (questionId != null) {
             loadQuestion(questionId);
             SessionManager.getInstance().removeAttribute("viewQuestionId");
+        } else if (currentQuestion != null) {
+            loadQuestion(currentQuestion.getQuestionId());
         }
     }
 
@@ -88,6 +111,8 @@ public class QuestionDetailController {
                 return;
             }
             
+            shownAnswers = 0;
+            answerTotal = currentQuestion.getAnswerCount();
             displayQuestion();
             loadAnswers();
             
@@ -103,11 +128,9 @@ public class QuestionDetailController {
         if (rewardLabel != null) rewardLabel.setText(String.valueOf(currentQuestion.getCoinReward()));
         if (questionDescriptionLabel != null) questionDescriptionLabel.setText(currentQuestion.getDescription());
         
-        if (currentQuestion.isUrgent()) {
-            if (urgentBadge != null) {
-                urgentBadge.setVisible(true);
-                urgentBadge.setManaged(true);
-            }
+        if (urgentBadge != null) {
+            urgentBadge.setVisible(currentQuestion.isUrgent());
+            urgentBadge.setManaged(currentQuestion.isUrgent());
         }
         
         if (askerLabel != null) askerLabel.setText(currentQuestion.getUserName());
@@ -115,6 +138,8 @@ public class QuestionDetailController {
         if (currentQuestion.getCreatedAt() != null && dateLabel != null) {
             DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MMM dd, yyyy HH:mm");
             dateLabel.setText(currentQuestion.getCreatedAt().toLocalDateTime().format(formatter));
+        } else if (dateLabel != null) {
+            dateLabel.setText("");
         }
         
         if (answerCountLabel != null) {
@@ -123,27 +148,51 @@ public class QuestionDetailController {
         
         // Show answer form if not question owner
         if (answerFormContainer != null && currentUser != null) {
-            boolean canAnswer = currentUser.getUserId() != currentQuestion.getUserId();
+            boolean canAnswer = currentUser.getUserId() != currentQuestion.getUserId() && !currentQuestion.isArchived();
             answerFormContainer.setVisible(canAnswer);
             answerFormContainer.setManaged(canAnswer);
         }
         
         // Show delete button for question owner or admin
         if (deleteQuestionBtn != null && currentUser != null) {
-            boolean canDelete = currentUser.isAdmin() || currentUser.getUserId() == currentQuestion.getUserId();
+            boolean canDelete = (currentUser.isAdmin() || currentUser.getUserId() == currentQuestion.getUserId())
+                && !currentQuestion.isArchived();
             deleteQuestionBtn.setVisible(canDelete);
             deleteQuestionBtn.setManaged(canDelete);
         }
     }
 
+    /**
+     * (Re)load the answers from the top, as many as were shown before (at least one page, at most
+     * one server request)
+     */
     private void loadAnswers() {
+        int count = Math.min(Math.max(ANSWER_PAGE_SIZE, shownAnswers), MAX_ANSWERS_PER_LOAD);
+        shownAnswers = 0;
+        if (answersContainer != null) answersContainer.getChildren().clear();
+        appendAnswers(count);
+    }
+
+    private void loadMoreAnswers() {
+        appendAnswers(ANSWER_PAGE_SIZE);
+    }
+
+    private void appendAnswers(int count) {
         try {
-            List<Answer> answers = answerService.getAnswers(currentQuestion.getQuestionId());
+            List<Answer> answers = answerService.getAnswers(currentQuestion.getQuestionId(), count, shownAnswers);
+            shownAnswers += answers.size();
+            boolean more = answers.size() == count;
+            // The stored count may be off (not counted yet, or changed since it was read)
+            if (!more) {
+                answerTotal = shownAnswers;
+            } else if (answerTotal <= shownAnswers) {
+                answerTotal = shownAnswers + 1;
+            }
             
-            if (answersCountBadge != null) answersCountBadge.setText(String.valueOf(answers.size()));
-            if (answersContainer != null) answersContainer.getChildren().clear();
+            if (answersCountBadge != null) answersCountBadge.setText(String.valueOf(answerTotal));
+            if (answersContainer != null) answersContainer.getChildren().remove(loadMoreAnswersButton);
             
-            if (answers.isEmpty()) {
+            if (shownAnswers == 0) {
                 if (noAnswersLabel != null) {
                     noAnswersLabel.setVisible(true);
                     noAnswersLabel.setManaged(true);
@@ -161,6 +210,9 @@ public class QuestionDetailController {
                 VBox answerCard = createAnswerCard(answer);
                 if (answersContainer != null) answersContainer.getChildren().add(answerCard);
             }
+            if (more && answersContainer != null) {
+                answersContainer.getChildren().add(loadMoreAnswersButton);
+            }
             
         } catch (Exception e) {
             ToastNotification.showError("Failed to load answers");
@@ -204,6 +256,12 @@ public class QuestionDetailController {
         HBox actionsBox = new HBox(15);
         actionsBox.setAlignment(Pos.CENTER_LEFT);
         
+        // Archived questions are read-only
+        if (currentQuestion.isArchived()) {
+            card.getChildren().addAll(header, contentLabel);
+            return card;
+        }
+        
         // Upvote/Downvote
         if (currentUser.getUserId() != answer.getUserId()) {
             Button upvoteButton = new Button("👍 " + answer.getUpvotes());
@@ -256,6 +314,7 @@ public class QuestionDetailController {
             ToastNotification.showSuccess("Answer submitted successfully!");
             
             answerTextArea.clear();
+            answerTotal++;
             loadAnswers();
             
         } catch (Exception e) {
@@ -339,6 +398,8 @@ public class QuestionDetailController {
                 boolean deleted = answerService.deleteAnswer(answer.getAnswerId());
                 if (deleted) {
                     ToastNotification.showSuccess("Answer deleted successfully");
+                    answerTotal--;
+                    shownAnswers--;
                     loadAnswers();
                 } else {
                     ToastNotification.showError("Failed to delete answer.");
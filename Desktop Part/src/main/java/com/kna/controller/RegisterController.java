@@ -5,7 +5,9 @@ import com.kna.model.User;
 import com.kna.service.AuthService;
 import com.kna.util.ToastNotification;
 
+import javafx.application.Platform;
 import javafx.fxml.FXML;
+import javafx.scene.control.Button;
 import javafx.scene.control.Label;
 import javafx.scene.control.PasswordField;
 import javafx.scene.control.TextField;
@@ -20,6 +22,7 @@ public class RegisterController {
     @FXML private PasswordField passwordField;
     @FXML private PasswordField confirmPasswordField;
     @FXML private Label errorLabel;
+    @FXML private Button registerButton;
     
     private final AuthService authService;
 
@@ -78,22 +81,37 @@ public class RegisterController {
             return;
         }
         
-        try {
-            // Attempt registration with simplified parameters
-            User user = authService.register(email, "", password, username, "General", 1);
-            
-            // Auto login
-            authService.login(email, password);
-            
-            ToastNotification.showSuccess("Welcome to KnA, " + user.getName() + "!");
-            
-            // Navigate to dashboard
-            javafx.application.Platform.runLater(() -> {
-                Main.switchScene("/fxml/Dashboard.fxml", "KnA - Dashboard");
-            });
-            
-        } catch (Exception e) {
-            showError(e.getMessage());
+        // Hashing the password takes ~100ms of CPU, so keep it off the FX thread
+        setRegisterDisabled(true);
+        Thread registerThread = new Thread(() -> {
+            try {
+                // Attempt registration with simplified parameters
+                User user = authService.register(email, "", password, username, "General", 1);
+                
+                // Auto login
+                authService.login(email, password);
+                
+                Platform.runLater(() -> {
+                    setRegisterDisabled(false);
+                    ToastNotification.showSuccess("Welcome to KnA, " + user.getName() + "!");
+                    
+                    // Navigate to dashboard
+                    Main.switchScene("/fxml/Dashboard.fxml", "KnA - Dashboard");
+                });
+            } catch (Exception e) {
+                Platform.runLater(() -> {
+                    setRegisterDisabled(false);
+                    showError(e.getMessage());
+                });
+            }
+        }, "kna-register");
+        registerThread.setDaemon(true);
+        registerThread.start();
+    }
+
+    private void setRegisterDisabled(boolean disabled) {
+        if (registerButton != null) {
+            registerButton.setDisable(disabled);
         }
     }
 
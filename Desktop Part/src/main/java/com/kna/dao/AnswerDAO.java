@@ -3,15 +3,39 @@ package com.kna.dao;
 import com.kna.model.Answer;
 import com.kna.util.DatabaseManager;
 
-import java.sql.*;
-import java.util.ArrayList;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Comparator;
 import java.util.List;
 
 /**
  * AnswerDAO - Data Access Object for Answer entity
  */
 public class AnswerDAO {
+
+    // My Answers paging: newest first through idx_answers_user_accepted, archived ones included,
+    // with the question title and the coins the ledger recorded for accepted answers
+    private static final KeysetQuery<Answer> USER_ANSWER_PAGES = new KeysetQuery<>(
+            "a.*, q.title AS question_title, '{db}' AS source_db, " +
+            "CASE WHEN a.is_accepted = 1 THEN (SELECT COALESCE(SUM(ct.amount), 0) FROM main.coin_transactions ct " +
+            "   WHERE ct.reference_type = 'answer' AND ct.reference_id = a.answer_id " +
+            "   AND ct.transaction_type = 'earned') ELSE 0 END AS coins_awarded",
+            "{db}.answers a JOIN {db}.questions q ON a.question_id = q.question_id", "a.answer_id", RowMappers.ANSWER);
+
+    // A user's answers across partitions, matching the ORDER BY of getAnswersByUserId
+    private static final Comparator<Answer> CREATED_ORDER = Comparator
+        .comparing(Answer::getCreatedAt, Comparator.nullsFirst(Comparator.<Timestamp>naturalOrder()).reversed())
+        .thenComparing(Comparator.comparingInt(Answer::getAnswerId).reversed());
     
+    // Question page: the answers live in the partition of their question
+    private static final PartitionedQuery<Answer> ANSWER_PAGE = new PartitionedQuery<>(
+            "SELECT a.*, u.name as user_name FROM " +
+            "(SELECT answer_id FROM {db}.answers WHERE question_id = ? " +
+            " ORDER BY is_accepted DESC, net_score DESC, created_at, answer_id LIMIT ? OFFSET ?) page " +
+            "JOIN {db}.answers a ON a.answer_id = page.answer_id " +
+            "JOIN main.users u ON a.user_id = u.user_id " +
+            "ORDER BY a.is_accepted DESC, a.net_score DESC, a.created_at, a.answer_id", RowMappers.ANSWER, null);
+
     private final DatabaseManager dbManager;
 
     public AnswerDAO() {
@@ -19,88 +43,89 @@ public class AnswerDAO {
     }
 
     /**
-     * Create a new answer
+     * Create a new answer, counting it on its question in the same transaction
      */
     public int createAnswer(Answer answer) throws SQLException {
-        String sql = "INSERT INTO answers (question_id, user_id, content) VALUES (?, ?, ?)";
+        String partition = PartitionRouter.ofQuestion(dbManager, answer.getQuestionId());
+        String countSql = "UPDATE " + partition + ".questions SET answer_count = answer_count + 1, " +
+                          "last_activity_at = CURRENT_TIMESTAMP WHERE question_id = ?";
         
-        return dbManager.executeUpdateWithKey(sql,
-            answer.getQuestionId(),
-            answer.getUserId(),
-            answer.getContent()
-        );
+        dbManager.beginTransaction();
+        try {
+            int answerId = PartitionRouter.insert(dbManager, partition, "answers", "answer_id",
+                "question_id, user_id, content, net_score", "?, ?, ?, 0",
+                answer.getQuestionId(),
+                answer.getUserId(),
+                answer.getContent()
+            );
+            dbManager.executeUpdate(countSql, answer.getQuestionId());
+            dbManager.commit();
+            return answerId;
+        } catch (SQLException e) {
+            dbManager.rollback();
+            throw e;
+        }
     }
 
     /**
      * Get answer by ID
      */
     public Answer findById(int answerId) throws SQLException {
-        String sql = "SELECT a.*, u.name as user_name FROM answers a " +
-                     "JOIN users u ON a.user_id = u.user_id " +
+        String sql = "SELECT a.*, u.name as user_name FROM " + PartitionRouter.ofAnswer(dbManager, answerId) + ".answers a " +
+                     "JOIN main.users u ON a.user_id = u.user_id " +
                      "WHERE a.answer_id = ?";
         
-        try (PreparedStatement pstmt = dbManager.getConnection().prepareStatement(sql)) {
-            pstmt.setInt(1, answerId);
-            ResultSet rs = pstmt.executeQuery();
-            
-            if (rs.next()) {
-                return extractAnswerFromResultSet(rs);
-            }
-        }
-        
-        return null;
+        return dbManager.queryOne(sql, RowMappers.ANSWER, answerId);
     }
 
     /**
      * Get all answers for a question
      */
     public List<Answer> getAnswersByQuestionId(int questionId) throws SQLException {
-        String sql = "SELECT a.*, u.name as user_name FROM answers a " +
-                     "JOIN users u ON a.user_id = u.user_id " +
-                     "WHERE a.question_id = ? " +
-                     "ORDER BY a.is_accepted DESC, (a.upvotes - a.downvotes) DESC, a.created_at ASC";
-        
-        List<Answer> answers = new ArrayList<>();
-        
-        try (PreparedStatement pstmt = dbManager.getConnection().prepareStatement(sql)) {
-            pstmt.setInt(1, questionId);
-            ResultSet rs = pstmt.executeQuery();
-            
-            while (rs.next()) {
-                answers.add(extractAnswerFromResultSet(rs));
-            }
-        }
-        
-        return answers;
+        return getAnswersByQuestionId(questionId, -1, 0);
     }
 
     /**
-     * Get answers by user ID
+     * Get one page of a question's answers, accepted first, then best voted, then oldest
+     * (limit -1 for all), from the partition that holds the question. The page is picked from
+     * idx_answers_question_order alone; only its rows (and their authors) are read in full, so
+     * long threads don't load every body.
+     */
+    public List<Answer> getAnswersByQuestionId(int questionId, int limit, int offset) throws SQLException {
+        List<String> partitions = List.of(PartitionRouter.ofQuestion(dbManager, questionId), PartitionedQuery.ARCHIVE);
+        return ANSWER_PAGE.route(dbManager, partitions, questionId, limit, offset);
+    }
+
+    /**
+     * Get answers by user ID, archived ones included, newest first
      */
     public List<Answer> getAnswersByUserId(int userId) throws SQLException {
-        String sql = "SELECT a.*, u.name as user_name FROM answers a " +
-                     "JOIN users u ON a.user_id = u.user_id " +
-                     "WHERE a.user_id = ? ORDER BY a.created_at DESC";
-        
-        List<Answer> answers = new ArrayList<>();
+        String sql = "SELECT a.*, u.name as user_name, '{db}' AS source_db FROM {db}.answers a " +
+                     "JOIN main.users u ON a.user_id = u.user_id " +
+                     "WHERE a.user_id = ? ORDER BY a.created_at DESC, a.answer_id DESC";
         
-        try (PreparedStatement pstmt = dbManager.getConnection().prepareStatement(sql)) {
-            pstmt.setInt(1, userId);
-            ResultSet rs = pstmt.executeQuery();
-            
-            while (rs.next()) {
-                answers.add(extractAnswerFromResultSet(rs));
-            }
-        }
-        
-        return answers;
+        return new PartitionedQuery<>(sql, RowMappers.ANSWER, CREATED_ORDER)
+            .fetch(dbManager, PartitionRouter.all(dbManager), -1, 0, userId);
+    }
+
+    /**
+     * One page of a user's answers, archived ones included; status is "accepted", "pending"
+     * or anything else for all
+     */
+    public Page<Answer> getAnswersByUserPage(int userId, String status, PageRequest request) throws SQLException {
+        String condition = switch (status != null ? status : "all") {
+            case "accepted" -> "a.user_id = ? AND a.is_accepted = 1";
+            case "pending" -> "a.user_id = ? AND a.is_accepted = 0";
+            default -> "a.user_id = ?";
+        };
+        return USER_ANSWER_PAGES.fetch(dbManager, PartitionRouter.all(dbManager), request, condition, userId);
     }
 
     /**
      * Accept an answer
      */
     public boolean acceptAnswer(int answerId) throws SQLException {
-        String sql = "UPDATE answers SET is_accepted = 1, updated_at = CURRENT_TIMESTAMP WHERE answer_id = ?";
+        String sql = "UPDATE " + PartitionRouter.ofAnswer(dbManager, answerId) + ".answers SET is_accepted = 1, updated_at = CURRENT_TIMESTAMP WHERE answer_id = ?";
         return dbManager.executeUpdate(sql, answerId) > 0;
     }
 
@@ -108,107 +133,143 @@ public class AnswerDAO {
      * Rate an answer
      */
     public boolean rateAnswer(int answerId, int rating) throws SQLException {
-        String sql = "UPDATE answers SET rating = ?, updated_at = CURRENT_TIMESTAMP WHERE answer_id = ?";
+        String sql = "UPDATE " + PartitionRouter.ofAnswer(dbManager, answerId) + ".answers SET rating = ?, updated_at = CURRENT_TIMESTAMP WHERE answer_id = ?";
         return dbManager.executeUpdate(sql, rating, answerId) > 0;
     }
 
     /**
-     * Vote on an answer
+     * Vote on an answer; the vote, the answer's counters and its question's score change in one transaction
      */
     public boolean voteAnswer(int answerId, int userId, String voteType) throws SQLException {
-        // First, check if user has already voted
-        String checkSql = "SELECT vote_type FROM answer_votes WHERE answer_id = ? AND user_id = ?";
-        
-        try (PreparedStatement pstmt = dbManager.getConnection().prepareStatement(checkSql)) {
-            pstmt.setInt(1, answerId);
-            pstmt.setInt(2, userId);
-            ResultSet rs = pstmt.executeQuery();
+        String partition = PartitionRouter.ofAnswer(dbManager, answerId);
+        dbManager.beginTransaction();
+        try {
+            // First, check if user has already voted
+            String existingVote = getUserVote(partition, answerId, userId);
             
-            if (rs.next()) {
-                String existingVote = rs.getString("vote_type");
-                
+            boolean updated;
+            if (existingVote != null) {
                 if (existingVote.equals(voteType)) {
                     // Remove vote
-                    return removeVote(answerId, userId, voteType);
+                    updated = removeVote(partition, answerId, userId, voteType);
                 } else {
                     // Change vote
-                    return changeVote(answerId, userId, voteType);
+                    updated = changeVote(partition, answerId, userId, voteType);
                 }
             } else {
                 // Add new vote
-                return addVote(answerId, userId, voteType);
+                updated = addVote(partition, answerId, userId, voteType);
             }
+            dbManager.commit();
+            return updated;
+        } catch (SQLException e) {
+            dbManager.rollback();
+            throw e;
         }
     }
 
     /**
      * Add vote
      */
-    private boolean addVote(int answerId, int userId, String voteType) throws SQLException {
-        String insertSql = "INSERT INTO answer_votes (answer_id, user_id, vote_type) VALUES (?, ?, ?)";
-        dbManager.executeUpdate(insertSql, answerId, userId, voteType);
+    private boolean addVote(String partition, int answerId, int userId, String voteType) throws SQLException {
+        PartitionRouter.insert(dbManager, partition, "answer_votes", "vote_id", "answer_id, user_id, vote_type", "?, ?, ?",
+                               answerId, userId, voteType);
         
         String updateSql = voteType.equals("upvote") ?
-            "UPDATE answers SET upvotes = upvotes + 1 WHERE answer_id = ?" :
-            "UPDATE answers SET downvotes = downvotes + 1 WHERE answer_id = ?";
+            "UPDATE " + partition + ".answers SET upvotes = upvotes + 1, net_score = net_score + 1 WHERE answer_id = ?" :
+            "UPDATE " + partition + ".answers SET downvotes = downvotes + 1, net_score = net_score - 1 WHERE answer_id = ?";
         
+        addQuestionHotScore(partition, answerId, voteType.equals("upvote") ? HotScoreDAO.VOTE_WEIGHT : -HotScoreDAO.VOTE_WEIGHT);
+        addQuestionScore(partition, answerId, voteType.equals("upvote") ? 1 : -1);
         return dbManager.executeUpdate(updateSql, answerId) > 0;
     }
 
     /**
      * Remove vote
      */
-    private boolean removeVote(int answerId, int userId, String voteType) throws SQLException {
-        String deleteSql = "DELETE FROM answer_votes WHERE answer_id = ? AND user_id = ?";
+    private boolean removeVote(String partition, int answerId, int userId, String voteType) throws SQLException {
+        String deleteSql = "DELETE FROM " + partition + ".answer_votes WHERE answer_id = ? AND user_id = ?";
         dbManager.executeUpdate(deleteSql, answerId, userId);
         
         String updateSql = voteType.equals("upvote") ?
-            "UPDATE answers SET upvotes = upvotes - 1 WHERE answer_id = ? AND upvotes > 0" :
-            "UPDATE answers SET downvotes = downvotes - 1 WHERE answer_id = ? AND downvotes > 0";
+            "UPDATE " + partition + ".answers SET upvotes = upvotes - 1, net_score = net_score - 1 WHERE answer_id = ? AND upvotes > 0" :
+            "UPDATE " + partition + ".answers SET downvotes = downvotes - 1, net_score = net_score + 1 WHERE answer_id = ? AND downvotes > 0";
         
-        return dbManager.executeUpdate(updateSql, answerId) > 0;
+        if (dbManager.executeUpdate(updateSql, answerId) == 0) {
+            return false;
+        }
+        addQuestionScore(partition, answerId, voteType.equals("upvote") ? -1 : 1);
+        return true;
     }
 
     /**
      * Change vote
      */
-    private boolean changeVote(int answerId, int userId, String newVoteType) throws SQLException {
-        String updateVoteSql = "UPDATE answer_votes SET vote_type = ? WHERE answer_id = ? AND user_id = ?";
+    private boolean changeVote(String partition, int answerId, int userId, String newVoteType) throws SQLException {
+        String updateVoteSql = "UPDATE " + partition + ".answer_votes SET vote_type = ? WHERE answer_id = ? AND user_id = ?";
         dbManager.executeUpdate(updateVoteSql, newVoteType, answerId, userId);
         
         // Increment new vote type and decrement old vote type
         String updateAnswerSql = newVoteType.equals("upvote") ?
-            "UPDATE answers SET upvotes = upvotes + 1, downvotes = downvotes - 1 WHERE answer_id = ?" :
-            "UPDATE answers SET downvotes = downvotes + 1, upvotes = upvotes - 1 WHERE answer_id = ?";
+            "UPDATE " + partition + ".answers SET upvotes = upvotes + 1, downvotes = downvotes - 1, net_score = net_score + 2 WHERE answer_id = ?" :
+            "UPDATE " + partition + ".answers SET downvotes = downvotes + 1, upvotes = upvotes - 1, net_score = net_score - 2 WHERE answer_id = ?";
         
+        addQuestionHotScore(partition, answerId, newVoteType.equals("upvote") ? 2 * HotScoreDAO.VOTE_WEIGHT : -2 * HotScoreDAO.VOTE_WEIGHT);
+        addQuestionScore(partition, answerId, newVoteType.equals("upvote") ? 2 : -2);
         return dbManager.executeUpdate(updateAnswerSql, answerId) > 0;
     }
 
+    /**
+     * Add a change in an answer's net votes to its question's score, as activity on the question
+     */
+    private void addQuestionScore(String partition, int answerId, int delta) throws SQLException {
+        String sql = "UPDATE " + partition + ".questions SET score = score + ?, last_activity_at = CURRENT_TIMESTAMP " +
+                     "WHERE question_id = (SELECT question_id FROM " + partition + ".answers WHERE answer_id = ?)";
+        dbManager.executeUpdate(sql, delta, answerId);
+    }
+
+    /**
+     * Add the weight of a vote cast now to the hot score of the answer's question
+     * (withdrawn votes are left in: their weight has already decayed along with the rest)
+     */
+    private void addQuestionHotScore(String partition, int answerId, double weight) throws SQLException {
+        String sql = "UPDATE " + partition + ".questions SET hot_score = hot_score + ? * " + HotScoreDAO.NOW + " " +
+                     "WHERE question_id = (SELECT question_id FROM " + partition + ".answers WHERE answer_id = ?)";
+        dbManager.executeUpdate(sql, weight, answerId);
+    }
+
     /**
      * Get user's vote on an answer
      */
     public String getUserVote(int answerId, int userId) throws SQLException {
-        String sql = "SELECT vote_type FROM answer_votes WHERE answer_id = ? AND user_id = ?";
-        
-        try (PreparedStatement pstmt = dbManager.getConnection().prepareStatement(sql)) {
-            pstmt.setInt(1, answerId);
-            pstmt.setInt(2, userId);
-            ResultSet rs = pstmt.executeQuery();
-            
-            if (rs.next()) {
-                return rs.getString("vote_type");
-            }
-        }
-        
-        return null;
+        return getUserVote(PartitionRouter.ofAnswer(dbManager, answerId), answerId, userId);
+    }
+
+    private String getUserVote(String partition, int answerId, int userId) throws SQLException {
+        String sql = "SELECT vote_type FROM " + partition + ".answer_votes WHERE answer_id = ? AND user_id = ?";
+        return dbManager.queryString(sql, answerId, userId);
     }
 
     /**
-     * Delete answer
+     * Delete answer, taking it and its votes off its question's counters in the same transaction
      */
     public boolean deleteAnswer(int answerId) throws SQLException {
-        String sql = "DELETE FROM answers WHERE answer_id = ?";
-        return dbManager.executeUpdate(sql, answerId) > 0;
+        String partition = PartitionRouter.ofAnswer(dbManager, answerId);
+        String uncountSql = "UPDATE " + partition + ".questions SET answer_count = answer_count - 1, " +
+                            "score = score - (SELECT upvotes - downvotes FROM " + partition + ".answers WHERE answer_id = ?) " +
+                            "WHERE question_id = (SELECT question_id FROM " + partition + ".answers WHERE answer_id = ?)";
+        String sql = "DELETE FROM " + partition + ".answers WHERE answer_id = ?";
+        
+        dbManager.beginTransaction();
+        try {
+            dbManager.executeUpdate(uncountSql, answerId, answerId);
+            boolean deleted = dbManager.executeUpdate(sql, answerId) > 0;
+            dbManager.commit();
+            return deleted;
+        } catch (SQLException e) {
+            dbManager.rollback();
+            throw e;
+        }
     }
 
     /**
@@ -217,26 +278,7 @@ public class AnswerDAO {
      * @return Number of answers deleted
      */
     public int deleteAnswersByQuestionId(int questionId) throws SQLException {
-        String sql = "DELETE FROM answers WHERE question_id = ?";
+        String sql = "DELETE FROM " + PartitionRouter.ofQuestion(dbManager, questionId) + ".answers WHERE question_id = ?";
         return dbManager.executeUpdate(sql, questionId);
     }
-
-    /**
-     * Extract Answer object from ResultSet
-     */
-    private Answer extractAnswerFromResultSet(ResultSet rs) throws SQLException {
-        Answer answer = new Answer();
-        answer.setAnswerId(rs.getInt("answer_id"));
-        answer.setQuestionId(rs.getInt("question_id"));
-        answer.setUserId(rs.getInt("user_id"));
-        answer.setUserName(rs.getString("user_name"));
-        answer.setContent(rs.getString("content"));
-        answer.setAccepted(rs.getBoolean("is_accepted"));
-        answer.setRating(rs.getInt("rating"));
-        answer.setUpvotes(rs.getInt("upvotes"));
-        answer.setDownvotes(rs.getInt("downvotes"));
-        answer.setCreatedAt(rs.getTimestamp("created_at"));
-        answer.setUpdatedAt(rs.getTimestamp("updated_at"));
-        return answer;
-    }
 }
@@ -0,0 +1,126 @@
+package com.kna.dao;
+
+import com.kna.model.Question;
+import com.kna.util.DataEvents;
+import com.kna.util.DatabaseManager;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ArchiveDAO - The archive tier: moves old questions, with their images, answers, votes and
+ * rewards, from the main tables or a category partition into the attached "archive" database,
+ * and reads single archived questions back. Listings read the archive through PartitionedQuery. Archived
+ * questions are read-only.
+ */
+public class ArchiveDAO {
+
+    private final DatabaseManager dbManager;
+
+    public ArchiveDAO() {
+        this.dbManager = DatabaseManager.getInstance();
+    }
+
+    /**
+     * Ids of up to limit answered and evaluated questions that were asked and last active more
+     * than ageDays days ago, oldest first (through idx_questions_created) in main, then in each
+     * category partition
+     */
+    public List<Integer> findArchivable(int ageDays, int limit) throws SQLException {
+        String sql = "SELECT question_id FROM {db}.questions " +
+                     "WHERE created_at < datetime('now', ?) AND is_answered = 1 AND is_evaluated = 1 " +
+                     "AND COALESCE(last_activity_at, created_at) < datetime('now', ?) " +
+                     "ORDER BY created_at LIMIT ?";
+        String age = "-" + ageDays + " days";
+        List<Integer> questionIds = new ArrayList<>();
+        for (String partition : PartitionRouter.live(dbManager)) {
+            if (questionIds.size() >= limit) {
+                break;
+            }
+            questionIds.addAll(dbManager.queryList(sql.replace("{db}", partition), RowMappers.QUESTION_ID,
+                                                   age, age, limit - questionIds.size()));
+        }
+        return questionIds;
+    }
+
+    /**
+     * Move the given questions and everything that belongs to them into the archive, in one
+     * transaction; returns the number of questions moved
+     */
+    public int archive(List<Integer> questionIds) throws SQLException {
+        if (questionIds.isEmpty()) {
+            return 0;
+        }
+        Map<String, List<Integer>> bySource = new LinkedHashMap<>();
+        for (int questionId : questionIds) {
+            bySource.computeIfAbsent(PartitionRouter.ofQuestion(dbManager, questionId), p -> new ArrayList<>()).add(questionId);
+        }
+
+        dbManager.beginTransaction();
+        try {
+            int moved = 0;
+            for (Map.Entry<String, List<Integer>> entry : bySource.entrySet()) {
+                String source = entry.getKey();
+                String ids = String.join(", ", Collections.nCopies(entry.getValue().size(), "?"));
+                String answerIds = "SELECT answer_id FROM " + source + ".answers WHERE question_id IN (" + ids + ")";
+                Object[] params = entry.getValue().toArray();
+                // REPLACE: a restored snapshot may bring back questions that were archived since
+                copy(source, "questions", "question_id IN (" + ids + ")", params);
+                copy(source, "question_images", "question_id IN (" + ids + ")", params);
+                copy(source, "answers", "question_id IN (" + ids + ")", params);
+                copy(source, "answer_votes", "answer_id IN (" + answerIds + ")", params);
+                copy(source, "answer_rewards", "answer_id IN (" + answerIds + ")", params);
+                // Cascades to the images, answers, votes and rewards
+                moved += dbManager.executeUpdate("DELETE FROM " + source + ".questions WHERE question_id IN (" + ids + ")",
+                                                 params);
+            }
+            dbManager.commit();
+            DataEvents.publish(DataEvents.Topic.QUESTIONS);
+            return moved;
+        } catch (SQLException e) {
+            dbManager.rollback();
+            throw e;
+        }
+    }
+
+    /**
+     * Copy the rows of a table of main or a partition that match the condition into its archive
+     * copy. Columns are named, since a table upgraded with ALTER TABLE may order them differently.
+     */
+    private void copy(String source, String table, String condition, Object[] params) throws SQLException {
+        List<String> columns = new ArrayList<>();
+        for (Map.Entry<String, Long> column : dbManager.queryList(
+                "SELECT name, cid AS count FROM pragma_table_info(?, ?) ORDER BY cid", RowMappers.NAME_COUNT, table, source)) {
+            columns.add(column.getKey());
+        }
+        String columnList = String.join(", ", columns);
+        dbManager.executeUpdate("INSERT OR REPLACE INTO archive." + table + " (" + columnList + ") " +
+                                "SELECT " + columnList + " FROM " + source + "." + table + " WHERE " + condition, params);
+    }
+
+    /**
+     * Get an archived question by ID
+     */
+    public Question findById(int questionId) throws SQLException {
+        String sql = "SELECT q.*, u.name as user_name FROM archive.questions q " +
+                     "JOIN users u ON q.user_id = u.user_id " +
+                     "WHERE q.question_id = ?";
+        Question question = dbManager.queryOne(sql, RowMappers.QUESTION, questionId);
+        if (question != null) {
+            question.setArchived(true);
+        }
+        return question;
+    }
+
+    /**
+     * Get an archived question's image path
+     */
+    public String getQuestionImagePath(int questionId) throws SQLException {
+        String sql = "SELECT image_path FROM archive.question_images WHERE question_id = ? LIMIT 1";
+        return dbManager.queryString(sql, questionId);
+    }
+}
@@ -0,0 +1,139 @@
+package com.kna.dao;
+
+import com.kna.util.DatabaseManager;
+
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * HotScoreDAO - Time-decayed "hot" scores of questions.
+ * A question's score is the sum of the weights of its events (asking, views, answers, votes),
+ * each halving every HALF_LIFE_HOURS. Rather than decaying every stored score as time passes,
+ * scores are kept relative to an epoch: an event adds weight * 2^(epoch age / half-life), which
+ * orders questions exactly like the decayed sums. That factor doubles every half-life, so the
+ * epoch is moved forward from time to time and all scores are scaled down by the same power of two.
+ * The rebase goes through the questions in batches of ids; an event on a question the rebase
+ * has already passed is weighted against the next epoch.
+ */
+public class HotScoreDAO {
+
+    public static final double HALF_LIFE_HOURS = 24;
+
+    // Event weights
+    public static final double ASK_WEIGHT = 10;
+    public static final double REWARD_WEIGHT = 0.5; // per coin of reward
+    public static final double VIEW_WEIGHT = 1;
+    public static final double ANSWER_WEIGHT = 8;
+    public static final double VOTE_WEIGHT = 3; // up; a downvote subtracts it
+
+    private static final double HALF_LIFE_DAYS = HALF_LIFE_HOURS / 24;
+    private static final String EPOCH = "(SELECT epoch FROM main.hot_score_epoch WHERE epoch_id = 1)";
+    // The epoch of the questions row being updated
+    private static final String ROW_EPOCH = "(SELECT CASE WHEN questions.question_id <= rebase_cursor " +
+                                            "THEN next_epoch ELSE epoch END FROM main.hot_score_epoch WHERE epoch_id = 1)";
+
+    /**
+     * SQL factor for the weight of an event at the given (julianday-compatible) time, for use
+     * in an UPDATE of questions. NULL while there is no epoch, which leaves the score NULL for
+     * backfill() to compute.
+     */
+    static String weightAt(String time) {
+        return "pow(2, (julianday(" + time + ") - " + ROW_EPOCH + ") / " + HALF_LIFE_DAYS + ")";
+    }
+
+    // SQL factor for the weight of an event happening now, in an UPDATE of questions
+    static final String NOW = weightAt("'now'");
+
+    // SQL factor for the weight of a question asked now; a new id is past any rebase cursor
+    static final String NOW_NEW_QUESTION = "pow(2, (julianday('now') - " + EPOCH + ") / " + HALF_LIFE_DAYS + ")";
+
+    private final DatabaseManager dbManager;
+
+    public HotScoreDAO() {
+        this.dbManager = DatabaseManager.getInstance();
+    }
+
+    /**
+     * Start the epoch now unless there is one
+     */
+    public void ensureEpoch() throws SQLException {
+        dbManager.executeUpdate("INSERT OR IGNORE INTO hot_score_epoch (epoch_id, epoch) VALUES (1, julianday('now'))");
+    }
+
+    /**
+     * Whole days since the epoch
+     */
+    public int getEpochAgeDays() throws SQLException {
+        return dbManager.queryInt("SELECT CAST(julianday('now') - epoch AS INTEGER) FROM hot_score_epoch WHERE epoch_id = 1");
+    }
+
+    /**
+     * Start moving the epoch forward by whole half-lives, unless a rebase is already under
+     * way; rebaseBatch() then scales the scores down to match
+     */
+    public void startRebase(int halfLives) throws SQLException {
+        dbManager.executeUpdate("UPDATE hot_score_epoch SET next_epoch = epoch + ?, rebase_cursor = 0 " +
+                                "WHERE epoch_id = 1 AND next_epoch IS NULL", halfLives * HALF_LIFE_DAYS);
+    }
+
+    /**
+     * Scale the scores of the next batchSize question ids to the next epoch and move the
+     * cursor past them, in one transaction, in every partition. Archived questions are scaled
+     * too, since the hot feed ranks them against the live ones. The batch that reaches the last question makes
+     * the next epoch current. Returns whether batches remain.
+     */
+    public boolean rebaseBatch(int batchSize) throws SQLException {
+        String scale = " SET hot_score = hot_score * pow(2, " +
+                       "(SELECT epoch - next_epoch FROM main.hot_score_epoch WHERE epoch_id = 1) / " + HALF_LIFE_DAYS + ") " +
+                       "WHERE question_id > ? AND question_id <= ? AND hot_score IS NOT NULL";
+        dbManager.beginTransaction();
+        try {
+            int cursor = dbManager.queryInt(
+                "SELECT COALESCE(MAX(rebase_cursor), -1) FROM hot_score_epoch WHERE next_epoch IS NOT NULL");
+            boolean more = false;
+            if (cursor >= 0) {
+                int end = cursor + batchSize;
+                List<String> partitions = PartitionRouter.all(dbManager);
+                for (String partition : partitions) {
+                    dbManager.executeUpdate("UPDATE " + partition + ".questions" + scale, cursor, end);
+                }
+                more = end < dbManager.queryInt("SELECT MAX(" + PartitionedQuery.expand(
+                    "COALESCE((SELECT MAX(question_id) FROM {db}.questions), 0)", partitions, ", ") + ", 0)");
+                if (more) {
+                    dbManager.executeUpdate("UPDATE hot_score_epoch SET rebase_cursor = ? WHERE epoch_id = 1", end);
+                } else {
+                    dbManager.executeUpdate("UPDATE hot_score_epoch SET epoch = next_epoch, next_epoch = NULL, " +
+                                            "rebase_cursor = NULL WHERE epoch_id = 1");
+                }
+            }
+            dbManager.commit();
+            return more;
+        } catch (SQLException e) {
+            dbManager.rollback();
+            throw e;
+        }
+    }
+
+    /**
+     * Score up to limit unscored questions (older rows and rows written before the epoch
+     * existed) from their counters: asking and views at the question's creation, answers and
+     * their votes at the answer's creation. Returns the number of rows scored.
+     */
+    public int backfill(int limit) throws SQLException {
+        String sql = "UPDATE {db}.questions SET hot_score = " +
+                     "(? + ? * coin_reward + ? * view_count) * " + weightAt("COALESCE(questions.created_at, 'now')") +
+                     " + COALESCE((SELECT SUM((? + ? * (a.upvotes - a.downvotes)) * " + weightAt("COALESCE(a.created_at, 'now')") + ") " +
+                     "FROM {db}.answers a WHERE a.question_id = questions.question_id), 0) " +
+                     "WHERE question_id IN (SELECT question_id FROM {db}.questions WHERE hot_score IS NULL LIMIT ?) " +
+                     "AND " + EPOCH + " IS NOT NULL";
+        int scored = 0;
+        for (String partition : PartitionRouter.live(dbManager)) {
+            if (scored >= limit) {
+                break;
+            }
+            scored += dbManager.executeUpdate(sql.replace("{db}", partition),
+                ASK_WEIGHT, REWARD_WEIGHT, VIEW_WEIGHT, ANSWER_WEIGHT, VOTE_WEIGHT, limit - scored);
+        }
+        return scored;
+    }
+}
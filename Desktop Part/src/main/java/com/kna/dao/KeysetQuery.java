@@ -0,0 +1,197 @@
+package com.kna.dao;
+
+import com.kna.util.DatabaseManager;
+import com.kna.util.RowMapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * KeysetQuery - Builds keyset-paginated SELECTs for one table.
+ * Pages continue after the last row's (sort value, id) instead of using OFFSET, so every
+ * page costs the same however deep the user scrolls. Only whitelisted sort keys are
+ * accepted; the text filter is a LIKE over the declared search columns. Callers may add a
+ * fixed condition (owner, status) that every page of the listing shares. A FROM clause that
+ * names its tables as {db}.table can be paged over several partitions (see PartitionedQuery):
+ * each partition returns its next rows after the same position and the pages are merged.
+ */
+class KeysetQuery<T> {
+
+    private final String columns;
+    private final String from;
+    private final String idColumn;
+    private final Map<String, String> sortColumns = new LinkedHashMap<>();
+    private final List<String> searchColumns = new ArrayList<>();
+    private final RowMapper<Row<T>> rowMapper;
+
+    /**
+     * @param columns select list (the mapper's columns)
+     * @param from FROM clause including joins
+     * @param idColumn unique integer key, used as the tie-breaker
+     */
+    KeysetQuery(String columns, String from, String idColumn, RowMapper<T> mapper) {
+        this.columns = columns;
+        this.from = from;
+        this.idColumn = idColumn;
+        this.rowMapper = new RowMapper<>("page_sort_key", "page_id") {
+            @Override
+            public Row<T> map(String sql, ResultSet rs) throws SQLException {
+                Row<T> row = super.map(sql, rs);
+                row.item = mapper.map(sql, rs);
+                return row;
+            }
+
+            @Override
+            protected Row<T> mapRow(ResultSet rs, int[] idx) throws SQLException {
+                return new Row<>(rs.getObject(idx[0]), rs.getInt(idx[1]));
+            }
+        };
+    }
+
+    /**
+     * Allow sorting by the column expression under the given key.
+     * The expression must not be NULL for any row (NULLs never compare in the keyset condition).
+     */
+    KeysetQuery<T> sortable(String key, String expression) {
+        sortColumns.put(key, expression);
+        return this;
+    }
+
+    /**
+     * Include a column in the text filter
+     */
+    KeysetQuery<T> searchable(String expression) {
+        searchColumns.add(expression);
+        return this;
+    }
+
+    /**
+     * Fetch one page
+     */
+    Page<T> fetch(DatabaseManager dbManager, PageRequest request) throws SQLException {
+        return fetch(dbManager, request, null);
+    }
+
+    /**
+     * Fetch one page of the rows matching condition (a trusted SQL expression; values as parameters)
+     */
+    Page<T> fetch(DatabaseManager dbManager, PageRequest request, String condition, Object... conditionParams)
+            throws SQLException {
+        return fetch(dbManager, List.of(PartitionedQuery.MAIN), request, condition, conditionParams);
+    }
+
+    /**
+     * Fetch one page of the rows matching condition from the given partitions, merged
+     */
+    Page<T> fetch(DatabaseManager dbManager, List<String> partitions, PageRequest request, String condition,
+                  Object... conditionParams) throws SQLException {
+        String sortExpression = idColumn;
+        if (request.getSortKey() != null) {
+            sortExpression = sortColumns.get(request.getSortKey());
+            if (sortExpression == null) {
+                throw new SQLException("Cannot sort by " + request.getSortKey());
+            }
+        }
+        boolean byId = sortExpression.equals(idColumn);
+        String direction = request.isAscending() ? "ASC" : "DESC";
+        String comparison = request.isAscending() ? ">" : "<";
+
+        StringBuilder sql = new StringBuilder("SELECT ").append(columns)
+            .append(", ").append(sortExpression).append(" AS page_sort_key, ")
+            .append(idColumn).append(" AS page_id FROM ").append(from).append(" WHERE 1=1 ");
+        List<Object> params = new ArrayList<>();
+
+        if (condition != null) {
+            sql.append("AND (").append(condition).append(") ");
+            params.addAll(List.of(conditionParams));
+        }
+
+        if (request.getFilter() != null && !searchColumns.isEmpty()) {
+            String pattern = "%" + escapeLike(request.getFilter()) + "%";
+            sql.append("AND (");
+            for (int i = 0; i < searchColumns.size(); i++) {
+                sql.append(i > 0 ? " OR " : "").append(searchColumns.get(i)).append(" LIKE ? ESCAPE '\\'");
+                params.add(pattern);
+            }
+            sql.append(") ");
+        }
+
+        if (!request.isFirstPage()) {
+            if (byId) {
+                sql.append("AND ").append(idColumn).append(' ').append(comparison).append(" ? ");
+                params.add(request.getAfterId());
+            } else {
+                // Row-value comparison: same position in the ORDER BY below, ties broken by id
+                sql.append("AND (").append(sortExpression).append(", ").append(idColumn).append(") ")
+                    .append(comparison).append(" (?, ?) ");
+                params.add(request.getAfterValue());
+                params.add(request.getAfterId());
+            }
+        }
+
+        sql.append("ORDER BY ").append(sortExpression).append(' ').append(direction);
+        if (!byId) {
+            sql.append(", ").append(idColumn).append(' ').append(direction);
+        }
+        // One extra row tells whether another page follows
+        List<Row<T>> rows = new PartitionedQuery<>(sql.toString(), rowMapper, rowOrder(byId, request.isAscending()))
+            .fetch(dbManager, partitions, request.getPageSize() + 1, 0, params.toArray());
+        boolean more = rows.size() > request.getPageSize();
+        if (more) {
+            rows = rows.subList(0, request.getPageSize());
+        }
+
+        List<T> items = new ArrayList<>(rows.size());
+        for (Row<T> row : rows) {
+            items.add(row.item);
+        }
+        PageRequest next = null;
+        if (more) {
+            Row<T> last = rows.get(rows.size() - 1);
+            next = request.after(last.sortValue, last.id);
+        }
+        return new Page<>(items, next);
+    }
+
+    /**
+     * The ORDER BY above as a comparator, for merging partitions
+     */
+    private static <T> Comparator<Row<T>> rowOrder(boolean byId, boolean ascending) {
+        Comparator<Row<T>> order = Comparator.comparingInt(row -> row.id);
+        if (!byId) {
+            order = Comparator.<Row<T>, Object>comparing(row -> row.sortValue, KeysetQuery::compareValues).thenComparing(order);
+        }
+        return ascending ? order : order.reversed();
+    }
+
+    /**
+     * Compare two values of one column; SQLite may return an integer column as Integer or Long
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static int compareValues(Object a, Object b) {
+        if (a instanceof Number && b instanceof Number) {
+            return Double.compare(((Number) a).doubleValue(), ((Number) b).doubleValue());
+        }
+        return ((Comparable) a).compareTo(b);
+    }
+
+    private static String escapeLike(String text) {
+        return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    private static class Row<T> {
+        final Object sortValue;
+        final int id;
+        T item;
+
+        Row(Object sortValue, int id) {
+            this.sortValue = sortValue;
+            this.id = id;
+        }
+    }
+}
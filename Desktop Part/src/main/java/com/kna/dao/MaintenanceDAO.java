@@ -0,0 +1,97 @@
+package com.kna.dao;
+
+import com.kna.util.DatabaseManager;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * MaintenanceDAO - Database housekeeping: table sizes now and at the last ANALYZE, refreshing
+ * the query planner's statistics, and returning free pages to the file system
+ */
+public class MaintenanceDAO {
+
+    /** PRAGMA auto_vacuum value of a database whose free pages are released by incremental_vacuum */
+    public static final int AUTO_VACUUM_INCREMENTAL = 2;
+
+    private final DatabaseManager dbManager;
+
+    public MaintenanceDAO() {
+        this.dbManager = DatabaseManager.getInstance();
+    }
+
+    /**
+     * Value of an integer pragma such as page_size, page_count, freelist_count or auto_vacuum
+     */
+    public int getPragma(String name) throws SQLException {
+        return dbManager.queryInt("PRAGMA " + name);
+    }
+
+    /**
+     * The application's tables
+     */
+    public List<String> getTables() throws SQLException {
+        String sql = "SELECT name, 0 AS count FROM sqlite_master " +
+                     "WHERE type = 'table' AND name NOT LIKE 'sqlite_%' ORDER BY name";
+        List<String> tables = new ArrayList<>();
+        for (Map.Entry<String, Long> row : dbManager.queryList(sql, RowMappers.NAME_COUNT)) {
+            tables.add(row.getKey());
+        }
+        return tables;
+    }
+
+    /**
+     * Table -> row count recorded by its last ANALYZE; tables never analyzed are missing
+     */
+    public Map<String, Long> getAnalyzedRowCounts() throws SQLException {
+        Map<String, Long> counts = new HashMap<>();
+        if (dbManager.queryInt("SELECT COUNT(*) FROM sqlite_master WHERE name = 'sqlite_stat1'") == 0) {
+            return counts;
+        }
+        // The first number of each stat is the row count of that index; a partial index
+        // counts fewer rows than its table, so the largest one stands for the table
+        String sql = "SELECT tbl AS name, MAX(CAST(stat AS INTEGER)) AS count FROM sqlite_stat1 GROUP BY tbl";
+        for (Map.Entry<String, Long> row : dbManager.queryList(sql, RowMappers.NAME_COUNT)) {
+            counts.put(row.getKey(), row.getValue());
+        }
+        return counts;
+    }
+
+    public int countRows(String table) throws SQLException {
+        return dbManager.queryInt("SELECT COUNT(*) FROM \"" + table + "\"");
+    }
+
+    /**
+     * Recompute the planner statistics of one table
+     */
+    public void analyze(String table) throws SQLException {
+        dbManager.executeMaintenance("ANALYZE \"" + table + "\"");
+    }
+
+    /**
+     * Let SQLite refresh whatever other statistics it considers stale
+     */
+    public void optimize() throws SQLException {
+        dbManager.executeMaintenance("PRAGMA optimize");
+    }
+
+    /**
+     * Return up to the given number of free pages to the file system
+     */
+    public void incrementalVacuum(int pages) throws SQLException {
+        dbManager.executeMaintenance("PRAGMA incremental_vacuum(" + pages + ")");
+    }
+
+    /**
+     * Rebuild the whole file with incremental auto-vacuum, which a database created before it
+     * was turned on can only get this way. Blocks all other access while it runs, so it is only
+     * called at startup, before the database is in use.
+     */
+    public void vacuumToIncremental() throws SQLException {
+        dbManager.executeMaintenance("PRAGMA auto_vacuum = INCREMENTAL");
+        dbManager.executeMaintenance("VACUUM");
+    }
+}
@@ -3,8 +3,7 @@ package com.kna.dao;
 import com.kna.model.Notification;
 import com.kna.util.DatabaseManager;
 
-import java.sql.*;
-import java.util.ArrayList;
+import java.sql.SQLException;
 import java.util.List;
 
 /**
@@ -40,20 +39,7 @@ public class  NotificationDAO {
      */
     public List<Notification> getNotificationsByUserId(int userId, int limit) throws SQLException {
         String sql = "SELECT * FROM notifications WHERE user_id = ? ORDER BY created_at DESC LIMIT ?";
-        
-        List<Notification> notifications = new ArrayList<>();
-        
-        try (PreparedStatement pstmt = dbManager.getConnection().prepareStatement(sql)) {
-            pstmt.setInt(1, userId);
-            pstmt.setInt(2, limit);
-            ResultSet rs = pstmt.executeQuery();
-            
-            while (rs.next()) {
-                notifications.add(extractNotificationFromResultSet(rs));
-            }
-        }
-        
-        return notifications;
+        return dbManager.queryList(sql, RowMappers.NOTIFICATION, userId, limit);
     }
     
     /**
@@ -61,19 +47,7 @@ public class  NotificationDAO {
      */
     public List<Notification> getNotificationsByUserId(int userId) throws SQLException {
         String sql = "SELECT * FROM notifications WHERE user_id = ? ORDER BY created_at DESC";
-        
-        List<Notification> notifications = new ArrayList<>();
-        
-        try (PreparedStatement pstmt = dbManager.getConnection().prepareStatement(sql)) {
-            pstmt.setInt(1, userId);
-            ResultSet rs = pstmt.executeQuery();
-            
-            while (rs.next()) {
-                notifications.add(extractNotificationFromResultSet(rs));
-            }
-        }
-        
-        return notifications;
+        return dbManager.queryList(sql, RowMappers.NOTIFICATION, userId);
     }
     
     /**
@@ -81,19 +55,7 @@ public class  NotificationDAO {
      */
     public List<Notification> getUnreadNotifications(int userId) throws SQLException {
         String sql = "SELECT * FROM notifications WHERE user_id = ? AND is_read = 0 ORDER BY created_at DESC";
-        
-        List<Notification> notifications = new ArrayList<>();
-        
-        try (PreparedStatement pstmt = dbManager.getConnection().prepareStatement(sql)) {
-            pstmt.setInt(1, userId);
-            ResultSet rs = pstmt.executeQuery();
-            
-            while (rs.next()) {
-                notifications.add(extractNotificationFromResultSet(rs));
-            }
-        }
-        
-        return notifications;
+        return dbManager.queryList(sql, RowMappers.NOTIFICATION, userId);
     }
     
     /**
@@ -101,20 +63,7 @@ public class  NotificationDAO {
      */
     public List<Notification> getNotificationsByType(int userId, String type) throws SQLException {
         String sql = "SELECT * FROM notifications WHERE user_id = ? AND notification_type = ? ORDER BY created_at DESC";
-        
-        List<Notification> notifications = new ArrayList<>();
-        
-        try (PreparedStatement pstmt = dbManager.getConnection().prepareStatement(sql)) {
-            pstmt.setInt(1, userId);
-            pstmt.setString(2, type);
-            ResultSet rs = pstmt.executeQuery();
-            
-            while (rs.next()) {
-                notifications.add(extractNotificationFromResultSet(rs));
-            }
-        }
-        
-        return notifications;
+        return dbManager.queryList(sql, RowMappers.NOTIFICATION, userId, type);
     }
 
     /**
@@ -122,17 +71,7 @@ public class  NotificationDAO {
      */
     public int getUnreadCount(int userId) throws SQLException {
         String sql = "SELECT COUNT(*) FROM notifications WHERE user_id = ? AND is_read = 0";
-        
-        try (PreparedStatement pstmt = dbManager.getConnection().prepareStatement(sql)) {
-            pstmt.setInt(1, userId);
-            ResultSet rs = pstmt.executeQuery();
-            
-            if (rs.next()) {
-                return rs.getInt(1);
-            }
-        }
-        
-        return 0;
+        return dbManager.queryInt(sql, userId);
     }
 
     /**
@@ -143,6 +82,14 @@ public class  NotificationDAO {
         return dbManager.executeUpdate(sql, notificationId) > 0;
     }
 
+    /**
+     * Mark notification as read only if it belongs to the given user
+     */
+    public boolean markAsRead(int notificationId, int userId) throws SQLException {
+        String sql = "UPDATE notifications SET is_read = 1 WHERE notification_id = ? AND user_id = ?";
+        return dbManager.executeUpdate(sql, notificationId, userId) > 0;
+    }
+
     /**
      * Mark all notifications as read for a user
      */
@@ -227,39 +174,9 @@ public class  NotificationDAO {
      * Create announcement notification
      */
     public void createAnnouncement(String title, String message) throws SQLException {
-        // Get all active users
-        String sql = "SELECT user_id FROM users WHERE is_active = 1";
-        
-        try (Statement stmt = dbManager.getConnection().createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-            
-            while (rs.next()) {
-                int userId = rs.getInt("user_id");
-                Notification notification = new Notification(userId, title, message, "announcement");
-                createNotification(notification);
-            }
-        }
-    }
-
-    /**
-     * Extract Notification from ResultSet
-     */
-    private Notification extractNotificationFromResultSet(ResultSet rs) throws SQLException {
-        Notification notification = new Notification();
-        notification.setNotificationId(rs.getInt("notification_id"));
-        notification.setUserId(rs.getInt("user_id"));
-        notification.setTitle(rs.getString("title"));
-        notification.setMessage(rs.getString("message"));
-        notification.setNotificationType(rs.getString("notification_type"));
-        notification.setRead(rs.getBoolean("is_read"));
-        
-        int refId = rs.getInt("reference_id");
-        if (!rs.wasNull()) {
-            notification.setReferenceId(refId);
-        }
-        
-        notification.setReferenceType(rs.getString("reference_type"));
-        notification.setCreatedAt(rs.getTimestamp("created_at"));
-        return notification;
+        // Fan out to all active users in a single statement
+        String sql = "INSERT INTO notifications (user_id, title, message, notification_type) " +
+                     "SELECT user_id, ?, ?, 'announcement' FROM users WHERE is_active = 1";
+        dbManager.executeUpdate(sql, title, message);
     }
 }
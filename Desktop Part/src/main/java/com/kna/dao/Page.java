@@ -0,0 +1,32 @@
+package com.kna.dao;
+
+import java.util.List;
+
+/**
+ * Page - Rows of one keyset page and the request for the page after it
+ */
+public class Page<T> {
+
+    private final List<T> items;
+    private final PageRequest next;
+
+    Page(List<T> items, PageRequest next) {
+        this.items = items;
+        this.next = next;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public boolean hasNext() {
+        return next != null;
+    }
+
+    /**
+     * Request for the following page, or null when this was the last one
+     */
+    public PageRequest nextRequest() {
+        return next;
+    }
+}
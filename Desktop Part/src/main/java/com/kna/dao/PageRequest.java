@@ -0,0 +1,66 @@
+package com.kna.dao;
+
+/**
+ * PageRequest - One page of a keyset-paginated query: sort column, text filter, page size
+ * and the position (sort value and id of the last row) after which the page starts
+ */
+public class PageRequest {
+
+    private final String sortKey;
+    private final boolean ascending;
+    private final String filter;
+    private final int pageSize;
+    private final Object afterValue;
+    private final int afterId;
+
+    private PageRequest(String sortKey, boolean ascending, String filter, int pageSize, Object afterValue, int afterId) {
+        this.sortKey = sortKey;
+        this.ascending = ascending;
+        this.filter = filter != null && !filter.trim().isEmpty() ? filter.trim() : null;
+        this.pageSize = pageSize;
+        this.afterValue = afterValue;
+        this.afterId = afterId;
+    }
+
+    /**
+     * The first page; sortKey null sorts by id
+     */
+    public static PageRequest first(String sortKey, boolean ascending, String filter, int pageSize) {
+        return new PageRequest(sortKey, ascending, filter, pageSize, null, 0);
+    }
+
+    /**
+     * The page following the row with the given sort value and id
+     */
+    PageRequest after(Object lastSortValue, int lastId) {
+        return new PageRequest(sortKey, ascending, filter, pageSize, lastSortValue, lastId);
+    }
+
+    public String getSortKey() {
+        return sortKey;
+    }
+
+    public boolean isAscending() {
+        return ascending;
+    }
+
+    public String getFilter() {
+        return filter;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public boolean isFirstPage() {
+        return afterId == 0;
+    }
+
+    Object getAfterValue() {
+        return afterValue;
+    }
+
+    int getAfterId() {
+        return afterId;
+    }
+}
@@ -0,0 +1,168 @@
+package com.kna.dao;
+
+import com.kna.util.DatabaseManager;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * PartitionRouter - Where questions and answers are stored, for the DAOs' {db} placeholders.
+ * Main holds the questions asked before category partitioning was turned on and those of
+ * categories without a partition; a newer question lives in its category's partition (see
+ * DatabaseManager.attachPartition) with its images, answers and votes; old answered questions
+ * move to the archive. Writes go where the row is, found by probing main and the partitions
+ * by primary key (remembered for the ids used last); listings read every partition that can
+ * hold matching rows. Without category partitions everything but the archive is in main and
+ * nothing is looked up.
+ *
+ * Ids stay unique across the files: a row inserted into a partition takes the next id of
+ * main's sequence for its table, so archive copies, merges and exports can go by id.
+ */
+final class PartitionRouter {
+
+    private static final int CACHE_SIZE = 10_000;
+
+    // Question / answer id -> partition holding it, for the ids looked up last
+    private static final Map<Integer, String> QUESTIONS = lruCache();
+    private static final Map<Integer, String> ANSWERS = lruCache();
+    private static int cacheGeneration;
+
+    private PartitionRouter() {}
+
+    /**
+     * Main and the category partitions: everything that can still change
+     */
+    static List<String> live(DatabaseManager dbManager) {
+        List<String> partitions = new ArrayList<>();
+        partitions.add(PartitionedQuery.MAIN);
+        partitions.addAll(dbManager.getPartitions());
+        return partitions;
+    }
+
+    /**
+     * The live partitions and the archive
+     */
+    static List<String> all(DatabaseManager dbManager) {
+        List<String> partitions = live(dbManager);
+        partitions.add(PartitionedQuery.ARCHIVE);
+        return partitions;
+    }
+
+    /**
+     * The live partitions that can hold questions of a category: main and the category's own
+     * partition (null, empty or "All" for all categories)
+     */
+    static List<String> live(DatabaseManager dbManager, String category) {
+        if (category == null || category.isEmpty() || category.equals("All")) {
+            return live(dbManager);
+        }
+        List<String> partitions = new ArrayList<>();
+        partitions.add(PartitionedQuery.MAIN);
+        String partition = DatabaseManager.partitionFor(category);
+        if (partition != null && dbManager.getPartitions().contains(partition)) {
+            partitions.add(partition);
+        }
+        return partitions;
+    }
+
+    /**
+     * The partitions that can hold questions of a category, the archive included
+     */
+    static List<String> all(DatabaseManager dbManager, String category) {
+        List<String> partitions = live(dbManager, category);
+        partitions.add(PartitionedQuery.ARCHIVE);
+        return partitions;
+    }
+
+    /**
+     * The partition a new question of the category goes to: its category's when one is attached
+     */
+    static String forNewQuestion(DatabaseManager dbManager, String category) {
+        String partition = DatabaseManager.partitionFor(category);
+        return partition != null && dbManager.getPartitions().contains(partition) ? partition : PartitionedQuery.MAIN;
+    }
+
+    /**
+     * The live partition holding a question; main when none has it (deleted or archived), so a
+     * write finds nothing, as it always has
+     */
+    static String ofQuestion(DatabaseManager dbManager, int questionId) throws SQLException {
+        return locate(dbManager, QUESTIONS, "questions", "question_id", questionId);
+    }
+
+    /**
+     * The live partition holding an answer (the partition of its question)
+     */
+    static String ofAnswer(DatabaseManager dbManager, int answerId) throws SQLException {
+        return locate(dbManager, ANSWERS, "answers", "answer_id", answerId);
+    }
+
+    private static String locate(DatabaseManager dbManager, Map<Integer, String> cache, String table, String idColumn,
+                                 int id) throws SQLException {
+        List<String> partitions = live(dbManager);
+        if (partitions.size() == 1) {
+            return PartitionedQuery.MAIN;
+        }
+        synchronized (PartitionRouter.class) {
+            if (cacheGeneration != dbManager.getRestoreGeneration()) {
+                QUESTIONS.clear();
+                ANSWERS.clear();
+                cacheGeneration = dbManager.getRestoreGeneration();
+            }
+            String cached = cache.get(id);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        String sql = PartitionedQuery.expand(
+            "SELECT '{db}' FROM {db}." + table + " WHERE " + idColumn + " = ?1", partitions, " UNION ALL ") + " LIMIT 1";
+        String partition = dbManager.queryString(sql, id);
+        if (partition == null) {
+            return PartitionedQuery.MAIN;
+        }
+        synchronized (PartitionRouter.class) {
+            cache.put(id, partition);
+        }
+        return partition;
+    }
+
+    /**
+     * Insert a row into a table of a partition and return its id. Main's AUTOINCREMENT assigns
+     * ids in main; a row of a category partition takes the next id of main's sequence for the
+     * table (never below the partition's own largest, should the sequence have been rolled back).
+     * Run it in the caller's transaction so an id is not spent on a failed insert.
+     *
+     * @param columns the inserted columns, without the id
+     * @param values their VALUES expressions, one parameter each or constants
+     */
+    static int insert(DatabaseManager dbManager, String partition, String table, String idColumn, String columns,
+                      String values, Object... params) throws SQLException {
+        if (partition.equals(PartitionedQuery.MAIN)) {
+            return dbManager.executeUpdateWithKey(
+                "INSERT INTO main." + table + " (" + columns + ") VALUES (" + values + ")", params);
+        }
+        dbManager.executeUpdate("INSERT INTO main.sqlite_sequence (name, seq) SELECT ?1, 0 " +
+                                "WHERE NOT EXISTS (SELECT 1 FROM main.sqlite_sequence WHERE name = ?1)", table);
+        int id = dbManager.queryInt("UPDATE main.sqlite_sequence SET seq = MAX(seq, " +
+                                    "(SELECT COALESCE(MAX(" + idColumn + "), 0) FROM " + partition + "." + table + ")) + 1 " +
+                                    "WHERE name = ? RETURNING seq", table);
+        Object[] withId = new Object[params.length + 1];
+        withId[0] = id;
+        System.arraycopy(params, 0, withId, 1, params.length);
+        dbManager.executeUpdate("INSERT INTO " + partition + "." + table + " (" + idColumn + ", " + columns + ") " +
+                                "VALUES (?, " + values + ")", withId);
+        return id;
+    }
+
+    private static Map<Integer, String> lruCache() {
+        return new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, String> eldest) {
+                return size() > CACHE_SIZE;
+            }
+        };
+    }
+}
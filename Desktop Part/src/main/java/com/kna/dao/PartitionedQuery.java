@@ -0,0 +1,166 @@
+package com.kna.dao;
+
+import com.kna.util.DatabaseManager;
+import com.kna.util.RowMapper;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * PartitionedQuery - Runs one SELECT against each storage partition (the main database, the
+ * category partitions and the attached archive; see PartitionRouter) and combines the results.
+ * The SQL names the partition's tables as {db}.table. For a merged listing every partition
+ * returns its rows already sorted by the query's ORDER BY (which must end in a unique key and
+ * agree with the comparator), and a k-way merge over the partitions' heads produces the page;
+ * a page at offset n reads the first n + limit rows of each partition. Main and the archive
+ * alone are queried one after another on the application's connection. With category
+ * partitions the partitions are queried all at once, each on its own read-only connection.
+ */
+class PartitionedQuery<T> {
+
+    static final String MAIN = "main";
+    static final String ARCHIVE = "archive";
+
+    // Runs the partitions' queries of a fan-out; a query past these waits for a free thread
+    private static final int FAN_OUT_THREADS = Math.min(8, Runtime.getRuntime().availableProcessors());
+    private static final ExecutorService FAN_OUT = Executors.newFixedThreadPool(FAN_OUT_THREADS, r -> {
+        Thread thread = new Thread(r, "kna-partition-query");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final String sql;
+    private final RowMapper<T> mapper;
+    private final Comparator<T> order;
+
+    /**
+     * @param sql SELECT with {db} placeholders; for fetch() it ends in an ORDER BY and takes no LIMIT
+     * @param order the ORDER BY as a comparator (null when only route() is used)
+     */
+    PartitionedQuery(String sql, RowMapper<T> mapper, Comparator<T> order) {
+        this.sql = sql;
+        this.mapper = mapper;
+        this.order = order;
+    }
+
+    /**
+     * One page of the merged, sorted rows of the given partitions (limit -1 for all rows)
+     */
+    List<T> fetch(DatabaseManager dbManager, List<String> partitions, int limit, int offset, Object... params)
+            throws SQLException {
+        Object[] limited = new Object[params.length + 1];
+        System.arraycopy(params, 0, limited, 0, params.length);
+        // As a long: offset + limit must not wrap around to a negative number, which SQLite reads as no limit
+        limited[params.length] = limit < 0 ? -1L : (long) offset + limit;
+
+        PriorityQueue<Head<T>> heads = new PriorityQueue<>((a, b) -> order.compare(a.row(), b.row()));
+        for (List<T> rows : query(dbManager, partitions, " LIMIT ?", limited)) {
+            if (!rows.isEmpty()) {
+                heads.add(new Head<>(rows));
+            }
+        }
+
+        List<T> page = new ArrayList<>();
+        int skipped = 0;
+        while ((limit < 0 || page.size() < limit) && !heads.isEmpty()) {
+            Head<T> head = heads.poll();
+            if (skipped < offset) {
+                skipped++;
+            } else {
+                page.add(head.row());
+            }
+            if (++head.position < head.rows.size()) {
+                heads.add(head);
+            }
+        }
+        return page;
+    }
+
+    /**
+     * The rows of each partition, in the order of partitions. The partitions are queried in
+     * parallel on their read connections (DatabaseManager.queryPartition) when there are
+     * category partitions, unless the calling thread holds the database lock: a transaction's
+     * own writes are only seen through the shared connection.
+     */
+    private List<List<T>> query(DatabaseManager dbManager, List<String> partitions, String suffix, Object[] params)
+            throws SQLException {
+        List<List<T>> results = new ArrayList<>(partitions.size());
+        if (partitions.size() < 2 || dbManager.getPartitions().isEmpty() || dbManager.isLockedByCurrentThread()) {
+            for (String partition : partitions) {
+                results.add(dbManager.queryList(sql.replace("{db}", partition) + suffix, mapper, params));
+            }
+            return results;
+        }
+
+        List<Future<List<T>>> futures = new ArrayList<>(partitions.size());
+        for (String partition : partitions) {
+            String partitionSql = sql.replace("{db}", partition) + suffix;
+            futures.add(FAN_OUT.submit(() -> dbManager.queryPartition(partition, partitionSql, mapper, params)));
+        }
+        try {
+            for (Future<List<T>> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof SQLException) {
+                throw (SQLException) e.getCause();
+            }
+            throw new SQLException("Partition query failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while querying the partitions", e);
+        } finally {
+            for (Future<List<T>> future : futures) {
+                future.cancel(false);
+            }
+        }
+    }
+
+    /**
+     * The SQL of each partition joined with separator, e.g. " UNION ALL ", for a statement that
+     * combines the partitions itself (on the shared connection)
+     */
+    static String expand(String sql, List<String> partitions, String separator) {
+        List<String> members = new ArrayList<>(partitions.size());
+        for (String partition : partitions) {
+            members.add(sql.replace("{db}", partition));
+        }
+        return String.join(separator, members);
+    }
+
+    /**
+     * The rows of the first of the given partitions that has any, for data that is stored
+     * together (a question's answers live in the partition of the question)
+     */
+    List<T> route(DatabaseManager dbManager, List<String> partitions, Object... params) throws SQLException {
+        List<T> rows = new ArrayList<>();
+        for (String partition : partitions) {
+            rows = dbManager.queryList(sql.replace("{db}", partition), mapper, params);
+            if (!rows.isEmpty()) {
+                break;
+            }
+        }
+        return rows;
+    }
+
+    private static class Head<T> {
+        final List<T> rows;
+        int position;
+
+        Head(List<T> rows) {
+            this.rows = rows;
+        }
+
+        T row() {
+            return rows.get(position);
+        }
+    }
+}
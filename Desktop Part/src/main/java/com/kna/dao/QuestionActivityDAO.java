@@ -0,0 +1,91 @@
+package com.kna.dao;
+
+import com.kna.util.DatabaseManager;
+
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * QuestionActivityDAO - Recomputes the denormalized activity columns of questions
+ * (answer_count, score, last_activity_at) and answers (net_score) from answers and votes.
+ * AnswerDAO keeps them current as answers and votes change; this fills in rows that were
+ * never counted (written before the columns existed, or by bulk loads) and repairs drift,
+ * in main and the category partitions.
+ */
+public class QuestionActivityDAO {
+
+    // Recounts the questions selected by the appended condition. Activity times are only
+    // moved forward, since removed votes no longer show up in answer_votes.
+    // The statement names the partition's tables as {db}.table.
+    private static final String RECOUNT = "UPDATE {db}.questions SET " +
+        "answer_count = (SELECT COUNT(*) FROM {db}.answers a WHERE a.question_id = questions.question_id), " +
+        "score = COALESCE((SELECT SUM(a.upvotes - a.downvotes) FROM {db}.answers a " +
+        "   WHERE a.question_id = questions.question_id), 0), " +
+        "last_activity_at = MAX(COALESCE(last_activity_at, ''), COALESCE(created_at, ''), " +
+        "   COALESCE((SELECT MAX(a.created_at) FROM {db}.answers a WHERE a.question_id = questions.question_id), ''), " +
+        "   COALESCE((SELECT MAX(v.created_at) FROM {db}.answer_votes v JOIN {db}.answers a ON v.answer_id = a.answer_id " +
+        "       WHERE a.question_id = questions.question_id), '')) ";
+
+    private final DatabaseManager dbManager;
+
+    public QuestionActivityDAO() {
+        this.dbManager = DatabaseManager.getInstance();
+    }
+
+    /**
+     * Count up to limit questions that have never been counted (found through
+     * idx_questions_uncounted). Returns the number of rows counted.
+     */
+    public int countUncounted(int limit) throws SQLException {
+        String sql = RECOUNT + "WHERE question_id IN " +
+                     "(SELECT question_id FROM {db}.questions WHERE answer_count IS NULL ORDER BY question_id LIMIT ?)";
+        return updateEach(sql, limit);
+    }
+
+    /**
+     * Set net_score on up to limit answers that have none (found through idx_answers_unscored).
+     * Returns the number of rows scored.
+     */
+    public int scoreUnscoredAnswers(int limit) throws SQLException {
+        // Ordered by id so SQLite takes the partial index rather than scanning
+        // idx_answers_question_order, which also holds net_score
+        String sql = "UPDATE {db}.answers SET net_score = upvotes - downvotes WHERE answer_id IN " +
+                     "(SELECT answer_id FROM {db}.answers WHERE net_score IS NULL ORDER BY answer_id LIMIT ?)";
+        return updateEach(sql, limit);
+    }
+
+    /**
+     * Run an UPDATE of at most limit rows (its last parameter) in each live partition, until
+     * limit rows in all have been updated
+     */
+    private int updateEach(String sql, int limit) throws SQLException {
+        int updated = 0;
+        for (String partition : PartitionRouter.live(dbManager)) {
+            if (updated >= limit) {
+                break;
+            }
+            updated += dbManager.executeUpdate(sql.replace("{db}", partition), limit - updated);
+        }
+        return updated;
+    }
+
+    /**
+     * Recount the next limit questions after afterId, in id order, and their answers' net
+     * scores. Returns the last id recounted, or 0 past the end.
+     */
+    public int recount(int afterId, int limit) throws SQLException {
+        List<String> partitions = PartitionRouter.live(dbManager);
+        int lastId = dbManager.queryInt("SELECT MAX(question_id) FROM (SELECT question_id FROM (" +
+            PartitionedQuery.expand("SELECT question_id FROM {db}.questions WHERE question_id > ?1", partitions, " UNION ALL ") +
+            ") ORDER BY question_id LIMIT ?2)", afterId, limit);
+        if (lastId > 0) {
+            for (String partition : partitions) {
+                dbManager.executeUpdate("UPDATE " + partition + ".answers SET net_score = upvotes - downvotes " +
+                    "WHERE question_id > ? AND question_id <= ? AND net_score IS NOT upvotes - downvotes", afterId, lastId);
+                dbManager.executeUpdate(RECOUNT.replace("{db}", partition) + "WHERE question_id > ? AND question_id <= ?",
+                                        afterId, lastId);
+            }
+        }
+        return lastId;
+    }
+}
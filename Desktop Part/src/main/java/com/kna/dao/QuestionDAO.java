@@ -1,17 +1,56 @@
 package com.kna.dao;
 
 import com.kna.model.Question;
+import com.kna.util.DataEvents;
 import com.kna.util.DatabaseManager;
 
-import java.sql.*;
+import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * QuestionDAO - Data Access Object for Question entity
  */
 public class QuestionDAO {
     
+    // Admin table paging: only indexed columns are sortable, so deep pages stay cheap on large tables
+    private static final KeysetQuery<Question> QUESTION_PAGES = new KeysetQuery<>("q.*, u.name AS user_name",
+            "{db}.questions q JOIN main.users u ON q.user_id = u.user_id", "q.question_id", RowMappers.QUESTION)
+        .sortable("id", "q.question_id")
+        .sortable("category", "q.category")
+        .sortable("reward", "q.coin_reward")
+        .sortable("urgent", "q.is_urgent")
+        .sortable("created", "q.created_at")
+        .searchable("q.title")
+        .searchable("u.name");
+
+    // Feed orders
+    public static final String SORT_NEWEST = "newest";
+    public static final String SORT_HOT = "hot";
+
+    // Feed and search orders across partitions; each matches its ORDER BY, with NULLs last
+    private static final Comparator<Question> NEWEST_ORDER = Comparator
+        .comparing(Question::isUrgent).reversed()
+        .thenComparing(Question::getCreatedAt, Comparator.nullsFirst(Comparator.<Timestamp>naturalOrder()).reversed())
+        .thenComparing(Comparator.comparingInt(Question::getQuestionId).reversed());
+    private static final Comparator<Question> HOT_ORDER = Comparator
+        .comparing(Question::getHotScore, Comparator.nullsFirst(Comparator.<Double>naturalOrder()).reversed())
+        .thenComparing(Comparator.comparingInt(Question::getQuestionId).reversed());
+    private static final Comparator<Question> CREATED_ORDER = Comparator
+        .comparing(Question::getCreatedAt, Comparator.nullsFirst(Comparator.<Timestamp>naturalOrder()).reversed())
+        .thenComparing(Comparator.comparingInt(Question::getQuestionId).reversed());
+
+    private static final int SEARCH_LIMIT = 50;
+
+    // My Questions paging: newest first through idx_questions_user_status, archived ones included
+    private static final KeysetQuery<Question> USER_QUESTION_PAGES = new KeysetQuery<>("q.*, '{db}' AS source_db",
+            "{db}.questions q", "q.question_id", RowMappers.QUESTION);
+    
     private final DatabaseManager dbManager;
 
     public QuestionDAO() {
@@ -19,49 +58,91 @@ public class QuestionDAO {
     }
 
     /**
-     * Create a new question
+     * Create the partition of a category if category partitioning is on; call it before the
+     * transaction that asks a question, which cannot create one
+     */
+    public void preparePartition(String category) {
+        dbManager.attachPartition(category);
+    }
+
+    /**
+     * Create a new question, in the partition of its category when it has one
      */
     public int createQuestion(Question question) throws SQLException {
-        String sql = "INSERT INTO questions (user_id, title, description, category, is_urgent, coin_reward) " +
-                     "VALUES (?, ?, ?, ?, ?, ?)";
+        String columns = "user_id, title, description, category, is_urgent, coin_reward, hot_score, " +
+                         "answer_count, score, last_activity_at";
+        String values = "?, ?, ?, ?, ?, ?, ? * " + HotScoreDAO.NOW_NEW_QUESTION + ", 0, 0, CURRENT_TIMESTAMP";
         
-        return dbManager.executeUpdateWithKey(sql,
+        int questionId = PartitionRouter.insert(dbManager,
+            PartitionRouter.forNewQuestion(dbManager, question.getCategory()), "questions", "question_id", columns, values,
             question.getUserId(),
             question.getTitle(),
             question.getDescription(),
             question.getCategory(),
             question.isUrgent() ? 1 : 0,
-            question.getCoinReward()
+            question.getCoinReward(),
+            HotScoreDAO.ASK_WEIGHT + HotScoreDAO.REWARD_WEIGHT * question.getCoinReward()
         );
+        DataEvents.publish(DataEvents.Topic.QUESTIONS);
+        return questionId;
     }
 
     /**
      * Get question by ID
      */
     public Question findById(int questionId) throws SQLException {
-        String sql = "SELECT q.*, u.name as user_name FROM questions q " +
-                     "JOIN users u ON q.user_id = u.user_id " +
+        String sql = "SELECT q.*, u.name as user_name FROM " + PartitionRouter.ofQuestion(dbManager, questionId) + ".questions q " +
+                     "JOIN main.users u ON q.user_id = u.user_id " +
                      "WHERE q.question_id = ?";
         
-        try (PreparedStatement pstmt = dbManager.getConnection().prepareStatement(sql)) {
-            pstmt.setInt(1, questionId);
-            ResultSet rs = pstmt.executeQuery();
-            
-            if (rs.next()) {
-                return extractQuestionFromResultSet(rs);
+        return dbManager.queryOne(sql, RowMappers.QUESTION, questionId);
+    }
+
+    /**
+     * Get the questions with the given ids, in that order; deleted ones are left out
+     */
+    public List<Question> findByIds(List<Integer> questionIds) throws SQLException {
+        if (questionIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        String sql = "SELECT q.*, u.name as user_name FROM {db}.questions q " +
+                     "JOIN main.users u ON q.user_id = u.user_id " +
+                     "WHERE q.question_id IN (" + String.join(", ", Collections.nCopies(questionIds.size(), "?")) + ")";
+        Map<Integer, Question> byId = new HashMap<>();
+        for (String partition : PartitionRouter.live(dbManager)) {
+            for (Question question : dbManager.queryList(sql.replace("{db}", partition), RowMappers.QUESTION,
+                                                         questionIds.toArray())) {
+                byId.put(question.getQuestionId(), question);
             }
         }
-        
-        return null;
+        List<Question> questions = new ArrayList<>();
+        for (int questionId : questionIds) {
+            if (byId.containsKey(questionId)) {
+                questions.add(byId.get(questionId));
+            }
+        }
+        return questions;
     }
 
     /**
-     * Get all questions with filters
+     * Get all questions with filters, urgent and newest first
      */
     public List<Question> getAllQuestions(String category, Boolean isUrgent, Boolean isUnanswered, int limit, int offset) throws SQLException {
+        return getAllQuestions(category, isUrgent, isUnanswered, SORT_NEWEST, limit, offset);
+    }
+
+    /**
+     * Get all questions with filters, archived ones included; sort is SORT_HOT for the hot feed
+     * (highest hot score first, through idx_questions_hot), otherwise urgent and newest first
+     * (through idx_questions_urgent_created). The archive only holds answered questions, so
+     * it is skipped for the unanswered feed; a category filter reads main and that category's
+     * partition only.
+     */
+    public List<Question> getAllQuestions(String category, Boolean isUrgent, Boolean isUnanswered, String sort,
+                                          int limit, int offset) throws SQLException {
         StringBuilder sql = new StringBuilder(
-            "SELECT q.*, u.name as user_name FROM questions q " +
-            "JOIN users u ON q.user_id = u.user_id WHERE 1=1 "
+            "SELECT q.*, u.name as user_name, '{db}' AS source_db FROM {db}.questions q " +
+            "JOIN main.users u ON q.user_id = u.user_id WHERE 1=1 "
         );
         
         List<Object> params = new ArrayList<>();
@@ -79,82 +160,59 @@ public class QuestionDAO {
             sql.append("AND q.is_answered = 0 ");
         }
         
-        sql.append("ORDER BY q.is_urgent DESC, q.created_at DESC LIMIT ? OFFSET ?");
-        params.add(limit);
-        params.add(offset);
-        
-        List<Question> questions = new ArrayList<>();
-        
-        try (PreparedStatement pstmt = dbManager.getConnection().prepareStatement(sql.toString())) {
-            for (int i = 0; i < params.size(); i++) {
-                pstmt.setObject(i + 1, params.get(i));
-            }
-            
-            ResultSet rs = pstmt.executeQuery();
-            
-            while (rs.next()) {
-                questions.add(extractQuestionFromResultSet(rs));
-            }
+        boolean hot = SORT_HOT.equals(sort);
+        if (hot) {
+            sql.append("ORDER BY q.hot_score DESC, q.question_id DESC");
+        } else {
+            sql.append("ORDER BY q.is_urgent DESC, q.created_at DESC, q.question_id DESC");
         }
         
-        return questions;
+        List<String> partitions = isUnanswered != null && isUnanswered
+            ? PartitionRouter.live(dbManager, category) : PartitionRouter.all(dbManager, category);
+        return new PartitionedQuery<>(sql.toString(), RowMappers.QUESTION, hot ? HOT_ORDER : NEWEST_ORDER)
+            .fetch(dbManager, partitions, limit, offset, params.toArray());
     }
 
     /**
-     * Get questions by user ID
+     * Get questions by user ID, archived ones included, newest first
      */
     public List<Question> getQuestionsByUserId(int userId) throws SQLException {
-        String sql = "SELECT q.*, u.name as user_name FROM questions q " +
-                     "JOIN users u ON q.user_id = u.user_id " +
-                     "WHERE q.user_id = ? ORDER BY q.created_at DESC";
+        String sql = "SELECT q.*, u.name as user_name, '{db}' AS source_db FROM {db}.questions q " +
+                     "JOIN main.users u ON q.user_id = u.user_id " +
+                     "WHERE q.user_id = ? ORDER BY q.created_at DESC, q.question_id DESC";
         
-        List<Question> questions = new ArrayList<>();
-        
-        try (PreparedStatement pstmt = dbManager.getConnection().prepareStatement(sql)) {
-            pstmt.setInt(1, userId);
-            ResultSet rs = pstmt.executeQuery();
-            
-            while (rs.next()) {
-                questions.add(extractQuestionFromResultSet(rs));
-            }
-        }
-        
-        return questions;
+        return new PartitionedQuery<>(sql, RowMappers.QUESTION, CREATED_ORDER)
+            .fetch(dbManager, PartitionRouter.all(dbManager), -1, 0, userId);
     }
 
     /**
      * Get unevaluated questions count by user
      */
     public int getUnevaluatedCount(int userId) throws SQLException {
-        String sql = "SELECT COUNT(*) FROM questions WHERE user_id = ? AND is_evaluated = 0 AND is_answered = 1";
-        
-        try (PreparedStatement pstmt = dbManager.getConnection().prepareStatement(sql)) {
-            pstmt.setInt(1, userId);
-            ResultSet rs = pstmt.executeQuery();
-            
-            if (rs.next()) {
-                return rs.getInt(1);
-            }
-        }
-        
-        return 0;
+        String sql = "SELECT COUNT(*) AS n FROM {db}.questions WHERE user_id = ?1 AND is_evaluated = 0 AND is_answered = 1";
+        return dbManager.queryInt("SELECT SUM(n) FROM (" +
+                                  PartitionedQuery.expand(sql, PartitionRouter.live(dbManager), " UNION ALL ") + ")", userId);
     }
 
     /**
      * Mark question as answered
      */
     public boolean markAsAnswered(int questionId, int answerId) throws SQLException {
-        String sql = "UPDATE questions SET is_answered = 1, accepted_answer_id = ?, is_evaluated = 1, " +
+        String sql = "UPDATE " + PartitionRouter.ofQuestion(dbManager, questionId) + ".questions SET is_answered = 1, accepted_answer_id = ?, is_evaluated = 1, " +
                      "updated_at = CURRENT_TIMESTAMP WHERE question_id = ?";
         
-        return dbManager.executeUpdate(sql, answerId, questionId) > 0;
+        boolean updated = dbManager.executeUpdate(sql, answerId, questionId) > 0;
+        if (updated) {
+            DataEvents.publish(DataEvents.Topic.QUESTIONS);
+        }
+        return updated;
     }
 
     /**
      * Mark question as evaluated
      */
     public boolean markAsEvaluated(int questionId) throws SQLException {
-        String sql = "UPDATE questions SET is_evaluated = 1, updated_at = CURRENT_TIMESTAMP WHERE question_id = ?";
+        String sql = "UPDATE " + PartitionRouter.ofQuestion(dbManager, questionId) + ".questions SET is_evaluated = 1, updated_at = CURRENT_TIMESTAMP WHERE question_id = ?";
         return dbManager.executeUpdate(sql, questionId) > 0;
     }
 
@@ -162,93 +220,81 @@ public class QuestionDAO {
      * Increment view count
      */
     public boolean incrementViewCount(int questionId) throws SQLException {
-        String sql = "UPDATE questions SET view_count = view_count + 1 WHERE question_id = ?";
-        return dbManager.executeUpdate(sql, questionId) > 0;
+        String sql = "UPDATE " + PartitionRouter.ofQuestion(dbManager, questionId) + ".questions SET view_count = view_count + 1, " +
+                     "hot_score = hot_score + ? * " + HotScoreDAO.NOW + " WHERE question_id = ?";
+        return dbManager.executeUpdate(sql, HotScoreDAO.VIEW_WEIGHT, questionId) > 0;
+    }
+
+    /**
+     * Add the weight of an event happening now (e.g. a new answer) to a question's hot score
+     */
+    public boolean addHotScore(int questionId, double weight) throws SQLException {
+        String sql = "UPDATE " + PartitionRouter.ofQuestion(dbManager, questionId) + ".questions SET hot_score = hot_score + ? * " + HotScoreDAO.NOW + " WHERE question_id = ?";
+        return dbManager.executeUpdate(sql, weight, questionId) > 0;
     }
 
     /**
-     * Search questions
+     * One page of questions for the admin table; filter matches the title or the asker's name
+     */
+    public Page<Question> getQuestionsPage(PageRequest request) throws SQLException {
+        return QUESTION_PAGES.fetch(dbManager, PartitionRouter.live(dbManager), request, null);
+    }
+
+    /**
+     * One page of a user's questions, archived ones included; status is "answered", "pending",
+     * "urgent" or anything else for all (pending ones are never archived)
+     */
+    public Page<Question> getQuestionsByUserPage(int userId, String status, PageRequest request) throws SQLException {
+        String condition = switch (status != null ? status : "all") {
+            case "answered" -> "q.user_id = ? AND q.is_answered = 1";
+            case "pending" -> "q.user_id = ? AND q.is_answered = 0";
+            case "urgent" -> "q.user_id = ? AND q.is_urgent = 1";
+            default -> "q.user_id = ?";
+        };
+        List<String> partitions = "pending".equals(status) ? PartitionRouter.live(dbManager) : PartitionRouter.all(dbManager);
+        return USER_QUESTION_PAGES.fetch(dbManager, partitions, request, condition, userId);
+    }
+
+    /**
+     * Search questions, archived ones included, newest first
      */
     public List<Question> searchQuestions(String searchTerm) throws SQLException {
-        String sql = "SELECT q.*, u.name as user_name FROM questions q " +
-                     "JOIN users u ON q.user_id = u.user_id " +
+        String sql = "SELECT q.*, u.name as user_name, '{db}' AS source_db FROM {db}.questions q " +
+                     "JOIN main.users u ON q.user_id = u.user_id " +
                      "WHERE q.title LIKE ? OR q.description LIKE ? " +
-                     "ORDER BY q.created_at DESC LIMIT 50";
+                     "ORDER BY q.created_at DESC, q.question_id DESC";
         
-        List<Question> questions = new ArrayList<>();
         String searchPattern = "%" + searchTerm + "%";
-        
-        try (PreparedStatement pstmt = dbManager.getConnection().prepareStatement(sql)) {
-            pstmt.setString(1, searchPattern);
-            pstmt.setString(2, searchPattern);
-            ResultSet rs = pstmt.executeQuery();
-            
-            while (rs.next()) {
-                questions.add(extractQuestionFromResultSet(rs));
-            }
-        }
-        
-        return questions;
+        return new PartitionedQuery<>(sql, RowMappers.QUESTION, CREATED_ORDER)
+            .fetch(dbManager, PartitionRouter.all(dbManager), SEARCH_LIMIT, 0, searchPattern, searchPattern);
     }
 
     /**
      * Delete question
      */
     public boolean deleteQuestion(int questionId) throws SQLException {
-        String sql = "DELETE FROM questions WHERE question_id = ?";
-        return dbManager.executeUpdate(sql, questionId) > 0;
+        String sql = "DELETE FROM " + PartitionRouter.ofQuestion(dbManager, questionId) + ".questions WHERE question_id = ?";
+        boolean deleted = dbManager.executeUpdate(sql, questionId) > 0;
+        if (deleted) {
+            DataEvents.publish(DataEvents.Topic.QUESTIONS);
+        }
+        return deleted;
     }
 
     /**
      * Add image to question
      */
     public boolean addQuestionImage(int questionId, String imagePath) throws SQLException {
-        String sql = "INSERT INTO question_images (question_id, image_path) VALUES (?, ?)";
-        return dbManager.executeUpdate(sql, questionId, imagePath) > 0;
+        PartitionRouter.insert(dbManager, PartitionRouter.ofQuestion(dbManager, questionId), "question_images", "image_id",
+                               "question_id, image_path", "?, ?", questionId, imagePath);
+        return true;
     }
 
     /**
      * Get question image path
      */
     public String getQuestionImagePath(int questionId) throws SQLException {
-        String sql = "SELECT image_path FROM question_images WHERE question_id = ? LIMIT 1";
-        
-        try (PreparedStatement pstmt = dbManager.getConnection().prepareStatement(sql)) {
-            pstmt.setInt(1, questionId);
-            ResultSet rs = pstmt.executeQuery();
-            
-            if (rs.next()) {
-                return rs.getString("image_path");
-            }
-        }
-        
-        return null;
-    }
-
-    /**
-     * Extract Question object from ResultSet
-     */
-    private Question extractQuestionFromResultSet(ResultSet rs) throws SQLException {
-        Question question = new Question();
-        question.setQuestionId(rs.getInt("question_id"));
-        question.setUserId(rs.getInt("user_id"));
-        question.setUserName(rs.getString("user_name"));
-        question.setTitle(rs.getString("title"));
-        question.setDescription(rs.getString("description"));
-        question.setCategory(rs.getString("category"));
-        question.setUrgent(rs.getBoolean("is_urgent"));
-        question.setCoinReward(rs.getInt("coin_reward"));
-        question.setAnswered(rs.getBoolean("is_answered"));
-        question.setEvaluated(rs.getBoolean("is_evaluated"));
-        
-        int acceptedAnswerId = rs.getInt("accepted_answer_id");
-        if (!rs.wasNull()) {
-            question.setAcceptedAnswerId(acceptedAnswerId);
-        }
-        
-        question.setViewCount(rs.getInt("view_count"));
-        question.setCreatedAt(rs.getTimestamp("created_at"));
-        question.setUpdatedAt(rs.getTimestamp("updated_at"));
-        return question;
+        String sql = "SELECT image_path FROM " + PartitionRouter.ofQuestion(dbManager, questionId) + ".question_images WHERE question_id = ? LIMIT 1";
+        return dbManager.queryString(sql, questionId);
     }
 }
@@ -0,0 +1,92 @@
+package com.kna.dao;
+
+import com.kna.model.Question;
+import com.kna.util.DatabaseManager;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * RecommendationDAO - Rows for the "questions you can answer" recommender: answer history per
+ * category and the newest unanswered questions of each category, from main and the category
+ * partitions
+ */
+public class RecommendationDAO {
+
+    private static final PartitionedQuery<Question> UNANSWERED = new PartitionedQuery<>(
+            "SELECT question_id, user_id, category, coin_reward, is_urgent, created_at FROM {db}.questions " +
+            "WHERE category = ? AND is_answered = 0 ORDER BY question_id DESC", RowMappers.QUESTION_CANDIDATE,
+            Comparator.comparingInt(Question::getQuestionId).reversed());
+
+    private final DatabaseManager dbManager;
+
+    public RecommendationDAO() {
+        this.dbManager = DatabaseManager.getInstance();
+    }
+
+    /**
+     * Category -> weight of a user's answers in it; accepted answers weigh acceptedWeight, others answerWeight
+     */
+    public Map<String, Double> getCategoryAffinities(int userId, double answerWeight, double acceptedWeight) throws SQLException {
+        String sql = "SELECT q.category, SUM(CASE WHEN a.is_accepted = 1 THEN ? ELSE ? END) AS weight " +
+                     "FROM {db}.answers a JOIN {db}.questions q ON q.question_id = a.question_id " +
+                     "WHERE a.user_id = ? GROUP BY q.category";
+        Map<String, Double> affinities = new HashMap<>();
+        for (String partition : PartitionRouter.live(dbManager)) {
+            for (Map.Entry<String, Double> row : dbManager.queryList(sql.replace("{db}", partition),
+                    RowMappers.CATEGORY_WEIGHT, acceptedWeight, answerWeight, userId)) {
+                affinities.merge(row.getKey(), row.getValue(), Double::sum);
+            }
+        }
+        return affinities;
+    }
+
+    /**
+     * The categories questions have been asked in
+     */
+    public List<String> getCategories() throws SQLException {
+        String sql = "SELECT DISTINCT category, 0 AS weight FROM {db}.questions";
+        Set<String> categories = new LinkedHashSet<>();
+        for (String partition : PartitionRouter.live(dbManager)) {
+            for (Map.Entry<String, Double> row : dbManager.queryList(sql.replace("{db}", partition),
+                    RowMappers.CATEGORY_WEIGHT)) {
+                categories.add(row.getKey());
+            }
+        }
+        return new ArrayList<>(categories);
+    }
+
+    /**
+     * The newest unanswered questions of a category, newest first
+     */
+    public List<Question> getUnansweredQuestions(String category, int limit) throws SQLException {
+        return UNANSWERED.fetch(dbManager, PartitionRouter.live(dbManager, category), limit, 0, category);
+    }
+
+    /**
+     * Which of the given questions the user has already answered
+     */
+    public List<Integer> getAnsweredQuestionIds(int userId, List<Integer> questionIds) throws SQLException {
+        if (questionIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        // The unary + keeps SQLite off the user_id indexes: a few lookups by question beat
+        // scanning all of a prolific answerer's answers
+        String sql = "SELECT DISTINCT question_id FROM {db}.answers WHERE question_id IN (" +
+                     String.join(", ", Collections.nCopies(questionIds.size(), "?")) + ") AND +user_id = ?";
+        List<Object> params = new ArrayList<>(questionIds);
+        params.add(userId);
+        List<Integer> answered = new ArrayList<>();
+        for (String partition : PartitionRouter.live(dbManager)) {
+            answered.addAll(dbManager.queryList(sql.replace("{db}", partition), RowMappers.QUESTION_ID, params.toArray()));
+        }
+        return answered;
+    }
+}
@@ -0,0 +1,350 @@
+package com.kna.dao;
+
+import com.kna.model.AdminStats;
+import com.kna.model.Answer;
+import com.kna.model.CoinPurchase;
+import com.kna.model.CoinTransaction;
+import com.kna.model.Notification;
+import com.kna.model.Question;
+import com.kna.model.SearchSuggestion;
+import com.kna.model.Session;
+import com.kna.model.User;
+import com.kna.model.UserActivityStats;
+import com.kna.util.RowMapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.AbstractMap;
+import java.util.Map;
+
+/**
+ * RowMappers - Shared index-based row mappers for all DAOs
+ */
+public final class RowMappers {
+
+    private RowMappers() {}
+
+    /**
+     * Maps questions rows (joined with users.name as user_name; source_db names the partition of
+     * a PartitionedQuery row)
+     */
+    public static final RowMapper<Question> QUESTION = new RowMapper<>(
+            "question_id", "user_id", "user_name", "title", "description", "category", "is_urgent",
+            "coin_reward", "is_answered", "is_evaluated", "accepted_answer_id", "view_count",
+            "created_at", "updated_at", "answer_count", "score", "last_activity_at", "hot_score",
+            "source_db") {
+        @Override
+        protected Question mapRow(ResultSet rs, int[] idx) throws SQLException {
+            Question question = new Question();
+            question.setQuestionId(rs.getInt(idx[0]));
+            question.setUserId(rs.getInt(idx[1]));
+            if (idx[2] > 0) {
+                question.setUserName(rs.getString(idx[2]));
+            }
+            question.setTitle(rs.getString(idx[3]));
+            question.setDescription(rs.getString(idx[4]));
+            question.setCategory(rs.getString(idx[5]));
+            question.setUrgent(rs.getBoolean(idx[6]));
+            question.setCoinReward(rs.getInt(idx[7]));
+            question.setAnswered(rs.getBoolean(idx[8]));
+            question.setEvaluated(rs.getBoolean(idx[9]));
+            question.setAcceptedAnswerId(getNullableInt(rs, idx[10]));
+            question.setViewCount(rs.getInt(idx[11]));
+            question.setCreatedAt(rs.getTimestamp(idx[12]));
+            question.setUpdatedAt(rs.getTimestamp(idx[13]));
+            if (idx[14] > 0) {
+                question.setAnswerCount(rs.getInt(idx[14]));
+                question.setScore(rs.getInt(idx[15]));
+                question.setLastActivityAt(rs.getTimestamp(idx[16]));
+            }
+            if (idx[17] > 0) {
+                double hotScore = rs.getDouble(idx[17]);
+                question.setHotScore(rs.wasNull() ? null : hotScore);
+            }
+            if (idx[18] > 0) {
+                question.setArchived(PartitionedQuery.ARCHIVE.equals(rs.getString(idx[18])));
+            }
+            return question;
+        }
+    };
+
+    /**
+     * Maps answers rows (joined with users.name as user_name; optionally with question_title,
+     * the ledger's coins_awarded and the partition as source_db)
+     */
+    public static final RowMapper<Answer> ANSWER = new RowMapper<>(
+            "answer_id", "question_id", "user_id", "user_name", "content", "is_accepted", "rating",
+            "upvotes", "downvotes", "created_at", "updated_at", "question_title", "coins_awarded", "source_db") {
+        @Override
+        protected Answer mapRow(ResultSet rs, int[] idx) throws SQLException {
+            Answer answer = new Answer();
+            answer.setAnswerId(rs.getInt(idx[0]));
+            answer.setQuestionId(rs.getInt(idx[1]));
+            answer.setUserId(rs.getInt(idx[2]));
+            if (idx[3] > 0) {
+                answer.setUserName(rs.getString(idx[3]));
+            }
+            answer.setContent(rs.getString(idx[4]));
+            answer.setAccepted(rs.getBoolean(idx[5]));
+            answer.setRating(rs.getInt(idx[6]));
+            answer.setUpvotes(rs.getInt(idx[7]));
+            answer.setDownvotes(rs.getInt(idx[8]));
+            answer.setCreatedAt(rs.getTimestamp(idx[9]));
+            answer.setUpdatedAt(rs.getTimestamp(idx[10]));
+            if (idx[11] > 0) {
+                answer.setQuestionTitle(rs.getString(idx[11]));
+            }
+            if (idx[12] > 0) {
+                answer.setCoinsAwarded(rs.getInt(idx[12]));
+            }
+            if (idx[13] > 0) {
+                answer.setArchived(PartitionedQuery.ARCHIVE.equals(rs.getString(idx[13])));
+            }
+            return answer;
+        }
+    };
+
+    /**
+     * Maps users rows
+     */
+    public static final RowMapper<User> USER = new RowMapper<>(
+            "user_id", "email", "phone", "password_hash", "name", "department", "academic_year",
+            "coins", "reputation", "total_questions", "total_answers", "accepted_answers",
+            "is_active", "is_admin", "created_at", "updated_at") {
+        @Override
+        protected User mapRow(ResultSet rs, int[] idx) throws SQLException {
+            User user = new User();
+            user.setUserId(rs.getInt(idx[0]));
+            user.setEmail(rs.getString(idx[1]));
+            user.setPhone(rs.getString(idx[2]));
+            user.setPasswordHash(rs.getString(idx[3]));
+            user.setName(rs.getString(idx[4]));
+            user.setDepartment(rs.getString(idx[5]));
+            user.setAcademicYear(rs.getInt(idx[6]));
+            user.setCoins(rs.getInt(idx[7]));
+            user.setReputation(rs.getInt(idx[8]));
+            user.setTotalQuestions(rs.getInt(idx[9]));
+            user.setTotalAnswers(rs.getInt(idx[10]));
+            user.setAcceptedAnswers(rs.getInt(idx[11]));
+            user.setActive(rs.getBoolean(idx[12]));
+            user.setAdmin(rs.getBoolean(idx[13]));
+            user.setCreatedAt(rs.getTimestamp(idx[14]));
+            user.setUpdatedAt(rs.getTimestamp(idx[15]));
+            return user;
+        }
+    };
+
+    /**
+     * Maps notifications rows
+     */
+    public static final RowMapper<Notification> NOTIFICATION = new RowMapper<>(
+            "notification_id", "user_id", "title", "message", "notification_type", "is_read",
+            "reference_id", "reference_type", "created_at") {
+        @Override
+        protected Notification mapRow(ResultSet rs, int[] idx) throws SQLException {
+            Notification notification = new Notification();
+            notification.setNotificationId(rs.getInt(idx[0]));
+            notification.setUserId(rs.getInt(idx[1]));
+            notification.setTitle(rs.getString(idx[2]));
+            notification.setMessage(rs.getString(idx[3]));
+            notification.setNotificationType(rs.getString(idx[4]));
+            notification.setRead(rs.getBoolean(idx[5]));
+            notification.setReferenceId(getNullableInt(rs, idx[6]));
+            notification.setReferenceType(rs.getString(idx[7]));
+            notification.setCreatedAt(rs.getTimestamp(idx[8]));
+            return notification;
+        }
+    };
+
+    /**
+     * Maps sessions rows
+     */
+    public static final RowMapper<Session> SESSION = new RowMapper<>(
+            "session_id", "user_id", "session_token", "created_at", "expires_at") {
+        @Override
+        protected Session mapRow(ResultSet rs, int[] idx) throws SQLException {
+            Session session = new Session();
+            session.setSessionId(rs.getInt(idx[0]));
+            session.setUserId(rs.getInt(idx[1]));
+            session.setSessionToken(rs.getString(idx[2]));
+            session.setCreatedAt(rs.getTimestamp(idx[3]));
+            session.setExpiresAt(rs.getTimestamp(idx[4]));
+            return session;
+        }
+    };
+
+    /**
+     * Maps coin_transactions rows
+     */
+    public static final RowMapper<CoinTransaction> COIN_TRANSACTION = new RowMapper<>(
+            "transaction_id", "user_id", "amount", "transaction_type", "description",
+            "reference_id", "reference_type", "balance_after", "created_at") {
+        @Override
+        protected CoinTransaction mapRow(ResultSet rs, int[] idx) throws SQLException {
+            CoinTransaction transaction = new CoinTransaction();
+            transaction.setTransactionId(rs.getInt(idx[0]));
+            transaction.setUserId(rs.getInt(idx[1]));
+            transaction.setAmount(rs.getInt(idx[2]));
+            transaction.setTransactionType(rs.getString(idx[3]));
+            transaction.setDescription(rs.getString(idx[4]));
+            transaction.setReferenceId(getNullableInt(rs, idx[5]));
+            transaction.setReferenceType(rs.getString(idx[6]));
+            transaction.setBalanceAfter(rs.getInt(idx[7]));
+            transaction.setCreatedAt(rs.getTimestamp(idx[8]));
+            return transaction;
+        }
+    };
+
+    /**
+     * Maps coin_purchases rows
+     */
+    public static final RowMapper<CoinPurchase> COIN_PURCHASE = new RowMapper<>(
+            "purchase_id", "user_id", "coins_purchased", "amount_paid", "payment_method",
+            "payment_status", "transaction_id", "created_at") {
+        @Override
+        protected CoinPurchase mapRow(ResultSet rs, int[] idx) throws SQLException {
+            CoinPurchase purchase = new CoinPurchase();
+            purchase.setPurchaseId(rs.getInt(idx[0]));
+            purchase.setUserId(rs.getInt(idx[1]));
+            purchase.setCoinsPurchased(rs.getInt(idx[2]));
+            purchase.setAmountPaid(rs.getBigDecimal(idx[3]));
+            purchase.setPaymentMethod(rs.getString(idx[4]));
+            purchase.setPaymentStatus(rs.getString(idx[5]));
+            purchase.setTransactionId(getNullableInt(rs, idx[6]));
+            purchase.setCreatedAt(rs.getTimestamp(idx[7]));
+            return purchase;
+        }
+    };
+
+    /**
+     * Maps the admin dashboard counters row
+     */
+    public static final RowMapper<AdminStats> ADMIN_STATS = new RowMapper<>(
+            "total_users", "admin_users", "active_users", "total_questions", "answered_questions",
+            "urgent_questions", "total_reports", "pending_reports", "resolved_reports") {
+        @Override
+        protected AdminStats mapRow(ResultSet rs, int[] idx) throws SQLException {
+            AdminStats stats = new AdminStats();
+            stats.setTotalUsers(rs.getInt(idx[0]));
+            stats.setAdminUsers(rs.getInt(idx[1]));
+            stats.setActiveUsers(rs.getInt(idx[2]));
+            stats.setTotalQuestions(rs.getInt(idx[3]));
+            stats.setAnsweredQuestions(rs.getInt(idx[4]));
+            stats.setUrgentQuestions(rs.getInt(idx[5]));
+            stats.setTotalReports(rs.getInt(idx[6]));
+            stats.setPendingReports(rs.getInt(idx[7]));
+            stats.setResolvedReports(rs.getInt(idx[8]));
+            return stats;
+        }
+    };
+
+    /**
+     * Maps the per-user activity counters
+     */
+    public static final RowMapper<UserActivityStats> USER_ACTIVITY_STATS = new RowMapper<>(
+            "total_questions", "answered_questions", "urgent_questions", "coins_spent",
+            "total_answers", "accepted_answers", "coins_earned") {
+        @Override
+        protected UserActivityStats mapRow(ResultSet rs, int[] idx) throws SQLException {
+            UserActivityStats stats = new UserActivityStats();
+            stats.setTotalQuestions(rs.getInt(idx[0]));
+            stats.setAnsweredQuestions(rs.getInt(idx[1]));
+            stats.setUrgentQuestions(rs.getInt(idx[2]));
+            stats.setCoinsSpent(rs.getInt(idx[3]));
+            stats.setTotalAnswers(rs.getInt(idx[4]));
+            stats.setAcceptedAnswers(rs.getInt(idx[5]));
+            stats.setCoinsEarned(rs.getInt(idx[6]));
+            return stats;
+        }
+    };
+
+    /**
+     * Maps (question_id, title, category) rows to question suggestions
+     */
+    public static final RowMapper<SearchSuggestion> QUESTION_SUGGESTION = new RowMapper<>(
+            "question_id", "title", "category") {
+        @Override
+        protected SearchSuggestion mapRow(ResultSet rs, int[] idx) throws SQLException {
+            return new SearchSuggestion(SearchSuggestion.Type.QUESTION,
+                rs.getInt(idx[0]), rs.getString(idx[1]), rs.getString(idx[2]));
+        }
+    };
+
+    /**
+     * Maps (user_id, name, department) rows to user suggestions
+     */
+    public static final RowMapper<SearchSuggestion> USER_SUGGESTION = new RowMapper<>(
+            "user_id", "name", "department") {
+        @Override
+        protected SearchSuggestion mapRow(ResultSet rs, int[] idx) throws SQLException {
+            return new SearchSuggestion(SearchSuggestion.Type.USER,
+                rs.getInt(idx[0]), rs.getString(idx[1]), rs.getString(idx[2]));
+        }
+    };
+
+    /**
+     * Maps (question_id, title, description, is_answered) rows for the similarity index
+     */
+    public static final RowMapper<Question> QUESTION_TEXT = new RowMapper<>(
+            "question_id", "title", "description", "is_answered") {
+        @Override
+        protected Question mapRow(ResultSet rs, int[] idx) throws SQLException {
+            Question question = new Question();
+            question.setQuestionId(rs.getInt(idx[0]));
+            question.setTitle(rs.getString(idx[1]));
+            question.setDescription(rs.getString(idx[2]));
+            question.setAnswered(rs.getBoolean(idx[3]));
+            return question;
+        }
+    };
+
+    /**
+     * Maps the questions columns the recommender scores with
+     */
+    public static final RowMapper<Question> QUESTION_CANDIDATE = new RowMapper<>(
+            "question_id", "user_id", "category", "coin_reward", "is_urgent", "created_at") {
+        @Override
+        protected Question mapRow(ResultSet rs, int[] idx) throws SQLException {
+            Question question = new Question();
+            question.setQuestionId(rs.getInt(idx[0]));
+            question.setUserId(rs.getInt(idx[1]));
+            question.setCategory(rs.getString(idx[2]));
+            question.setCoinReward(rs.getInt(idx[3]));
+            question.setUrgent(rs.getBoolean(idx[4]));
+            question.setCreatedAt(rs.getTimestamp(idx[5]));
+            return question;
+        }
+    };
+
+    /**
+     * Maps (category, weight) rows
+     */
+    public static final RowMapper<Map.Entry<String, Double>> CATEGORY_WEIGHT = new RowMapper<>(
+            "category", "weight") {
+        @Override
+        protected Map.Entry<String, Double> mapRow(ResultSet rs, int[] idx) throws SQLException {
+            return new AbstractMap.SimpleEntry<>(rs.getString(idx[0]), rs.getDouble(idx[1]));
+        }
+    };
+
+    /**
+     * Maps (name, count) rows, e.g. tables and their row counts
+     */
+    public static final RowMapper<Map.Entry<String, Long>> NAME_COUNT = new RowMapper<>(
+            "name", "count") {
+        @Override
+        protected Map.Entry<String, Long> mapRow(ResultSet rs, int[] idx) throws SQLException {
+            return new AbstractMap.SimpleEntry<>(rs.getString(idx[0]), rs.getLong(idx[1]));
+        }
+    };
+
+    /**
+     * Maps single question_id rows
+     */
+    public static final RowMapper<Integer> QUESTION_ID = new RowMapper<>("question_id") {
+        @Override
+        protected Integer mapRow(ResultSet rs, int[] idx) throws SQLException {
+            return rs.getInt(idx[0]);
+        }
+    };
+}
@@ -0,0 +1,132 @@
+package com.kna.dao;
+
+import com.kna.model.Question;
+import com.kna.model.SearchSuggestion;
+import com.kna.util.DatabaseManager;
+import com.kna.util.RowMapper;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * SearchDAO - Rows for the search suggestion and question similarity indexes: bulk loading
+ * in id order and primary-key lookups of the few rows shown as suggestions. Questions are read
+ * from main and the category partitions, merged in id order.
+ */
+public class SearchDAO {
+
+    private static final PartitionedQuery<SearchSuggestion> QUESTIONS_AFTER = new PartitionedQuery<>(
+            "SELECT question_id, title, category FROM {db}.questions WHERE question_id > ? ORDER BY question_id",
+            RowMappers.QUESTION_SUGGESTION, Comparator.comparingInt(SearchSuggestion::getId));
+    private static final PartitionedQuery<Question> QUESTION_TEXTS_AFTER = new PartitionedQuery<>(
+            "SELECT question_id, title, description, is_answered FROM {db}.questions WHERE question_id > ? " +
+            "ORDER BY question_id", RowMappers.QUESTION_TEXT, Comparator.comparingInt(Question::getQuestionId));
+
+    private final DatabaseManager dbManager;
+
+    public SearchDAO() {
+        this.dbManager = DatabaseManager.getInstance();
+    }
+
+    /**
+     * Titles and categories of the questions after afterId, in id order
+     */
+    public List<SearchSuggestion> getQuestionsAfter(int afterId, int limit) throws SQLException {
+        return QUESTIONS_AFTER.fetch(dbManager, PartitionRouter.live(dbManager), limit, 0, afterId);
+    }
+
+    /**
+     * Names and departments of the active users after afterId, in id order
+     */
+    public List<SearchSuggestion> getUsersAfter(int afterId, int limit) throws SQLException {
+        String sql = "SELECT user_id, name, department FROM users WHERE user_id > ? AND is_active = 1 " +
+                     "ORDER BY user_id LIMIT ?";
+        return dbManager.queryList(sql, RowMappers.USER_SUGGESTION, afterId, limit);
+    }
+
+    /**
+     * The questions with the given ids, in the order of ids; deleted ones are left out
+     */
+    public List<SearchSuggestion> getQuestionsById(int[] ids) throws SQLException {
+        if (ids.length == 0) {
+            return Collections.emptyList();
+        }
+        String sql = "SELECT question_id, title, category FROM {db}.questions WHERE question_id IN (" +
+                     placeholders(ids.length) + ")";
+        return inOrder(ids, queryEach(sql, RowMappers.QUESTION_SUGGESTION, boxed(ids)));
+    }
+
+    /**
+     * The active users with the given ids, in the order of ids
+     */
+    public List<SearchSuggestion> getUsersById(int[] ids) throws SQLException {
+        if (ids.length == 0) {
+            return Collections.emptyList();
+        }
+        String sql = "SELECT user_id, name, department FROM users WHERE is_active = 1 AND user_id IN (" +
+                     placeholders(ids.length) + ")";
+        return inOrder(ids, dbManager.queryList(sql, RowMappers.USER_SUGGESTION, boxed(ids)));
+    }
+
+    /**
+     * Ids, titles and descriptions of the questions after afterId, in id order
+     */
+    public List<Question> getQuestionTextsAfter(int afterId, int limit) throws SQLException {
+        return QUESTION_TEXTS_AFTER.fetch(dbManager, PartitionRouter.live(dbManager), limit, 0, afterId);
+    }
+
+    /**
+     * Titles and descriptions of the questions with the given ids; deleted ones are left out
+     */
+    public List<Question> getQuestionTextsById(int[] ids) throws SQLException {
+        if (ids.length == 0) {
+            return Collections.emptyList();
+        }
+        String sql = "SELECT question_id, title, description, is_answered FROM {db}.questions " +
+                     "WHERE question_id IN (" + placeholders(ids.length) + ")";
+        return queryEach(sql, RowMappers.QUESTION_TEXT, boxed(ids));
+    }
+
+    /**
+     * The rows of a lookup by primary key in each live partition
+     */
+    private <T> List<T> queryEach(String sql, RowMapper<T> mapper, Object[] params) throws SQLException {
+        List<T> rows = new ArrayList<>();
+        for (String partition : PartitionRouter.live(dbManager)) {
+            rows.addAll(dbManager.queryList(sql.replace("{db}", partition), mapper, params));
+        }
+        return rows;
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    private static Object[] boxed(int[] ids) {
+        Object[] params = new Object[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            params[i] = ids[i];
+        }
+        return params;
+    }
+
+    private static List<SearchSuggestion> inOrder(int[] ids, List<SearchSuggestion> rows) {
+        Map<Integer, SearchSuggestion> byId = new HashMap<>();
+        for (SearchSuggestion row : rows) {
+            byId.put(row.getId(), row);
+        }
+        List<SearchSuggestion> ordered = new ArrayList<>(rows.size());
+        for (int id : ids) {
+            SearchSuggestion row = byId.get(id);
+            if (row != null) {
+                ordered.add(row);
+            }
+        }
+        return ordered;
+    }
+}
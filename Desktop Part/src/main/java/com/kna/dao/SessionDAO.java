@@ -0,0 +1,78 @@
+package com.kna.dao;
+
+import com.kna.model.Session;
+import com.kna.util.DatabaseManager;
+
+import java.sql.SQLException;
+import java.sql.Timestamp;
+
+/**
+ * SessionDAO - Data Access Object for persisted login sessions.
+ * expires_at is bound as a java.sql.Timestamp, which the driver stores as epoch milliseconds,
+ * so expiry checks compare numbers and do not depend on the local time zone.
+ */
+public class SessionDAO {
+
+    private final DatabaseManager dbManager;
+
+    public SessionDAO() {
+        this.dbManager = DatabaseManager.getInstance();
+    }
+
+    /**
+     * Create a new session
+     */
+    public int createSession(Session session) throws SQLException {
+        String sql = "INSERT INTO sessions (user_id, session_token, expires_at) VALUES (?, ?, ?)";
+        return dbManager.executeUpdateWithKey(sql,
+            session.getUserId(),
+            session.getSessionToken(),
+            session.getExpiresAt()
+        );
+    }
+
+    /**
+     * Find an unexpired session by token, or null
+     */
+    public Session findValidByToken(String sessionToken) throws SQLException {
+        String sql = "SELECT * FROM sessions WHERE session_token = ? AND expires_at > ?";
+        return dbManager.queryOne(sql, RowMappers.SESSION, sessionToken, now());
+    }
+
+    /**
+     * Delete a session by token
+     */
+    public boolean deleteByToken(String sessionToken) throws SQLException {
+        String sql = "DELETE FROM sessions WHERE session_token = ?";
+        return dbManager.executeUpdate(sql, sessionToken) > 0;
+    }
+
+    /**
+     * Delete all sessions of a user
+     */
+    public int deleteByUserId(int userId) throws SQLException {
+        String sql = "DELETE FROM sessions WHERE user_id = ?";
+        return dbManager.executeUpdate(sql, userId);
+    }
+
+    /**
+     * Delete up to batchSize expired sessions; returns the number deleted
+     */
+    public int deleteExpired(int batchSize) throws SQLException {
+        String sql = "DELETE FROM sessions WHERE session_id IN " +
+                     "(SELECT session_id FROM sessions WHERE expires_at <= ? LIMIT ?)";
+        return dbManager.executeUpdate(sql, now(), batchSize);
+    }
+
+    /**
+     * Count unexpired sessions
+     */
+    public int countActive() throws SQLException {
+        String sql = "SELECT COUNT(*) FROM sessions WHERE expires_at > ?";
+        return dbManager.queryInt(sql, now());
+    }
+
+    private static Timestamp now() {
+        return new Timestamp(System.currentTimeMillis());
+    }
+}
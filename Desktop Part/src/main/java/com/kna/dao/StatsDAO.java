@@ -0,0 +1,69 @@
+package com.kna.dao;
+
+import com.kna.model.AdminStats;
+import com.kna.model.UserActivityStats;
+import com.kna.util.DatabaseManager;
+
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * StatsDAO - Aggregate counters computed in the database
+ */
+public class StatsDAO {
+
+    private final DatabaseManager dbManager;
+
+    public StatsDAO() {
+        this.dbManager = DatabaseManager.getInstance();
+    }
+
+    /**
+     * All admin dashboard counters in one statement. Flags with an index are counted with
+     * indexed lookups, which read far less than a filtered scan of the wide questions rows;
+     * the user flags have no index and are counted in a single filtered pass. The category
+     * partitions and the archived questions count too; archived ones are all answered.
+     */
+    public AdminStats getAdminStats() throws SQLException {
+        List<String> live = PartitionRouter.live(dbManager);
+        List<String> all = PartitionRouter.all(dbManager);
+        String sql = "SELECT u.total_users, u.admin_users, u.active_users, " +
+                     PartitionedQuery.expand("(SELECT COUNT(*) FROM {db}.questions)", all, " + ") + " AS total_questions, " +
+                     PartitionedQuery.expand("(SELECT COUNT(*) FROM {db}.questions WHERE is_answered = 1)", live, " + ") +
+                     "   + (SELECT COUNT(*) FROM archive.questions) AS answered_questions, " +
+                     PartitionedQuery.expand("(SELECT COUNT(*) FROM {db}.questions WHERE is_urgent = 1)", all, " + ") +
+                     " AS urgent_questions, " +
+                     "(SELECT COUNT(*) FROM reports) AS total_reports, " +
+                     "(SELECT COUNT(*) FROM reports WHERE status = 'pending') AS pending_reports, " +
+                     "(SELECT COUNT(*) FROM reports WHERE status = 'resolved') AS resolved_reports " +
+                     "FROM (SELECT COUNT(*) AS total_users, " +
+                     "             COUNT(*) FILTER (WHERE is_admin = 1) AS admin_users, " +
+                     "             COUNT(*) FILTER (WHERE is_active = 1) AS active_users FROM users) u";
+        return dbManager.queryOne(sql, RowMappers.ADMIN_STATS);
+    }
+
+    /**
+     * One user's counters for the My Questions and My Answers pages, archived posts included.
+     * Everything is looked up through the user_id indexes of every partition; coins come from
+     * the ledger, net of refunds.
+     */
+    public UserActivityStats getUserActivityStats(int userId) throws SQLException {
+        List<String> all = PartitionRouter.all(dbManager);
+        String sql = "SELECT q.total_questions, q.answered_questions, q.urgent_questions, " +
+                     "a.total_answers, a.accepted_answers, " +
+                     "(SELECT COALESCE(-SUM(amount), 0) FROM coin_transactions WHERE user_id = ?1 " +
+                     "   AND reference_type = 'question' AND transaction_type IN ('spent', 'refund')) AS coins_spent, " +
+                     "(SELECT COALESCE(SUM(amount), 0) FROM coin_transactions WHERE user_id = ?1 " +
+                     "   AND reference_type = 'answer' AND transaction_type = 'earned') AS coins_earned " +
+                     "FROM (SELECT COUNT(*) AS total_questions, " +
+                     "             COUNT(*) FILTER (WHERE is_answered = 1) AS answered_questions, " +
+                     "             COUNT(*) FILTER (WHERE is_urgent = 1) AS urgent_questions " +
+                     "      FROM (" + PartitionedQuery.expand("SELECT is_answered, is_urgent FROM {db}.questions WHERE user_id = ?1",
+                                                       all, " UNION ALL ") + ")) q, " +
+                     "     (SELECT COUNT(*) AS total_answers, " +
+                     "             COUNT(*) FILTER (WHERE is_accepted = 1) AS accepted_answers " +
+                     "      FROM (" + PartitionedQuery.expand("SELECT is_accepted FROM {db}.answers WHERE user_id = ?1",
+                                                       all, " UNION ALL ") + ")) a";
+        return dbManager.queryOne(sql, RowMappers.USER_ACTIVITY_STATS, userId);
+    }
+}
@@ -1,13 +1,10 @@
 package com.kna.dao;
 
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Statement;
-import java.util.ArrayList;
 import java.util.List;
 
 import com.kna.model.User;
+import com.kna.util.DataEvents;
 import com.kna.util.DatabaseManager;
 
 /**
@@ -15,6 +12,17 @@ import com.kna.util.DatabaseManager;
  */
 public class UserDAO {
     
+    // Admin table paging: sort keys match the table columns
+    private static final KeysetQuery<User> USER_PAGES = new KeysetQuery<>("*", "users", "user_id", RowMappers.USER)
+        .sortable("id", "user_id")
+        .sortable("name", "name")
+        .sortable("email", "email")
+        .sortable("coins", "coins")
+        .sortable("reputation", "reputation")
+        .sortable("role", "is_admin")
+        .searchable("name")
+        .searchable("email");
+    
     private final DatabaseManager dbManager;
 
     public UserDAO() {
@@ -28,7 +36,7 @@ public class UserDAO {
         String sql = "INSERT INTO users (email, phone, password_hash, name, department, academic_year, coins) " +
                      "VALUES (?, ?, ?, ?, ?, ?, ?)";
         
-        return dbManager.executeUpdateWithKey(sql,
+        int userId = dbManager.executeUpdateWithKey(sql,
             user.getEmail(),
             user.getPhone(),
             user.getPasswordHash(),
@@ -37,6 +45,8 @@ public class UserDAO {
             user.getAcademicYear(),
             user.getCoins() > 0 ? user.getCoins() : 100
         );
+        DataEvents.publish(DataEvents.Topic.USERS);
+        return userId;
     }
 
     /**
@@ -44,17 +54,7 @@ public class UserDAO {
      */
     public User findByEmail(String email) throws SQLException {
         String sql = "SELECT * FROM users WHERE email = ? AND is_active = 1";
-        
-        try (PreparedStatement pstmt = dbManager.getConnection().prepareStatement(sql)) {
-            pstmt.setString(1, email);
-            ResultSet rs = pstmt.executeQuery();
-            
-            if (rs.next()) {
-                return extractUserFromResultSet(rs);
-            }
-        }
-        
-        return null;
+        return dbManager.queryOne(sql, RowMappers.USER, email);
     }
 
     /**
@@ -62,21 +62,11 @@ public class UserDAO {
      */
     public User findById(int userId) throws SQLException {
         String sql = "SELECT * FROM users WHERE user_id = ?";
-        
-        try (PreparedStatement pstmt = dbManager.getConnection().prepareStatement(sql)) {
-            pstmt.setInt(1, userId);
-            ResultSet rs = pstmt.executeQuery();
-            
-            if (rs.next()) {
-                return extractUserFromResultSet(rs);
-            }
-        }
-        
-        return null;
+        return dbManager.queryOne(sql, RowMappers.USER, userId);
     }
 
     /**
-     * Update user profile (PLAIN TEXT PASSWORD)
+     * Update user profile
      */
     public void updateUser(User user) throws SQLException {
         String sql = "UPDATE users SET name = ?, email = ?, department = ?, academic_year = ?, " +
@@ -89,7 +79,7 @@ public class UserDAO {
             user.getEmail(),             // 2
             user.getDepartment(),        // 3
             user.getAcademicYear(),      // 4
-            user.getPasswordHash(),      // 5 - PLAIN TEXT password
+            user.getPasswordHash(),      // 5
             user.getCoins(),             // 6
             user.getReputation(),        // 7
             user.getQuestionsAsked(),    // 8
@@ -97,14 +87,38 @@ public class UserDAO {
             user.getAcceptedAnswers(),   // 10
             user.getUserId()             // 11 - WHERE clause
         );
+        DataEvents.publishUser(user.getUserId());
     }
 
     /**
-     * Update user password (PLAIN TEXT)
+     * Update user password hash
      */
-    public void updatePassword(int userId, String newPassword) throws SQLException {
+    public void updatePassword(int userId, String newPasswordHash) throws SQLException {
         String sql = "UPDATE users SET password_hash = ?, updated_at = CURRENT_TIMESTAMP WHERE user_id = ?";
-        dbManager.executeUpdate(sql, newPassword, userId);
+        dbManager.executeUpdate(sql, newPasswordHash, userId);
+        DataEvents.publishUser(userId);
+    }
+
+    /**
+     * Replace a password hash only if it is still the expected one, so a rehash
+     * never overwrites a password changed in the meantime
+     */
+    public boolean replacePasswordHash(int userId, String expectedHash, String newHash) throws SQLException {
+        String sql = "UPDATE users SET password_hash = ? WHERE user_id = ? AND password_hash = ?";
+        boolean replaced = dbManager.executeUpdate(sql, newHash, userId, expectedHash) > 0;
+        if (replaced) {
+            DataEvents.publishUser(userId);
+        }
+        return replaced;
+    }
+
+    /**
+     * Get the next batch of users (by id, after afterUserId) whose password is not a BCrypt hash yet
+     */
+    public List<User> getUsersWithPlaintextPasswords(int afterUserId, int limit) throws SQLException {
+        String sql = "SELECT * FROM users WHERE user_id > ? AND password_hash NOT GLOB '$2[aby]$*' " +
+                     "ORDER BY user_id LIMIT ?";
+        return dbManager.queryList(sql, RowMappers.USER, afterUserId, limit);
     }
     
     /**
@@ -114,6 +128,7 @@ public class UserDAO {
         String sql = "UPDATE users SET coins = ?, updated_at = CURRENT_TIMESTAMP WHERE user_id = ?";
         
         int rowsAffected = dbManager.executeUpdate(sql, newBalance, userId);
+        DataEvents.publishUser(userId);
         return rowsAffected > 0;
     }
     
@@ -124,6 +139,7 @@ public class UserDAO {
         String sql = "UPDATE users SET reputation = reputation + ?, updated_at = CURRENT_TIMESTAMP WHERE user_id = ?";
         
         int rowsAffected = dbManager.executeUpdate(sql, reputation, userId);
+        DataEvents.publishUser(userId);
         return rowsAffected > 0;
     }
 
@@ -132,7 +148,9 @@ public class UserDAO {
      */
     public boolean incrementQuestions(int userId) throws SQLException {
         String sql = "UPDATE users SET total_questions = total_questions + 1 WHERE user_id = ?";
-        return dbManager.executeUpdate(sql, userId) > 0;
+        boolean updated = dbManager.executeUpdate(sql, userId) > 0;
+        DataEvents.publishUser(userId);
+        return updated;
     }
 
     /**
@@ -140,7 +158,9 @@ public class UserDAO {
      */
     public boolean incrementAnswers(int userId) throws SQLException {
         String sql = "UPDATE users SET total_answers = total_answers + 1 WHERE user_id = ?";
-        return dbManager.executeUpdate(sql, userId) > 0;
+        boolean updated = dbManager.executeUpdate(sql, userId) > 0;
+        DataEvents.publishUser(userId);
+        return updated;
     }
 
     /**
@@ -148,7 +168,9 @@ public class UserDAO {
      */
     public boolean incrementAcceptedAnswers(int userId) throws SQLException {
         String sql = "UPDATE users SET accepted_answers = accepted_answers + 1 WHERE user_id = ?";
-        return dbManager.executeUpdate(sql, userId) > 0;
+        boolean updated = dbManager.executeUpdate(sql, userId) > 0;
+        DataEvents.publishUser(userId);
+        return updated;
     }
 
     /**
@@ -156,17 +178,14 @@ public class UserDAO {
      */
     public List<User> getAllUsers() throws SQLException {
         String sql = "SELECT * FROM users ORDER BY created_at DESC";
-        List<User> users = new ArrayList<>();
-        
-        try (Statement stmt = dbManager.getConnection().createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-            
-            while (rs.next()) {
-                users.add(extractUserFromResultSet(rs));
-            }
-        }
-        
-        return users;
+        return dbManager.queryList(sql, RowMappers.USER);
+    }
+
+    /**
+     * One page of users for the admin table; filter matches name or email
+     */
+    public Page<User> getUsersPage(PageRequest request) throws SQLException {
+        return USER_PAGES.fetch(dbManager, request);
     }
 
     /**
@@ -174,21 +193,8 @@ public class UserDAO {
      */
     public List<User> searchUsers(String searchTerm) throws SQLException {
         String sql = "SELECT * FROM users WHERE (name LIKE ? OR email LIKE ?) AND is_active = 1 LIMIT 20";
-        List<User> users = new ArrayList<>();
-        
         String searchPattern = "%" + searchTerm + "%";
-        
-        try (PreparedStatement pstmt = dbManager.getConnection().prepareStatement(sql)) {
-            pstmt.setString(1, searchPattern);
-            pstmt.setString(2, searchPattern);
-            ResultSet rs = pstmt.executeQuery();
-            
-            while (rs.next()) {
-                users.add(extractUserFromResultSet(rs));
-            }
-        }
-        
-        return users;
+        return dbManager.queryList(sql, RowMappers.USER, searchPattern, searchPattern);
     }
     
     /**
@@ -196,18 +202,7 @@ public class UserDAO {
      */
     public List<User> getTopUsersByReputation(int limit) throws SQLException {
         String sql = "SELECT * FROM users WHERE is_active = 1 ORDER BY reputation DESC, total_answers DESC LIMIT ?";
-        List<User> users = new ArrayList<>();
-        
-        try (PreparedStatement pstmt = dbManager.getConnection().prepareStatement(sql)) {
-            pstmt.setInt(1, limit);
-            ResultSet rs = pstmt.executeQuery();
-            
-            while (rs.next()) {
-                users.add(extractUserFromResultSet(rs));
-            }
-        }
-        
-        return users;
+        return dbManager.queryList(sql, RowMappers.USER, limit);
     }
 
     /**
@@ -215,7 +210,12 @@ public class UserDAO {
      */
     public boolean deactivateUser(int userId) throws SQLException {
         String sql = "UPDATE users SET is_active = 0 WHERE user_id = ?";
-        return dbManager.executeUpdate(sql, userId) > 0;
+        boolean updated = dbManager.executeUpdate(sql, userId) > 0;
+        if (updated) {
+            DataEvents.publishUser(userId);
+            DataEvents.publish(DataEvents.Topic.USERS);
+        }
+        return updated;
     }
 
     /**
@@ -223,40 +223,6 @@ public class UserDAO {
      */
     public boolean emailExists(String email) throws SQLException {
         String sql = "SELECT COUNT(*) FROM users WHERE email = ?";
-        
-        try (PreparedStatement pstmt = dbManager.getConnection().prepareStatement(sql)) {
-            pstmt.setString(1, email);
-            ResultSet rs = pstmt.executeQuery();
-            
-            if (rs.next()) {
-                return rs.getInt(1) > 0;
-            }
-        }
-        
-        return false;
-    }
-
-    /**
-     * Extract User object from ResultSet
-     */
-    private User extractUserFromResultSet(ResultSet rs) throws SQLException {
-        User user = new User();
-        user.setUserId(rs.getInt("user_id"));
-        user.setEmail(rs.getString("email"));
-        user.setPhone(rs.getString("phone"));
-        user.setPasswordHash(rs.getString("password_hash"));
-        user.setName(rs.getString("name"));
-        user.setDepartment(rs.getString("department"));
-        user.setAcademicYear(rs.getInt("academic_year"));
-        user.setCoins(rs.getInt("coins"));
-        user.setReputation(rs.getInt("reputation"));
-        user.setTotalQuestions(rs.getInt("total_questions"));
-        user.setTotalAnswers(rs.getInt("total_answers"));
-        user.setAcceptedAnswers(rs.getInt("accepted_answers"));
-        user.setActive(rs.getBoolean("is_active"));
-        user.setAdmin(rs.getBoolean("is_admin"));
-        user.setCreatedAt(rs.getTimestamp("created_at"));
-        user.setUpdatedAt(rs.getTimestamp("updated_at"));
-        return user;
+        return dbManager.queryInt(sql, email) > 0;
     }
 }
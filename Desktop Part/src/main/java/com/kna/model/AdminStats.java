@@ -0,0 +1,89 @@
+package com.kna.model;
+
+/**
+ * AdminStats model - Counters shown on the admin dashboard
+ */
+public class AdminStats {
+    private int totalUsers;
+    private int adminUsers;
+    private int activeUsers;
+    private int totalQuestions;
+    private int answeredQuestions;
+    private int urgentQuestions;
+    private int totalReports;
+    private int pendingReports;
+    private int resolvedReports;
+
+    // Getters and Setters
+    public int getTotalUsers() {
+        return totalUsers;
+    }
+
+    public void setTotalUsers(int totalUsers) {
+        this.totalUsers = totalUsers;
+    }
+
+    public int getAdminUsers() {
+        return adminUsers;
+    }
+
+    public void setAdminUsers(int adminUsers) {
+        this.adminUsers = adminUsers;
+    }
+
+    public int getActiveUsers() {
+        return activeUsers;
+    }
+
+    public void setActiveUsers(int activeUsers) {
+        this.activeUsers = activeUsers;
+    }
+
+    public int getTotalQuestions() {
+        return totalQuestions;
+    }
+
+    public void setTotalQuestions(int totalQuestions) {
+        this.totalQuestions = totalQuestions;
+    }
+
+    public int getAnsweredQuestions() {
+        return answeredQuestions;
+    }
+
+    public void setAnsweredQuestions(int answeredQuestions) {
+        this.answeredQuestions = answeredQuestions;
+    }
+
+    public int getUrgentQuestions() {
+        return urgentQuestions;
+    }
+
+    public void setUrgentQuestions(int urgentQuestions) {
+        this.urgentQuestions = urgentQuestions;
+    }
+
+    public int getTotalReports() {
+        return totalReports;
+    }
+
+    public void setTotalReports(int totalReports) {
+        this.totalReports = totalReports;
+    }
+
+    public int getPendingReports() {
+        return pendingReports;
+    }
+
+    public void setPendingReports(int pendingReports) {
+        this.pendingReports = pendingReports;
+    }
+
+    public int getResolvedReports() {
+        return resolvedReports;
+    }
+
+    public void setResolvedReports(int resolvedReports) {
+        this.resolvedReports = resolvedReports;
+    }
+}
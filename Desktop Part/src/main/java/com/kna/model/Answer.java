@@ -17,6 +17,9 @@ public class Answer {
     private int downvotes;
     private Timestamp createdAt;
     private Timestamp updatedAt;
+    private String questionTitle; // For display purposes
+    private int coinsAwarded; // From the ledger, for display purposes
+    private boolean archived; // Read from the archive database, read-only
 
     // Constructors
     public Answer() {}
@@ -120,9 +123,29 @@ public class Answer {
         return upvotes - downvotes;
     }
 
-    // Coins awarded for this answer (to be calculated separately)
+    public String getQuestionTitle() {
+        return questionTitle;
+    }
+
+    public void setQuestionTitle(String questionTitle) {
+        this.questionTitle = questionTitle;
+    }
+
+    // Coins awarded for this answer; only filled in by queries that read the ledger
     public int getCoinsAwarded() {
-        return 0; // This should be populated from reward calculation
+        return coinsAwarded;
+    }
+
+    public void setCoinsAwarded(int coinsAwarded) {
+        this.coinsAwarded = coinsAwarded;
+    }
+
+    public boolean isArchived() {
+        return archived;
+    }
+
+    public void setArchived(boolean archived) {
+        this.archived = archived;
     }
 
     @Override
@@ -18,9 +18,15 @@ public class Question {
     private boolean isEvaluated;
     private Integer acceptedAnswerId;
     private int viewCount;
+    private int answerCount;
+    private int score;
+    private Double hotScore;
+    private Timestamp lastActivityAt;
     private Timestamp createdAt;
     private Timestamp updatedAt;
     private String imagePath;
+    // Moved to the archive database: shown read-only
+    private boolean archived;
 
     // Constructors
     public Question() {}
@@ -131,6 +137,38 @@ public class Question {
         this.viewCount = viewCount;
     }
 
+    public int getAnswerCount() {
+        return answerCount;
+    }
+
+    public void setAnswerCount(int answerCount) {
+        this.answerCount = answerCount;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public void setScore(int score) {
+        this.score = score;
+    }
+
+    public Double getHotScore() {
+        return hotScore;
+    }
+
+    public void setHotScore(Double hotScore) {
+        this.hotScore = hotScore;
+    }
+
+    public Timestamp getLastActivityAt() {
+        return lastActivityAt;
+    }
+
+    public void setLastActivityAt(Timestamp lastActivityAt) {
+        this.lastActivityAt = lastActivityAt;
+    }
+
     public Timestamp getCreatedAt() {
         return createdAt;
     }
@@ -155,6 +193,14 @@ public class Question {
         this.imagePath = imagePath;
     }
 
+    public boolean isArchived() {
+        return archived;
+    }
+
+    public void setArchived(boolean archived) {
+        this.archived = archived;
+    }
+
     // Alias for getQuestionId
     public int getId() {
         return questionId;
@@ -164,11 +210,6 @@ public class Question {
         this.questionId = id;
     }
 
-    // Placeholder for answer count (to be calculated separately)
-    public int getAnswerCount() {
-        return 0; // This should be populated from DAO
-    }
-
     // Alias for getViewCount
     public int getViews() {
         return viewCount;
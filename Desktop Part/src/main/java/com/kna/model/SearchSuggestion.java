@@ -0,0 +1,70 @@
+package com.kna.model;
+
+/**
+ * SearchSuggestion model - One entry of the search-as-you-type list
+ */
+public class SearchSuggestion {
+
+    public enum Type {
+        QUESTION,
+        USER,
+        CATEGORY
+    }
+
+    private Type type;
+    private int id; // question or user id; 0 for categories
+    private String text;
+    private String detail; // category of a question, department of a user, question count of a category
+
+    // Constructors
+    public SearchSuggestion() {}
+
+    public SearchSuggestion(Type type, int id, String text, String detail) {
+        this.type = type;
+        this.id = id;
+        this.text = text;
+        this.detail = detail;
+    }
+
+    // Getters and Setters
+    public Type getType() {
+        return type;
+    }
+
+    public void setType(Type type) {
+        this.type = type;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public void setId(int id) {
+        this.id = id;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public void setText(String text) {
+        this.text = text;
+    }
+
+    public String getDetail() {
+        return detail;
+    }
+
+    public void setDetail(String detail) {
+        this.detail = detail;
+    }
+
+    @Override
+    public String toString() {
+        return "SearchSuggestion{" +
+                "type=" + type +
+                ", id=" + id +
+                ", text='" + text + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,64 @@
+package com.kna.model;
+
+/**
+ * SimilarQuestion model - An existing question that looks like the one being asked
+ */
+public class SimilarQuestion {
+
+    private int questionId;
+    private String title;
+    private double similarity; // Jaccard similarity of the texts' shingles, 0..1
+    private boolean answered;
+
+    // Constructors
+    public SimilarQuestion() {}
+
+    public SimilarQuestion(int questionId, String title, double similarity, boolean answered) {
+        this.questionId = questionId;
+        this.title = title;
+        this.similarity = similarity;
+        this.answered = answered;
+    }
+
+    // Getters and Setters
+    public int getQuestionId() {
+        return questionId;
+    }
+
+    public void setQuestionId(int questionId) {
+        this.questionId = questionId;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public double getSimilarity() {
+        return similarity;
+    }
+
+    public void setSimilarity(double similarity) {
+        this.similarity = similarity;
+    }
+
+    public boolean isAnswered() {
+        return answered;
+    }
+
+    public void setAnswered(boolean answered) {
+        this.answered = answered;
+    }
+
+    @Override
+    public String toString() {
+        return "SimilarQuestion{" +
+                "questionId=" + questionId +
+                ", title='" + title + '\'' +
+                ", similarity=" + similarity +
+                '}';
+    }
+}
@@ -0,0 +1,79 @@
+package com.kna.model;
+
+/**
+ * UserActivityStats model - One user's question and answer counters and coin totals
+ */
+public class UserActivityStats {
+    private int totalQuestions;
+    private int answeredQuestions;
+    private int urgentQuestions;
+    private int coinsSpent;
+    private int totalAnswers;
+    private int acceptedAnswers;
+    private int coinsEarned;
+
+    // Getters and Setters
+    public int getTotalQuestions() {
+        return totalQuestions;
+    }
+
+    public void setTotalQuestions(int totalQuestions) {
+        this.totalQuestions = totalQuestions;
+    }
+
+    public int getAnsweredQuestions() {
+        return answeredQuestions;
+    }
+
+    public void setAnsweredQuestions(int answeredQuestions) {
+        this.answeredQuestions = answeredQuestions;
+    }
+
+    public int getPendingQuestions() {
+        return totalQuestions - answeredQuestions;
+    }
+
+    public int getUrgentQuestions() {
+        return urgentQuestions;
+    }
+
+    public void setUrgentQuestions(int urgentQuestions) {
+        this.urgentQuestions = urgentQuestions;
+    }
+
+    public int getCoinsSpent() {
+        return coinsSpent;
+    }
+
+    public void setCoinsSpent(int coinsSpent) {
+        this.coinsSpent = coinsSpent;
+    }
+
+    public int getTotalAnswers() {
+        return totalAnswers;
+    }
+
+    public void setTotalAnswers(int totalAnswers) {
+        this.totalAnswers = totalAnswers;
+    }
+
+    public int getAcceptedAnswers() {
+        return acceptedAnswers;
+    }
+
+    public void setAcceptedAnswers(int acceptedAnswers) {
+        this.acceptedAnswers = acceptedAnswers;
+    }
+
+    public int getPendingAnswers() {
+        return totalAnswers - acceptedAnswers;
+    }
+
+    public int getCoinsEarned() {
+        return coinsEarned;
+    }
+
+    public void setCoinsEarned(int coinsEarned) {
+        this.coinsEarned = coinsEarned;
+    }
+}
@@ -0,0 +1,45 @@
+package com.kna.server;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.kna.model.User;
+import com.kna.service.AnswerService;
+
+/**
+ * AnswerHandler - /api/answers: accept, vote and delete answers
+ */
+public class AnswerHandler extends ApiHandler {
+
+    private final AnswerService answerService;
+
+    public AnswerHandler(SessionRegistry sessions) {
+        super(sessions);
+        this.answerService = new AnswerService();
+    }
+
+    @Override
+    protected boolean route(ApiExchange request) throws Exception {
+        if (request.matches("POST", "*", "accept")) {
+            requireUser();
+            answerService.acceptAnswer(request.getPathInt(0), request.getInt("rating", 0));
+            request.send(200, new HashMap<>());
+        } else if (request.matches("POST", "*", "vote")) {
+            requireUser();
+            answerService.voteAnswer(request.getPathInt(0), request.getString("voteType"));
+            request.send(200, new HashMap<>());
+        } else if (request.matches("GET", "*", "vote")) {
+            User user = requireUser();
+            Map<String, String> response = new HashMap<>();
+            response.put("voteType", answerService.getUserVote(request.getPathInt(0), user.getUserId()));
+            request.send(200, response);
+        } else if (request.matches("DELETE", "*")) {
+            requireUser();
+            answerService.deleteAnswer(request.getPathInt(0));
+            request.send(200, new HashMap<>());
+        } else {
+            return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,20 @@
+package com.kna.server;
+
+/**
+ * ApiException - Request error with an explicit HTTP status (404, 401, 405...)
+ */
+public class ApiException extends Exception {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int status;
+
+    public ApiException(int status, String message) {
+        super(message);
+        this.status = status;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+}
@@ -0,0 +1,215 @@
+package com.kna.server;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.kna.util.JsonUtil;
+import com.sun.net.httpserver.HttpExchange;
+
+/**
+ * ApiExchange - Convenience wrapper around HttpExchange for the JSON API.
+ * Gives access to the path segments below the handler's context, query parameters and the JSON body.
+ */
+public class ApiExchange {
+
+    private final HttpExchange exchange;
+    private final String[] segments;
+    private final Map<String, String> query;
+    private JsonObject body;
+
+    public ApiExchange(HttpExchange exchange) {
+        this.exchange = exchange;
+        this.segments = splitPath(exchange);
+        this.query = parseQuery(exchange.getRequestURI().getRawQuery());
+    }
+
+    public String getMethod() {
+        return exchange.getRequestMethod();
+    }
+
+    /**
+     * Path segments after the context path, e.g. ["12", "answers"] for /api/questions/12/answers
+     */
+    public String[] getSegments() {
+        return segments;
+    }
+
+    /**
+     * Check method and path shape; "*" matches any single segment
+     */
+    public boolean matches(String method, String... pattern) {
+        if (!getMethod().equalsIgnoreCase(method) || pattern.length != segments.length) {
+            return false;
+        }
+        for (int i = 0; i < pattern.length; i++) {
+            if (!pattern[i].equals("*") && !pattern[i].equals(segments[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Numeric path segment
+     */
+    public int getPathInt(int index) throws ApiException {
+        try {
+            return Integer.parseInt(segments[index]);
+        } catch (NumberFormatException e) {
+            throw new ApiException(400, "Invalid id: " + segments[index]);
+        }
+    }
+
+    /**
+     * Bearer token from the Authorization header, or null
+     */
+    public String getBearerToken() {
+        String header = exchange.getRequestHeaders().getFirst("Authorization");
+        if (header != null && header.startsWith("Bearer ")) {
+            return header.substring(7).trim();
+        }
+        return null;
+    }
+
+    /**
+     * Remote address of the client
+     */
+    public String getClientAddress() {
+        return exchange.getRemoteAddress().getAddress().getHostAddress();
+    }
+
+    public String getQuery(String name) {
+        return query.get(name);
+    }
+
+    public int getQueryInt(String name, int defaultValue) throws ApiException {
+        String value = query.get(name);
+        if (value == null || value.isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new ApiException(400, "Invalid number for " + name + ": " + value);
+        }
+    }
+
+    /**
+     * Integer query parameter that must lie within [min, max]; 400 otherwise
+     */
+    public int getQueryInt(String name, int defaultValue, int min, int max) throws ApiException {
+        int value = getQueryInt(name, defaultValue);
+        if (value < min || value > max) {
+            throw new ApiException(400, name + " must be between " + min + " and " + max + ": " + value);
+        }
+        return value;
+    }
+
+    /**
+     * Optional boolean query parameter (null when absent)
+     */
+    public Boolean getQueryBoolean(String name) {
+        String value = query.get(name);
+        return value == null || value.isEmpty() ? null : Boolean.valueOf(value);
+    }
+
+    /**
+     * Request body parsed as a JSON object (empty object when there is no body)
+     */
+    public JsonObject getBody() throws IOException, ApiException {
+        if (body == null) {
+            try (InputStream is = exchange.getRequestBody()) {
+                String text = new String(is.readAllBytes(), StandardCharsets.UTF_8);
+                if (text.isBlank()) {
+                    body = new JsonObject();
+                } else {
+                    JsonElement element = JsonParser.parseString(text);
+                    if (!element.isJsonObject()) {
+                        throw new ApiException(400, "Request body must be a JSON object");
+                    }
+                    body = element.getAsJsonObject();
+                }
+            } catch (RuntimeException e) {
+                throw new ApiException(400, "Malformed JSON body");
+            }
+        }
+        return body;
+    }
+
+    public String getString(String field) throws IOException, ApiException {
+        JsonElement value = getBody().get(field);
+        return value == null || value.isJsonNull() ? null : value.getAsString();
+    }
+
+    public int getInt(String field, int defaultValue) throws IOException, ApiException {
+        JsonElement value = getBody().get(field);
+        try {
+            return value == null || value.isJsonNull() ? defaultValue : value.getAsInt();
+        } catch (RuntimeException e) {
+            throw new ApiException(400, "Invalid number for " + field);
+        }
+    }
+
+    public boolean getBoolean(String field) throws IOException, ApiException {
+        JsonElement value = getBody().get(field);
+        return value != null && !value.isJsonNull() && value.getAsBoolean();
+    }
+
+    /**
+     * Set a response header; call before sending
+     */
+    public void setHeader(String name, String value) {
+        exchange.getResponseHeaders().set(name, value);
+    }
+
+    /**
+     * Send a JSON response
+     */
+    public void send(int status, Object value) throws IOException {
+        byte[] bytes = JsonUtil.toJson(value).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(bytes);
+        }
+    }
+
+    /**
+     * Send an error as {"error": message}
+     */
+    public void sendError(int status, String message) throws IOException {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", message);
+        send(status, error);
+    }
+
+    private static String[] splitPath(HttpExchange exchange) {
+        String path = exchange.getRequestURI().getPath();
+        String context = exchange.getHttpContext().getPath();
+        String rest = path.length() > context.length() ? path.substring(context.length()) : "";
+        rest = rest.replaceAll("^/+|/+$", "");
+        return rest.isEmpty() ? new String[0] : rest.split("/+");
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> params = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return params;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = eq >= 0 ? pair.substring(0, eq) : pair;
+            String value = eq >= 0 ? pair.substring(eq + 1) : "";
+            params.put(URLDecoder.decode(key, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return params;
+    }
+}
@@ -0,0 +1,94 @@
+package com.kna.server;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.concurrent.RejectedExecutionException;
+
+import com.kna.model.User;
+import com.kna.service.AuthService;
+import com.kna.service.RateLimitException;
+import com.kna.util.SessionManager;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+/**
+ * ApiHandler - Base class for the JSON API handlers.
+ * Binds the caller's session to the request thread so the services see the right user,
+ * and turns exceptions into JSON error responses.
+ */
+public abstract class ApiHandler implements HttpHandler {
+
+    // Bounds for limit/offset from clients: every page is read into memory under the database lock
+    protected static final int MAX_PAGE_SIZE = 100;
+    protected static final int MAX_OFFSET = 10_000;
+
+    protected final SessionRegistry sessions;
+    private final AuthService authService;
+
+    protected ApiHandler(SessionRegistry sessions) {
+        this.sessions = sessions;
+        this.authService = new AuthService();
+    }
+
+    /**
+     * Route the request; return false when no route matches
+     */
+    protected abstract boolean route(ApiExchange request) throws Exception;
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        ApiExchange request = new ApiExchange(exchange);
+        String token = request.getBearerToken();
+        SessionManager session = sessions.find(token);
+        if (session == null) {
+            session = SessionManager.create();
+        }
+        SessionManager.bind(session);
+        try {
+            if (token != null) {
+                // Validates the token against the session store (also after a server restart) and
+                // loads the user; the store caches it until a write through UserDAO changes it
+                if (authService.resumeSession(token) != null) {
+                    sessions.register(session);
+                } else {
+                    sessions.remove(token);
+                    session.logout();
+                }
+            }
+            if (!route(request)) {
+                request.sendError(404, "No such endpoint: " + exchange.getRequestMethod() + " " + exchange.getRequestURI().getPath());
+            }
+        } catch (ApiException e) {
+            request.sendError(e.getStatus(), e.getMessage());
+        } catch (SQLException e) {
+            System.err.println("Database error handling " + exchange.getRequestURI() + ": " + e.getMessage());
+            e.printStackTrace();
+            request.sendError(500, "Database error");
+        } catch (IOException e) {
+            throw e;
+        } catch (RateLimitException e) {
+            request.setHeader("Retry-After", String.valueOf(e.getRetryAfterSeconds()));
+            request.sendError(429, e.getMessage());
+        } catch (RejectedExecutionException e) {
+            // Password hashing pool is saturated
+            request.sendError(503, e.getMessage());
+        } catch (Exception e) {
+            // Services report validation and permission failures as plain exceptions
+            request.sendError(400, e.getMessage());
+        } finally {
+            SessionManager.unbind();
+            exchange.close();
+        }
+    }
+
+    /**
+     * Current user of this request, or 401 when not logged in
+     */
+    protected User requireUser() throws ApiException {
+        User user = SessionManager.getInstance().getCurrentUser();
+        if (user == null) {
+            throw new ApiException(401, "Login required");
+        }
+        return user;
+    }
+}
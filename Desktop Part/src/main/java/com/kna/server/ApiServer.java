@@ -0,0 +1,119 @@
+package com.kna.server;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.kna.service.ArchiveService;
+import com.kna.service.BackupService;
+import com.kna.service.DuplicateService;
+import com.kna.service.HotScoreService;
+import com.kna.service.MaintenanceService;
+import com.kna.service.PasswordService;
+import com.kna.service.QuestionActivityService;
+import com.kna.service.RecommendationService;
+import com.kna.service.SearchService;
+import com.kna.service.SessionStore;
+import com.kna.util.DatabaseManager;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * ApiServer - Headless JSON HTTP API over the KnA services, backed by the shared database.
+ * Each request runs on its own thread with the caller's session bound to it.
+ */
+public class ApiServer {
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final SessionRegistry sessions;
+
+    public ApiServer(String host, int port) throws IOException {
+        this.sessions = new SessionRegistry();
+        this.executor = newRequestExecutor();
+        this.server = HttpServer.create(new InetSocketAddress(host, port), 0);
+
+        server.createContext("/api/auth", new AuthHandler(sessions));
+        server.createContext("/api/questions", new QuestionHandler(sessions));
+        server.createContext("/api/answers", new AnswerHandler(sessions));
+        server.createContext("/api/users", new UserHandler(sessions));
+        server.createContext("/api/coins", new CoinHandler(sessions));
+        server.createContext("/api/notifications", new NotificationHandler(sessions));
+        server.createContext("/api/health", new ApiHandler(sessions) {
+            @Override
+            protected boolean route(ApiExchange request) throws Exception {
+                Map<String, Object> status = new HashMap<>();
+                status.put("status", "ok");
+                status.put("sessions", sessions.size());
+                request.send(200, status);
+                return true;
+            }
+        });
+        server.setExecutor(executor);
+    }
+
+    /**
+     * Initialize the database and start accepting requests
+     */
+    public void start() {
+        DatabaseManager.getInstance().initializeDatabase();
+        // Before any request can wait on the database lock
+        MaintenanceService.getInstance().convertToIncrementalVacuum();
+        SessionStore.getInstance().addSweepListener(sessions::sweep);
+        SessionStore.getInstance().startSweeper();
+        PasswordService.getInstance().startMigration();
+        SearchService.getInstance().startIndexing();
+        DuplicateService.getInstance().startIndexing();
+        HotScoreService.getInstance().startScoring();
+        RecommendationService.getInstance().startRecommending();
+        QuestionActivityService.getInstance().startRepair();
+        BackupService.getInstance().startBackups();
+        MaintenanceService.getInstance().startMaintenance();
+        ArchiveService.getInstance().startArchiving();
+        server.start();
+        System.out.println("KnA server listening on " + server.getAddress());
+    }
+
+    /**
+     * Stop accepting requests, wait up to delaySeconds for running ones, then close the database
+     */
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(delaySeconds, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        SessionStore.getInstance().stopSweeper();
+        DatabaseManager.getInstance().closeConnection();
+    }
+
+    public SessionRegistry getSessions() {
+        return sessions;
+    }
+
+    /**
+     * Thread-per-request executor: virtual threads when the runtime has them (Java 21+),
+     * otherwise a cached pool of daemon platform threads. The build targets Java 17,
+     * so the virtual-thread factory is looked up reflectively.
+     */
+    private static ExecutorService newRequestExecutor() {
+        try {
+            Object executor = Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            System.out.println("Using virtual threads for requests");
+            return (ExecutorService) executor;
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger counter = new AtomicInteger();
+            return Executors.newCachedThreadPool(r -> {
+                Thread thread = new Thread(r, "kna-request-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+}
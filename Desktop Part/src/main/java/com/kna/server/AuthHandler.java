@@ -0,0 +1,59 @@
+package com.kna.server;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.kna.model.User;
+import com.kna.service.AuthService;
+import com.kna.util.SessionManager;
+
+/**
+ * AuthHandler - /api/auth: register, login, logout, current user and password change
+ */
+public class AuthHandler extends ApiHandler {
+
+    private final AuthService authService;
+
+    public AuthHandler(SessionRegistry sessions) {
+        super(sessions);
+        this.authService = new AuthService();
+    }
+
+    @Override
+    protected boolean route(ApiExchange request) throws Exception {
+        if (request.matches("POST", "register")) {
+            User user = authService.register(
+                request.getString("email"),
+                request.getString("phone"),
+                request.getString("password"),
+                request.getString("name"),
+                request.getString("department"),
+                request.getInt("academicYear", 0)
+            );
+            request.send(201, user);
+        } else if (request.matches("POST", "login")) {
+            User user = authService.login(request.getString("email"), request.getString("password"),
+                request.getBoolean("rememberMe"), request.getClientAddress());
+            SessionManager session = SessionManager.getInstance();
+            sessions.register(session);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("token", session.getSessionToken());
+            response.put("user", user);
+            request.send(200, response);
+        } else if (request.matches("POST", "logout")) {
+            sessions.remove(SessionManager.getInstance().getSessionToken());
+            authService.logout();
+            request.send(200, new HashMap<>());
+        } else if (request.matches("GET", "me")) {
+            request.send(200, requireUser());
+        } else if (request.matches("POST", "password")) {
+            User user = requireUser();
+            authService.changePassword(user.getUserId(), request.getString("currentPassword"), request.getString("newPassword"));
+            request.send(200, new HashMap<>());
+        } else {
+            return false;
+        }
+        return true;
+    }
+}
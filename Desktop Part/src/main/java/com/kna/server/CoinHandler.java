@@ -0,0 +1,43 @@
+package com.kna.server;
+
+import com.kna.service.CoinService;
+import com.kna.util.SessionManager;
+
+/**
+ * CoinHandler - /api/coins: coin packages and purchases
+ */
+public class CoinHandler extends ApiHandler {
+
+    private final CoinService coinService;
+
+    public CoinHandler(SessionRegistry sessions) {
+        super(sessions);
+        this.coinService = new CoinService();
+    }
+
+    @Override
+    protected boolean route(ApiExchange request) throws Exception {
+        if (request.matches("GET", "packages")) {
+            request.send(200, coinService.getPackages());
+        } else if (request.matches("POST", "purchase")) {
+            requireUser();
+            // Only the published packages can be bought, so clients cannot set their own price
+            CoinService.CoinPackage selected = null;
+            String name = request.getString("package");
+            for (CoinService.CoinPackage coinPackage : coinService.getPackages()) {
+                if (coinPackage.name.equals(name)) {
+                    selected = coinPackage;
+                }
+            }
+            if (selected == null) {
+                throw new ApiException(400, "Unknown coin package: " + name);
+            }
+            coinService.purchaseCoins(selected.coins, selected.price);
+            // Return the updated user so the client can refresh its balance
+            request.send(200, SessionManager.getInstance().getCurrentUser());
+        } else {
+            return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,52 @@
+package com.kna.server;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.kna.service.NotificationService;
+
+/**
+ * NotificationHandler - /api/notifications: list, unread count and read marks for the logged-in user
+ */
+public class NotificationHandler extends ApiHandler {
+
+    private final NotificationService notificationService;
+
+    public NotificationHandler(SessionRegistry sessions) {
+        super(sessions);
+        this.notificationService = new NotificationService();
+    }
+
+    @Override
+    protected boolean route(ApiExchange request) throws Exception {
+        if (request.matches("GET")) {
+            requireUser();
+            String type = request.getQuery("type");
+            if ("unread".equals(request.getQuery("filter"))) {
+                request.send(200, notificationService.getUnreadNotifications());
+            } else if (type != null) {
+                request.send(200, notificationService.getNotificationsByType(type));
+            } else {
+                request.send(200, notificationService.getNotifications());
+            }
+        } else if (request.matches("GET", "unread-count")) {
+            requireUser();
+            Map<String, Integer> response = new HashMap<>();
+            response.put("count", notificationService.getUnreadCount());
+            request.send(200, response);
+        } else if (request.matches("POST", "read-all")) {
+            requireUser();
+            notificationService.markAllAsRead();
+            request.send(200, new HashMap<>());
+        } else if (request.matches("POST", "*", "read")) {
+            requireUser();
+            if (!notificationService.markAsRead(request.getPathInt(0))) {
+                throw new ApiException(404, "Notification not found");
+            }
+            request.send(200, new HashMap<>());
+        } else {
+            return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,78 @@
+package com.kna.server;
+
+import java.util.HashMap;
+
+import com.kna.model.Question;
+import com.kna.service.AnswerService;
+import com.kna.service.QuestionService;
+import com.kna.service.SearchService;
+
+/**
+ * QuestionHandler - /api/questions: feed, search, suggestions, similar questions, details, asking, answering and deletion
+ */
+public class QuestionHandler extends ApiHandler {
+
+    private final QuestionService questionService;
+    private final AnswerService answerService;
+
+    public QuestionHandler(SessionRegistry sessions) {
+        super(sessions);
+        this.questionService = new QuestionService();
+        this.answerService = new AnswerService();
+    }
+
+    @Override
+    protected boolean route(ApiExchange request) throws Exception {
+        if (request.matches("GET")) {
+            request.send(200, questionService.getQuestions(
+                request.getQuery("category"),
+                request.getQueryBoolean("urgent"),
+                request.getQueryBoolean("unanswered"),
+                request.getQuery("sort"),
+                request.getQueryInt("limit", 50, 1, MAX_PAGE_SIZE),
+                request.getQueryInt("offset", 0, 0, MAX_OFFSET)
+            ));
+        } else if (request.matches("GET", "search")) {
+            String term = request.getQuery("q");
+            if (term == null || term.isBlank()) {
+                throw new ApiException(400, "Search term is required");
+            }
+            request.send(200, questionService.searchQuestions(term));
+        } else if (request.matches("GET", "suggest")) {
+            request.send(200, SearchService.getInstance().suggest(request.getQuery("q")));
+        } else if (request.matches("GET", "similar")) {
+            request.send(200, questionService.findSimilarQuestions(
+                request.getQuery("title"), request.getQuery("description")));
+        } else if (request.matches("GET", "*")) {
+            Question question = questionService.getQuestion(request.getPathInt(0));
+            if (question == null) {
+                throw new ApiException(404, "Question not found");
+            }
+            request.send(200, question);
+        } else if (request.matches("GET", "*", "answers")) {
+            request.send(200, answerService.getAnswers(request.getPathInt(0),
+                request.getQueryInt("limit", MAX_PAGE_SIZE, 1, MAX_PAGE_SIZE),
+                request.getQueryInt("offset", 0, 0, MAX_OFFSET)));
+        } else if (request.matches("POST")) {
+            requireUser();
+            // Image attachments are not accepted over the API
+            request.send(201, questionService.askQuestion(
+                request.getString("title"),
+                request.getString("description"),
+                request.getString("category"),
+                request.getBoolean("urgent"),
+                null
+            ));
+        } else if (request.matches("POST", "*", "answers")) {
+            requireUser();
+            request.send(201, answerService.submitAnswer(request.getPathInt(0), request.getString("content")));
+        } else if (request.matches("DELETE", "*")) {
+            requireUser();
+            questionService.deleteQuestion(request.getPathInt(0));
+            request.send(200, new HashMap<>());
+        } else {
+            return false;
+        }
+        return true;
+    }
+}
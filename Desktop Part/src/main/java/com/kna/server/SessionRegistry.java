@@ -0,0 +1,75 @@
+package com.kna.server;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import com.kna.util.SessionManager;
+
+/**
+ * SessionRegistry - Logged-in client sessions of the HTTP server, keyed by session token.
+ * Only a cache of the session store: a token whose entry is gone is validated again and
+ * registered anew on its next request. Entries are dropped on logout, when their token is
+ * rejected, and by sweep() once their client has been quiet for IDLE_MILLIS, so clients that
+ * just go away do not stay in memory.
+ */
+public class SessionRegistry {
+
+    private static final long IDLE_MILLIS = TimeUnit.MINUTES.toMillis(30);
+
+    private final Map<String, Entry> sessions = new ConcurrentHashMap<>();
+
+    /**
+     * Find the session for a token, or null when unknown
+     */
+    public SessionManager find(String token) {
+        Entry entry = token != null ? sessions.get(token) : null;
+        if (entry == null) {
+            return null;
+        }
+        entry.lastSeen = System.currentTimeMillis();
+        return entry.session;
+    }
+
+    /**
+     * Register a session under its token after login
+     */
+    public void register(SessionManager session) {
+        if (session.getSessionToken() != null) {
+            sessions.put(session.getSessionToken(), new Entry(session));
+        }
+    }
+
+    /**
+     * Drop a session on logout
+     */
+    public void remove(String token) {
+        if (token != null) {
+            sessions.remove(token);
+        }
+    }
+
+    /**
+     * Drop the sessions not used for IDLE_MILLIS; returns the number dropped
+     */
+    public int sweep() {
+        long idleSince = System.currentTimeMillis() - IDLE_MILLIS;
+        int before = sessions.size();
+        sessions.values().removeIf(entry -> entry.lastSeen < idleSince);
+        return before - sessions.size();
+    }
+
+    public int size() {
+        return sessions.size();
+    }
+
+    private static class Entry {
+        final SessionManager session;
+        volatile long lastSeen;
+
+        Entry(SessionManager session) {
+            this.session = session;
+            this.lastSeen = System.currentTimeMillis();
+        }
+    }
+}
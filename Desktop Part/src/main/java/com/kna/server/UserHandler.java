@@ -0,0 +1,43 @@
+package com.kna.server;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.kna.service.AnswerService;
+import com.kna.service.QuestionService;
+import com.kna.service.RecommendationService;
+
+/**
+ * UserHandler - /api/users/{id}: a user's questions, answers, unevaluated question count and
+ * recommended questions
+ */
+public class UserHandler extends ApiHandler {
+
+    private final QuestionService questionService;
+    private final AnswerService answerService;
+
+    public UserHandler(SessionRegistry sessions) {
+        super(sessions);
+        this.questionService = new QuestionService();
+        this.answerService = new AnswerService();
+    }
+
+    @Override
+    protected boolean route(ApiExchange request) throws Exception {
+        if (request.matches("GET", "*", "questions")) {
+            request.send(200, questionService.getUserQuestions(request.getPathInt(0)));
+        } else if (request.matches("GET", "*", "answers")) {
+            request.send(200, answerService.getUserAnswers(request.getPathInt(0)));
+        } else if (request.matches("GET", "*", "unevaluated-count")) {
+            Map<String, Integer> response = new HashMap<>();
+            response.put("count", questionService.getUnevaluatedCount(request.getPathInt(0)));
+            request.send(200, response);
+        } else if (request.matches("GET", "*", "recommendations")) {
+            request.send(200, RecommendationService.getInstance().getRecommendations(request.getPathInt(0),
+                request.getQueryInt("limit", 5, 1, MAX_PAGE_SIZE)));
+        } else {
+            return false;
+        }
+        return true;
+    }
+}
@@ -1,6 +1,9 @@
 package com.kna.service;
 
+import com.google.gson.reflect.TypeToken;
+import com.kna.client.RemoteClient;
 import com.kna.dao.AnswerDAO;
+import com.kna.dao.HotScoreDAO;
 import com.kna.dao.QuestionDAO;
 import com.kna.dao.UserDAO;
 import com.kna.dao.CoinDAO;
@@ -9,11 +12,15 @@ import com.kna.model.Answer;
 import com.kna.model.Question;
 import com.kna.model.User;
 import com.kna.model.CoinTransaction;
+import com.kna.util.DatabaseManager;
 import com.kna.util.SessionManager;
 
+import java.lang.reflect.Type;
 import java.sql.SQLException;
 import java.sql.Timestamp;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * AnswerService - Business logic for answers
@@ -25,6 +32,10 @@ public class AnswerService {
     private final UserDAO userDAO;
     private final CoinDAO coinDAO;
     private final NotificationDAO notificationDAO;
+    // Non-null in remote-backend mode
+    private final RemoteClient remote;
+    
+    private static final Type ANSWER_LIST = new TypeToken<List<Answer>>() {}.getType();
     
     private static final int REPUTATION_PER_UPVOTE = 10;
     private static final int REPUTATION_PER_ACCEPTED = 50;
@@ -36,6 +47,7 @@ public class AnswerService {
         this.userDAO = new UserDAO();
         this.coinDAO = new CoinDAO();
         this.notificationDAO = new NotificationDAO();
+        this.remote = RemoteClient.getInstance();
     }
 
     /**
@@ -52,6 +64,12 @@ public class AnswerService {
             throw new Exception("Answer content is required");
         }
         
+        if (remote != null) {
+            Map<String, Object> body = new HashMap<>();
+            body.put("content", content.trim());
+            return remote.post("/api/questions/" + questionId + "/answers", body, Answer.class);
+        }
+        
         // Get question
         Question question = questionDAO.findById(questionId);
         if (question == null) {
@@ -69,12 +87,14 @@ public class AnswerService {
             int answerId = answerDAO.createAnswer(answer);
             answer.setAnswerId(answerId);
             answer.setUserName(currentUser.getName());
+            questionDAO.addHotScore(questionId, HotScoreDAO.ANSWER_WEIGHT);
             
             // Update user stats
             userDAO.incrementAnswers(currentUser.getUserId());
             
             // Notify question owner
             notificationDAO.notifyNewAnswer(question.getUserId(), questionId, currentUser.getName());
+            RecommendationService.getInstance().answerSubmitted(currentUser.getUserId(), question);
             
             return answer;
             
@@ -92,6 +112,13 @@ public class AnswerService {
             throw new Exception("User not logged in");
         }
         
+        if (remote != null) {
+            Map<String, Object> body = new HashMap<>();
+            body.put("rating", rating);
+            remote.post("/api/answers/" + answerId + "/accept", body, null);
+            return;
+        }
+        
         // Get answer
         Answer answer = answerDAO.findById(answerId);
         if (answer == null) {
@@ -114,7 +141,19 @@ public class AnswerService {
             throw new Exception("Rating must be between 0 and 5");
         }
         
+        DatabaseManager db = DatabaseManager.getInstance();
+        db.beginTransaction();
         try {
+            // Checked inside the transaction so two concurrent accepts cannot both pay out
+            Question current = questionDAO.findById(question.getQuestionId());
+            if (current == null) {
+                // Deleted or archived since it was read above
+                throw new Exception("Question not found");
+            }
+            if (current.getAcceptedAnswerId() != null) {
+                throw new Exception("This question already has an accepted answer");
+            }
+            
             // Accept answer
             answerDAO.acceptAnswer(answerId);
             answerDAO.rateAnswer(answerId, rating);
@@ -169,8 +208,15 @@ public class AnswerService {
                 notificationDAO.notifyAcceptedAnswer(answer.getUserId(), answerId, coinsEarned);
             }
             
+            db.commit();
+            RecommendationService.getInstance().answerAccepted(answer.getUserId(), question);
+            
         } catch (SQLException e) {
+            db.rollback();
             throw new Exception("Failed to accept answer: " + e.getMessage());
+        } catch (Exception e) {
+            db.rollback();
+            throw e;
         }
     }
 
@@ -183,6 +229,13 @@ public class AnswerService {
             throw new Exception("User not logged in");
         }
         
+        if (remote != null) {
+            Map<String, Object> body = new HashMap<>();
+            body.put("voteType", voteType);
+            remote.post("/api/answers/" + answerId + "/vote", body, null);
+            return;
+        }
+        
         // Get answer
         Answer answer = answerDAO.findById(answerId);
         if (answer == null) {
@@ -211,13 +264,30 @@ public class AnswerService {
      * Get answers for a question
      */
     public List<Answer> getAnswers(int questionId) throws SQLException {
-        return answerDAO.getAnswersByQuestionId(questionId);
+        if (remote != null) {
+            return remote.get("/api/questions/" + questionId + "/answers", ANSWER_LIST);
+        }
+        return getAnswers(questionId, -1, 0);
+    }
+
+    /**
+     * Get one page of the answers for a question, in display order
+     */
+    public List<Answer> getAnswers(int questionId, int limit, int offset) throws SQLException {
+        if (remote != null) {
+            return remote.get("/api/questions/" + questionId + "/answers?limit=" + limit + "&offset=" + offset,
+                ANSWER_LIST);
+        }
+        return answerDAO.getAnswersByQuestionId(questionId, limit, offset);
     }
 
     /**
      * Get user's answers
      */
     public List<Answer> getUserAnswers(int userId) throws SQLException {
+        if (remote != null) {
+            return remote.get("/api/users/" + userId + "/answers", ANSWER_LIST);
+        }
         return answerDAO.getAnswersByUserId(userId);
     }
 
@@ -225,6 +295,12 @@ public class AnswerService {
      * Get user's vote on an answer
      */
     public String getUserVote(int answerId, int userId) throws SQLException {
+        if (remote != null) {
+            // The server answers for the logged-in user
+            Map<String, String> response = remote.get("/api/answers/" + answerId + "/vote",
+                new TypeToken<Map<String, String>>() {}.getType());
+            return response.get("voteType");
+        }
         return answerDAO.getUserVote(answerId, userId);
     }
 
@@ -237,6 +313,11 @@ public class AnswerService {
             throw new Exception("User not logged in");
         }
         
+        if (remote != null) {
+            remote.delete("/api/answers/" + answerId);
+            return true;
+        }
+        
         Answer answer = answerDAO.findById(answerId);
         if (answer == null) {
             throw new Exception("Answer not found");
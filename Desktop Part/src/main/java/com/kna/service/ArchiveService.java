@@ -0,0 +1,92 @@
+package com.kna.service;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.kna.client.RemoteClient;
+import com.kna.dao.ArchiveDAO;
+import com.kna.dao.QuestionDAO;
+import com.kna.model.Question;
+
+/**
+ * ArchiveService - Keeps the main questions and answers tables small: once a day it moves the
+ * answered, evaluated questions that have been quiet for kna.archive.ageDays days (0 turns it
+ * off) into the archive database (see ArchiveDAO), a batch per transaction. Archived questions
+ * leave the in-memory indexes; QuestionService and AnswerService read them from the archive.
+ */
+public class ArchiveService {
+
+    private static final int AGE_DAYS = Integer.getInteger("kna.archive.ageDays", 365);
+    private static final int BATCH_SIZE = 50;
+    // Between batches, so the app's queries get the database in between
+    private static final long BATCH_PAUSE_MS = 100;
+    private static final long CHECK_INTERVAL_HOURS = 24;
+    // Let the startup indexers finish before moving questions out from under them
+    private static final long STARTUP_DELAY_MINUTES = 15;
+
+    private static ArchiveService instance;
+
+    private final ArchiveDAO archiveDAO;
+    private final QuestionDAO questionDAO;
+    private ScheduledExecutorService scheduler;
+
+    private ArchiveService() {
+        this.archiveDAO = new ArchiveDAO();
+        this.questionDAO = new QuestionDAO();
+    }
+
+    public static synchronized ArchiveService getInstance() {
+        if (instance == null) {
+            instance = new ArchiveService();
+        }
+        return instance;
+    }
+
+    /**
+     * Start the daily archiving (once; not in remote-backend mode or when turned off)
+     */
+    public synchronized void startArchiving() {
+        if (scheduler != null || RemoteClient.isEnabled() || AGE_DAYS <= 0) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "kna-archive");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                archive();
+            } catch (SQLException | InterruptedException e) {
+                System.err.println("Failed to archive old questions: " + e.getMessage());
+                e.printStackTrace();
+            }
+        }, STARTUP_DELAY_MINUTES, TimeUnit.HOURS.toMinutes(CHECK_INTERVAL_HOURS), TimeUnit.MINUTES);
+    }
+
+    private void archive() throws SQLException, InterruptedException {
+        long start = System.nanoTime();
+        int archived = 0;
+        List<Integer> batch;
+        do {
+            batch = archiveDAO.findArchivable(AGE_DAYS, BATCH_SIZE);
+            List<Question> questions = questionDAO.findByIds(batch);
+            archived += archiveDAO.archive(batch);
+            for (Question question : questions) {
+                SearchService.getInstance().questionRemoved(question);
+                DuplicateService.getInstance().questionRemoved(question);
+                RecommendationService.getInstance().questionClosed(question.getQuestionId(), question.getCategory());
+            }
+            Thread.sleep(BATCH_PAUSE_MS);
+        } while (batch.size() == BATCH_SIZE);
+
+        if (archived > 0) {
+            System.out.println("Archived " + archived + " questions older than " + AGE_DAYS + " days in "
+                + (System.nanoTime() - start) / 1_000_000 + " ms");
+        }
+    }
+}
@@ -1,9 +1,14 @@
 package com.kna.service;
 
 import java.sql.SQLException;
-import java.util.UUID;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.prefs.Preferences;
 
+import com.kna.client.RemoteBackendException;
+import com.kna.client.RemoteClient;
 import com.kna.dao.UserDAO;
+import com.kna.model.Session;
 import com.kna.model.User;
 import com.kna.util.PasswordHasher;
 import com.kna.util.SessionManager;
@@ -14,9 +19,22 @@ import com.kna.util.SessionManager;
 public class AuthService {
     
     private final UserDAO userDAO;
+    private final SessionStore sessionStore;
+    private final PasswordService passwordService;
+    private final LoginRateLimiter rateLimiter;
+    // Non-null in remote-backend mode
+    private final RemoteClient remote;
+
+    // Preference key of the "remember me" token; remote servers issue their own tokens
+    private static final String REMEMBER_KEY = "sessionToken";
+    private static final String REMOTE_REMEMBER_KEY = "remoteSessionToken";
 
     public AuthService() {
         this.userDAO = new UserDAO();
+        this.sessionStore = SessionStore.getInstance();
+        this.passwordService = PasswordService.getInstance();
+        this.rateLimiter = LoginRateLimiter.getInstance();
+        this.remote = RemoteClient.getInstance();
     }
 
     /**
@@ -54,14 +72,23 @@ public class AuthService {
             throw new Exception("Academic year must be between 1 and 5");
         }
         
+        if (remote != null) {
+            Map<String, Object> body = new HashMap<>();
+            body.put("email", email.trim());
+            body.put("phone", phone);
+            body.put("password", password);
+            body.put("name", name.trim());
+            body.put("department", department);
+            body.put("academicYear", academicYear);
+            return remote.post("/api/auth/register", body, User.class);
+        }
+        
         // Check if email already exists
         if (userDAO.emailExists(email)) {
             throw new Exception("Email already registered");
         }
         
-        // Store password as plain text for testing
-        // For production, use: String passwordHash = PasswordHasher.hashPassword(password);
-        String passwordHash = password;
+        String passwordHash = PasswordService.await(passwordService.hash(password));
         
         // Create user object
         User user = new User();
@@ -79,6 +106,7 @@ public class AuthService {
         // Save to database
         int userId = userDAO.createUser(user);
         user.setUserId(userId);
+        SearchService.getInstance().userAdded(userId, user.getName());
         
         return user;
     }
@@ -87,6 +115,20 @@ public class AuthService {
      * Login user
      */
     public User login(String email, String password) throws Exception {
+        return login(email, password, false);
+    }
+
+    /**
+     * Login user; rememberMe issues a long-lived session
+     */
+    public User login(String email, String password, boolean rememberMe) throws Exception {
+        return login(email, password, rememberMe, null);
+    }
+
+    /**
+     * Login user from a client address (null for the desktop app), throttling repeated failures
+     */
+    public User login(String email, String password, boolean rememberMe, String clientAddress) throws Exception {
         // Validate input
         if (email == null || email.trim().isEmpty()) {
             throw new Exception("Email is required");
@@ -96,32 +138,130 @@ public class AuthService {
             throw new Exception("Password is required");
         }
         
+        if (remote != null) {
+            Map<String, Object> body = new HashMap<>();
+            body.put("email", email.trim());
+            body.put("password", password);
+            body.put("rememberMe", rememberMe);
+            LoginResponse response = remote.post("/api/auth/login", body, LoginResponse.class);
+            SessionManager.getInstance().setCurrentUser(response.user);
+            SessionManager.getInstance().setSessionToken(response.token);
+            return response.user;
+        }
+        
+        // Refuse locked-out emails and addresses before touching the database
+        rateLimiter.checkAllowed(email, clientAddress);
+        
         // Find user by email
         User user = userDAO.findByEmail(email.trim());
         
         if (user == null) {
+            // Spend the same BCrypt time as a wrong password, so the timing does not reveal unknown emails
+            PasswordService.await(passwordService.verifyUnknown(password));
+            rateLimiter.recordFailure(email, clientAddress);
             throw new Exception("Invalid email or password");
         }
         
-        // simple string comparison for testing
-        if (!password.equals(user.getPasswordHash())) {
+        if (!PasswordService.await(passwordService.verify(password, user.getPasswordHash()))) {
+            rateLimiter.recordFailure(email, clientAddress);
             throw new Exception("Invalid email or password");
         }
-        
-
+        rateLimiter.recordSuccess(email);
+        passwordService.rehashIfNeeded(user.getUserId(), password, user.getPasswordHash());
         
         // Set session
+        Session session = sessionStore.createSession(user.getUserId(), rememberMe);
         SessionManager.getInstance().setCurrentUser(user);
-        String sessionToken = generateSessionToken();
-        SessionManager.getInstance().setSessionToken(sessionToken);
+        SessionManager.getInstance().setSessionToken(session.getSessionToken());
         
         return user;
     }
 
+    /**
+     * Resume a persisted session by token without a password.
+     * Reloads the user, so it also refreshes a session that is already current.
+     * Returns null when the token is unknown or expired.
+     */
+    public User resumeSession(String token) throws SQLException {
+        if (token == null) {
+            return null;
+        }
+        
+        SessionManager sessionManager = SessionManager.getInstance();
+        if (remote != null) {
+            sessionManager.setSessionToken(token);
+            try {
+                User user = remote.get("/api/auth/me", User.class);
+                sessionManager.setCurrentUser(user);
+                return user;
+            } catch (RemoteBackendException e) {
+                sessionManager.logout();
+                if (e.getStatus() == 401) {
+                    return null;
+                }
+                throw e;
+            }
+        }
+        
+        User user = sessionStore.findUser(token);
+        if (user == null || !user.isActive()) {
+            return null;
+        }
+        sessionManager.setCurrentUser(user);
+        sessionManager.setSessionToken(token);
+        return user;
+    }
+
+    /**
+     * Remember the current session token on this machine for auto-login at startup
+     */
+    public void rememberSession() {
+        String token = SessionManager.getInstance().getSessionToken();
+        if (token != null) {
+            preferences().put(rememberKey(), token);
+        }
+    }
+
+    /**
+     * Log in with the token remembered on this machine, if it is still valid.
+     * Returns null (and forgets the token if the backend rejected it) otherwise.
+     */
+    public User resumeRememberedSession() {
+        String token = preferences().get(rememberKey(), null);
+        if (token == null) {
+            return null;
+        }
+        try {
+            User user = resumeSession(token);
+            if (user == null) {
+                preferences().remove(rememberKey());
+            }
+            return user;
+        } catch (SQLException e) {
+            System.err.println("Failed to resume remembered session: " + e.getMessage());
+            return null;
+        }
+    }
+
     /**
      * Logout current user
      */
     public void logout() {
+        String token = SessionManager.getInstance().getSessionToken();
+        if (token != null) {
+            try {
+                if (remote != null) {
+                    remote.post("/api/auth/logout", null, null);
+                } else {
+                    sessionStore.revoke(token);
+                }
+            } catch (SQLException e) {
+                System.err.println("Failed to end session: " + e.getMessage());
+            }
+            if (token.equals(preferences().get(rememberKey(), null))) {
+                preferences().remove(rememberKey());
+            }
+        }
         SessionManager.getInstance().logout();
     }
 
@@ -134,29 +274,34 @@ public class AuthService {
             throw new Exception("New password must be at least 6 characters");
         }
         
+        if (remote != null) {
+            Map<String, Object> body = new HashMap<>();
+            body.put("currentPassword", currentPassword);
+            body.put("newPassword", newPassword);
+            remote.post("/api/auth/password", body, null);
+            return true;
+        }
+        
         // Get user
         User user = userDAO.findById(userId);
         if (user == null) {
             throw new Exception("User not found");
         }
         
-        // Verify current password - simple string comparison for testing
-        // For production, use: PasswordHasher.verifyPassword(currentPassword, user.getPasswordHash())
-        if (!currentPassword.equals(user.getPasswordHash())) {
+        if (!PasswordService.await(passwordService.verify(currentPassword, user.getPasswordHash()))) {
             throw new Exception("Current password is incorrect");
         }
         
-        // Store new password as plain text for testing
-        // For production, use: String newPasswordHash = PasswordHasher.hashPassword(newPassword);
-        user.setPasswordHash(newPassword);
+        String newPasswordHash = PasswordService.await(passwordService.hash(newPassword));
+        user.setPasswordHash(newPasswordHash);
         
         try {
             userDAO.updateUser(user);
             
-            // Update session with the new password
+            // Update session with the new password hash
             User currentUser = SessionManager.getInstance().getCurrentUser();
             if (currentUser != null && currentUser.getUserId() == userId) {
-                currentUser.setPasswordHash(newPassword);
+                currentUser.setPasswordHash(newPasswordHash);
                 SessionManager.getInstance().setCurrentUser(currentUser);
             }
             
@@ -166,6 +311,28 @@ public class AuthService {
         }
     }
 
+    /**
+     * Deactivate a user (admins only) and revoke all of their sessions, so they are logged out
+     * everywhere instead of only when their cached token runs out
+     */
+    public void deactivateUser(int userId) throws Exception {
+        User currentUser = SessionManager.getInstance().getCurrentUser();
+        if (currentUser == null || !currentUser.isAdmin()) {
+            throw new Exception("Admin privileges required");
+        }
+        if (currentUser.getUserId() == userId) {
+            throw new Exception("You cannot deactivate your own account");
+        }
+        if (remote != null) {
+            throw new Exception("Deactivating users is not supported when connected to a server");
+        }
+        
+        if (!userDAO.deactivateUser(userId)) {
+            throw new Exception("User not found");
+        }
+        sessionStore.revokeAll(userId);
+    }
+
     /**
      * Validate email format
      */
@@ -174,11 +341,12 @@ public class AuthService {
         return email.matches(emailRegex);
     }
 
-    /**
-     * Generate session token
-     */
-    private String generateSessionToken() {
-        return UUID.randomUUID().toString();
+    private String rememberKey() {
+        return remote != null ? REMOTE_REMEMBER_KEY : REMEMBER_KEY;
+    }
+
+    private static Preferences preferences() {
+        return Preferences.userNodeForPackage(AuthService.class);
     }
 
     /**
@@ -201,8 +369,18 @@ public class AuthService {
     public void refreshCurrentUser() throws SQLException {
         User currentUser = SessionManager.getInstance().getCurrentUser();
         if (currentUser != null) {
-            User updatedUser = userDAO.findById(currentUser.getUserId());
+            User updatedUser = remote != null
+                ? remote.get("/api/auth/me", User.class)
+                : userDAO.findById(currentUser.getUserId());
             SessionManager.getInstance().setCurrentUser(updatedUser);
         }
     }
+
+    /**
+     * Body of a successful /api/auth/login response
+     */
+    private static class LoginResponse {
+        String token;
+        User user;
+    }
 }
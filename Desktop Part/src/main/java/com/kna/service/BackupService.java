@@ -0,0 +1,310 @@
+package com.kna.service;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.kna.client.RemoteClient;
+import com.kna.util.DataEvents;
+import com.kna.util.DatabaseManager;
+
+/**
+ * BackupService - Timestamped snapshots of the database, taken while the app runs (see
+ * DatabaseManager.backupTo) into a folder next to the database file. Each snapshot has the
+ * archive database and the category partitions next to it, named the way those are named after
+ * the database file.
+ * A snapshot is taken once a day, checked with PRAGMA integrity_check before it replaces
+ * anything, and only the newest KEEP_SNAPSHOTS are kept. Snapshots, restores and checks all
+ * run on one background thread, one at a time.
+ */
+public class BackupService {
+
+    private static final long BACKUP_INTERVAL_HOURS = 24;
+    private static final long CHECK_INTERVAL_MINUTES = 60;
+    // Let the startup indexers finish before copying the whole database
+    private static final long STARTUP_DELAY_MINUTES = 10;
+    private static final int KEEP_SNAPSHOTS = 7;
+    private static final String SNAPSHOT_SUFFIX = ".db";
+    private static final String ARCHIVE_SUFFIX = "-archive.db";
+    private static final String PARTIAL_SUFFIX = ".partial";
+    private static final DateTimeFormatter STAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    /**
+     * A verified snapshot file, with its archive and partition files
+     */
+    public static class Snapshot {
+        private final Path file;
+        private final Path archiveFile;
+        private final Map<String, Path> partitionFiles;
+        private final long sizeBytes;
+        private final LocalDateTime createdAt;
+
+        Snapshot(Path file) throws IOException {
+            this.file = file;
+            this.archiveFile = archiveFileOf(file);
+            this.partitionFiles = DatabaseManager.findPartitionFiles(file);
+            long size = Files.size(file) + (Files.isRegularFile(archiveFile) ? Files.size(archiveFile) : 0);
+            for (Path partitionFile : partitionFiles.values()) {
+                size += Files.size(partitionFile);
+            }
+            this.sizeBytes = size;
+            this.createdAt = LocalDateTime.ofInstant(Files.getLastModifiedTime(file).toInstant(), ZoneId.systemDefault());
+        }
+
+        public Path getFile() {
+            return file;
+        }
+
+        /**
+         * The archive saved with the snapshot; snapshots taken before archives were saved have none
+         */
+        public Path getArchiveFile() {
+            return Files.isRegularFile(archiveFile) ? archiveFile : null;
+        }
+
+        /**
+         * The category partitions saved with the snapshot, schema name -> file
+         */
+        public Map<String, Path> getPartitionFiles() {
+            return partitionFiles;
+        }
+
+        public String getName() {
+            return file.getFileName().toString();
+        }
+
+        public long getSizeBytes() {
+            return sizeBytes;
+        }
+
+        public LocalDateTime getCreatedAt() {
+            return createdAt;
+        }
+    }
+
+    private static BackupService instance;
+
+    private final DatabaseManager dbManager;
+    private final Path directory;
+    private final String baseName;
+    private ScheduledExecutorService scheduler;
+
+    private BackupService() {
+        this.dbManager = DatabaseManager.getInstance();
+        Path database = Paths.get(DatabaseManager.getDatabasePath());
+        this.directory = Paths.get(database + ".backups");
+        this.baseName = database.getFileName().toString().replaceFirst("\\.db$", "");
+    }
+
+    public static synchronized BackupService getInstance() {
+        if (instance == null) {
+            instance = new BackupService();
+        }
+        return instance;
+    }
+
+    /**
+     * Start the daily snapshots (once; not in remote-backend mode)
+     */
+    public synchronized void startBackups() {
+        if (scheduler != null || RemoteClient.isEnabled()) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "kna-backup");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                if (isDue()) {
+                    takeSnapshot("");
+                    rotate();
+                }
+            } catch (SQLException | IOException e) {
+                System.err.println("Failed to back up the database: " + e.getMessage());
+                e.printStackTrace();
+            }
+        }, STARTUP_DELAY_MINUTES, CHECK_INTERVAL_MINUTES, TimeUnit.MINUTES);
+    }
+
+    /**
+     * The kept snapshots, newest first
+     */
+    public List<Snapshot> getSnapshots() throws IOException {
+        List<Snapshot> snapshots = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return snapshots;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, baseName + "-*" + SNAPSHOT_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (!name.endsWith(ARCHIVE_SUFFIX) && !DatabaseManager.isPartitionFile(name)) {
+                    snapshots.add(new Snapshot(file));
+                }
+            }
+        }
+        snapshots.sort(Comparator.comparing(Snapshot::getCreatedAt).reversed());
+        return snapshots;
+    }
+
+    /**
+     * Take a snapshot now (on the backup thread)
+     */
+    public CompletableFuture<Snapshot> backupNow() {
+        return submit(() -> {
+            Snapshot snapshot = takeSnapshot("");
+            rotate();
+            return snapshot;
+        });
+    }
+
+    /**
+     * Replace the database and the archive with a snapshot (on the backup thread). The
+     * snapshot is checked first and the current database is saved as a "before-restore"
+     * snapshot. A snapshot without an archive leaves the archive as it is, while a partition
+     * the snapshot has no copy of is emptied; either way, questions the restored database has
+     * again are dropped from the archive. Caches that
+     * listen to DataEvents are invalidated; the search, similarity and recommendation
+     * indexes still reflect the old data until the app restarts.
+     */
+    public CompletableFuture<Void> restore(Snapshot snapshot) {
+        return submit(() -> {
+            if (!Files.isRegularFile(snapshot.getFile())) {
+                throw new Exception("Snapshot " + snapshot.getName() + " no longer exists");
+            }
+            List<String> problems = DatabaseManager.checkIntegrity(snapshot.getFile());
+            if (snapshot.getArchiveFile() != null) {
+                problems.addAll(DatabaseManager.checkIntegrity(snapshot.getArchiveFile()));
+            }
+            for (Path partitionFile : snapshot.getPartitionFiles().values()) {
+                problems.addAll(DatabaseManager.checkIntegrity(partitionFile));
+            }
+            if (!problems.isEmpty()) {
+                throw new Exception("Snapshot " + snapshot.getName() + " is damaged: " + String.join("; ", problems));
+            }
+            takeSnapshot("-before-restore");
+
+            long start = System.nanoTime();
+            dbManager.restoreFrom(snapshot.getFile(), snapshot.getArchiveFile(), snapshot.getPartitionFiles());
+            for (DataEvents.Topic topic : DataEvents.Topic.values()) {
+                DataEvents.publish(topic);
+            }
+            System.out.println("Restored the database from " + snapshot.getName() + " in "
+                + (System.nanoTime() - start) / 1_000_000 + " ms");
+            // Only after the restore, so the snapshot being restored cannot be rotated out
+            rotate();
+            return null;
+        });
+    }
+
+    private <T> CompletableFuture<T> submit(Callable<T> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        synchronized (this) {
+            if (scheduler == null) {
+                result.completeExceptionally(new Exception(RemoteClient.isEnabled()
+                    ? "Backups are made by the server" : "Backups are not running"));
+                return result;
+            }
+            scheduler.execute(() -> {
+                try {
+                    result.complete(task.call());
+                } catch (Exception e) {
+                    result.completeExceptionally(e);
+                }
+            });
+        }
+        return result;
+    }
+
+    private boolean isDue() throws IOException {
+        List<Snapshot> snapshots = getSnapshots();
+        return snapshots.isEmpty()
+            || snapshots.get(0).getCreatedAt().isBefore(LocalDateTime.now().minusHours(BACKUP_INTERVAL_HOURS));
+    }
+
+    /**
+     * Copy the category partitions, the database, then the archive, into new snapshot files.
+     * All get their final names only once they have passed the integrity check, the database
+     * last, so a listed snapshot always has its archive and partitions.
+     */
+    private Snapshot takeSnapshot(String label) throws SQLException, IOException {
+        Files.createDirectories(directory);
+        Path file = directory.resolve(baseName + "-" + LocalDateTime.now().format(STAMP) + label + SNAPSHOT_SUFFIX);
+        Path archiveFile = archiveFileOf(file);
+        Path partial = Paths.get(file + PARTIAL_SUFFIX);
+        Path archivePartial = Paths.get(archiveFile + PARTIAL_SUFFIX);
+        List<String> partitions = dbManager.getPartitions();
+        List<Path> partitionFiles = new ArrayList<>();
+        for (String partition : partitions) {
+            partitionFiles.add(Paths.get(DatabaseManager.partitionPathFor(file.toString(), partition)));
+        }
+        try {
+            long start = System.nanoTime();
+            for (int i = 0; i < partitions.size(); i++) {
+                dbManager.backupPartitionTo(partitions.get(i), Paths.get(partitionFiles.get(i) + PARTIAL_SUFFIX));
+            }
+            dbManager.backupTo(partial);
+            dbManager.backupArchiveTo(archivePartial);
+            long copied = System.nanoTime();
+            List<String> problems = DatabaseManager.checkIntegrity(partial);
+            problems.addAll(DatabaseManager.checkIntegrity(archivePartial));
+            for (Path partitionFile : partitionFiles) {
+                problems.addAll(DatabaseManager.checkIntegrity(Paths.get(partitionFile + PARTIAL_SUFFIX)));
+            }
+            if (!problems.isEmpty()) {
+                throw new SQLException("Snapshot " + file.getFileName() + " failed the integrity check: "
+                    + String.join("; ", problems));
+            }
+            for (Path partitionFile : partitionFiles) {
+                Files.move(Paths.get(partitionFile + PARTIAL_SUFFIX), partitionFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+            Files.move(archivePartial, archiveFile, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(partial, file, StandardCopyOption.REPLACE_EXISTING);
+            System.out.println("Backed up the database to " + file.getFileName() + " in "
+                + (copied - start) / 1_000_000 + " ms (checked in " + (System.nanoTime() - copied) / 1_000_000 + " ms)");
+        } finally {
+            Files.deleteIfExists(partial);
+            Files.deleteIfExists(archivePartial);
+            for (Path partitionFile : partitionFiles) {
+                Files.deleteIfExists(Paths.get(partitionFile + PARTIAL_SUFFIX));
+            }
+        }
+        return new Snapshot(file);
+    }
+
+    /**
+     * Delete all but the newest KEEP_SNAPSHOTS snapshots
+     */
+    private void rotate() throws IOException {
+        List<Snapshot> snapshots = getSnapshots();
+        for (Snapshot old : snapshots.subList(Math.min(KEEP_SNAPSHOTS, snapshots.size()), snapshots.size())) {
+            Files.deleteIfExists(old.getFile());
+            Files.deleteIfExists(archiveFileOf(old.getFile()));
+            for (Path partitionFile : old.getPartitionFiles().values()) {
+                Files.deleteIfExists(partitionFile);
+            }
+        }
+    }
+
+    private static Path archiveFileOf(Path snapshot) {
+        return Paths.get(DatabaseManager.archivePathFor(snapshot.toString()));
+    }
+}
@@ -1,14 +1,18 @@
 package com.kna.service;
 
+import com.kna.client.RemoteClient;
 import com.kna.dao.CoinDAO;
 import com.kna.dao.UserDAO;
 import com.kna.model.CoinPurchase;
 import com.kna.model.CoinTransaction;
 import com.kna.model.User;
+import com.kna.util.DatabaseManager;
 import com.kna.util.SessionManager;
 
 import java.math.BigDecimal;
 import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * CoinService - Business logic for coin management
@@ -17,10 +21,13 @@ public class CoinService {
     
     private final CoinDAO coinDAO;
     private final UserDAO userDAO;
+    // Non-null in remote-backend mode
+    private final RemoteClient remote;
 
     public CoinService() {
         this.coinDAO = new CoinDAO();
         this.userDAO = new UserDAO();
+        this.remote = RemoteClient.getInstance();
     }
 
     /**
@@ -32,9 +39,25 @@ public class CoinService {
             throw new Exception("User not logged in");
         }
         
+        if (remote != null) {
+            // The server only sells its published packages, so send the matching package name
+            CoinPackage selected = findPackage(coinsAmount, price);
+            if (selected == null) {
+                throw new Exception("Unknown coin package: " + coinsAmount + " Coins for " + price);
+            }
+            Map<String, Object> body = new HashMap<>();
+            body.put("package", selected.name);
+            User updated = remote.post("/api/coins/purchase", body, User.class);
+            SessionManager.getInstance().updateCoins(updated.getCoins());
+            return true;
+        }
+        
+        DatabaseManager db = DatabaseManager.getInstance();
+        db.beginTransaction();
         try {
-            // Calculate new balance
-            int newBalance = currentUser.getCoins() + coinsAmount;
+            // Calculate new balance from the stored one; other sessions may have changed it
+            User stored = userDAO.findById(currentUser.getUserId());
+            int newBalance = (stored != null ? stored.getCoins() : currentUser.getCoins()) + coinsAmount;
             
             // Update user coins
             userDAO.updateCoins(currentUser.getUserId(), newBalance);
@@ -58,12 +81,15 @@ public class CoinService {
             purchase.setTransactionId(transactionId);
             coinDAO.recordPurchase(purchase);
             
+            db.commit();
+            
             // Update session
             SessionManager.getInstance().updateCoins(newBalance);
             
             return true;
             
         } catch (SQLException e) {
+            db.rollback();
             throw new Exception("Failed to purchase coins: " + e.getMessage());
         }
     }
@@ -84,15 +110,26 @@ public class CoinService {
     }
     
     /**
-     * Get available coin packages
+     * Get available coin packages (the ones offered on the coin purchase page)
      */
     public CoinPackage[] getPackages() {
         return new CoinPackage[] {
-            new CoinPackage("Starter", 50, new BigDecimal("50.00")),
-            new CoinPackage("Basic", 100, new BigDecimal("90.00")),
-            new CoinPackage("Standard", 250, new BigDecimal("200.00")),
-            new CoinPackage("Premium", 500, new BigDecimal("375.00")),
-            new CoinPackage("Ultimate", 1000, new BigDecimal("700.00"))
+            new CoinPackage("Starter", 50, new BigDecimal("59")),
+            new CoinPackage("Value Pack", 200, new BigDecimal("199")),
+            new CoinPackage("Premium", 500, new BigDecimal("499")),
+            new CoinPackage("Ultimate", 1000, new BigDecimal("899"))
         };
     }
+
+    /**
+     * Find the package with this coin amount and price, or null
+     */
+    public CoinPackage findPackage(int coinsAmount, BigDecimal price) {
+        for (CoinPackage coinPackage : getPackages()) {
+            if (coinPackage.coins == coinsAmount && coinPackage.price.compareTo(price) == 0) {
+                return coinPackage;
+            }
+        }
+        return null;
+    }
 }
@@ -0,0 +1,187 @@
+package com.kna.service;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import com.google.gson.reflect.TypeToken;
+import com.kna.client.RemoteClient;
+import com.kna.dao.SearchDAO;
+import com.kna.model.Question;
+import com.kna.model.SimilarQuestion;
+import com.kna.util.DatabaseManager;
+import com.kna.util.MinHashIndex;
+
+/**
+ * DuplicateService - Finds existing questions similar to one being asked, with a MinHash/LSH
+ * index over question titles and descriptions (see MinHashIndex).
+ * The index is kept in a file next to the database and memory-mapped at startup; questions
+ * asked since it was written are read in on a background thread and then added by the write
+ * path. The file is rewritten at startup once enough new questions have piled up.
+ * Candidates from the index are checked against the actual texts, which also drops deleted
+ * questions.
+ */
+public class DuplicateService {
+
+    private static final Type SIMILAR_LIST = new TypeToken<List<SimilarQuestion>>() {}.getType();
+
+    private static final int LOAD_CHUNK = 2_000;
+    // New questions worth rewriting the index file for; fewer are just kept in memory
+    private static final int REWRITE_THRESHOLD = 1_000;
+    private static final int MAX_CANDIDATES = 20;
+    private static final int MAX_RESULTS = 5;
+    private static final double MIN_SIMILARITY = 0.4;
+
+    private static DuplicateService instance;
+
+    private final SearchDAO searchDAO;
+    // Non-null in remote-backend mode
+    private final RemoteClient remote;
+    private volatile MinHashIndex index = MinHashIndex.empty();
+    private Thread indexer;
+
+    private DuplicateService() {
+        this.searchDAO = new SearchDAO();
+        this.remote = RemoteClient.getInstance();
+    }
+
+    public static synchronized DuplicateService getInstance() {
+        if (instance == null) {
+            instance = new DuplicateService();
+        }
+        return instance;
+    }
+
+    /**
+     * Start loading the index in the background (once; not in remote-backend mode)
+     */
+    public synchronized void startIndexing() {
+        if (indexer != null || remote != null) {
+            return;
+        }
+        indexer = new Thread(this::buildIndex, "kna-duplicate-index");
+        indexer.setDaemon(true);
+        indexer.setPriority(Thread.MIN_PRIORITY);
+        indexer.start();
+    }
+
+    /**
+     * Existing questions most similar to the given title and description (which may still be
+     * empty), most similar first
+     */
+    public List<SimilarQuestion> findSimilar(String title, String description) throws SQLException {
+        if (title == null || title.isBlank()) {
+            return new ArrayList<>();
+        }
+        if (remote != null) {
+            return remote.get("/api/questions/similar?title=" + RemoteClient.encode(title)
+                + "&description=" + RemoteClient.encode(description != null ? description : ""), SIMILAR_LIST);
+        }
+
+        boolean withBody = description != null && !description.isBlank();
+        int[] candidates = index.candidates(
+            MinHashIndex.bandKeys(title, withBody ? description : null), withBody, MAX_CANDIDATES);
+        int[] shingles = MinHashIndex.shingles(withBody ? title + "\n" + description : title);
+
+        List<SimilarQuestion> similar = new ArrayList<>();
+        for (Question question : searchDAO.getQuestionTextsById(candidates)) {
+            double similarity = MinHashIndex.jaccard(shingles, MinHashIndex.shingles(withBody
+                ? question.getTitle() + "\n" + question.getDescription()
+                : question.getTitle()));
+            if (similarity >= MIN_SIMILARITY) {
+                similar.add(new SimilarQuestion(question.getQuestionId(), question.getTitle(),
+                    similarity, question.isAnswered()));
+            }
+        }
+        similar.sort(Comparator.comparingDouble(SimilarQuestion::getSimilarity).reversed());
+        return similar.subList(0, Math.min(MAX_RESULTS, similar.size()));
+    }
+
+    /**
+     * Index a newly asked question
+     */
+    public synchronized void questionAdded(Question question) {
+        index.add(question.getQuestionId(), keys(question));
+    }
+
+    /**
+     * Drop a deleted question from the in-memory part of the index
+     */
+    public synchronized void questionRemoved(Question question) {
+        index.remove(question.getQuestionId(), keys(question));
+    }
+
+    private static int[] keys(Question question) {
+        return MinHashIndex.bandKeys(question.getTitle(), question.getDescription());
+    }
+
+    private static Path indexFile() {
+        return Paths.get(DatabaseManager.getDatabasePath() + ".similar");
+    }
+
+    /**
+     * Read the questions asked after the index file was written, fold them into the file when
+     * there are many, map it and publish it. The last catch-up runs under the same lock as
+     * questionAdded, so no question is missed between the two.
+     */
+    private void buildIndex() {
+        long start = System.nanoTime();
+        try {
+            Path file = indexFile();
+            int persistedMaxId = MinHashIndex.persistedMaxId(file);
+
+            int[] ids = new int[LOAD_CHUNK];
+            int[] keys = new int[LOAD_CHUNK * MinHashIndex.BANDS];
+            int count = 0;
+            int afterId = Math.max(0, persistedMaxId);
+            List<Question> chunk;
+            do {
+                chunk = searchDAO.getQuestionTextsAfter(afterId, LOAD_CHUNK);
+                if (count + chunk.size() > ids.length) {
+                    ids = Arrays.copyOf(ids, ids.length * 2);
+                    keys = Arrays.copyOf(keys, keys.length * 2);
+                }
+                for (Question question : chunk) {
+                    ids[count] = question.getQuestionId();
+                    System.arraycopy(keys(question), 0, keys, count * MinHashIndex.BANDS, MinHashIndex.BANDS);
+                    count++;
+                    afterId = question.getQuestionId();
+                }
+            } while (chunk.size() == LOAD_CHUNK);
+
+            boolean rewrite = count >= REWRITE_THRESHOLD || persistedMaxId < 0 && count > 0;
+            if (rewrite) {
+                MinHashIndex.write(file, ids, keys, count);
+            }
+            MinHashIndex loaded = MinHashIndex.open(file);
+            if (!rewrite) {
+                for (int i = 0; i < count; i++) {
+                    loaded.add(ids[i], Arrays.copyOfRange(keys, i * MinHashIndex.BANDS, (i + 1) * MinHashIndex.BANDS));
+                }
+            }
+
+            synchronized (this) {
+                do {
+                    chunk = searchDAO.getQuestionTextsAfter(afterId, LOAD_CHUNK);
+                    for (Question question : chunk) {
+                        loaded.add(question.getQuestionId(), keys(question));
+                        afterId = question.getQuestionId();
+                    }
+                } while (chunk.size() == LOAD_CHUNK);
+                index = loaded;
+            }
+
+            System.out.println("Similarity index ready in " + (System.nanoTime() - start) / 1_000_000 + " ms: "
+                + loaded.size() + " questions (" + count + " new" + (rewrite ? ", file rewritten" : "") + ")");
+        } catch (SQLException | IOException e) {
+            System.err.println("Failed to build the similarity index: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+}
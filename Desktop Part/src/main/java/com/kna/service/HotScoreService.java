@@ -0,0 +1,102 @@
+package com.kna.service;
+
+import java.sql.SQLException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.kna.client.RemoteClient;
+import com.kna.dao.HotScoreDAO;
+
+/**
+ * HotScoreService - Background upkeep of the questions' hot scores (see HotScoreDAO):
+ * creates the epoch, scores questions that have no score yet in small batches, and rebases
+ * the scores before the epoch gets old enough for them to lose range.
+ * The write paths keep scores current between runs.
+ */
+public class HotScoreService {
+
+    private static final int BACKFILL_BATCH_SIZE = 1_000;
+    private static final long CHECK_INTERVAL_HOURS = 6;
+    // Event weights have grown by 2^256 by then, still far below the double range (2^1023);
+    // a rebase rewrites every question row, so it should be rare
+    private static final int REBASE_AFTER_HALF_LIVES = 256;
+    // Question ids per rebase transaction, and the pause between them for the app's queries
+    private static final int REBASE_BATCH_SIZE = 2_500;
+    private static final long REBASE_BATCH_PAUSE_MS = 50;
+
+    private static HotScoreService instance;
+
+    private final HotScoreDAO hotScoreDAO;
+    private ScheduledExecutorService scheduler;
+
+    private HotScoreService() {
+        this.hotScoreDAO = new HotScoreDAO();
+    }
+
+    public static synchronized HotScoreService getInstance() {
+        if (instance == null) {
+            instance = new HotScoreService();
+        }
+        return instance;
+    }
+
+    /**
+     * Start the background upkeep (once; not in remote-backend mode)
+     */
+    public synchronized void startScoring() {
+        if (scheduler != null || RemoteClient.isEnabled()) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "kna-hot-score");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                maintain();
+            } catch (SQLException | InterruptedException e) {
+                System.err.println("Failed to update hot scores: " + e.getMessage());
+                e.printStackTrace();
+            }
+        }, 0, CHECK_INTERVAL_HOURS, TimeUnit.HOURS);
+    }
+
+    private void maintain() throws SQLException, InterruptedException {
+        hotScoreDAO.ensureEpoch();
+
+        int halfLives = (int) (hotScoreDAO.getEpochAgeDays() * 24 / HotScoreDAO.HALF_LIFE_HOURS);
+        if (halfLives >= REBASE_AFTER_HALF_LIVES) {
+            hotScoreDAO.startRebase(halfLives);
+        }
+        // Also finishes a rebase that an earlier run did not get through
+        long rebaseStart = System.nanoTime();
+        int batches = 0;
+        boolean more;
+        do {
+            more = hotScoreDAO.rebaseBatch(REBASE_BATCH_SIZE);
+            batches++;
+            if (more) {
+                Thread.sleep(REBASE_BATCH_PAUSE_MS);
+            }
+        } while (more);
+        if (halfLives >= REBASE_AFTER_HALF_LIVES || batches > 1) {
+            System.out.println("Rebased hot scores in " + batches + " batches in "
+                + (System.nanoTime() - rebaseStart) / 1_000_000 + " ms");
+        }
+
+        long start = System.nanoTime();
+        int scored = 0;
+        int batch;
+        do {
+            batch = hotScoreDAO.backfill(BACKFILL_BATCH_SIZE);
+            scored += batch;
+        } while (batch == BACKFILL_BATCH_SIZE);
+        if (scored > 0) {
+            System.out.println("Scored " + scored + " questions for the hot feed in "
+                + (System.nanoTime() - start) / 1_000_000 + " ms");
+        }
+    }
+}
@@ -0,0 +1,305 @@
+package com.kna.service;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * LoginRateLimiter - Throttles failed logins per email and per client address.
+ * Failures are counted in a sliding window (the previous fixed window weighted by how much of
+ * it still overlaps, plus the current one). Reaching the limit locks the key out, and every
+ * further lockout doubles the wait. Checks run before any database access and only touch
+ * one lock stripe, so concurrent logins for different keys do not contend.
+ */
+public class LoginRateLimiter implements LoginRateLimiterMXBean {
+
+    private static final long WINDOW_MILLIS = TimeUnit.MINUTES.toMillis(15);
+    private static final int MAX_FAILURES_PER_EMAIL = Integer.getInteger("kna.login.maxFailuresPerEmail", 5);
+    private static final int MAX_FAILURES_PER_ADDRESS = Integer.getInteger("kna.login.maxFailuresPerAddress", 20);
+    private static final long BASE_LOCKOUT_MILLIS = TimeUnit.SECONDS.toMillis(30);
+    private static final long MAX_LOCKOUT_MILLIS = TimeUnit.MINUTES.toMillis(15);
+    private static final int STRIPES = 32;
+    private static final int MAX_KEYS_PER_STRIPE = 1024;
+
+    private static LoginRateLimiter instance;
+
+    private final KeyLimiter byEmail = new KeyLimiter(MAX_FAILURES_PER_EMAIL);
+    private final KeyLimiter byAddress = new KeyLimiter(MAX_FAILURES_PER_ADDRESS);
+    private final LongAdder checks = new LongAdder();
+    private final LongAdder blocked = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder lockouts = new LongAdder();
+
+    private LoginRateLimiter() {
+        registerMBean();
+    }
+
+    public static synchronized LoginRateLimiter getInstance() {
+        if (instance == null) {
+            instance = new LoginRateLimiter();
+        }
+        return instance;
+    }
+
+    /**
+     * Refuse the attempt if the email or the client address (null for the desktop app) is locked out
+     */
+    public void checkAllowed(String email, String clientAddress) throws RateLimitException {
+        checks.increment();
+        long now = System.currentTimeMillis();
+        long wait = Math.max(byEmail.lockedFor(normalize(email), now), byAddress.lockedFor(clientAddress, now));
+        if (wait > 0) {
+            blocked.increment();
+            long seconds = (wait + 999) / 1000;
+            throw new RateLimitException("Too many failed login attempts. Try again in " + seconds + " seconds.", seconds);
+        }
+    }
+
+    /**
+     * Count a failed attempt against the email and the client address
+     */
+    public void recordFailure(String email, String clientAddress) {
+        failures.increment();
+        long now = System.currentTimeMillis();
+        if (byEmail.recordFailure(normalize(email), now)) {
+            lockouts.increment();
+        }
+        if (byAddress.recordFailure(clientAddress, now)) {
+            lockouts.increment();
+        }
+    }
+
+    /**
+     * Forget the failures of an email after a successful login.
+     * The address keeps its count so one valid account cannot unlock guessing at others.
+     */
+    public void recordSuccess(String email) {
+        byEmail.reset(normalize(email));
+    }
+
+    @Override
+    public long getChecks() {
+        return checks.sum();
+    }
+
+    @Override
+    public long getBlockedAttempts() {
+        return blocked.sum();
+    }
+
+    @Override
+    public long getFailedAttempts() {
+        return failures.sum();
+    }
+
+    @Override
+    public long getLockouts() {
+        return lockouts.sum();
+    }
+
+    @Override
+    public int getTrackedEmails() {
+        return byEmail.size();
+    }
+
+    @Override
+    public int getTrackedAddresses() {
+        return byAddress.size();
+    }
+
+    private static String normalize(String email) {
+        return email != null ? email.trim().toLowerCase(Locale.ROOT) : null;
+    }
+
+    private void registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName("com.kna:type=LoginRateLimiter");
+            if (!server.isRegistered(name)) {
+                server.registerMBean(this, name);
+            }
+        } catch (Exception e) {
+            System.err.println("Failed to register login rate limiter MBean: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Failure windows for one kind of key, split over lock stripes
+     */
+    private static class KeyLimiter {
+        private final int limit;
+        private final Stripe[] stripes = new Stripe[STRIPES];
+
+        KeyLimiter(int limit) {
+            this.limit = limit;
+            for (int i = 0; i < STRIPES; i++) {
+                stripes[i] = new Stripe();
+            }
+        }
+
+        long lockedFor(String key, long now) {
+            if (key == null) {
+                return 0;
+            }
+            Stripe stripe = stripeFor(key);
+            synchronized (stripe) {
+                Window window = stripe.windows.get(key);
+                // A stripe full of locked windows cannot track this key, so it counts as locked too
+                long lockedUntil = window != null ? window.lockedUntil : stripe.saturatedUntil;
+                return Math.max(0, lockedUntil - now);
+            }
+        }
+
+        /**
+         * Returns true when this failure started a new lockout
+         */
+        boolean recordFailure(String key, long now) {
+            if (key == null) {
+                return false;
+            }
+            Stripe stripe = stripeFor(key);
+            synchronized (stripe) {
+                Window window = stripe.windows.get(key);
+                if (window == null) {
+                    if (stripe.windows.size() >= MAX_KEYS_PER_STRIPE && !stripe.evict(now)) {
+                        return false;
+                    }
+                    window = new Window(now);
+                    stripe.windows.put(key, window);
+                }
+                return window.recordFailure(now, limit);
+            }
+        }
+
+        void reset(String key) {
+            if (key == null) {
+                return;
+            }
+            Stripe stripe = stripeFor(key);
+            synchronized (stripe) {
+                if (stripe.windows.remove(key) != null) {
+                    stripe.saturatedUntil = 0;
+                }
+            }
+        }
+
+        int size() {
+            int size = 0;
+            for (Stripe stripe : stripes) {
+                synchronized (stripe) {
+                    size += stripe.windows.size();
+                }
+            }
+            return size;
+        }
+
+        private Stripe stripeFor(String key) {
+            int h = key.hashCode();
+            return stripes[(h ^ (h >>> 16)) & (STRIPES - 1)];
+        }
+    }
+
+    /**
+     * One lock stripe; its windows are only touched while holding the stripe's monitor
+     */
+    private static class Stripe {
+        final Map<String, Window> windows = new HashMap<>();
+        // While the stripe is full of locked windows: when the first of those locks ends
+        long saturatedUntil;
+
+        /**
+         * Make room for one window: drop the idle ones, or else the least recently failed one
+         * that is not locked, preferring windows that are not backing off. A locked window is
+         * never dropped, since that would lift its lockout; returns false when all are locked.
+         */
+        boolean evict(long now) {
+            String victimKey = null;
+            Window victim = null;
+            long firstUnlock = Long.MAX_VALUE;
+            Iterator<Map.Entry<String, Window>> it = windows.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<String, Window> entry = it.next();
+                Window window = entry.getValue();
+                if (window.isIdle(now)) {
+                    it.remove();
+                } else if (now < window.lockedUntil) {
+                    firstUnlock = Math.min(firstUnlock, window.lockedUntil);
+                } else if (victim == null || window.lockoutLevel < victim.lockoutLevel
+                        || (window.lockoutLevel == victim.lockoutLevel && window.lastFailure < victim.lastFailure)) {
+                    victim = window;
+                    victimKey = entry.getKey();
+                }
+            }
+            if (windows.size() < MAX_KEYS_PER_STRIPE) {
+                saturatedUntil = 0;
+                return true;
+            }
+            if (victimKey != null) {
+                windows.remove(victimKey);
+                saturatedUntil = 0;
+                return true;
+            }
+            saturatedUntil = firstUnlock;
+            return false;
+        }
+    }
+
+    /**
+     * Sliding-window failure count and lockout state of one key
+     */
+    private static class Window {
+        long windowStart;
+        int previous;
+        int current;
+        int lockoutLevel;
+        long lockedUntil;
+        long lastFailure;
+
+        Window(long now) {
+            this.windowStart = now;
+        }
+
+        boolean recordFailure(long now, int limit) {
+            roll(now);
+            current++;
+            lastFailure = now;
+            if (now < lockedUntil || estimate(now) < limit) {
+                return false;
+            }
+            // 30s, 60s, 120s, ... up to the maximum
+            lockoutLevel = Math.min(lockoutLevel + 1, 16);
+            lockedUntil = now + Math.min(BASE_LOCKOUT_MILLIS << (lockoutLevel - 1), MAX_LOCKOUT_MILLIS);
+            return true;
+        }
+
+        boolean isIdle(long now) {
+            return now >= lockedUntil && now - lastFailure >= 2 * WINDOW_MILLIS;
+        }
+
+        private void roll(long now) {
+            long elapsedWindows = (now - windowStart) / WINDOW_MILLIS;
+            if (elapsedWindows == 0) {
+                return;
+            }
+            previous = elapsedWindows == 1 ? current : 0;
+            current = 0;
+            windowStart += elapsedWindows * WINDOW_MILLIS;
+            if (previous == 0 && now >= lockedUntil) {
+                // A full quiet window: start backing off from the beginning again
+                lockoutLevel = 0;
+            }
+        }
+
+        private double estimate(long now) {
+            double overlap = 1.0 - (double) (now - windowStart) / WINDOW_MILLIS;
+            return previous * overlap + current;
+        }
+    }
+}
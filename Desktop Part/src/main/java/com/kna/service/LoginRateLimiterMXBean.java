@@ -0,0 +1,19 @@
+package com.kna.service;
+
+/**
+ * LoginRateLimiterMXBean - JMX view of the login throttling counters (registered as com.kna:type=LoginRateLimiter)
+ */
+public interface LoginRateLimiterMXBean {
+
+    long getChecks();
+
+    long getBlockedAttempts();
+
+    long getFailedAttempts();
+
+    long getLockouts();
+
+    int getTrackedEmails();
+
+    int getTrackedAddresses();
+}
@@ -0,0 +1,172 @@
+package com.kna.service;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.kna.client.RemoteClient;
+import com.kna.dao.MaintenanceDAO;
+import com.kna.util.QueryMetrics;
+
+/**
+ * MaintenanceService - Keeps the planner statistics and the database file in shape while the
+ * app is idle (see MaintenanceDAO). At most once an hour it re-analyzes the tables whose row
+ * count moved by ANALYZE_CHANGE_RATIO since their last ANALYZE, runs PRAGMA optimize, and
+ * returns free pages to the file system with incremental vacuum. Every pass that changes
+ * something logs the sizes before and after. A database created before incremental auto-vacuum
+ * is converted by one full VACUUM at startup (convertToIncrementalVacuum), never while idle,
+ * because the VACUUM holds the database lock for as long as it takes to rewrite the file.
+ */
+public class MaintenanceService {
+
+    private static final long CHECK_INTERVAL_MINUTES = 5;
+    private static final long PASS_INTERVAL_HOURS = 1;
+    // Idle: no more queries than the dashboard's polling makes in one check interval
+    private static final long IDLE_MAX_QUERIES = 50;
+    private static final double ANALYZE_CHANGE_RATIO = 0.10;
+    // Small tables are scanned fast whatever the plan
+    private static final long ANALYZE_MIN_ROW_CHANGE = 1_000;
+    private static final long VACUUM_MIN_FREE_BYTES = 8L << 20;
+    private static final long VACUUM_BYTES_PER_STEP = 1L << 20;
+    private static final long VACUUM_STEP_PAUSE_MS = 10;
+    private static final double CONVERT_MIN_FREE_RATIO = 0.10;
+
+    private static MaintenanceService instance;
+
+    private final MaintenanceDAO maintenanceDAO;
+    private ScheduledExecutorService scheduler;
+    private long lastQueryCount = -1;
+    private long lastPass;
+
+    private MaintenanceService() {
+        this.maintenanceDAO = new MaintenanceDAO();
+    }
+
+    public static synchronized MaintenanceService getInstance() {
+        if (instance == null) {
+            instance = new MaintenanceService();
+        }
+        return instance;
+    }
+
+    /**
+     * Start the idle-time maintenance (once; not in remote-backend mode)
+     */
+    public synchronized void startMaintenance() {
+        if (scheduler != null || RemoteClient.isEnabled()) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "kna-maintenance");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+        lastPass = System.nanoTime() - TimeUnit.HOURS.toNanos(PASS_INTERVAL_HOURS);
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                if (isIdle() && System.nanoTime() - lastPass >= TimeUnit.HOURS.toNanos(PASS_INTERVAL_HOURS)) {
+                    maintain();
+                    lastPass = System.nanoTime();
+                }
+            } catch (SQLException | InterruptedException e) {
+                System.err.println("Failed to maintain the database: " + e.getMessage());
+                e.printStackTrace();
+            }
+        }, CHECK_INTERVAL_MINUTES, CHECK_INTERVAL_MINUTES, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Convert a database created before incremental auto-vacuum with one full VACUUM, once enough
+     * of it is free for that to pay off. Blocks all other access while it runs, so call it at
+     * startup after initializeDatabase and before the UI or the server use the database.
+     */
+    public void convertToIncrementalVacuum() {
+        try {
+            if (maintenanceDAO.getPragma("auto_vacuum") == MaintenanceDAO.AUTO_VACUUM_INCREMENTAL) {
+                return;
+            }
+            int pageSize = maintenanceDAO.getPragma("page_size");
+            int pagesBefore = maintenanceDAO.getPragma("page_count");
+            int freeBefore = maintenanceDAO.getPragma("freelist_count");
+            if ((long) freeBefore * pageSize < VACUUM_MIN_FREE_BYTES || freeBefore < pagesBefore * CONVERT_MIN_FREE_RATIO) {
+                return;
+            }
+
+            long start = System.nanoTime();
+            maintenanceDAO.vacuumToIncremental();
+            int pagesAfter = maintenanceDAO.getPragma("page_count");
+            System.out.println("Converted the database to incremental auto-vacuum in "
+                + (System.nanoTime() - start) / 1_000_000 + " ms; " + pagesBefore + " pages ("
+                + freeBefore + " free, " + megabytes(pagesBefore, pageSize) + " MB) -> "
+                + pagesAfter + " pages (" + megabytes(pagesAfter, pageSize) + " MB)");
+        } catch (SQLException e) {
+            System.err.println("Failed to convert the database to incremental auto-vacuum: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Whether few enough queries ran since the previous check
+     */
+    private boolean isIdle() {
+        long queries = QueryMetrics.getInstance().getTotalCalls();
+        boolean idle = lastQueryCount >= 0 && queries - lastQueryCount <= IDLE_MAX_QUERIES;
+        lastQueryCount = queries;
+        return idle;
+    }
+
+    private void maintain() throws SQLException, InterruptedException {
+        long start = System.nanoTime();
+        int pageSize = maintenanceDAO.getPragma("page_size");
+        int pagesBefore = maintenanceDAO.getPragma("page_count");
+        int freeBefore = maintenanceDAO.getPragma("freelist_count");
+
+        List<String> analyzed = new ArrayList<>();
+        Map<String, Long> analyzedRows = maintenanceDAO.getAnalyzedRowCounts();
+        for (String table : maintenanceDAO.getTables()) {
+            long rows = maintenanceDAO.countRows(table);
+            long before = analyzedRows.getOrDefault(table, 0L);
+            if (Math.abs(rows - before) >= Math.max(ANALYZE_MIN_ROW_CHANGE, before * ANALYZE_CHANGE_RATIO)) {
+                maintenanceDAO.analyze(table);
+                analyzed.add(table + " " + before + " -> " + rows + " rows");
+            }
+        }
+        maintenanceDAO.optimize();
+        long analyzedAt = System.nanoTime();
+
+        String vacuum = null;
+        if ((long) freeBefore * pageSize >= VACUUM_MIN_FREE_BYTES
+                && maintenanceDAO.getPragma("auto_vacuum") == MaintenanceDAO.AUTO_VACUUM_INCREMENTAL) {
+            // In steps, so other queries get the database lock in between
+            int pagesPerStep = (int) Math.max(1, VACUUM_BYTES_PER_STEP / pageSize);
+            int free;
+            while ((free = maintenanceDAO.getPragma("freelist_count")) > 0) {
+                maintenanceDAO.incrementalVacuum(Math.min(pagesPerStep, free));
+                Thread.sleep(VACUUM_STEP_PAUSE_MS);
+            }
+            vacuum = "incremental vacuum";
+        }
+
+        if (analyzed.isEmpty() && vacuum == null) {
+            return;
+        }
+        int pagesAfter = maintenanceDAO.getPragma("page_count");
+        int freeAfter = maintenanceDAO.getPragma("freelist_count");
+        long end = System.nanoTime();
+        System.out.println("Database maintenance: "
+            + (analyzed.isEmpty() ? "statistics current" : "analyzed " + String.join(", ", analyzed))
+            + " in " + (analyzedAt - start) / 1_000_000 + " ms; "
+            + (vacuum == null ? "no vacuum" : vacuum + " in " + (end - analyzedAt) / 1_000_000 + " ms")
+            + "; " + pagesBefore + " pages (" + freeBefore + " free, " + megabytes(pagesBefore, pageSize) + " MB) -> "
+            + pagesAfter + " pages (" + freeAfter + " free, " + megabytes(pagesAfter, pageSize) + " MB)");
+    }
+
+    private static long megabytes(int pages, int pageSize) {
+        return (long) pages * pageSize >> 20;
+    }
+}
@@ -0,0 +1,124 @@
+package com.kna.service;
+
+import com.google.gson.reflect.TypeToken;
+import com.kna.client.RemoteClient;
+import com.kna.dao.NotificationDAO;
+import com.kna.model.Notification;
+import com.kna.model.User;
+import com.kna.util.SessionManager;
+
+import java.lang.reflect.Type;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * NotificationService - Notifications of the logged-in user
+ */
+public class NotificationService {
+
+    private final NotificationDAO notificationDAO;
+    // Non-null in remote-backend mode
+    private final RemoteClient remote;
+
+    private static final Type NOTIFICATION_LIST = new TypeToken<List<Notification>>() {}.getType();
+
+    public NotificationService() {
+        this.notificationDAO = new NotificationDAO();
+        this.remote = RemoteClient.getInstance();
+    }
+
+    /**
+     * Get all notifications, newest first
+     */
+    public List<Notification> getNotifications() throws SQLException {
+        int userId = currentUserId();
+        if (userId < 0) {
+            return new ArrayList<>();
+        }
+        if (remote != null) {
+            return remote.get("/api/notifications", NOTIFICATION_LIST);
+        }
+        return notificationDAO.getNotificationsByUserId(userId);
+    }
+
+    /**
+     * Get unread notifications
+     */
+    public List<Notification> getUnreadNotifications() throws SQLException {
+        int userId = currentUserId();
+        if (userId < 0) {
+            return new ArrayList<>();
+        }
+        if (remote != null) {
+            return remote.get("/api/notifications?filter=unread", NOTIFICATION_LIST);
+        }
+        return notificationDAO.getUnreadNotifications(userId);
+    }
+
+    /**
+     * Get notifications of one type
+     */
+    public List<Notification> getNotificationsByType(String type) throws SQLException {
+        int userId = currentUserId();
+        if (userId < 0) {
+            return new ArrayList<>();
+        }
+        if (remote != null) {
+            return remote.get("/api/notifications?type=" + RemoteClient.encode(type), NOTIFICATION_LIST);
+        }
+        return notificationDAO.getNotificationsByType(userId, type);
+    }
+
+    /**
+     * Get the number of unread notifications
+     */
+    public int getUnreadCount() throws SQLException {
+        int userId = currentUserId();
+        if (userId < 0) {
+            return 0;
+        }
+        if (remote != null) {
+            Map<String, Double> response = remote.get("/api/notifications/unread-count",
+                new TypeToken<Map<String, Double>>() {}.getType());
+            return response.get("count").intValue();
+        }
+        return notificationDAO.getUnreadCount(userId);
+    }
+
+    /**
+     * Mark one of the user's notifications as read
+     */
+    public boolean markAsRead(int notificationId) throws SQLException {
+        int userId = currentUserId();
+        if (userId < 0) {
+            return false;
+        }
+        if (remote != null) {
+            remote.post("/api/notifications/" + notificationId + "/read", null, null);
+            return true;
+        }
+        return notificationDAO.markAsRead(notificationId, userId);
+    }
+
+    /**
+     * Mark all of the user's notifications as read
+     */
+    public boolean markAllAsRead() throws SQLException {
+        int userId = currentUserId();
+        if (userId < 0) {
+            return false;
+        }
+        if (remote != null) {
+            remote.post("/api/notifications/read-all", null, null);
+            return true;
+        }
+        return notificationDAO.markAllAsRead(userId);
+    }
+
+    private int currentUserId() {
+        User currentUser = SessionManager.getInstance().getCurrentUser();
+        return currentUser != null ? currentUser.getUserId() : -1;
+    }
+}
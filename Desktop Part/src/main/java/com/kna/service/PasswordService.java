@@ -0,0 +1,240 @@
+package com.kna.service;
+
+import java.lang.management.ManagementFactory;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import com.kna.dao.UserDAO;
+import com.kna.model.User;
+import com.kna.util.DatabaseManager;
+import com.kna.util.PasswordHasher;
+
+/**
+ * PasswordService - Runs BCrypt hashing and verification on a small bounded worker pool.
+ * Each BCrypt call costs tens of milliseconds of CPU, so callers never run it on their own
+ * thread: the pool caps how many run at once and the bounded queue rejects work beyond
+ * that instead of letting a burst of logins pile up.
+ * Also rehashes passwords whose work factor changed and migrates legacy plaintext rows.
+ */
+public class PasswordService implements PasswordServiceMXBean {
+
+    private static final int THREADS = Integer.getInteger("kna.bcrypt.threads",
+        Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+    private static final int QUEUE_CAPACITY = Integer.getInteger("kna.bcrypt.queue", 64);
+    private static final int MIGRATION_BATCH_SIZE = 100;
+
+    private static PasswordService instance;
+
+    private final ThreadPoolExecutor executor;
+    private final UserDAO userDAO;
+    private final LongAdder rejected = new LongAdder();
+    private volatile String dummyHash;
+    private Thread migrationThread;
+
+    private PasswordService() {
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(THREADS, THREADS, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(QUEUE_CAPACITY), r -> {
+                Thread thread = new Thread(r, "kna-bcrypt-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                // Below the FX and request threads so hashing never starves the UI
+                thread.setPriority(Thread.NORM_PRIORITY - 1);
+                return thread;
+            });
+        this.userDAO = new UserDAO();
+        registerMBean();
+        // Warm the dummy hash off the caller's thread, so the first unknown email is not slower
+        executor.execute(this::dummyHash);
+    }
+
+    public static synchronized PasswordService getInstance() {
+        if (instance == null) {
+            instance = new PasswordService();
+        }
+        return instance;
+    }
+
+    /**
+     * Hash a password on the worker pool
+     */
+    public CompletableFuture<String> hash(String plainPassword) {
+        return submit(() -> PasswordHasher.hashPassword(plainPassword));
+    }
+
+    /**
+     * Verify a password against its stored hash (or legacy plaintext) on the worker pool
+     */
+    public CompletableFuture<Boolean> verify(String plainPassword, String storedPassword) {
+        return submit(() -> PasswordHasher.matches(plainPassword, storedPassword));
+    }
+
+    /**
+     * Verify a password for an email that has no account: checks it against a fixed hash of the
+     * current work factor and always fails, so the response takes as long as a wrong password
+     * and does not tell which emails are registered
+     */
+    public CompletableFuture<Boolean> verifyUnknown(String plainPassword) {
+        return submit(() -> {
+            PasswordHasher.matches(plainPassword, dummyHash());
+            return false;
+        });
+    }
+
+    /**
+     * Wait for a hashing result. Rethrows a full queue as RejectedExecutionException.
+     */
+    public static <T> T await(CompletableFuture<T> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof Exception ? (Exception) cause : e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw e;
+        }
+    }
+
+    /**
+     * After a successful login, replace a plaintext password or a hash with an outdated
+     * work factor. Runs in the background; the login does not wait for it.
+     */
+    public void rehashIfNeeded(int userId, String plainPassword, String storedPassword) {
+        if (!PasswordHasher.needsRehash(storedPassword)) {
+            return;
+        }
+        hash(plainPassword).thenAccept(newHash -> {
+            try {
+                userDAO.replacePasswordHash(userId, storedPassword, newHash);
+            } catch (SQLException e) {
+                System.err.println("Failed to rehash password for user " + userId + ": " + e.getMessage());
+            }
+        }).exceptionally(e -> {
+            // Pool busy: the next login tries again
+            return null;
+        });
+    }
+
+    /**
+     * Start hashing remaining plaintext passwords in the background, one batch per transaction.
+     * Uses its own low-priority thread so it never takes pool capacity from logins.
+     */
+    public synchronized void startMigration() {
+        if (migrationThread != null) {
+            return;
+        }
+        migrationThread = new Thread(this::migratePlaintextPasswords, "kna-password-migration");
+        migrationThread.setDaemon(true);
+        migrationThread.setPriority(Thread.MIN_PRIORITY);
+        migrationThread.start();
+    }
+
+    /**
+     * Hash all plaintext passwords; returns the number of rows migrated
+     */
+    public int migratePlaintextPasswords() {
+        DatabaseManager dbManager = DatabaseManager.getInstance();
+        int migrated = 0;
+        int lastUserId = 0;
+        try {
+            List<User> batch;
+            while (!(batch = userDAO.getUsersWithPlaintextPasswords(lastUserId, MIGRATION_BATCH_SIZE)).isEmpty()) {
+                // Hash outside the transaction so the connection is only held for the writes
+                List<String> hashes = new ArrayList<>(batch.size());
+                for (User user : batch) {
+                    hashes.add(PasswordHasher.hashPassword(user.getPasswordHash()));
+                }
+
+                dbManager.beginTransaction();
+                try {
+                    for (int i = 0; i < batch.size(); i++) {
+                        User user = batch.get(i);
+                        if (userDAO.replacePasswordHash(user.getUserId(), user.getPasswordHash(), hashes.get(i))) {
+                            migrated++;
+                        }
+                    }
+                    dbManager.commit();
+                } catch (SQLException e) {
+                    dbManager.rollback();
+                    throw e;
+                }
+                lastUserId = batch.get(batch.size() - 1).getUserId();
+            }
+        } catch (SQLException e) {
+            System.err.println("Password migration stopped: " + e.getMessage());
+            e.printStackTrace();
+        }
+        if (migrated > 0) {
+            System.out.println("Migrated " + migrated + " plaintext passwords to BCrypt");
+        }
+        return migrated;
+    }
+
+    @Override
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    @Override
+    public int getQueuedCount() {
+        return executor.getQueue().size();
+    }
+
+    @Override
+    public int getQueueCapacity() {
+        return QUEUE_CAPACITY;
+    }
+
+    @Override
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    private String dummyHash() {
+        String hash = dummyHash;
+        if (hash == null) {
+            synchronized (this) {
+                if (dummyHash == null) {
+                    dummyHash = PasswordHasher.hashPassword(Long.toHexString(System.nanoTime()));
+                }
+                hash = dummyHash;
+            }
+        }
+        return hash;
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, executor);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            return CompletableFuture.failedFuture(
+                new RejectedExecutionException("Too many sign-ins in progress, please try again"));
+        }
+    }
+
+    private void registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName("com.kna:type=PasswordService");
+            if (!server.isRegistered(name)) {
+                server.registerMBean(this, name);
+            }
+        } catch (Exception e) {
+            System.err.println("Failed to register password service MBean: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.kna.service;
+
+/**
+ * PasswordServiceMXBean - JMX view of the password hashing pool (registered as com.kna:type=PasswordService)
+ */
+public interface PasswordServiceMXBean {
+
+    int getActiveCount();
+
+    int getQueuedCount();
+
+    int getQueueCapacity();
+
+    /**
+     * Hashing requests turned away because the queue was full
+     */
+    long getRejectedCount();
+}
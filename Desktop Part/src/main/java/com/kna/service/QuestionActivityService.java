@@ -0,0 +1,103 @@
+package com.kna.service;
+
+import java.sql.SQLException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.kna.client.RemoteClient;
+import com.kna.dao.QuestionActivityDAO;
+
+/**
+ * QuestionActivityService - Background repair of the questions' answer counts, scores and
+ * last activity times and the answers' net scores (see QuestionActivityDAO): fills in
+ * never-counted rows at startup, then recounts every question once a day in small batches
+ * so the write paths are never held up for long.
+ */
+public class QuestionActivityService {
+
+    private static final int BATCH_SIZE = 1_000;
+    private static final long RECOUNT_INTERVAL_HOURS = 24;
+
+    private static QuestionActivityService instance;
+
+    private final QuestionActivityDAO activityDAO;
+    private ScheduledExecutorService scheduler;
+
+    private QuestionActivityService() {
+        this.activityDAO = new QuestionActivityDAO();
+    }
+
+    public static synchronized QuestionActivityService getInstance() {
+        if (instance == null) {
+            instance = new QuestionActivityService();
+        }
+        return instance;
+    }
+
+    /**
+     * Start the background repair (once; not in remote-backend mode)
+     */
+    public synchronized void startRepair() {
+        if (scheduler != null || RemoteClient.isEnabled()) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "kna-question-activity");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+        scheduler.execute(() -> {
+            try {
+                countUncounted();
+            } catch (SQLException e) {
+                System.err.println("Failed to count question activity: " + e.getMessage());
+                e.printStackTrace();
+            }
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                recountAll();
+            } catch (SQLException e) {
+                System.err.println("Failed to recount question activity: " + e.getMessage());
+                e.printStackTrace();
+            }
+        }, RECOUNT_INTERVAL_HOURS, RECOUNT_INTERVAL_HOURS, TimeUnit.HOURS);
+    }
+
+    private void countUncounted() throws SQLException {
+        long start = System.nanoTime();
+        int scored = 0;
+        int batch;
+        do {
+            batch = activityDAO.scoreUnscoredAnswers(BATCH_SIZE);
+            scored += batch;
+        } while (batch == BATCH_SIZE);
+        if (scored > 0) {
+            System.out.println("Scored votes of " + scored + " answers in "
+                + (System.nanoTime() - start) / 1_000_000 + " ms");
+        }
+        
+        start = System.nanoTime();
+        int counted = 0;
+        do {
+            batch = activityDAO.countUncounted(BATCH_SIZE);
+            counted += batch;
+        } while (batch == BATCH_SIZE);
+        if (counted > 0) {
+            System.out.println("Counted answers and votes of " + counted + " questions in "
+                + (System.nanoTime() - start) / 1_000_000 + " ms");
+        }
+    }
+
+    private void recountAll() throws SQLException {
+        long start = System.nanoTime();
+        int lastId = 0;
+        do {
+            lastId = activityDAO.recount(lastId, BATCH_SIZE);
+        } while (lastId > 0);
+        System.out.println("Recounted answers and votes of all questions in "
+            + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+}
@@ -1,18 +1,26 @@
 package com.kna.service;
 
+import com.google.gson.reflect.TypeToken;
+import com.kna.client.RemoteClient;
+import com.kna.dao.ArchiveDAO;
 import com.kna.dao.QuestionDAO;
 import com.kna.dao.UserDAO;
 import com.kna.dao.CoinDAO;
 import com.kna.dao.NotificationDAO;
 import com.kna.dao.AnswerDAO;
 import com.kna.model.Question;
+import com.kna.model.SimilarQuestion;
 import com.kna.model.User;
 import com.kna.model.CoinTransaction;
+import com.kna.util.DatabaseManager;
 import com.kna.util.SessionManager;
 
 import java.io.File;
+import java.lang.reflect.Type;
 import java.sql.SQLException;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * QuestionService - Business logic for questions
@@ -24,6 +32,11 @@ public class QuestionService {
     private final CoinDAO coinDAO;
     private final NotificationDAO notificationDAO;
     private final AnswerDAO answerDAO;
+    private final ArchiveDAO archiveDAO;
+    // Non-null in remote-backend mode
+    private final RemoteClient remote;
+    
+    private static final Type QUESTION_LIST = new TypeToken<List<Question>>() {}.getType();
     
     // Coin costs
     private static final int BASE_QUESTION_COST = 20;
@@ -35,6 +48,8 @@ public class QuestionService {
         this.coinDAO = new CoinDAO();
         this.notificationDAO = new NotificationDAO();
         this.answerDAO = new AnswerDAO();
+        this.archiveDAO = new ArchiveDAO();
+        this.remote = RemoteClient.getInstance();
     }
 
     /**
@@ -49,7 +64,7 @@ public class QuestionService {
         }
         
         // Check if user has unevaluated questions limit
-        int unevaluatedCount = questionDAO.getUnevaluatedCount(currentUser.getUserId());
+        int unevaluatedCount = getUnevaluatedCount(currentUser.getUserId());
         if (unevaluatedCount >= 5) {
             throw new Exception("You have reached the limit of unevaluated questions (5). " +
                               "Please evaluate your answered questions before asking new ones.");
@@ -77,6 +92,20 @@ public class QuestionService {
             throw new Exception("Insufficient coins. You need " + coinCost + " Coins to ask this question.");
         }
         
+        if (remote != null) {
+            if (imageFile != null) {
+                throw new Exception("Image attachments are not supported when connected to a server");
+            }
+            Map<String, Object> body = new HashMap<>();
+            body.put("title", title.trim());
+            body.put("description", description.trim());
+            body.put("category", category);
+            body.put("urgent", isUrgent);
+            Question question = remote.post("/api/questions", body, Question.class);
+            SessionManager.getInstance().updateCoins(currentUser.getCoins() - coinCost);
+            return question;
+        }
+        
         // Create question
         Question question = new Question(
             currentUser.getUserId(),
@@ -87,24 +116,35 @@ public class QuestionService {
             coinReward
         );
         
+        // Copy the image first: file IO must not run under the database lock
+        String imagePath = imageFile != null
+            ? com.kna.util.ImageLoader.saveQuestionImage(imageFile, currentUser.getUserId())
+            : null;
+        
+        // A new category partition must be created outside the transaction
+        questionDAO.preparePartition(category);
+        
+        DatabaseManager db = DatabaseManager.getInstance();
+        db.beginTransaction();
         try {
+            // Re-read the balance inside the transaction so concurrent requests cannot spend the same coins
+            User owner = userDAO.findById(currentUser.getUserId());
+            if (owner == null || owner.getCoins() < coinCost) {
+                throw new Exception("Insufficient coins. You need " + coinCost + " Coins to ask this question.");
+            }
+            
             // Save question
             int questionId = questionDAO.createQuestion(question);
             question.setQuestionId(questionId);
             
-            // Save image if provided
-            if (imageFile != null) {
-                String imagePath = com.kna.util.ImageLoader.saveQuestionImage(
-                    imageFile, currentUser.getUserId(), questionId
-                );
-                if (imagePath != null) {
-                    questionDAO.addQuestionImage(questionId, imagePath);
-                    question.setImagePath(imagePath);
-                }
+            // Link the saved image if provided
+            if (imagePath != null) {
+                questionDAO.addQuestionImage(questionId, imagePath);
+                question.setImagePath(imagePath);
             }
             
             // Deduct coins from user
-            int newBalance = currentUser.getCoins() - coinCost;
+            int newBalance = owner.getCoins() - coinCost;
             userDAO.updateCoins(currentUser.getUserId(), newBalance);
             
             // Record transaction
@@ -131,17 +171,31 @@ public class QuestionService {
                 notificationDAO.notifyLowBalance(currentUser.getUserId(), newBalance);
             }
             
-            return question;
+            db.commit();
             
         } catch (SQLException e) {
+            db.rollback();
+            com.kna.util.ImageLoader.deleteQuestionImage(imagePath);
             throw new Exception("Failed to ask question: " + e.getMessage());
+        } catch (Exception e) {
+            db.rollback();
+            com.kna.util.ImageLoader.deleteQuestionImage(imagePath);
+            throw e;
         }
+        
+        SearchService.getInstance().questionAdded(question);
+        DuplicateService.getInstance().questionAdded(question);
+        RecommendationService.getInstance().questionAdded(question);
+        return question;
     }
 
     /**
-     * Get question by ID
+     * Get question by ID, from the archive if it has been archived
      */
     public Question getQuestion(int questionId) throws SQLException {
+        if (remote != null) {
+            return remote.get("/api/questions/" + questionId, Question.class);
+        }
         Question question = questionDAO.findById(questionId);
         if (question != null) {
             // Increment view count
@@ -150,32 +204,74 @@ public class QuestionService {
             // Load image path if exists
             String imagePath = questionDAO.getQuestionImagePath(questionId);
             question.setImagePath(imagePath);
+        } else {
+            question = archiveDAO.findById(questionId);
+            if (question != null) {
+                question.setImagePath(archiveDAO.getQuestionImagePath(questionId));
+            }
         }
         return question;
     }
 
     /**
-     * Get questions with filters
+     * Get questions with filters, urgent and newest first
      */
     public List<Question> getQuestions(String category, Boolean isUrgent, Boolean isUnanswered, 
                                        int limit, int offset) throws SQLException {
-        return questionDAO.getAllQuestions(category, isUrgent, isUnanswered, limit, offset);
+        return getQuestions(category, isUrgent, isUnanswered, QuestionDAO.SORT_NEWEST, limit, offset);
+    }
+
+    /**
+     * Get questions with filters in the given order (QuestionDAO.SORT_NEWEST or SORT_HOT)
+     */
+    public List<Question> getQuestions(String category, Boolean isUrgent, Boolean isUnanswered, String sort,
+                                       int limit, int offset) throws SQLException {
+        if (remote != null) {
+            StringBuilder path = new StringBuilder("/api/questions?limit=" + limit + "&offset=" + offset);
+            if (sort != null) {
+                path.append("&sort=").append(RemoteClient.encode(sort));
+            }
+            if (category != null) {
+                path.append("&category=").append(RemoteClient.encode(category));
+            }
+            if (isUrgent != null) {
+                path.append("&urgent=").append(isUrgent);
+            }
+            if (isUnanswered != null) {
+                path.append("&unanswered=").append(isUnanswered);
+            }
+            return remote.get(path.toString(), QUESTION_LIST);
+        }
+        return questionDAO.getAllQuestions(category, isUrgent, isUnanswered, sort, limit, offset);
     }
 
     /**
      * Get user's questions
      */
     public List<Question> getUserQuestions(int userId) throws SQLException {
+        if (remote != null) {
+            return remote.get("/api/users/" + userId + "/questions", QUESTION_LIST);
+        }
         return questionDAO.getQuestionsByUserId(userId);
     }
 
     /**
-     * Search questions
+     * Search questions, archived ones included
      */
     public List<Question> searchQuestions(String searchTerm) throws SQLException {
+        if (remote != null) {
+            return remote.get("/api/questions/search?q=" + RemoteClient.encode(searchTerm), QUESTION_LIST);
+        }
         return questionDAO.searchQuestions(searchTerm);
     }
 
+    /**
+     * Existing questions that look like the one being asked (description may still be empty)
+     */
+    public List<SimilarQuestion> findSimilarQuestions(String title, String description) throws SQLException {
+        return DuplicateService.getInstance().findSimilar(title, description);
+    }
+
     /**
      * Delete question (admin only or question owner)
      * Also deletes all answers associated with the question (cascade delete)
@@ -186,6 +282,11 @@ public class QuestionService {
             throw new Exception("User not logged in");
         }
         
+        if (remote != null) {
+            remote.delete("/api/questions/" + questionId);
+            return true;
+        }
+        
         Question question = questionDAO.findById(questionId);
         if (question == null) {
             throw new Exception("Question not found");
@@ -201,7 +302,13 @@ public class QuestionService {
             answerDAO.deleteAnswersByQuestionId(questionId);
             
             // Then delete the question
-            return questionDAO.deleteQuestion(questionId);
+            boolean deleted = questionDAO.deleteQuestion(questionId);
+            if (deleted) {
+                SearchService.getInstance().questionRemoved(question);
+                DuplicateService.getInstance().questionRemoved(question);
+                RecommendationService.getInstance().questionClosed(questionId, question.getCategory());
+            }
+            return deleted;
         } catch (SQLException e) {
             throw new Exception("Failed to delete question: " + e.getMessage());
         }
@@ -211,7 +318,7 @@ public class QuestionService {
      * Check if user can ask questions
      */
     public boolean canAskQuestion(int userId) throws SQLException {
-        int unevaluatedCount = questionDAO.getUnevaluatedCount(userId);
+        int unevaluatedCount = getUnevaluatedCount(userId);
         return unevaluatedCount < 5;
     }
 
@@ -219,6 +326,11 @@ public class QuestionService {
      * Get unevaluated questions count
      */
     public int getUnevaluatedCount(int userId) throws SQLException {
+        if (remote != null) {
+            Map<String, Double> response = remote.get("/api/users/" + userId + "/unevaluated-count",
+                new TypeToken<Map<String, Double>>() {}.getType());
+            return response.get("count").intValue();
+        }
         return questionDAO.getUnevaluatedCount(userId);
     }
 
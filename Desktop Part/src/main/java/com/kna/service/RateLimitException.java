@@ -0,0 +1,23 @@
+package com.kna.service;
+
+/**
+ * RateLimitException - Thrown when an action is refused because of too many recent attempts
+ */
+public class RateLimitException extends Exception {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long retryAfterSeconds;
+
+    public RateLimitException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    /**
+     * Seconds until the caller may try again
+     */
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,413 @@
+package com.kna.service;
+
+import java.lang.reflect.Type;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.google.gson.reflect.TypeToken;
+import com.kna.client.RemoteClient;
+import com.kna.dao.QuestionDAO;
+import com.kna.dao.RecommendationDAO;
+import com.kna.dao.UserDAO;
+import com.kna.model.Question;
+import com.kna.model.User;
+
+/**
+ * RecommendationService - "Questions you can answer": unanswered questions picked for a user
+ * from the categories they answer in.
+ * A user's affinity vector weighs each category by their answers in it (accepted answers
+ * more) plus their department; a question scores by the similarity of its category to that
+ * vector, its reward and its freshness. Candidates come from in-memory lists of the newest
+ * unanswered questions per category, reloaded in the background now and then and kept
+ * current by the write paths.
+ * Each user's top recommendations are cached: newly asked questions are merged into the
+ * cached lists right away, and lists that lose entries (answered, deleted) or whose user
+ * answered something are recomputed on a background thread.
+ */
+public class RecommendationService {
+
+    private static final Type QUESTION_LIST = new TypeToken<List<Question>>() {}.getType();
+
+    private static final int TOP_K = 10;
+    // Extra candidates ranked in case the user already answered some of them
+    private static final int SPARE = 5;
+    private static final int CATEGORY_LIST_SIZE = 500;
+    // Only the user's strongest categories are searched
+    private static final int MAX_CATEGORIES = 5;
+    private static final int CACHED_USERS = 1_000;
+    private static final long RELOAD_INTERVAL_MINUTES = 60;
+
+    // Affinity weights
+    private static final double ANSWER_WEIGHT = 1;
+    private static final double ACCEPTED_WEIGHT = 3;
+    private static final double DEPARTMENT_WEIGHT = 2;
+    // A question's score halves every this many hours after it was asked
+    private static final double FRESHNESS_HALF_LIFE_HOURS = 48;
+
+    private static RecommendationService instance;
+
+    private final RecommendationDAO recommendationDAO;
+    private final QuestionDAO questionDAO;
+    private final UserDAO userDAO;
+    // Non-null in remote-backend mode
+    private final RemoteClient remote;
+
+    // Guarded by this: category -> newest unanswered questions, newest first
+    private final Map<String, LinkedList<Candidate>> categories = new HashMap<>();
+    // Guarded by this: user id -> cached recommendations, least recently used first
+    private final LinkedHashMap<Integer, UserRecommendations> users;
+    // Guarded by this: users with a refresh queued
+    private final Set<Integer> refreshing = new HashSet<>();
+    private ScheduledExecutorService worker;
+
+    private RecommendationService() {
+        this.recommendationDAO = new RecommendationDAO();
+        this.questionDAO = new QuestionDAO();
+        this.userDAO = new UserDAO();
+        this.remote = RemoteClient.getInstance();
+        this.users = new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, UserRecommendations> eldest) {
+                return size() > CACHED_USERS;
+            }
+        };
+    }
+
+    public static synchronized RecommendationService getInstance() {
+        if (instance == null) {
+            instance = new RecommendationService();
+        }
+        return instance;
+    }
+
+    /**
+     * Start loading the candidate lists in the background, and reloading them periodically
+     * (once; not in remote-backend mode)
+     */
+    public synchronized void startRecommending() {
+        if (worker != null || remote != null) {
+            return;
+        }
+        worker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "kna-recommend");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+        worker.scheduleWithFixedDelay(() -> {
+            try {
+                reloadCandidates();
+            } catch (SQLException e) {
+                System.err.println("Failed to load recommendation candidates: " + e.getMessage());
+                e.printStackTrace();
+            }
+        }, 0, RELOAD_INTERVAL_MINUTES, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Unanswered questions recommended to the user, best first
+     */
+    public List<Question> getRecommendations(int userId, int limit) throws SQLException {
+        if (remote != null) {
+            return remote.get("/api/users/" + userId + "/recommendations?limit=" + limit, QUESTION_LIST);
+        }
+
+        UserRecommendations recommendations;
+        synchronized (this) {
+            recommendations = users.get(userId);
+        }
+        if (recommendations == null) {
+            recommendations = compute(userId);
+        } else if (recommendations.stale) {
+            refreshLater(userId);
+        }
+
+        List<Integer> questionIds = new ArrayList<>();
+        synchronized (this) {
+            for (Scored scored : recommendations.top) {
+                questionIds.add(scored.candidate.questionId);
+            }
+        }
+        List<Question> questions = new ArrayList<>();
+        for (Question question : questionDAO.findByIds(questionIds)) {
+            if (!question.isAnswered() && questions.size() < limit) {
+                questions.add(question);
+            }
+        }
+        return questions;
+    }
+
+    /**
+     * A question was asked: add it to its category and to the cached lists it makes it into
+     */
+    public synchronized void questionAdded(Question question) {
+        Candidate candidate = new Candidate(question);
+        LinkedList<Candidate> list = categories.computeIfAbsent(candidate.category, c -> new LinkedList<>());
+        list.addFirst(candidate);
+        if (list.size() > CATEGORY_LIST_SIZE) {
+            list.removeLast();
+        }
+
+        for (Map.Entry<Integer, UserRecommendations> entry : users.entrySet()) {
+            UserRecommendations recommendations = entry.getValue();
+            Double affinity = recommendations.affinity.get(candidate.category);
+            if (affinity == null || affinity <= 0 || candidate.ownerId == entry.getKey()) {
+                continue;
+            }
+            Scored scored = new Scored(candidate, score(recommendations.affinity, candidate));
+            List<Scored> top = recommendations.top;
+            if (top.size() < TOP_K || scored.score > top.get(top.size() - 1).score) {
+                int pos = 0;
+                while (pos < top.size() && top.get(pos).score >= scored.score) {
+                    pos++;
+                }
+                top.add(pos, scored);
+                if (top.size() > TOP_K) {
+                    top.remove(top.size() - 1);
+                }
+                recommendations.version++;
+            }
+        }
+    }
+
+    /**
+     * A question was answered or deleted: it is no longer recommended
+     */
+    public synchronized void questionClosed(int questionId, String category) {
+        LinkedList<Candidate> list = categories.get(category);
+        if (list != null) {
+            list.removeIf(candidate -> candidate.questionId == questionId);
+        }
+        for (UserRecommendations recommendations : users.values()) {
+            if (recommendations.top.removeIf(scored -> scored.candidate.questionId == questionId)) {
+                recommendations.stale = true;
+                recommendations.version++;
+            }
+        }
+    }
+
+    /**
+     * A user answered a question: it counts towards their affinity and leaves their list
+     */
+    public synchronized void answerSubmitted(int userId, Question question) {
+        UserRecommendations recommendations = users.get(userId);
+        if (recommendations != null) {
+            recommendations.affinity.merge(question.getCategory(), ANSWER_WEIGHT, Double::sum);
+            recommendations.top.removeIf(scored -> scored.candidate.questionId == question.getQuestionId());
+            recommendations.stale = true;
+            recommendations.version++;
+        }
+    }
+
+    /**
+     * A user's answer was accepted: it counts more towards their affinity, and the question is answered
+     */
+    public synchronized void answerAccepted(int userId, Question question) {
+        UserRecommendations recommendations = users.get(userId);
+        if (recommendations != null) {
+            recommendations.affinity.merge(question.getCategory(), ACCEPTED_WEIGHT - ANSWER_WEIGHT, Double::sum);
+            recommendations.stale = true;
+            recommendations.version++;
+        }
+        questionClosed(question.getQuestionId(), question.getCategory());
+    }
+
+    /**
+     * Recompute a user's recommendations on the worker thread (inline when there is none)
+     */
+    private void refreshLater(int userId) throws SQLException {
+        ScheduledExecutorService executor;
+        synchronized (this) {
+            if (!refreshing.add(userId)) {
+                return;
+            }
+            executor = worker;
+        }
+        Runnable refresh = () -> {
+            try {
+                compute(userId);
+            } catch (SQLException e) {
+                System.err.println("Failed to refresh recommendations: " + e.getMessage());
+            } finally {
+                synchronized (this) {
+                    refreshing.remove(userId);
+                }
+            }
+        };
+        if (executor != null) {
+            executor.execute(refresh);
+        } else {
+            refresh.run();
+        }
+    }
+
+    /**
+     * Rank the candidates for a user and cache the result. Database reads happen outside the
+     * lock; if the cached entry changed meanwhile, the new one is marked stale.
+     */
+    private UserRecommendations compute(int userId) throws SQLException {
+        Map<String, Double> affinity = null;
+        int version = -1;
+        synchronized (this) {
+            UserRecommendations cached = users.get(userId);
+            if (cached != null) {
+                affinity = new HashMap<>(cached.affinity);
+                version = cached.version;
+            }
+        }
+        if (affinity == null) {
+            affinity = loadAffinity(userId);
+        }
+
+        List<Scored> ranked;
+        synchronized (this) {
+            ranked = rank(userId, affinity, TOP_K + SPARE);
+        }
+        List<Integer> questionIds = new ArrayList<>();
+        for (Scored scored : ranked) {
+            questionIds.add(scored.candidate.questionId);
+        }
+        List<Integer> answered = recommendationDAO.getAnsweredQuestionIds(userId, questionIds);
+        ranked.removeIf(scored -> answered.contains(scored.candidate.questionId));
+        if (ranked.size() > TOP_K) {
+            ranked.subList(TOP_K, ranked.size()).clear();
+        }
+
+        synchronized (this) {
+            UserRecommendations current = users.get(userId);
+            UserRecommendations fresh = new UserRecommendations(current != null ? current.affinity : affinity, ranked);
+            fresh.stale = current != null && current.version != version;
+            users.put(userId, fresh);
+            return fresh;
+        }
+    }
+
+    private Map<String, Double> loadAffinity(int userId) throws SQLException {
+        Map<String, Double> affinity = recommendationDAO.getCategoryAffinities(userId, ANSWER_WEIGHT, ACCEPTED_WEIGHT);
+        User user = userDAO.findById(userId);
+        if (user != null && user.getDepartment() != null) {
+            affinity.merge(user.getDepartment(), DEPARTMENT_WEIGHT, Double::sum);
+        }
+        return affinity;
+    }
+
+    /**
+     * The best n candidates from the user's strongest categories, best first (caller holds the lock)
+     */
+    private List<Scored> rank(int userId, Map<String, Double> affinity, int n) {
+        PriorityQueue<Scored> best = new PriorityQueue<>(Comparator.comparingDouble((Scored s) -> s.score));
+        affinity.entrySet().stream()
+            .filter(entry -> entry.getValue() > 0 && categories.containsKey(entry.getKey()))
+            .sorted(Map.Entry.<String, Double>comparingByValue().reversed())
+            .limit(MAX_CATEGORIES)
+            .forEach(entry -> {
+                for (Candidate candidate : categories.get(entry.getKey())) {
+                    if (candidate.ownerId == userId) {
+                        continue;
+                    }
+                    best.add(new Scored(candidate, score(affinity, candidate)));
+                    if (best.size() > n) {
+                        best.poll();
+                    }
+                }
+            });
+        List<Scored> ranked = new ArrayList<>(best);
+        ranked.sort(Comparator.comparingDouble((Scored s) -> s.score).reversed());
+        return ranked;
+    }
+
+    /**
+     * log2 of (cosine similarity of the user's vector and the question's category) * boost.
+     * Freshness decays every score at the same rate, so it is folded in as the time the question
+     * was asked and stored scores never need updating as time passes.
+     */
+    private static double score(Map<String, Double> affinity, Candidate candidate) {
+        double norm = 0;
+        for (double weight : affinity.values()) {
+            norm += weight * weight;
+        }
+        double similarity = affinity.getOrDefault(candidate.category, 0.0) / Math.sqrt(norm);
+        return Math.log(similarity) / Math.log(2) + candidate.boost;
+    }
+
+    private void reloadCandidates() throws SQLException {
+        long start = System.nanoTime();
+        Map<String, LinkedList<Candidate>> loaded = new HashMap<>();
+        int count = 0;
+        for (String category : recommendationDAO.getCategories()) {
+            LinkedList<Candidate> list = new LinkedList<>();
+            for (Question question : recommendationDAO.getUnansweredQuestions(category, CATEGORY_LIST_SIZE)) {
+                list.add(new Candidate(question));
+            }
+            loaded.put(category, list);
+            count += list.size();
+        }
+        synchronized (this) {
+            categories.clear();
+            categories.putAll(loaded);
+            for (UserRecommendations recommendations : users.values()) {
+                recommendations.stale = true;
+            }
+        }
+        System.out.println("Loaded " + count + " recommendation candidates in " + loaded.size() + " categories in "
+            + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+
+    /**
+     * An unanswered question as the recommender sees it
+     */
+    private static final class Candidate {
+        final int questionId;
+        final int ownerId;
+        final String category;
+        // log2 of the reward and urgency boost plus the freshness term
+        final double boost;
+
+        Candidate(Question question) {
+            this.questionId = question.getQuestionId();
+            this.ownerId = question.getUserId();
+            this.category = question.getCategory();
+            double asked = question.getCreatedAt() != null ? question.getCreatedAt().getTime() : System.currentTimeMillis();
+            double reward = (1 + question.getCoinReward() / 100.0) * (question.isUrgent() ? 1.5 : 1);
+            this.boost = Math.log(reward) / Math.log(2) + asked / TimeUnit.HOURS.toMillis(1) / FRESHNESS_HALF_LIFE_HOURS;
+        }
+    }
+
+    private static final class Scored {
+        final Candidate candidate;
+        final double score;
+
+        Scored(Candidate candidate, double score) {
+            this.candidate = candidate;
+            this.score = score;
+        }
+    }
+
+    /**
+     * A user's affinity vector and cached top recommendations, best first
+     */
+    private static final class UserRecommendations {
+        final Map<String, Double> affinity;
+        final List<Scored> top;
+        boolean stale;
+        // Bumped on every change, so a recompute can tell the entry changed under it
+        int version;
+
+        UserRecommendations(Map<String, Double> affinity, List<Scored> top) {
+            this.affinity = affinity;
+            this.top = top;
+        }
+    }
+}
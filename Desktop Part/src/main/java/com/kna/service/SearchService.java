@@ -0,0 +1,185 @@
+package com.kna.service;
+
+import java.lang.reflect.Type;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.google.gson.reflect.TypeToken;
+import com.kna.client.RemoteClient;
+import com.kna.dao.SearchDAO;
+import com.kna.model.Question;
+import com.kna.model.SearchSuggestion;
+import com.kna.util.PrefixIndex;
+
+/**
+ * SearchService - Search-as-you-type suggestions from in-memory prefix indexes over question
+ * titles, user names and categories.
+ * The indexes are filled on a background thread after startup (suggestions cover what was
+ * loaded so far) and then kept current by the question and user write paths. Only the few
+ * rows that are shown are read from the database, by primary key, which also drops
+ * questions deleted and users deactivated elsewhere.
+ */
+public class SearchService {
+
+    private static final Type SUGGESTION_LIST = new TypeToken<List<SearchSuggestion>>() {}.getType();
+
+    private static final int LOAD_CHUNK = 2_000;
+    private static final int MAX_QUESTIONS = 6;
+    private static final int MAX_USERS = 3;
+    private static final int MAX_CATEGORIES = 2;
+    // Extra ids fetched in case some of them were deleted since they were indexed
+    private static final int SPARE_IDS = 2;
+
+    private static SearchService instance;
+
+    private final SearchDAO searchDAO;
+    // Non-null in remote-backend mode
+    private final RemoteClient remote;
+    private final PrefixIndex questionIndex = new PrefixIndex();
+    private final PrefixIndex userIndex = new PrefixIndex();
+    // Category -> number of indexed questions in it
+    private final Map<String, Integer> categories = new ConcurrentHashMap<>();
+    private Thread indexer;
+
+    private SearchService() {
+        this.searchDAO = new SearchDAO();
+        this.remote = RemoteClient.getInstance();
+    }
+
+    public static synchronized SearchService getInstance() {
+        if (instance == null) {
+            instance = new SearchService();
+        }
+        return instance;
+    }
+
+    /**
+     * Start loading the indexes in the background (once; not in remote-backend mode)
+     */
+    public synchronized void startIndexing() {
+        if (indexer != null || remote != null) {
+            return;
+        }
+        indexer = new Thread(this::buildIndexes, "kna-search-index");
+        indexer.setDaemon(true);
+        indexer.setPriority(Thread.MIN_PRIORITY);
+        indexer.start();
+    }
+
+    /**
+     * Suggestions for the text typed so far: matching categories, the newest matching
+     * questions and matching users
+     */
+    public List<SearchSuggestion> suggest(String query) throws SQLException {
+        if (query == null || query.isBlank()) {
+            return new ArrayList<>();
+        }
+        if (remote != null) {
+            return remote.get("/api/questions/suggest?q=" + RemoteClient.encode(query), SUGGESTION_LIST);
+        }
+
+        List<SearchSuggestion> suggestions = new ArrayList<>(suggestCategories(query));
+
+        List<SearchSuggestion> questions = searchDAO.getQuestionsById(
+            questionIndex.search(query, MAX_QUESTIONS + SPARE_IDS));
+        suggestions.addAll(questions.subList(0, Math.min(MAX_QUESTIONS, questions.size())));
+
+        List<SearchSuggestion> users = searchDAO.getUsersById(userIndex.search(query, MAX_USERS + SPARE_IDS));
+        suggestions.addAll(users.subList(0, Math.min(MAX_USERS, users.size())));
+        return suggestions;
+    }
+
+    /**
+     * Index a newly asked question
+     */
+    public void questionAdded(Question question) {
+        questionIndex.add(question.getQuestionId(), question.getTitle());
+        if (question.getCategory() != null) {
+            categories.merge(question.getCategory(), 1, Integer::sum);
+        }
+    }
+
+    /**
+     * Drop a deleted question from the index
+     */
+    public void questionRemoved(Question question) {
+        questionIndex.remove(question.getQuestionId(), question.getTitle());
+        if (question.getCategory() != null) {
+            categories.computeIfPresent(question.getCategory(), (category, count) -> count > 1 ? count - 1 : null);
+        }
+    }
+
+    /**
+     * Index a newly registered user
+     */
+    public void userAdded(int userId, String name) {
+        userIndex.add(userId, name);
+    }
+
+    /**
+     * Re-index a user whose name changed
+     */
+    public void userRenamed(int userId, String oldName, String newName) {
+        userIndex.remove(userId, oldName);
+        userIndex.add(userId, newName);
+    }
+
+    private List<SearchSuggestion> suggestCategories(String query) {
+        String prefix = query.trim().toLowerCase(Locale.ROOT);
+        List<SearchSuggestion> matches = new ArrayList<>();
+        categories.forEach((category, count) -> {
+            if (category.toLowerCase(Locale.ROOT).startsWith(prefix)) {
+                matches.add(new SearchSuggestion(SearchSuggestion.Type.CATEGORY, 0, category, count + " questions"));
+            }
+        });
+        matches.sort(Comparator.comparingInt((SearchSuggestion s) -> categories.getOrDefault(s.getText(), 0)).reversed());
+        return matches.subList(0, Math.min(MAX_CATEGORIES, matches.size()));
+    }
+
+    /**
+     * Load all questions and active users in id-ordered chunks, so the database is never
+     * held for long and rows written meanwhile are either loaded here or added by the write path
+     */
+    private void buildIndexes() {
+        long start = System.nanoTime();
+        try {
+            int questions = 0;
+            int afterId = 0;
+            List<SearchSuggestion> chunk;
+            do {
+                chunk = searchDAO.getQuestionsAfter(afterId, LOAD_CHUNK);
+                for (SearchSuggestion row : chunk) {
+                    questionIndex.add(row.getId(), row.getText());
+                    if (row.getDetail() != null) {
+                        categories.merge(row.getDetail(), 1, Integer::sum);
+                    }
+                    afterId = row.getId();
+                }
+                questions += chunk.size();
+            } while (chunk.size() == LOAD_CHUNK);
+
+            int users = 0;
+            afterId = 0;
+            do {
+                chunk = searchDAO.getUsersAfter(afterId, LOAD_CHUNK);
+                for (SearchSuggestion row : chunk) {
+                    userIndex.add(row.getId(), row.getText());
+                    afterId = row.getId();
+                }
+                users += chunk.size();
+            } while (chunk.size() == LOAD_CHUNK);
+
+            System.out.println("Search index built in " + (System.nanoTime() - start) / 1_000_000 + " ms: "
+                + questions + " questions (" + questionIndex.wordCount() + " words), "
+                + users + " users (" + userIndex.wordCount() + " words)");
+        } catch (SQLException e) {
+            System.err.println("Failed to build the search index: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+}
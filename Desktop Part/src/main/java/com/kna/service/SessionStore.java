@@ -0,0 +1,354 @@
+package com.kna.service;
+
+import java.lang.management.ManagementFactory;
+import java.security.SecureRandom;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import com.kna.dao.SessionDAO;
+import com.kna.dao.UserDAO;
+import com.kna.model.Session;
+import com.kna.model.User;
+import com.kna.util.DataEvents;
+
+/**
+ * SessionStore - Persisted login sessions with a bounded in-memory token cache.
+ * Tokens live in the sessions table with an expiry; validated tokens are cached for a short
+ * time so repeated checks (every API request) do not hit the database, and expired rows are
+ * swept in small batches so the shared connection is never held for long.
+ * Users loaded for tokens are cached the same way and dropped whenever UserDAO changes them.
+ */
+public class SessionStore implements SessionStoreMXBean {
+
+    // Session lifetime without and with "remember me"
+    public static final long SESSION_TTL_MILLIS = TimeUnit.HOURS.toMillis(12);
+    public static final long REMEMBER_ME_TTL_MILLIS = TimeUnit.DAYS.toMillis(30);
+
+    // How long a validated token is trusted before the database is asked again
+    private static final long CACHE_TTL_MILLIS = Long.getLong("kna.session.cacheTtlMillis", 60_000L);
+    private static final int CACHE_SIZE = Integer.getInteger("kna.session.cacheSize", 10_000);
+    private static final int SWEEP_BATCH_SIZE = 500;
+    private static final long SWEEP_INTERVAL_MINUTES = 10;
+
+    private static SessionStore instance;
+
+    private final SessionDAO sessionDAO;
+    private final UserDAO userDAO;
+    private final SecureRandom random;
+    private final LinkedHashMap<String, CachedSession> cache;
+    private final LinkedHashMap<Integer, CachedUser> users;
+    private final AtomicLong cacheHits = new AtomicLong();
+    private final AtomicLong cacheMisses = new AtomicLong();
+    // Bumped on every user change, so a user loaded before the change is never cached after it
+    private final AtomicLong userGeneration = new AtomicLong();
+    private final List<Runnable> sweepListeners = new CopyOnWriteArrayList<>();
+    private ScheduledExecutorService sweeper;
+
+    private SessionStore() {
+        this.sessionDAO = new SessionDAO();
+        this.userDAO = new UserDAO();
+        this.random = new SecureRandom();
+        // Access-ordered map so the eldest entry is the least recently validated token
+        this.cache = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedSession> eldest) {
+                return size() > CACHE_SIZE;
+            }
+        };
+        // Guarded by the token cache's lock as well
+        this.users = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, CachedUser> eldest) {
+                return size() > CACHE_SIZE;
+            }
+        };
+        DataEvents.addUserListener(this::forgetUser);
+        DataEvents.addListener(topic -> {
+            if (topic == DataEvents.Topic.USERS) {
+                forgetUser(-1);
+            }
+        });
+        registerMBean();
+    }
+
+    public static synchronized SessionStore getInstance() {
+        if (instance == null) {
+            instance = new SessionStore();
+        }
+        return instance;
+    }
+
+    /**
+     * Create and persist a new session for the user
+     */
+    public Session createSession(int userId, boolean rememberMe) throws SQLException {
+        long now = System.currentTimeMillis();
+        long ttl = rememberMe ? REMEMBER_ME_TTL_MILLIS : SESSION_TTL_MILLIS;
+        Session session = new Session(userId, generateToken(), new Timestamp(now + ttl));
+        session.setCreatedAt(new Timestamp(now));
+        session.setSessionId(sessionDAO.createSession(session));
+        cachePut(session.getSessionToken(), new CachedSession(userId, now + ttl, now));
+        return session;
+    }
+
+    /**
+     * Validate a token; returns the session's user id, or -1 when unknown or expired
+     */
+    public int validate(String token) throws SQLException {
+        if (token == null || token.isEmpty()) {
+            return -1;
+        }
+        long now = System.currentTimeMillis();
+        CachedSession cached;
+        synchronized (cache) {
+            cached = cache.get(token);
+        }
+        if (cached != null && cached.isFresh(now)) {
+            cacheHits.incrementAndGet();
+            return cached.userId;
+        }
+
+        cacheMisses.incrementAndGet();
+        Session session = sessionDAO.findValidByToken(token);
+        if (session == null) {
+            synchronized (cache) {
+                cache.remove(token);
+            }
+            return -1;
+        }
+        cachePut(token, new CachedSession(session.getUserId(), session.getExpiresAt().getTime(), now));
+        return session.getUserId();
+    }
+
+    /**
+     * Validate a token and load its user; returns null when the token is unknown or expired.
+     * Repeated calls within the cache TTL answer from memory until the user changes.
+     */
+    public User findUser(String token) throws SQLException {
+        long generation = userGeneration.get();
+        int userId = validate(token);
+        if (userId <= 0) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        synchronized (cache) {
+            CachedUser cached = users.get(userId);
+            if (cached != null && now - cached.cachedAt < CACHE_TTL_MILLIS) {
+                return cached.user;
+            }
+        }
+
+        User user = userDAO.findById(userId);
+        synchronized (cache) {
+            if (user != null && userGeneration.get() == generation) {
+                users.put(userId, new CachedUser(user, now));
+            }
+        }
+        return user;
+    }
+
+    /**
+     * Revoke a session (logout)
+     */
+    public void revoke(String token) throws SQLException {
+        if (token == null) {
+            return;
+        }
+        synchronized (cache) {
+            cache.remove(token);
+        }
+        sessionDAO.deleteByToken(token);
+    }
+
+    /**
+     * Revoke all sessions of a user, e.g. when an admin deactivates them; returns the number revoked
+     */
+    public int revokeAll(int userId) throws SQLException {
+        synchronized (cache) {
+            cache.values().removeIf(cached -> cached.userId == userId);
+            users.remove(userId);
+        }
+        return sessionDAO.deleteByUserId(userId);
+    }
+
+    /**
+     * Delete all expired sessions in batches; returns the number of rows removed
+     */
+    public int sweepExpired() throws SQLException {
+        long now = System.currentTimeMillis();
+        synchronized (cache) {
+            Iterator<CachedSession> it = cache.values().iterator();
+            while (it.hasNext()) {
+                if (it.next().expiresAt <= now) {
+                    it.remove();
+                }
+            }
+        }
+
+        int total = 0;
+        int deleted;
+        do {
+            // Each batch is its own statement, so other threads get the connection in between
+            deleted = sessionDAO.deleteExpired(SWEEP_BATCH_SIZE);
+            total += deleted;
+        } while (deleted == SWEEP_BATCH_SIZE);
+        return total;
+    }
+
+    /**
+     * Run a task after every background sweep, e.g. to drop sessions held elsewhere in memory
+     */
+    public void addSweepListener(Runnable listener) {
+        sweepListeners.add(listener);
+    }
+
+    /**
+     * Start sweeping expired sessions in the background: once now, then periodically
+     */
+    public synchronized void startSweeper() {
+        if (sweeper != null) {
+            return;
+        }
+        sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "kna-session-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sweeper.scheduleWithFixedDelay(() -> {
+            try {
+                int removed = sweepExpired();
+                if (removed > 0) {
+                    System.out.println("Removed " + removed + " expired sessions");
+                }
+            } catch (SQLException e) {
+                System.err.println("Failed to sweep expired sessions: " + e.getMessage());
+            }
+            for (Runnable listener : sweepListeners) {
+                listener.run();
+            }
+        }, 0, SWEEP_INTERVAL_MINUTES, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Stop the background sweeper
+     */
+    public synchronized void stopSweeper() {
+        if (sweeper != null) {
+            sweeper.shutdownNow();
+            sweeper = null;
+        }
+    }
+
+    @Override
+    public int getCacheSize() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    @Override
+    public long getCacheHits() {
+        return cacheHits.get();
+    }
+
+    @Override
+    public long getCacheMisses() {
+        return cacheMisses.get();
+    }
+
+    @Override
+    public int getActiveSessions() {
+        try {
+            return sessionDAO.countActive();
+        } catch (SQLException e) {
+            System.err.println("Failed to count active sessions: " + e.getMessage());
+            return -1;
+        }
+    }
+
+    /**
+     * Drop the cached copy of a user (all users for -1); the tokens themselves stay cached
+     */
+    private void forgetUser(int userId) {
+        synchronized (cache) {
+            userGeneration.incrementAndGet();
+            if (userId < 0) {
+                users.clear();
+            } else {
+                users.remove(userId);
+            }
+        }
+    }
+
+    private void registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName("com.kna:type=SessionStore");
+            if (!server.isRegistered(name)) {
+                server.registerMBean(this, name);
+            }
+        } catch (Exception e) {
+            System.err.println("Failed to register session store MBean: " + e.getMessage());
+        }
+    }
+
+    private void cachePut(String token, CachedSession session) {
+        synchronized (cache) {
+            cache.put(token, session);
+        }
+    }
+
+    /**
+     * 256-bit random token, URL-safe so clients can send it in headers as-is
+     */
+    private String generateToken() {
+        byte[] bytes = new byte[32];
+        random.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    /**
+     * Cache entry: trusted until the cache TTL runs out or the session itself expires
+     */
+    private static class CachedSession {
+        final int userId;
+        final long expiresAt;
+        final long cachedAt;
+
+        CachedSession(int userId, long expiresAt, long cachedAt) {
+            this.userId = userId;
+            this.expiresAt = expiresAt;
+            this.cachedAt = cachedAt;
+        }
+
+        boolean isFresh(long now) {
+            return now < expiresAt && now - cachedAt < CACHE_TTL_MILLIS;
+        }
+    }
+
+    /**
+     * User loaded for a token, trusted for the cache TTL unless the user changes first
+     */
+    private static class CachedUser {
+        final User user;
+        final long cachedAt;
+
+        CachedUser(User user, long cachedAt) {
+            this.user = user;
+            this.cachedAt = cachedAt;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.kna.service;
+
+/**
+ * SessionStoreMXBean - JMX view of the session store and its token cache (registered as com.kna:type=SessionStore)
+ */
+public interface SessionStoreMXBean {
+
+    int getCacheSize();
+
+    long getCacheHits();
+
+    long getCacheMisses();
+
+    /**
+     * Unexpired sessions in the database, or -1 when they cannot be counted
+     */
+    int getActiveSessions();
+}
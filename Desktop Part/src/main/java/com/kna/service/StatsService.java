@@ -0,0 +1,77 @@
+package com.kna.service;
+
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.kna.dao.StatsDAO;
+import com.kna.model.AdminStats;
+import com.kna.util.DataEvents;
+
+/**
+ * StatsService - Cached admin dashboard counters.
+ * The counters are recomputed only after a DataEvents change to users, questions or reports,
+ * or when the cached values are older than the maximum age (writes by other processes).
+ */
+public class StatsService {
+
+    private static final long MAX_AGE_MILLIS = Long.getLong("kna.stats.maxAgeMillis", 300_000L);
+
+    private static StatsService instance;
+
+    private final StatsDAO statsDAO;
+    // Bumped on every relevant change; a snapshot is only valid for the version it was computed at
+    private final AtomicLong version = new AtomicLong();
+    private volatile Snapshot cached;
+
+    private StatsService() {
+        this.statsDAO = new StatsDAO();
+        DataEvents.addListener(topic -> {
+            if (topic != DataEvents.Topic.ANSWERS) {
+                version.incrementAndGet();
+            }
+        });
+    }
+
+    public static synchronized StatsService getInstance() {
+        if (instance == null) {
+            instance = new StatsService();
+        }
+        return instance;
+    }
+
+    /**
+     * Get the admin counters, from the cache when nothing changed since they were computed
+     */
+    public AdminStats getAdminStats() throws SQLException {
+        long currentVersion = version.get();
+        long now = System.currentTimeMillis();
+        Snapshot snapshot = cached;
+        if (snapshot != null && snapshot.version == currentVersion && now - snapshot.computedAt < MAX_AGE_MILLIS) {
+            return snapshot.stats;
+        }
+
+        // A change during the query bumps the version, so this result is not reused afterwards
+        AdminStats stats = statsDAO.getAdminStats();
+        cached = new Snapshot(stats, currentVersion, now);
+        return stats;
+    }
+
+    /**
+     * Drop the cached counters
+     */
+    public void invalidate() {
+        version.incrementAndGet();
+    }
+
+    private static class Snapshot {
+        final AdminStats stats;
+        final long version;
+        final long computedAt;
+
+        Snapshot(AdminStats stats, long version, long computedAt) {
+            this.stats = stats;
+            this.version = version;
+            this.computedAt = computedAt;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.kna.tools;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * BulkInserter - Streams rows into a table using multi-row INSERT statements.
+ * Values are bound column by column (int/longValue/real/text/nul) and each row is closed with endRow().
+ * A full statement of rowsPerStatement rows is executed as soon as it fills up; the remainder
+ * is flushed on close(). The caller owns the surrounding transaction.
+ */
+public class BulkInserter implements AutoCloseable {
+
+    private final Connection connection;
+    private final String insertPrefix;
+    private final int columnCount;
+    private final int rowsPerStatement;
+    private final PreparedStatement fullStatement;
+    private final Object[] pending;
+
+    private int bufferedRows;
+    private int column;
+    private long totalRows;
+
+    public BulkInserter(Connection connection, String table, String[] columns, int rowsPerStatement) throws SQLException {
+        this.connection = connection;
+        this.columnCount = columns.length;
+        this.rowsPerStatement = rowsPerStatement;
+        this.insertPrefix = "INSERT INTO " + table + " (" + String.join(", ", columns) + ") VALUES ";
+        this.fullStatement = connection.prepareStatement(buildSql(rowsPerStatement));
+        this.pending = new Object[rowsPerStatement * columnCount];
+    }
+
+    public BulkInserter integer(int value) {
+        pending[bufferedRows * columnCount + column++] = value;
+        return this;
+    }
+
+    public BulkInserter longValue(long value) {
+        pending[bufferedRows * columnCount + column++] = value;
+        return this;
+    }
+
+    public BulkInserter real(double value) {
+        pending[bufferedRows * columnCount + column++] = value;
+        return this;
+    }
+
+    public BulkInserter text(String value) {
+        pending[bufferedRows * columnCount + column++] = value;
+        return this;
+    }
+
+    public BulkInserter nul() {
+        pending[bufferedRows * columnCount + column++] = null;
+        return this;
+    }
+
+    /**
+     * Finish the current row, executing a full statement when the buffer is full
+     */
+    public void endRow() throws SQLException {
+        if (column != columnCount) {
+            throw new IllegalStateException("Row has " + column + " values, expected " + columnCount);
+        }
+        column = 0;
+        bufferedRows++;
+        totalRows++;
+        if (bufferedRows == rowsPerStatement) {
+            bindAndExecute(fullStatement, bufferedRows);
+            bufferedRows = 0;
+        }
+    }
+
+    public long getTotalRows() {
+        return totalRows;
+    }
+
+    /**
+     * Flush the remaining rows and release the statement
+     */
+    @Override
+    public void close() throws SQLException {
+        try {
+            if (bufferedRows > 0) {
+                try (PreparedStatement tail = connection.prepareStatement(buildSql(bufferedRows))) {
+                    bindAndExecute(tail, bufferedRows);
+                }
+                bufferedRows = 0;
+            }
+        } finally {
+            fullStatement.close();
+        }
+    }
+
+    private void bindAndExecute(PreparedStatement pstmt, int rows) throws SQLException {
+        int params = rows * columnCount;
+        for (int i = 0; i < params; i++) {
+            Object value = pending[i];
+            if (value instanceof Integer) {
+                pstmt.setInt(i + 1, (Integer) value);
+            } else if (value instanceof Long) {
+                pstmt.setLong(i + 1, (Long) value);
+            } else if (value instanceof Double) {
+                pstmt.setDouble(i + 1, (Double) value);
+            } else if (value == null) {
+                pstmt.setNull(i + 1, java.sql.Types.NULL);
+            } else {
+                pstmt.setString(i + 1, (String) value);
+            }
+        }
+        pstmt.executeUpdate();
+    }
+
+    private String buildSql(int rows) {
+        StringBuilder row = new StringBuilder("(");
+        for (int i = 0; i < columnCount; i++) {
+            row.append(i == 0 ? "?" : ", ?");
+        }
+        row.append(")");
+
+        StringBuilder sql = new StringBuilder(insertPrefix.length() + rows * (row.length() + 2));
+        sql.append(insertPrefix);
+        for (int i = 0; i < rows; i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(row);
+        }
+        return sql.toString();
+    }
+}
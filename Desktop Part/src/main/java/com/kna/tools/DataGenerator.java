@@ -0,0 +1,614 @@
+package com.kna.tools;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import com.kna.util.DatabaseManager;
+import com.kna.util.PasswordHasher;
+
+/**
+ * DataGenerator - Standalone generator for large, realistic K&A databases.
+ *
+ * Produces users, questions, answers, votes, coin ledger, coin purchases and notifications
+ * with skewed department categories, Zipfian question popularity and answerer activity,
+ * and bursty timestamps clustered around exam weeks. Rows are written with multi-row
+ * INSERTs in a single transaction and indexes are created after loading.
+ *
+ * Usage: java -cp ... com.kna.tools.DataGenerator --questions 1000000 --output kna_database.db
+ */
+public class DataGenerator {
+
+    public static final String[] CATEGORIES = {
+        "CSE", "EEE", "ECE", "ME", "CE", "IEM", "MTE", "Arch", "URP", "BME", "ChE", "MATH", "PHY", "CHEM", "HUM", "General"
+    };
+    // Relative weights: CSE and EEE dominate, humanities and small departments trail off
+    private static final int[] CATEGORY_WEIGHTS = {
+        30, 16, 10, 9, 8, 4, 3, 3, 2, 2, 2, 4, 3, 2, 1, 1
+    };
+    private static final String[] FIRST_NAMES = {
+        "Ayesha", "Rahim", "Nusrat", "Tanvir", "Farhana", "Imran", "Sadia", "Arif", "Mehjabin", "Sakib",
+        "Tasnim", "Nafis", "Raisa", "Fahim", "Lamia", "Shuvo", "Anika", "Zarif", "Priya", "Omar"
+    };
+    private static final String[] LAST_NAMES = {
+        "Rahman", "Hossain", "Islam", "Ahmed", "Chowdhury", "Khan", "Das", "Karim", "Sarkar", "Haque",
+        "Akter", "Roy", "Uddin", "Siddique", "Biswas", "Alam"
+    };
+    public static final String[] TOPICS = {
+        "Dijkstra's algorithm", "Kirchhoff's voltage law", "concrete mix ratios", "Fourier transforms",
+        "dynamic programming", "op-amp gain", "beam deflection", "thermodynamic cycles", "eigenvalues",
+        "pointer arithmetic", "transistor biasing", "fluid viscosity", "graph coloring", "Laplace transforms",
+        "red-black trees", "power factor correction", "soil compaction", "heat exchangers", "SQL joins",
+        "organic reaction mechanisms", "quantum tunnelling", "linear regression", "TCP congestion control"
+    };
+    private static final String[] QUESTION_TEMPLATES = {
+        "How does %s work?", "Can someone explain %s with an example?", "Why is my answer wrong for %s?",
+        "What is the intuition behind %s?", "Exam question on %s - help needed", "Best way to learn %s?"
+    };
+
+    private static final int QUESTION_COST = 20;
+    private static final int URGENT_QUESTION_COST = 30;
+    private static final int STARTING_COINS = 100;
+    private static final int TOP_UP_COINS = 250;
+    private static final int REPUTATION_PER_UPVOTE = 10;
+    private static final int REPUTATION_PER_ACCEPTED = 50;
+    private static final int ROWS_PER_STATEMENT = 200;
+    private static final long DAY = 86_400;
+
+    /**
+     * Generator settings
+     */
+    public static class Config {
+        public int users = 100_000;
+        public int questions = 1_000_000;
+        public double answersPerQuestion = 2.0;
+        public double votesPerAnswer = 3.0;
+        public int days = 365;
+        public long seed = 42;
+
+        public int answerCount() {
+            return (int) Math.round(questions * answersPerQuestion);
+        }
+    }
+
+    private final Config config;
+    private final SplittableRandom random;
+    private final long endTime;
+    private final long startTime;
+    private final long[] examWeekStarts;
+    private final int[] categoryCumulative;
+
+    // Per-user state, index = user_id (1 is the admin)
+    private byte[] userDepartment;
+    private int[] userCoins;
+    private int[] userReputation;
+    private int[] userQuestions;
+    private int[] userAnswers;
+    private int[] userAccepted;
+    private long[] userFirstActivity;
+
+    // Per-question state, index = question_id
+    private long[] questionTime;
+    private int[] questionOwner;
+    private byte[] questionCategory;
+    private boolean[] questionUrgent;
+    private int[] questionAnswers;
+    private int[] questionAcceptedAnswer;
+
+    private int nextTransactionId = 1;
+
+    public DataGenerator(Config config) {
+        this.config = config;
+        this.random = new SplittableRandom(config.seed);
+        this.endTime = System.currentTimeMillis() / 1000;
+        this.startTime = endTime - config.days * DAY;
+
+        // Midterm and final weeks roughly every two months
+        int examWeeks = Math.max(1, config.days / 60);
+        this.examWeekStarts = new long[examWeeks];
+        for (int i = 0; i < examWeeks; i++) {
+            examWeekStarts[i] = startTime + (long) (config.days * (i + 0.75) / examWeeks) * DAY;
+        }
+
+        this.categoryCumulative = new int[CATEGORY_WEIGHTS.length];
+        int sum = 0;
+        for (int i = 0; i < CATEGORY_WEIGHTS.length; i++) {
+            sum += CATEGORY_WEIGHTS[i];
+            categoryCumulative[i] = sum;
+        }
+    }
+
+    /**
+     * Generate a complete database at the given path (written to a temp file, then moved into place)
+     */
+    public void generate(Path output) throws Exception {
+        Path partial = output.resolveSibling(output.getFileName() + ".partial");
+        Files.deleteIfExists(partial);
+
+        long start = System.nanoTime();
+        long rows;
+        try (Connection conn = DriverManager.getConnection("jdbc:sqlite:" + partial)) {
+            prepareBulkLoad(conn);
+            List<String> indexes = createTables(conn);
+
+            conn.setAutoCommit(false);
+            planQuestions();
+            rows = writeLedgerForQuestions(conn);
+            rows += writeAnswers(conn);
+            rows += writeQuestions(conn);
+            rows += writeUsers(conn);
+            conn.commit();
+            conn.setAutoCommit(true);
+
+            long loaded = System.nanoTime();
+            System.out.printf("Loaded %,d rows in %.1f s (%,.0f rows/s)%n",
+                rows, (loaded - start) / 1e9, rows / ((loaded - start) / 1e9));
+
+            finishBulkLoad(conn, indexes);
+        }
+
+        Files.move(partial, output, StandardCopyOption.REPLACE_EXISTING);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Wrote %s: %,d rows in %.1f s including indexes%n", output, rows, seconds);
+    }
+
+    /**
+     * Settings for loading a new database file in one pass: no journal, no syncs, big cache
+     * (and incremental auto-vacuum, which has to be chosen before the first table exists)
+     */
+    static void prepareBulkLoad(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("PRAGMA page_size = 65536");
+            stmt.execute("PRAGMA auto_vacuum = INCREMENTAL");
+            stmt.execute("PRAGMA journal_mode = OFF");
+            stmt.execute("PRAGMA synchronous = OFF");
+            stmt.execute("PRAGMA locking_mode = EXCLUSIVE");
+            stmt.execute("PRAGMA temp_store = MEMORY");
+            stmt.execute("PRAGMA cache_size = -262144");
+        }
+    }
+
+    /**
+     * Create the deferred indexes, gather planner statistics and restore the default journal
+     */
+    static void finishBulkLoad(Connection conn, List<String> indexes) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            for (String sql : indexes) {
+                stmt.execute(sql);
+            }
+            stmt.execute("ANALYZE");
+            stmt.execute("PRAGMA journal_mode = DELETE");
+        }
+    }
+
+    /**
+     * Create tables from schema.sql; index statements are returned to run after loading
+     */
+    static List<String> createTables(Connection conn) throws Exception {
+        List<String> indexes = new ArrayList<>();
+        try (Statement stmt = conn.createStatement()) {
+            for (String sql : DatabaseManager.loadSchemaStatements()) {
+                if (sql.startsWith("CREATE INDEX")) {
+                    indexes.add(sql);
+                } else if (!sql.startsWith("INSERT")) {
+                    // Sample rows from schema.sql are replaced by generated data
+                    stmt.execute(sql);
+                }
+            }
+        }
+        return indexes;
+    }
+
+    /**
+     * Decide owner, time, category and urgency of every question (ids follow time order)
+     */
+    private void planQuestions() {
+        int users = config.users;
+        int questions = config.questions;
+
+        userDepartment = new byte[users + 2];
+        userCoins = new int[users + 2];
+        userReputation = new int[users + 2];
+        userQuestions = new int[users + 2];
+        userAnswers = new int[users + 2];
+        userAccepted = new int[users + 2];
+        userFirstActivity = new long[users + 2];
+        Arrays.fill(userCoins, STARTING_COINS);
+        Arrays.fill(userFirstActivity, Long.MAX_VALUE);
+        for (int u = 2; u <= users + 1; u++) {
+            userDepartment[u] = (byte) sampleCategory();
+        }
+
+        questionTime = new long[questions + 1];
+        questionOwner = new int[questions + 1];
+        questionCategory = new byte[questions + 1];
+        questionUrgent = new boolean[questions + 1];
+        questionAnswers = new int[questions + 1];
+        questionAcceptedAnswer = new int[questions + 1];
+
+        for (int q = 1; q <= questions; q++) {
+            questionTime[q] = sampleTime();
+        }
+        Arrays.sort(questionTime, 1, questions + 1);
+
+        ZipfSampler askers = new ZipfSampler(users, 0.6);
+        for (int q = 1; q <= questions; q++) {
+            int owner = scatter(askers.sample(random), users, 1_000_003) + 2;
+            questionOwner[q] = owner;
+            questionCategory[q] = random.nextInt(10) < 7 ? userDepartment[owner] : (byte) sampleCategory();
+            // Urgent questions spike during exam weeks
+            questionUrgent[q] = random.nextInt(100) < (isExamWeek(questionTime[q]) ? 30 : 10);
+            userQuestions[owner]++;
+            userFirstActivity[owner] = Math.min(userFirstActivity[owner], questionTime[q]);
+        }
+    }
+
+    /**
+     * Spend coins for every question, topping up with purchases when a user runs short
+     */
+    private long writeLedgerForQuestions(Connection conn) throws SQLException {
+        try (BulkInserter ledger = ledgerInserter(conn);
+             BulkInserter purchases = new BulkInserter(conn, "coin_purchases",
+                 new String[] {"user_id", "coins_purchased", "amount_paid", "transaction_id", "created_at"},
+                 ROWS_PER_STATEMENT)) {
+            for (int q = 1; q <= config.questions; q++) {
+                int owner = questionOwner[q];
+                int cost = questionUrgent[q] ? URGENT_QUESTION_COST : QUESTION_COST;
+                String time = formatTimestamp(questionTime[q]);
+
+                if (userCoins[owner] < cost) {
+                    userCoins[owner] += TOP_UP_COINS;
+                    int transactionId = addLedger(ledger, owner, TOP_UP_COINS, "purchased",
+                        "Purchased " + TOP_UP_COINS + " Coins", 0, null, userCoins[owner], time);
+                    purchases.integer(owner).integer(TOP_UP_COINS).text("200.00").integer(transactionId).text(time);
+                    purchases.endRow();
+                }
+
+                userCoins[owner] -= cost;
+                addLedger(ledger, owner, -cost, "spent", "Asked question #" + q, q, "question", userCoins[owner], time);
+            }
+            return ledger.getTotalRows() + purchases.getTotalRows();
+        }
+    }
+
+    /**
+     * Generate answers with their votes, accepted-answer rewards and notifications
+     */
+    private long writeAnswers(Connection conn) throws SQLException {
+        int users = config.users;
+        int answers = config.answerCount();
+        ZipfSampler popularity = new ZipfSampler(config.questions, 0.7);
+        ZipfSampler answerers = new ZipfSampler(users, 0.8);
+
+        try (BulkInserter answerRows = new BulkInserter(conn, "answers",
+                 new String[] {"question_id", "user_id", "content", "is_accepted", "rating", "upvotes", "downvotes", "created_at"},
+                 ROWS_PER_STATEMENT);
+             BulkInserter votes = new BulkInserter(conn, "answer_votes",
+                 new String[] {"answer_id", "user_id", "vote_type", "created_at"}, ROWS_PER_STATEMENT);
+             BulkInserter notifications = new BulkInserter(conn, "notifications",
+                 new String[] {"user_id", "title", "message", "notification_type", "is_read", "reference_id", "reference_type", "created_at"},
+                 ROWS_PER_STATEMENT);
+             BulkInserter ledger = ledgerInserter(conn)) {
+
+            for (int a = 1; a <= answers; a++) {
+                int q = scatter(popularity.sample(random), config.questions, 999_983) + 1;
+                int owner = questionOwner[q];
+                int answerer;
+                do {
+                    answerer = scatter(answerers.sample(random), users, 1_000_033) + 2;
+                } while (answerer == owner && users > 1);
+
+                // Most answers arrive within hours; urgent questions are answered faster
+                double meanDelay = questionUrgent[q] ? 1_800 : 6 * 3_600;
+                long time = Math.min(endTime, questionTime[q] + 60 + (long) (-Math.log(1 - random.nextDouble()) * meanDelay));
+                String timeText = formatTimestamp(time);
+
+                int upvotes = 0;
+                int downvotes = 0;
+                int voteCount = Math.min(users - 1, (int) (-Math.log(1 - random.nextDouble()) * config.votesPerAnswer));
+                int voter = 2 + random.nextInt(users);
+                for (int v = 0; v < voteCount; v++) {
+                    voter = voter >= users + 1 ? 2 : voter + 1;
+                    if (voter == answerer) {
+                        continue;
+                    }
+                    boolean up = random.nextInt(100) < 85;
+                    if (up) {
+                        upvotes++;
+                    } else {
+                        downvotes++;
+                    }
+                    votes.integer(a).integer(voter).text(up ? "upvote" : "downvote")
+                        .text(formatTimestamp(Math.min(endTime, time + random.nextInt(7 * 86_400))));
+                    votes.endRow();
+                }
+
+                boolean accepted = questionAcceptedAnswer[q] == 0 && random.nextInt(100) < 55;
+                int rating = accepted ? 3 + random.nextInt(3) : 0;
+
+                answerRows.integer(q).integer(answerer)
+                    .text("For " + TOPICS[q % TOPICS.length] + ", start from the definition and work through a small example. (#" + a + ")")
+                    .integer(accepted ? 1 : 0).integer(rating).integer(upvotes).integer(downvotes).text(timeText);
+                answerRows.endRow();
+
+                questionAnswers[q]++;
+                userAnswers[answerer]++;
+                userReputation[answerer] += upvotes * REPUTATION_PER_UPVOTE;
+                userFirstActivity[answerer] = Math.min(userFirstActivity[answerer], time);
+
+                notifications.integer(owner).text("New Answer").text("Someone answered your question").text("answer")
+                    .integer(isRead(time)).integer(q).text("question").text(timeText);
+                notifications.endRow();
+
+                if (accepted) {
+                    questionAcceptedAnswer[q] = a;
+                    int reward = questionUrgent[q] ? URGENT_QUESTION_COST : QUESTION_COST;
+                    userCoins[answerer] += reward;
+                    userReputation[answerer] += REPUTATION_PER_ACCEPTED;
+                    userAccepted[answerer]++;
+
+                    addLedger(ledger, answerer, reward, "earned", "Answer accepted for question #" + q,
+                        a, "answer", userCoins[answerer], timeText);
+                    notifications.integer(answerer).text("Answer Accepted!")
+                        .text("Your answer was accepted! You earned " + reward + " Coins").text("accepted")
+                        .integer(isRead(time)).integer(a).text("answer").text(timeText);
+                    notifications.endRow();
+                }
+            }
+
+            return answerRows.getTotalRows() + votes.getTotalRows() + notifications.getTotalRows() + ledger.getTotalRows();
+        }
+    }
+
+    /**
+     * Write question rows now that answer counts and accepted answers are known
+     */
+    private long writeQuestions(Connection conn) throws SQLException {
+        String[][] titles = new String[TOPICS.length][QUESTION_TEMPLATES.length];
+        for (int t = 0; t < TOPICS.length; t++) {
+            for (int k = 0; k < QUESTION_TEMPLATES.length; k++) {
+                titles[t][k] = String.format(QUESTION_TEMPLATES[k], TOPICS[t]);
+            }
+        }
+
+        try (BulkInserter questions = new BulkInserter(conn, "questions",
+                 new String[] {"user_id", "title", "description", "category", "is_urgent", "coin_reward",
+                     "is_answered", "is_evaluated", "accepted_answer_id", "view_count", "created_at", "updated_at"},
+                 ROWS_PER_STATEMENT)) {
+            for (int q = 1; q <= config.questions; q++) {
+                String topic = TOPICS[q % TOPICS.length];
+                String title = titles[q % TOPICS.length][random.nextInt(QUESTION_TEMPLATES.length)];
+                boolean answered = questionAcceptedAnswer[q] != 0;
+                String time = formatTimestamp(questionTime[q]);
+
+                questions.integer(questionOwner[q]).text(title)
+                    .text("I am studying " + topic + " for " + CATEGORIES[questionCategory[q]]
+                        + " and got stuck on the worked example in the lecture notes. (#" + q + ")")
+                    .text(CATEGORIES[questionCategory[q]])
+                    .integer(questionUrgent[q] ? 1 : 0)
+                    .integer(questionUrgent[q] ? URGENT_QUESTION_COST : QUESTION_COST)
+                    .integer(answered ? 1 : 0).integer(answered ? 1 : 0);
+                if (answered) {
+                    questions.integer(questionAcceptedAnswer[q]);
+                } else {
+                    questions.nul();
+                }
+                questions.integer(questionAnswers[q] * 25 + random.nextInt(40)).text(time).text(time);
+                questions.endRow();
+            }
+            return questions.getTotalRows();
+        }
+    }
+
+    /**
+     * Write the admin and all generated users with their final counters and balances
+     */
+    private long writeUsers(Connection conn) throws SQLException {
+        try (BulkInserter users = new BulkInserter(conn, "users",
+                 new String[] {"user_id", "email", "password_hash", "name", "department", "academic_year", "coins",
+                     "reputation", "total_questions", "total_answers", "accepted_answers", "is_admin", "created_at", "updated_at"},
+                 ROWS_PER_STATEMENT)) {
+            String start = formatTimestamp(startTime);
+            // Hashing millions of passwords would take hours, so generated users share one hash
+            String userPasswordHash = PasswordHasher.hashPassword("test123");
+            users.integer(1).text("admin@kna.com").text(PasswordHasher.hashPassword("admin123")).text("Admin User").text("Administration")
+                .integer(0).integer(10000).integer(10000).integer(0).integer(0).integer(0).integer(1).text(start).text(start);
+            users.endRow();
+
+            for (int u = 2; u <= config.users + 1; u++) {
+                long firstActivity = userFirstActivity[u] == Long.MAX_VALUE ? endTime : userFirstActivity[u];
+                long created = Math.max(startTime - 30 * DAY, firstActivity - random.nextInt(30) * DAY);
+                String name = FIRST_NAMES[u % FIRST_NAMES.length] + " " + LAST_NAMES[(u / FIRST_NAMES.length) % LAST_NAMES.length];
+
+                users.integer(u).text("user" + u + "@kna.edu").text(userPasswordHash).text(name)
+                    .text(CATEGORIES[userDepartment[u]]).integer(1 + random.nextInt(5))
+                    .integer(userCoins[u]).integer(userReputation[u]).integer(userQuestions[u])
+                    .integer(userAnswers[u]).integer(userAccepted[u]).integer(0)
+                    .text(formatTimestamp(created)).text(formatTimestamp(created));
+                users.endRow();
+            }
+
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("INSERT INTO admins (user_id, admin_level, permissions) VALUES (1, 3, 'all')");
+            }
+            return users.getTotalRows() + 1;
+        }
+    }
+
+    private BulkInserter ledgerInserter(Connection conn) throws SQLException {
+        return new BulkInserter(conn, "coin_transactions",
+            new String[] {"transaction_id", "user_id", "amount", "transaction_type", "description",
+                "reference_id", "reference_type", "balance_after", "created_at"},
+            ROWS_PER_STATEMENT);
+    }
+
+    private int addLedger(BulkInserter ledger, int userId, int amount, String type, String description,
+                          int referenceId, String referenceType, int balanceAfter, String time) throws SQLException {
+        int transactionId = nextTransactionId++;
+        ledger.integer(transactionId).integer(userId).integer(amount).text(type).text(description);
+        if (referenceType != null) {
+            ledger.integer(referenceId).text(referenceType);
+        } else {
+            ledger.nul().nul();
+        }
+        ledger.integer(balanceAfter).text(time);
+        ledger.endRow();
+        return transactionId;
+    }
+
+    /**
+     * Sample a timestamp: 45% fall in an exam week, the rest uniformly over the period
+     */
+    private long sampleTime() {
+        if (random.nextInt(100) < 45) {
+            long week = examWeekStarts[random.nextInt(examWeekStarts.length)];
+            return Math.min(endTime, week + random.nextLong(7 * DAY));
+        }
+        return startTime + random.nextLong(endTime - startTime);
+    }
+
+    private boolean isExamWeek(long time) {
+        for (long week : examWeekStarts) {
+            if (time >= week && time < week + 7 * DAY) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int sampleCategory() {
+        int pick = random.nextInt(categoryCumulative[categoryCumulative.length - 1]);
+        for (int i = 0; i < categoryCumulative.length; i++) {
+            if (pick < categoryCumulative[i]) {
+                return i;
+            }
+        }
+        return categoryCumulative.length - 1;
+    }
+
+    private int isRead(long time) {
+        // Older notifications have mostly been read
+        return random.nextInt(100) < (endTime - time > 14 * DAY ? 90 : 30) ? 1 : 0;
+    }
+
+    /**
+     * Map a popularity rank (1-based) to a stable pseudo-random index in [0, n),
+     * so the most popular items are spread over the id range instead of being the lowest ids
+     */
+    private static int scatter(int rank, int n, long multiplier) {
+        if (gcd(multiplier % n, n) != 1) {
+            return rank % n;
+        }
+        return (int) ((rank * multiplier) % n);
+    }
+
+    private static long gcd(long a, long b) {
+        while (b != 0) {
+            long t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+
+    /**
+     * Format epoch seconds (UTC) as "yyyy-MM-dd HH:mm:ss", matching SQLite's CURRENT_TIMESTAMP
+     */
+    static String formatTimestamp(long epochSeconds) {
+        long days = Math.floorDiv(epochSeconds, DAY);
+        long secondsOfDay = epochSeconds - days * DAY;
+
+        // Civil-from-days (Howard Hinnant)
+        long z = days + 719_468;
+        long era = Math.floorDiv(z, 146_097);
+        long doe = z - era * 146_097;
+        long yoe = (doe - doe / 1460 + doe / 36_524 - doe / 146_096) / 365;
+        long doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+        long mp = (5 * doy + 2) / 153;
+        int day = (int) (doy - (153 * mp + 2) / 5 + 1);
+        int month = (int) (mp < 10 ? mp + 3 : mp - 9);
+        int year = (int) (yoe + era * 400 + (month <= 2 ? 1 : 0));
+
+        char[] out = new char[19];
+        writeDigits(out, 0, year, 4);
+        out[4] = '-';
+        writeDigits(out, 5, month, 2);
+        out[7] = '-';
+        writeDigits(out, 8, day, 2);
+        out[10] = ' ';
+        writeDigits(out, 11, (int) (secondsOfDay / 3600), 2);
+        out[13] = ':';
+        writeDigits(out, 14, (int) (secondsOfDay / 60 % 60), 2);
+        out[16] = ':';
+        writeDigits(out, 17, (int) (secondsOfDay % 60), 2);
+        return new String(out);
+    }
+
+    private static void writeDigits(char[] out, int offset, int value, int width) {
+        for (int i = offset + width - 1; i >= offset; i--) {
+            out[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Config config = new Config();
+        Path output = Paths.get("kna_database.db");
+        boolean force = false;
+        boolean usersSet = false;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--output":
+                    output = Paths.get(args[++i]);
+                    break;
+                case "--users":
+                    config.users = Integer.parseInt(args[++i]);
+                    usersSet = true;
+                    break;
+                case "--questions":
+                    config.questions = Integer.parseInt(args[++i]);
+                    break;
+                case "--answers-per-question":
+                    config.answersPerQuestion = Double.parseDouble(args[++i]);
+                    break;
+                case "--votes-per-answer":
+                    config.votesPerAnswer = Double.parseDouble(args[++i]);
+                    break;
+                case "--days":
+                    config.days = Integer.parseInt(args[++i]);
+                    break;
+                case "--seed":
+                    config.seed = Long.parseLong(args[++i]);
+                    break;
+                case "--force":
+                    force = true;
+                    break;
+                default:
+                    System.err.println("Unknown option: " + args[i]);
+                    System.err.println("Options: --output FILE --users N --questions N --answers-per-question X "
+                        + "--votes-per-answer X --days N --seed N --force");
+                    System.exit(1);
+            }
+        }
+
+        if (!usersSet) {
+            config.users = Math.max(10, config.questions / 10);
+        }
+        if (Files.exists(output) && !force) {
+            System.err.println(output + " already exists; pass --force to overwrite it");
+            System.exit(1);
+        }
+
+        new DataGenerator(config).generate(output);
+    }
+}
@@ -0,0 +1,629 @@
+package com.kna.tools;
+
+import java.io.BufferedWriter;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.kna.util.DatabaseManager;
+
+/**
+ * DataTransfer - Bulk export and import of a whole K&A database, for backups and for moving
+ * large datasets between machines.
+ *
+ * Export streams every table through a forward-only cursor into one gzipped file per table,
+ * either newline-delimited JSON (one object per row) or CSV (header row; text is always
+ * quoted, numbers are not, an empty field is NULL), and writes manifest.json with the tables,
+ * their columns and row counts. All tables are read in one read transaction, so the export is a
+ * consistent snapshot; the app's writes wait until it is done, so close the app first.
+ * Sessions are not exported. Archived questions, answers and their rows are exported with the
+ * live ones, from the archive database next to the database file (or --archive), and so are
+ * those of the category partition files next to it.
+ *
+ * Import builds a new database from an export: tables are created from schema.sql, rows are
+ * streamed in with multi-row INSERTs in a single transaction and indexes are created after
+ * loading. Exported columns the current schema no longer has are skipped, new columns get
+ * their defaults. Memory use does not grow with the size of the data either way. Archived
+ * and partitioned rows come back into the live tables of main, and the app archives them
+ * again; an archive or partition file already next to the output loses the questions the
+ * import brought back.
+ *
+ * Usage: java -cp ... com.kna.tools.DataTransfer export --db kna_database.db [--archive FILE] --output kna-export [--format csv]
+ *        java -cp ... com.kna.tools.DataTransfer import --input kna-export --output kna_database.db [--archive FILE] [--force]
+ */
+public class DataTransfer {
+
+    public static final String FORMAT_NDJSON = "ndjson";
+    public static final String FORMAT_CSV = "csv";
+
+    private static final String MANIFEST = "manifest.json";
+    // Login sessions belong to the machine they were created on
+    private static final Set<String> SKIPPED_TABLES = Set.of("sessions");
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int ROWS_PER_STATEMENT = 200;
+    // SQLite's default limit on parameters per statement
+    private static final int MAX_PARAMETERS = 32_766;
+
+    /**
+     * Contents of manifest.json
+     */
+    public static class Manifest {
+        public String format;
+        public String source;
+        public String exportedAt;
+        public List<TableEntry> tables = new ArrayList<>();
+    }
+
+    /**
+     * One exported table
+     */
+    public static class TableEntry {
+        public String name;
+        public String file;
+        public List<String> columns;
+        public long rows;
+    }
+
+    /**
+     * Export every table of the database, with the rows of its partition files and of its
+     * archive when archive is not null, into the directory
+     */
+    public static Manifest export(Path database, Path archive, Path directory, String format) throws IOException, SQLException {
+        Files.createDirectories(directory);
+        Manifest manifest = new Manifest();
+        manifest.format = format;
+        manifest.source = database.getFileName().toString();
+        manifest.exportedAt = Instant.now().toString();
+
+        long start = System.nanoTime();
+        long rows = 0;
+        try (Connection conn = DriverManager.getConnection("jdbc:sqlite:" + database)) {
+            List<String> copies = DatabaseManager.attachPartitionFiles(conn, database);
+            if (archive != null) {
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.execute("ATTACH DATABASE '" + archive.toString().replace("'", "''") + "' AS archive");
+                }
+                copies.add("archive");
+            }
+            // Table -> the attached databases that have a copy of it
+            Map<String, List<String>> copiesOf = new HashMap<>();
+            try (Statement stmt = conn.createStatement()) {
+                for (String copy : copies) {
+                    try (ResultSet rs = stmt.executeQuery("SELECT name FROM " + copy + ".sqlite_master WHERE type = 'table'")) {
+                        while (rs.next()) {
+                            copiesOf.computeIfAbsent(rs.getString(1), t -> new ArrayList<>()).add(copy);
+                        }
+                    }
+                }
+            }
+            // One read transaction for all tables: every file sees the same state
+            conn.setAutoCommit(false);
+            for (String table : exportedTables(conn)) {
+                long tableStart = System.nanoTime();
+                TableEntry entry = exportTable(conn, table, copiesOf.getOrDefault(table, List.of()), directory, format);
+                manifest.tables.add(entry);
+                rows += entry.rows;
+                System.out.printf("  %-18s %,12d rows in %.1f s%n", table, entry.rows, (System.nanoTime() - tableStart) / 1e9);
+            }
+            conn.commit();
+        }
+
+        Gson gson = new GsonBuilder().setPrettyPrinting().create();
+        Files.writeString(directory.resolve(MANIFEST), gson.toJson(manifest));
+        System.out.printf("Exported %,d rows to %s in %.1f s%n", rows, directory, (System.nanoTime() - start) / 1e9);
+        return manifest;
+    }
+
+    /**
+     * Build a new database at output from an export (written to a temp file, then moved into
+     * place); archive is the output's archive file, if it may have one
+     */
+    public static void importInto(Path directory, Path output, Path archive) throws Exception {
+        Manifest manifest = new Gson().fromJson(Files.readString(directory.resolve(MANIFEST)), Manifest.class);
+        if (!FORMAT_NDJSON.equals(manifest.format) && !FORMAT_CSV.equals(manifest.format)) {
+            throw new IOException("Unknown export format: " + manifest.format);
+        }
+
+        Path partial = output.resolveSibling(output.getFileName() + ".partial");
+        Files.deleteIfExists(partial);
+
+        long start = System.nanoTime();
+        long rows = 0;
+        try (Connection conn = DriverManager.getConnection("jdbc:sqlite:" + partial)) {
+            DataGenerator.prepareBulkLoad(conn);
+            List<String> indexes = DataGenerator.createTables(conn);
+
+            conn.setAutoCommit(false);
+            for (TableEntry table : manifest.tables) {
+                long tableStart = System.nanoTime();
+                long imported = importTable(conn, directory, manifest.format, table);
+                if (imported < 0) {
+                    System.err.println("  " + table.name + ": not in the current schema, skipped");
+                    continue;
+                }
+                if (imported != table.rows) {
+                    throw new IOException(table.file + " has " + imported + " rows, the manifest says " + table.rows);
+                }
+                rows += imported;
+                System.out.printf("  %-18s %,12d rows in %.1f s%n", table.name, imported, (System.nanoTime() - tableStart) / 1e9);
+            }
+            conn.commit();
+            conn.setAutoCommit(true);
+
+            long loaded = System.nanoTime();
+            System.out.printf("Loaded %,d rows in %.1f s (%,.0f rows/s)%n",
+                rows, (loaded - start) / 1e9, rows / ((loaded - start) / 1e9));
+
+            DataGenerator.finishBulkLoad(conn, indexes);
+        }
+
+        Files.move(partial, output, StandardCopyOption.REPLACE_EXISTING);
+        System.out.printf("Wrote %s: %,d rows in %.1f s including indexes%n", output, rows, (System.nanoTime() - start) / 1e9);
+
+        if (archive != null && Files.exists(archive)) {
+            int dropped = DatabaseManager.dropArchivedDuplicates(output, archive);
+            if (dropped > 0) {
+                System.out.printf("Dropped %,d imported questions from %s%n", dropped, archive);
+            }
+        }
+    }
+
+    /**
+     * Tables of the database in schema.sql order (parents before children), then any others
+     */
+    private static List<String> exportedTables(Connection conn) throws IOException, SQLException {
+        Set<String> existing = new LinkedHashSet<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT name FROM sqlite_master WHERE type = 'table' "
+                 + "AND name NOT LIKE 'sqlite_%' ORDER BY rowid")) {
+            while (rs.next()) {
+                existing.add(rs.getString(1));
+            }
+        }
+
+        Set<String> ordered = new LinkedHashSet<>();
+        for (String sql : DatabaseManager.loadSchemaStatements()) {
+            if (sql.startsWith("CREATE TABLE")) {
+                String name = sql.replaceFirst("(?is)^CREATE TABLE\\s+(IF NOT EXISTS\\s+)?(\\w+).*", "$2");
+                if (existing.contains(name)) {
+                    ordered.add(name);
+                }
+            }
+        }
+        ordered.addAll(existing);
+        ordered.removeAll(SKIPPED_TABLES);
+        return new ArrayList<>(ordered);
+    }
+
+    /**
+     * Export one table with the rows of its copies in the partitions and the archive, except
+     * those main or an earlier copy has too
+     */
+    private static TableEntry exportTable(Connection conn, String table, List<String> copies, Path directory, String format)
+            throws IOException, SQLException {
+        TableEntry entry = new TableEntry();
+        entry.name = table;
+        entry.file = table + "." + format + ".gz";
+
+        String sql = "SELECT * FROM main." + table;
+        if (!copies.isEmpty()) {
+            // Named columns: the copies of an upgraded table may order them differently
+            List<String> columns = new ArrayList<>();
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery("PRAGMA main.table_info(" + table + ")")) {
+                while (rs.next()) {
+                    columns.add(rs.getString("name"));
+                }
+            }
+            String columnList = String.join(", ", columns);
+            StringBuilder union = new StringBuilder("SELECT " + columnList + " FROM main." + table);
+            List<String> earlier = new ArrayList<>(List.of("main"));
+            for (String copy : copies) {
+                union.append(" UNION ALL SELECT ").append(columnList).append(" FROM ").append(copy).append('.').append(table)
+                     .append(" c WHERE ");
+                for (int i = 0; i < earlier.size(); i++) {
+                    union.append(i > 0 ? " AND " : "").append("NOT EXISTS (SELECT 1 FROM ").append(earlier.get(i)).append('.')
+                         .append(table).append(" e WHERE e.rowid = c.rowid)");
+                }
+                earlier.add(copy);
+            }
+            sql = union.toString();
+        }
+
+        try (Statement stmt = conn.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+             ResultSet rs = stmt.executeQuery(sql);
+             Writer out = gzipWriter(directory.resolve(entry.file))) {
+            ResultSetMetaData meta = rs.getMetaData();
+            int columnCount = meta.getColumnCount();
+            entry.columns = new ArrayList<>();
+            for (int i = 1; i <= columnCount; i++) {
+                entry.columns.add(meta.getColumnName(i));
+            }
+
+            if (FORMAT_CSV.equals(format)) {
+                for (int i = 0; i < columnCount; i++) {
+                    if (i > 0) {
+                        out.write(',');
+                    }
+                    writeCsvField(out, entry.columns.get(i));
+                }
+                out.write('\n');
+                while (rs.next()) {
+                    for (int i = 1; i <= columnCount; i++) {
+                        if (i > 1) {
+                            out.write(',');
+                        }
+                        Object value = rs.getObject(i);
+                        if (value instanceof Number) {
+                            out.write(value.toString());
+                        } else if (value != null) {
+                            writeCsvField(out, rs.getString(i));
+                        }
+                    }
+                    out.write('\n');
+                    entry.rows++;
+                }
+            } else {
+                JsonWriter json = new JsonWriter(out);
+                // Lenient allows a stream of top-level objects
+                json.setLenient(true);
+                while (rs.next()) {
+                    json.beginObject();
+                    for (int i = 1; i <= columnCount; i++) {
+                        json.name(entry.columns.get(i - 1));
+                        Object value = rs.getObject(i);
+                        if (value instanceof Number) {
+                            json.value((Number) value);
+                        } else {
+                            json.value(value != null ? rs.getString(i) : null);
+                        }
+                    }
+                    json.endObject();
+                    out.write('\n');
+                    entry.rows++;
+                }
+            }
+        }
+        return entry;
+    }
+
+    /**
+     * Write a quoted CSV field; quoting all text keeps it apart from numbers and NULLs
+     */
+    private static void writeCsvField(Writer out, String value) throws IOException {
+        out.write('"');
+        out.write(value.replace("\"", "\"\""));
+        out.write('"');
+    }
+
+    /**
+     * Stream one table file into its table; returns the row count, or -1 when the table no longer exists
+     */
+    private static long importTable(Connection conn, Path directory, String format, TableEntry table)
+            throws IOException, SQLException {
+        Set<String> targetColumns = new LinkedHashSet<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA table_info(" + table.name + ")")) {
+            while (rs.next()) {
+                targetColumns.add(rs.getString("name"));
+            }
+        }
+        if (targetColumns.isEmpty()) {
+            return -1;
+        }
+
+        int[] keep = new int[table.columns.size()];
+        int kept = 0;
+        for (int i = 0; i < keep.length; i++) {
+            keep[i] = targetColumns.contains(table.columns.get(i)) ? kept++ : -1;
+        }
+        if (kept == 0) {
+            return -1;
+        }
+        String[] columns = new String[kept];
+        for (int i = 0; i < keep.length; i++) {
+            if (keep[i] >= 0) {
+                columns[keep[i]] = table.columns.get(i);
+            }
+        }
+
+        int rowsPerStatement = Math.max(1, Math.min(ROWS_PER_STATEMENT, MAX_PARAMETERS / kept));
+        Object[] row = new Object[table.columns.size()];
+        try (Reader in = gzipReader(directory.resolve(table.file));
+             BulkInserter inserter = new BulkInserter(conn, table.name, columns, rowsPerStatement)) {
+            RowReader reader = FORMAT_CSV.equals(format)
+                ? new CsvRowReader(in, table.columns.size())
+                : new JsonRowReader(in, table.columns);
+            while (reader.next(row)) {
+                for (int i = 0; i < row.length; i++) {
+                    if (keep[i] < 0) {
+                        continue;
+                    }
+                    Object value = row[i];
+                    if (value == null) {
+                        inserter.nul();
+                    } else if (value instanceof Long) {
+                        inserter.longValue((Long) value);
+                    } else if (value instanceof Double) {
+                        inserter.real((Double) value);
+                    } else {
+                        inserter.text((String) value);
+                    }
+                }
+                inserter.endRow();
+            }
+            return inserter.getTotalRows();
+        }
+    }
+
+    /**
+     * Long for integers, Double for anything else (fractions, exponents, Infinity)
+     */
+    private static Object parseNumber(String number) {
+        for (int i = 0; i < number.length(); i++) {
+            char c = number.charAt(i);
+            if ((c < '0' || c > '9') && c != '-') {
+                return Double.parseDouble(number);
+            }
+        }
+        return Long.parseLong(number);
+    }
+
+    private static Writer gzipWriter(Path file) throws IOException {
+        // Fastest compression: the exporter should be bound by reading, not by deflate
+        OutputStream gzip = new GZIPOutputStream(Files.newOutputStream(file), BUFFER_SIZE) {
+            {
+                def.setLevel(Deflater.BEST_SPEED);
+            }
+        };
+        return new BufferedWriter(new OutputStreamWriter(gzip, StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+
+    private static Reader gzipReader(Path file) throws IOException {
+        return new InputStreamReader(new GZIPInputStream(Files.newInputStream(file), BUFFER_SIZE), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads rows of an exported table; values are Long, Double, String or null
+     */
+    private interface RowReader {
+        /** Fill row with the next row's values; false at the end of the file */
+        boolean next(Object[] row) throws IOException;
+    }
+
+    /**
+     * One JSON object per row; keys not in the manifest are ignored, missing keys are NULL
+     */
+    private static class JsonRowReader implements RowReader {
+
+        private final JsonReader json;
+        private final Map<String, Integer> positions = new HashMap<>();
+
+        JsonRowReader(Reader in, List<String> columns) {
+            this.json = new JsonReader(in);
+            this.json.setLenient(true);
+            for (int i = 0; i < columns.size(); i++) {
+                positions.put(columns.get(i), i);
+            }
+        }
+
+        @Override
+        public boolean next(Object[] row) throws IOException {
+            try {
+                if (json.peek() == JsonToken.END_DOCUMENT) {
+                    return false;
+                }
+            } catch (EOFException e) {
+                // Empty table: the reader only reports END_DOCUMENT after a value
+                return false;
+            }
+            Arrays.fill(row, null);
+            json.beginObject();
+            while (json.hasNext()) {
+                Integer position = positions.get(json.nextName());
+                if (position == null) {
+                    json.skipValue();
+                    continue;
+                }
+                switch (json.peek()) {
+                    case NULL:
+                        json.nextNull();
+                        break;
+                    case NUMBER:
+                        row[position] = parseNumber(json.nextString());
+                        break;
+                    case BOOLEAN:
+                        row[position] = json.nextBoolean() ? 1L : 0L;
+                        break;
+                    default:
+                        row[position] = json.nextString();
+                }
+            }
+            json.endObject();
+            return true;
+        }
+    }
+
+    /**
+     * RFC 4180 CSV with a header row. Quoted fields are text; unquoted ones are numbers,
+     * parsed here because SQLite's own text-to-real conversion can be off in the last digit
+     */
+    private static class CsvRowReader implements RowReader {
+
+        private final Reader in;
+        private final int columnCount;
+        private final char[] buffer = new char[BUFFER_SIZE];
+        private final StringBuilder field = new StringBuilder();
+        private int position;
+        private int limit;
+
+        CsvRowReader(Reader in, int columnCount) throws IOException {
+            this.in = in;
+            this.columnCount = columnCount;
+            // Header row; the manifest has the columns
+            next(new Object[columnCount]);
+        }
+
+        @Override
+        public boolean next(Object[] row) throws IOException {
+            int c = read();
+            if (c < 0) {
+                return false;
+            }
+            int column = 0;
+            while (true) {
+                field.setLength(0);
+                boolean quoted = c == '"';
+                if (quoted) {
+                    while (true) {
+                        c = read();
+                        if (c < 0) {
+                            throw new IOException("Unterminated quoted field");
+                        }
+                        if (c == '"') {
+                            c = read();
+                            if (c != '"') {
+                                break;
+                            }
+                        }
+                        field.append((char) c);
+                    }
+                } else {
+                    while (c >= 0 && c != ',' && c != '\n' && c != '\r') {
+                        field.append((char) c);
+                        c = read();
+                    }
+                }
+                if (column >= columnCount) {
+                    throw new IOException("Row has more than " + columnCount + " fields");
+                }
+                row[column++] = quoted ? field.toString() : field.length() > 0 ? parseNumber(field.toString()) : null;
+
+                if (c == '\r') {
+                    c = read();
+                }
+                if (c < 0 || c == '\n') {
+                    break;
+                }
+                if (c != ',') {
+                    throw new IOException("Unexpected character after quoted field: " + (char) c);
+                }
+                c = read();
+            }
+            if (column != columnCount) {
+                throw new IOException("Row has " + column + " fields, expected " + columnCount);
+            }
+            return true;
+        }
+
+        private int read() throws IOException {
+            if (position == limit) {
+                limit = in.read(buffer, 0, buffer.length);
+                position = 0;
+                if (limit <= 0) {
+                    limit = 0;
+                    return -1;
+                }
+            }
+            return buffer[position++];
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        String command = args.length > 0 ? args[0] : "";
+        Path database = Paths.get("kna_database.db");
+        Path directory = Paths.get("kna-export");
+        Path output = null;
+        Path archive = null;
+        String format = FORMAT_NDJSON;
+        boolean force = false;
+
+        for (int i = 1; i < args.length; i++) {
+            switch (args[i]) {
+                case "--db":
+                    database = Paths.get(args[++i]);
+                    break;
+                case "--input":
+                    directory = Paths.get(args[++i]);
+                    break;
+                case "--output":
+                    output = Paths.get(args[++i]);
+                    break;
+                case "--archive":
+                    archive = Paths.get(args[++i]);
+                    break;
+                case "--format":
+                    format = args[++i];
+                    break;
+                case "--force":
+                    force = true;
+                    break;
+                default:
+                    usage("Unknown option: " + args[i]);
+            }
+        }
+
+        switch (command) {
+            case "export":
+                if (!FORMAT_NDJSON.equals(format) && !FORMAT_CSV.equals(format)) {
+                    usage("Unknown format: " + format);
+                }
+                if (!Files.exists(database)) {
+                    usage(database + " does not exist");
+                }
+                if (archive == null) {
+                    archive = Paths.get(DatabaseManager.archivePathFor(database.toString()));
+                }
+                export(database, Files.exists(archive) ? archive : null, output != null ? output : directory, format);
+                break;
+            case "import":
+                Path target = output != null ? output : database;
+                if (Files.exists(target) && !force) {
+                    System.err.println(target + " already exists; pass --force to overwrite it");
+                    System.exit(1);
+                }
+                importInto(directory, target, archive != null ? archive : Paths.get(DatabaseManager.archivePathFor(target.toString())));
+                break;
+            default:
+                usage("Unknown command: " + command);
+        }
+    }
+
+    private static void usage(String error) {
+        System.err.println(error);
+        System.err.println("Usage: export --db FILE [--archive FILE] --output DIR [--format ndjson|csv]");
+        System.err.println("       import --input DIR --output FILE [--archive FILE] [--force]");
+        System.exit(1);
+    }
+}
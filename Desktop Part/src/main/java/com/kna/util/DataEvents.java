@@ -0,0 +1,73 @@
+package com.kna.util;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+/**
+ * DataEvents - Tells caches that data changed.
+ * DAOs publish after writes that add, remove or reclassify rows; listeners run on the
+ * writing thread, so they should only mark their data stale, never query.
+ */
+public final class DataEvents {
+
+    public enum Topic {
+        USERS,
+        QUESTIONS,
+        ANSWERS,
+        REPORTS
+    }
+
+    private static final List<Consumer<Topic>> listeners = new CopyOnWriteArrayList<>();
+    private static final List<IntConsumer> userListeners = new CopyOnWriteArrayList<>();
+
+    private DataEvents() {}
+
+    /**
+     * Register a listener for all topics
+     */
+    public static void addListener(Consumer<Topic> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Remove a listener
+     */
+    public static void removeListener(Consumer<Topic> listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Notify all listeners that data of the topic changed
+     */
+    public static void publish(Topic topic) {
+        for (Consumer<Topic> listener : listeners) {
+            try {
+                listener.accept(topic);
+            } catch (RuntimeException e) {
+                System.err.println("Data change listener failed: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Register a listener for changes to a single user's row (coins, reputation, profile, status)
+     */
+    public static void addUserListener(IntConsumer listener) {
+        userListeners.add(listener);
+    }
+
+    /**
+     * Notify all user listeners that the row of the user changed
+     */
+    public static void publishUser(int userId) {
+        for (IntConsumer listener : userListeners) {
+            try {
+                listener.accept(userId);
+            } catch (RuntimeException e) {
+                System.err.println("User change listener failed: " + e.getMessage());
+            }
+        }
+    }
+}
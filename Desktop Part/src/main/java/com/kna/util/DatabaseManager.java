@@ -1,26 +1,173 @@
 package com.kna.util;
 
 import java.io.BufferedReader;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.sql.Connection;
-import java.sql.DatabaseMetaData;
 import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+import org.sqlite.SQLiteConfig;
+import org.sqlite.SQLiteConnection;
+import org.sqlite.SQLiteLimits;
+import org.sqlite.core.DB;
+
+import com.kna.client.RemoteClient;
 
 /**
- * DatabaseManager - Singleton class for managing SQLite database connections
+ * DatabaseManager - Singleton class for managing SQLite database connections.
+ * All access goes through one connection and its statement cache, so every call holds a
+ * reentrant lock; a transaction keeps the lock from beginTransaction() until commit()/rollback().
+ * Reads that span partitions may instead run on read-only connections, one per partition
+ * (queryPartition), outside the lock.
  */
 public class DatabaseManager {
     private static DatabaseManager instance;
     private Connection connection;
-    private static final String DB_PATH = "kna_database.db";
+    private StatementCache statementCache;
+    private final ReentrantLock lock = new ReentrantLock();
+    // Thread whose transaction is open, guarded by the lock
+    private Thread transactionOwner;
+    // Override with -Dkna.db.path=... to run against another database file
+    private static final String DB_PATH = System.getProperty("kna.db.path", "kna_database.db");
+    // Old questions are moved to this file, attached to the connection as "archive"
+    private static final String ARCHIVE_PATH = System.getProperty("kna.archive.path", archivePathFor(DB_PATH));
+    private static final String ARCHIVE = "archive";
+    // A question is archived with the rows of these tables that belong to it
+    private static final List<String> ARCHIVED_TABLES = List.of(
+        "questions", "question_images", "answers", "answer_votes", "answer_rewards");
+    // The archive keeps only the indexes of the feed and search orders and of lookups by question and user
+    private static final List<String> ARCHIVED_INDEXES = List.of(
+        "idx_questions_created", "idx_questions_urgent_created", "idx_questions_category_created",
+        "idx_questions_hot", "idx_questions_category_hot", "idx_questions_user_status",
+        "idx_question_images_question", "idx_answers_question_order", "idx_answers_user_accepted",
+        "idx_answer_votes_answer", "idx_answer_rewards_answer");
+    // Opt in with -Dkna.partition.byCategory=true: new questions of a category, with their images,
+    // answers and votes, go to a file of their own (kna_database-part-cse.db), attached as part_cse
+    private static final boolean PARTITION_BY_CATEGORY = Boolean.getBoolean("kna.partition.byCategory");
+    private static final String PARTITION_PREFIX = "part_";
+    private static final String PARTITION_INFIX = "-part-";
+    private static final int PARTITION_NAME_MAX_LENGTH = 32;
+    // Categories past this many partitions stay in main (SQLite attaches at most 125 databases)
+    private static final int MAX_PARTITIONS = 64;
+    // Attached category partitions, schema name -> file; changed under the lock
+    private final Map<String, Path> partitionFiles = new ConcurrentSkipListMap<>();
+    private volatile List<String> partitions = List.of();
+    // Read-only connections of queryPartition(), partition -> connection, opened on first use
+    private final Map<String, ReadConnection> readConnections = new HashMap<>();
+    // Counts restores, which roll the id sequences back, so cached id lookups must be dropped
+    private volatile int restoreGeneration;
+    private static final int STATEMENT_CACHE_SIZE = 64;
+    private static final int READ_STATEMENT_CACHE_SIZE = 16;
+    // Online backups copy about this much per step, then pause so the app's queries get a turn
+    private static final int BACKUP_BYTES_PER_STEP = 2 << 20;
+    private static final long BACKUP_STEP_PAUSE_MS = 10;
+    private static final int BACKUP_BUSY_SLEEP_MS = 100;
+    private static final int BACKUP_BUSY_RETRIES = 100;
+    // Writes made while a backup runs make it start over; after this many it keeps the lock instead
+    private static final int BACKUP_MAX_RESTARTS = 3;
+    private static final int INTEGRITY_MAX_ERRORS = 10;
 
     private DatabaseManager() {
-        initializeConnection();
+        // In remote-backend mode the server owns the data; connect lazily only if something asks
+        if (!RemoteClient.isEnabled()) {
+            initializeConnection();
+        }
+    }
+
+    /**
+     * Path of the database file (side files such as indexes are kept next to it)
+     */
+    public static String getDatabasePath() {
+        return DB_PATH;
+    }
+
+    /**
+     * Path of the archive database file
+     */
+    public static String getArchivePath() {
+        return ARCHIVE_PATH;
+    }
+
+    /**
+     * Default archive file of a database file: kna_database.db keeps its archive in
+     * kna_database-archive.db (snapshots and imports follow the same rule)
+     */
+    public static String archivePathFor(String databasePath) {
+        return databasePath.replaceFirst("\\.db$", "") + "-archive.db";
+    }
+
+    /**
+     * Whether new questions go to category partitions (-Dkna.partition.byCategory=true).
+     * Partitions found next to the database are attached and read either way.
+     */
+    public static boolean isPartitionedByCategory() {
+        return PARTITION_BY_CATEGORY;
+    }
+
+    /**
+     * Schema name of a category's partition (part_cse for "CSE"), or null for a category
+     * whose name has no letters or digits or is too long to name a file after
+     */
+    public static String partitionFor(String category) {
+        if (category == null) {
+            return null;
+        }
+        String name = category.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]+", "_").replaceAll("^_|_$", "");
+        return name.isEmpty() || name.length() > PARTITION_NAME_MAX_LENGTH ? null : PARTITION_PREFIX + name;
+    }
+
+    /**
+     * File of a partition of a database file: kna_database.db keeps part_cse in
+     * kna_database-part-cse.db (snapshots follow the same rule)
+     */
+    public static String partitionPathFor(String databasePath, String partition) {
+        return databasePath.replaceFirst("\\.db$", "") + PARTITION_INFIX
+            + partition.substring(PARTITION_PREFIX.length()) + ".db";
+    }
+
+    /**
+     * The partition files next to a database file, schema name -> file
+     */
+    public static Map<String, Path> findPartitionFiles(Path database) throws IOException {
+        Map<String, Path> files = new TreeMap<>();
+        Path directory = database.toAbsolutePath().getParent();
+        String prefix = database.getFileName().toString().replaceFirst("\\.db$", "") + PARTITION_INFIX;
+        try (DirectoryStream<Path> candidates = Files.newDirectoryStream(directory, prefix + "*.db")) {
+            for (Path file : candidates) {
+                String name = file.getFileName().toString();
+                name = name.substring(prefix.length(), name.length() - ".db".length());
+                if (name.matches("[a-z0-9_]{1," + PARTITION_NAME_MAX_LENGTH + "}")) {
+                    files.put(PARTITION_PREFIX + name, file);
+                }
+            }
+        }
+        return files;
+    }
+
+    /**
+     * Whether a file name is that of a partition file (of a database or a snapshot)
+     */
+    public static boolean isPartitionFile(String fileName) {
+        return fileName.matches(".*" + PARTITION_INFIX + "[a-z0-9_]+\\.db");
     }
 
     /**
@@ -49,6 +196,8 @@ public class DatabaseManager {
             try (Statement stmt = connection.createStatement()) {
                 stmt.execute("PRAGMA foreign_keys = ON;");
             }
+            attachArchive(connection);
+            attachPartitions(connection);
             
             System.out.println("Database connection established successfully!");
             
@@ -62,20 +211,41 @@ public class DatabaseManager {
     }
 
     /**
-     * Initialize database by checking if tables exist and creating them if needed
+     * Initialize database by checking if tables exist and creating them if needed.
+     * The schema checksum is kept in PRAGMA user_version, so an up-to-date database
+     * skips re-running schema.sql at startup.
      */
     public void initializeDatabase() {
+        lock.lock();
         try {
+            List<String> sqlStatements = loadSchemaStatements();
+            if (sqlStatements.isEmpty()) {
+                System.err.println("schema.sql file not found in resources/database/");
+                return;
+            }
+            int checksum = schemaChecksum(sqlStatements);
+            
             if (!tableExists("users")) {
                 System.out.println("Tables not found. Initializing database from schema.sql...");
-                createSchemaFromResource();
+                createSchema(sqlStatements);
+                setSchemaVersion(checksum);
                 System.out.println("Database initialized successfully with test data!");
+            } else if (getSchemaVersion() != checksum) {
+                System.out.println("Database schema changed. Upgrading...");
+                upgradeSchema(sqlStatements);
+                setSchemaVersion(checksum);
             } else {
                 System.out.println("Database tables already exist.");
             }
-        } catch (SQLException e) {
+            createTableCopies(ARCHIVE, sqlStatements, false);
+            for (String partition : partitions) {
+                createTableCopies(partition, sqlStatements, true);
+            }
+        } catch (SQLException | IOException e) {
             System.err.println("Failed to initialize database!");
             e.printStackTrace();
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -83,20 +253,368 @@ public class DatabaseManager {
      * Check if a table exists in the database
      */
     private boolean tableExists(String tableName) throws SQLException {
-        DatabaseMetaData meta = connection.getMetaData();
-        try (ResultSet rs = meta.getTables(null, null, tableName, new String[]{"TABLE"})) {
-            return rs.next();
+        try (PreparedStatement pstmt = getConnection().prepareStatement(
+                "SELECT 1 FROM sqlite_master WHERE type = 'table' AND name = ?")) {
+            pstmt.setString(1, tableName);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    private boolean indexExists(String indexName) throws SQLException {
+        try (PreparedStatement pstmt = getConnection().prepareStatement(
+                "SELECT 1 FROM sqlite_master WHERE type = 'index' AND name = ?")) {
+            pstmt.setString(1, indexName);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    /**
+     * Create the database schema (and its seed data) in one transaction. Free pages of a new
+     * database can be returned to the file system incrementally (see MaintenanceService).
+     */
+    private void createSchema(List<String> sqlStatements) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            // Only takes effect before the first table is created
+            stmt.execute("PRAGMA auto_vacuum = INCREMENTAL");
+        }
+        beginTransaction();
+        try (Statement stmt = connection.createStatement()) {
+            for (String sql : sqlStatements) {
+                stmt.execute(sql);
+            }
+            commit();
+            System.out.println("Database schema created and test data inserted successfully!");
+        } catch (SQLException e) {
+            rollback();
+            throw e;
+        }
+    }
+
+    /**
+     * Bring an existing database up to date by re-running the idempotent
+     * CREATE ... IF NOT EXISTS statements of schema.sql (new tables and indexes)
+     * and adding the columns that were added to existing tables. New indexes of an analyzed
+     * database are analyzed too: without statistics the planner would favor them over the
+     * analyzed ones.
+     */
+    private void upgradeSchema(List<String> sqlStatements) throws SQLException {
+        boolean analyzed = tableExists("sqlite_stat1");
+        try (Statement stmt = connection.createStatement()) {
+            for (String sql : sqlStatements) {
+                if (sql.toUpperCase().startsWith("CREATE") && sql.toUpperCase().contains("IF NOT EXISTS")) {
+                    String index = sql.replaceFirst("(?is)^CREATE INDEX IF NOT EXISTS\\s+(\\w+).*", "$1");
+                    boolean newIndex = analyzed && !index.equals(sql) && !indexExists(index);
+                    stmt.execute(sql);
+                    if (sql.toUpperCase().startsWith("CREATE TABLE")) {
+                        addMissingColumns(stmt, sql);
+                    }
+                    if (newIndex) {
+                        stmt.executeUpdate("ANALYZE " + index);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Attach the archive database (created empty if missing). Unqualified table names still
+     * mean the main database, which is searched first.
+     */
+    private static void attachArchive(Connection conn) throws SQLException {
+        attachArchive(conn, ARCHIVE_PATH);
+    }
+
+    private static void attachArchive(Connection conn, String archivePath) throws SQLException {
+        attach(conn, archivePath, ARCHIVE);
+    }
+
+    private static void attach(Connection conn, String path, String schema) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("ATTACH DATABASE '" + path.replace("'", "''") + "' AS " + schema);
         }
     }
 
     /**
-     * Create database schema from resource file
+     * Attach the category partitions: the first time those found next to the database file,
+     * after a reconnect the ones attached before
      */
-    private void createSchemaFromResource() {
-        try (InputStream is = getClass().getResourceAsStream("/database/schema.sql")) {
+    private void attachPartitions(Connection conn) throws SQLException {
+        ((SQLiteConnection) conn).setLimit(SQLiteLimits.SQLITE_LIMIT_ATTACHED, MAX_PARTITIONS + 1);
+        if (partitionFiles.isEmpty()) {
+            try {
+                partitionFiles.putAll(findPartitionFiles(Paths.get(DB_PATH)));
+            } catch (IOException e) {
+                throw new SQLException("Failed to list the partitions of " + DB_PATH, e);
+            }
+        }
+        for (Map.Entry<String, Path> partition : partitionFiles.entrySet()) {
+            attach(conn, partition.getValue().toString(), partition.getKey());
+        }
+        partitions = List.copyOf(partitionFiles.keySet());
+    }
+
+    /**
+     * Schema names of the attached category partitions, e.g. part_cse
+     */
+    public List<String> getPartitions() {
+        return partitions;
+    }
+
+    /**
+     * The partition new questions of a category go to, attached first (its file and tables are
+     * created on first use); null when the category stays in main: partitioning is off and the
+     * category has no partition yet, its name is unusable, MAX_PARTITIONS are attached, or the
+     * calling thread is in a transaction, which would roll the new tables back with it.
+     */
+    public String attachPartition(String category) {
+        String partition = partitionFor(category);
+        if (partition == null || partitionFiles.containsKey(partition)) {
+            return partition;
+        }
+        lock.lock();
+        try {
+            if (partitionFiles.containsKey(partition)) {
+                return partition;
+            }
+            if (!PARTITION_BY_CATEGORY || transactionOwner != null || partitionFiles.size() >= MAX_PARTITIONS) {
+                return null;
+            }
+            addPartition(partition);
+            return partition;
+        } catch (SQLException | IOException e) {
+            System.err.println("Failed to create the partition of category " + category + ": " + e.getMessage());
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Attach a new partition, creating its file and tables; under the lock, outside a transaction
+     */
+    private void addPartition(String partition) throws SQLException, IOException {
+        Path file = Paths.get(partitionPathFor(DB_PATH, partition));
+        attach(getConnection(), file.toString(), partition);
+        try {
+            createTableCopies(partition, loadSchemaStatements(), true);
+        } catch (SQLException | IOException e) {
+            try (Statement stmt = connection.createStatement()) {
+                stmt.execute("DETACH DATABASE " + partition);
+            }
+            throw e;
+        }
+        partitionFiles.put(partition, file);
+        partitions = List.copyOf(partitionFiles.keySet());
+        System.out.println("Attached partition " + partition + " (" + file + ")");
+    }
+
+    /**
+     * Delete the second copies of questions, with their images, answers, votes and rewards:
+     * from the partitions those main has, then from the archive those main or a partition has.
+     * A database restored or imported from a copy made before those questions were archived
+     * has them in both, and the merged listings would show them twice. Returns the number of
+     * questions removed.
+     */
+    private static int dropArchivedDuplicates(Connection conn, List<String> partitions) throws SQLException {
+        List<String> live = new ArrayList<>();
+        live.add("main");
+        int dropped = 0;
+        for (String partition : partitions) {
+            dropped += dropDuplicates(conn, partition, live);
+        }
+        live.addAll(partitions);
+        return dropped + dropDuplicates(conn, ARCHIVE, live);
+    }
+
+    /**
+     * Delete from one database the questions that one of the kept databases has, with their rows
+     */
+    private static int dropDuplicates(Connection conn, String schema, List<String> kept) throws SQLException {
+        List<String> keptIn = new ArrayList<>();
+        for (String keeper : kept) {
+            keptIn.add("EXISTS (SELECT 1 FROM " + keeper + ".questions k WHERE k.question_id = d.question_id)");
+        }
+        String restored = "SELECT question_id FROM temp.restored_questions";
+        String restoredAnswers = "SELECT answer_id FROM " + schema + ".answers WHERE question_id IN (" + restored + ")";
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("CREATE TEMP TABLE restored_questions AS SELECT question_id FROM " + schema + ".questions d " +
+                               "WHERE " + String.join(" OR ", keptIn));
+            int dropped = 0;
+            try (ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM temp.restored_questions")) {
+                dropped = rs.getInt(1);
+            }
+            if (dropped > 0) {
+                stmt.executeUpdate("DELETE FROM " + schema + ".answer_votes WHERE answer_id IN (" + restoredAnswers + ")");
+                stmt.executeUpdate("DELETE FROM " + schema + ".answer_rewards WHERE answer_id IN (" + restoredAnswers + ")");
+                stmt.executeUpdate("DELETE FROM " + schema + ".answers WHERE question_id IN (" + restored + ")");
+                stmt.executeUpdate("DELETE FROM " + schema + ".question_images WHERE question_id IN (" + restored + ")");
+                stmt.executeUpdate("DELETE FROM " + schema + ".questions WHERE question_id IN (" + restored + ")");
+            }
+            stmt.executeUpdate("DROP TABLE temp.restored_questions");
+            conn.commit();
+            return dropped;
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+
+    /**
+     * dropArchivedDuplicates for a database file that is not open, its archive file and the
+     * partition files next to it
+     */
+    public static int dropArchivedDuplicates(Path database, Path archive) throws SQLException {
+        try (Connection conn = DriverManager.getConnection("jdbc:sqlite:" + database)) {
+            List<String> partitions = attachPartitionFiles(conn, database);
+            attachArchive(conn, archive.toString());
+            return dropArchivedDuplicates(conn, partitions);
+        }
+    }
+
+    /**
+     * Attach the partition files next to a database file that is not open to a connection of
+     * its own (tools); returns their schema names
+     */
+    public static List<String> attachPartitionFiles(Connection conn, Path database) throws SQLException {
+        ((SQLiteConnection) conn).setLimit(SQLiteLimits.SQLITE_LIMIT_ATTACHED, MAX_PARTITIONS + 1);
+        Map<String, Path> files;
+        try {
+            files = findPartitionFiles(database);
+        } catch (IOException e) {
+            throw new SQLException("Failed to list the partitions of " + database, e);
+        }
+        for (Map.Entry<String, Path> partition : files.entrySet()) {
+            attach(conn, partition.getValue().toString(), partition.getKey());
+        }
+        return new ArrayList<>(files.keySet());
+    }
+
+    /**
+     * Create or upgrade the copies of the archived tables in the archive or a partition, with
+     * their indexes, from schema.sql. The archive's copies have no foreign keys and only
+     * ARCHIVED_INDEXES. A partition's copies are written to like main's tables, so they keep all
+     * their indexes and the foreign keys between them (a deleted question takes its answers
+     * along); only the keys to users, which is not in the file, are left out.
+     */
+    private void createTableCopies(String schema, List<String> sqlStatements, boolean partition) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            for (String sql : sqlStatements) {
+                String table = sql.replaceFirst("(?is)^CREATE TABLE IF NOT EXISTS\\s+(\\w+).*", "$1");
+                String index = sql.replaceFirst("(?is)^CREATE INDEX IF NOT EXISTS\\s+(\\w+).*", "$1");
+                String indexedTable = sql.replaceFirst("(?is)^CREATE INDEX IF NOT EXISTS\\s+\\w+\\s+ON\\s+(\\w+).*", "$1");
+                if (ARCHIVED_TABLES.contains(table)) {
+                    String body = sql.substring(sql.indexOf('(') + 1, sql.lastIndexOf(')'));
+                    List<String> definitions = splitTopLevel(body);
+                    definitions.removeIf(definition -> definition.toUpperCase().startsWith("FOREIGN")
+                        && !(partition && ARCHIVED_TABLES.contains(
+                            definition.replaceFirst("(?is).*REFERENCES\\s+(\\w+).*", "$1"))));
+                    String create = "CREATE TABLE IF NOT EXISTS " + schema + "." + table
+                        + " (" + String.join(", ", definitions) + ")";
+                    stmt.execute(create);
+                    addMissingColumns(stmt, create);
+                } else if (partition ? ARCHIVED_TABLES.contains(indexedTable) : ARCHIVED_INDEXES.contains(index)) {
+                    stmt.execute(sql.replaceFirst("(?i)IF NOT EXISTS\\s+", "IF NOT EXISTS " + schema + "."));
+                }
+            }
+        }
+    }
+
+    /**
+     * ALTER TABLE ... ADD COLUMN for each column of a CREATE TABLE statement the table lacks.
+     * New columns must therefore follow SQLite's rules for added columns (constant default, no
+     * PRIMARY KEY or UNIQUE).
+     */
+    private void addMissingColumns(Statement stmt, String createTable) throws SQLException {
+        String table = createTable.replaceFirst("(?is)^CREATE TABLE IF NOT EXISTS\\s+([\\w.]+).*", "$1");
+        // A schema-qualified name (archive.questions) puts the schema in front of the pragma
+        String pragma = table.contains(".")
+            ? "PRAGMA " + table.replaceFirst("\\.", ".table_info(") + ")"
+            : "PRAGMA table_info(" + table + ")";
+        List<String> existing = new ArrayList<>();
+        try (ResultSet rs = stmt.executeQuery(pragma)) {
+            while (rs.next()) {
+                existing.add(rs.getString("name").toLowerCase());
+            }
+        }
+        String body = createTable.substring(createTable.indexOf('(') + 1, createTable.lastIndexOf(')'));
+        for (String definition : splitTopLevel(body)) {
+            String column = definition.replaceFirst("(?s)^(\\w+).*", "$1");
+            if (column.matches("(?i)FOREIGN|PRIMARY|UNIQUE|CHECK|CONSTRAINT")
+                    || existing.contains(column.toLowerCase())) {
+                continue;
+            }
+            System.out.println("Adding column " + table + "." + column);
+            stmt.execute("ALTER TABLE " + table + " ADD COLUMN " + definition);
+            RowMapper.clearCaches();
+        }
+    }
+
+    /**
+     * Split a column list on the commas outside parentheses (e.g. not those in CHECK(... IN (a, b)))
+     */
+    private static List<String> splitTopLevel(String body) {
+        List<String> parts = new ArrayList<>();
+        int depth = 0;
+        int start = 0;
+        for (int i = 0; i < body.length(); i++) {
+            char c = body.charAt(i);
+            if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth--;
+            } else if (c == ',' && depth == 0) {
+                parts.add(body.substring(start, i).trim());
+                start = i + 1;
+            }
+        }
+        parts.add(body.substring(start).trim());
+        parts.removeIf(String::isEmpty);
+        return parts;
+    }
+
+    private int getSchemaVersion() throws SQLException {
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA user_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    private void setSchemaVersion(int version) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("PRAGMA user_version = " + version);
+        }
+    }
+
+    /**
+     * Checksum of the schema statements; never 0, which is SQLite's default user_version
+     */
+    private static int schemaChecksum(List<String> sqlStatements) {
+        CRC32 crc = new CRC32();
+        for (String sql : sqlStatements) {
+            crc.update(sql.getBytes(StandardCharsets.UTF_8));
+        }
+        int checksum = (int) crc.getValue() & Integer.MAX_VALUE;
+        return checksum != 0 ? checksum : 1;
+    }
+
+    /**
+     * Read schema.sql and split it into individual statements (comments and blank lines removed).
+     * Returns an empty list when the resource is missing.
+     */
+    public static List<String> loadSchemaStatements() throws IOException {
+        List<String> statements = new ArrayList<>();
+        
+        try (InputStream is = DatabaseManager.class.getResourceAsStream("/database/schema.sql")) {
             if (is == null) {
-                System.err.println("schema.sql file not found in resources/database/");
-                return;
+                return statements;
             }
             
             BufferedReader reader = new BufferedReader(new InputStreamReader(is));
@@ -113,24 +631,16 @@ public class DatabaseManager {
                 sqlBuilder.append(line).append(" ");
             }
             
-            // Split by semicolon and execute each statement
-            String[] sqlStatements = sqlBuilder.toString().split(";");
-            
-            try (Statement stmt = connection.createStatement()) {
-                for (String sql : sqlStatements) {
-                    sql = sql.trim();
-                    if (!sql.isEmpty()) {
-                        stmt.execute(sql);
-                    }
+            // Split by semicolon
+            for (String sql : sqlBuilder.toString().split(";")) {
+                sql = sql.trim();
+                if (!sql.isEmpty()) {
+                    statements.add(sql);
                 }
             }
-            
-            System.out.println("Database schema created and test data inserted successfully!");
-            
-        } catch (Exception e) {
-            System.err.println("Failed to execute schema script!");
-            e.printStackTrace();
         }
+        
+        return statements;
     }
 
     /**
@@ -147,6 +657,8 @@ public class DatabaseManager {
                 try (Statement stmt = connection.createStatement()) {
                     stmt.execute("PRAGMA foreign_keys = ON;");
                 }
+                attachArchive(connection);
+                attachPartitions(connection);
             }
         } catch (SQLException e) {
             System.err.println("Failed to get database connection!");
@@ -155,11 +667,227 @@ public class DatabaseManager {
         return connection;
     }
 
+    /**
+     * Get a prepared statement from the per-connection statement cache.
+     * The statement is owned by the cache: close only the ResultSet, never the statement.
+     */
+    public PreparedStatement prepareStatement(String sql) throws SQLException {
+        lock.lock();
+        try {
+            Connection conn = getConnection();
+            if (statementCache == null || !statementCache.isFor(conn)) {
+                if (statementCache != null) {
+                    statementCache.clear();
+                }
+                statementCache = new StatementCache(conn, STATEMENT_CACHE_SIZE);
+            }
+            return statementCache.prepare(sql);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Run a query and map every row
+     */
+    public <T> List<T> queryList(String sql, RowMapper<T> mapper, Object... params) throws SQLException {
+        lock.lock();
+        try {
+            long start = System.nanoTime();
+            PreparedStatement pstmt = prepareStatement(sql);
+            bindParameters(pstmt, params);
+
+            List<T> results = new ArrayList<>();
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    results.add(mapper.map(sql, rs));
+                }
+            }
+            recordMetrics(sql, start, results.size(), params);
+            return results;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Run a query and map the first row, or return null when there is none
+     */
+    public <T> T queryOne(String sql, RowMapper<T> mapper, Object... params) throws SQLException {
+        lock.lock();
+        try {
+            long start = System.nanoTime();
+            PreparedStatement pstmt = prepareStatement(sql);
+            bindParameters(pstmt, params);
+
+            T result;
+            try (ResultSet rs = pstmt.executeQuery()) {
+                result = rs.next() ? mapper.map(sql, rs) : null;
+            }
+            recordMetrics(sql, start, result != null ? 1 : 0, params);
+            return result;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Run a single-value query (COUNT, SUM...) and return the first column, or 0 when there is no row
+     */
+    public int queryInt(String sql, Object... params) throws SQLException {
+        lock.lock();
+        try {
+            long start = System.nanoTime();
+            PreparedStatement pstmt = prepareStatement(sql);
+            bindParameters(pstmt, params);
+
+            int result;
+            try (ResultSet rs = pstmt.executeQuery()) {
+                result = rs.next() ? rs.getInt(1) : 0;
+            }
+            recordMetrics(sql, start, 1, params);
+            return result;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Run a single-value query and return the first column as a string, or null when there is no row
+     */
+    public String queryString(String sql, Object... params) throws SQLException {
+        lock.lock();
+        try {
+            long start = System.nanoTime();
+            PreparedStatement pstmt = prepareStatement(sql);
+            bindParameters(pstmt, params);
+
+            String result;
+            try (ResultSet rs = pstmt.executeQuery()) {
+                result = rs.next() ? rs.getString(1) : null;
+            }
+            recordMetrics(sql, start, result != null ? 1 : 0, params);
+            return result;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Whether the calling thread holds the database lock (in a transaction, for one)
+     */
+    public boolean isLockedByCurrentThread() {
+        return lock.isHeldByCurrentThread();
+    }
+
+    /**
+     * Run a query on the read-only connection of one partition (main, the archive or a category
+     * partition) and map every row. It does not take the database lock, so queries on different
+     * partitions run at the same time, and it only sees committed data. The connection opens the
+     * main file with just that partition attached, so main.users joins as usual.
+     */
+    public <T> List<T> queryPartition(String partition, String sql, RowMapper<T> mapper, Object... params)
+            throws SQLException {
+        while (true) {
+            ReadConnection reader = readConnection(partition);
+            reader.lock.lock();
+            try {
+                if (reader.connection.isClosed()) {
+                    // Closed by a restore in the meantime; take the new one
+                    continue;
+                }
+                long start = System.nanoTime();
+                PreparedStatement pstmt = reader.statements.prepare(sql);
+                bindParameters(pstmt, params);
+
+                List<T> results = new ArrayList<>();
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        results.add(mapper.map(sql, rs));
+                    }
+                }
+                recordMetrics(reader.connection, sql, start, results.size(), params);
+                return results;
+            } finally {
+                reader.lock.unlock();
+            }
+        }
+    }
+
+    private ReadConnection readConnection(String partition) throws SQLException {
+        synchronized (readConnections) {
+            ReadConnection reader = readConnections.get(partition);
+            if (reader == null || reader.connection.isClosed()) {
+                reader = new ReadConnection(openReadConnection(partition));
+                readConnections.put(partition, reader);
+            }
+            return reader;
+        }
+    }
+
+    private Connection openReadConnection(String partition) throws SQLException {
+        Path file = partitionFiles.get(partition);
+        if (file == null && !partition.equals("main") && !partition.equals(ARCHIVE)) {
+            throw new SQLException("No partition " + partition + " is attached");
+        }
+        SQLiteConfig config = new SQLiteConfig();
+        config.setReadOnly(true);
+        Connection conn = config.createConnection("jdbc:sqlite:" + DB_PATH);
+        try {
+            if (partition.equals(ARCHIVE)) {
+                attachArchive(conn);
+            } else if (file != null) {
+                attach(conn, file.toString(), partition);
+            }
+        } catch (SQLException e) {
+            conn.close();
+            throw e;
+        }
+        return conn;
+    }
+
+    private void closeReadConnections() {
+        synchronized (readConnections) {
+            for (ReadConnection reader : readConnections.values()) {
+                reader.lock.lock();
+                try {
+                    reader.statements.clear();
+                    reader.connection.close();
+                } catch (SQLException e) {
+                    System.err.println("Failed to close a read connection: " + e.getMessage());
+                } finally {
+                    reader.lock.unlock();
+                }
+            }
+            readConnections.clear();
+        }
+    }
+
+    /**
+     * A read-only connection of queryPartition() and its statements; one query at a time
+     */
+    private static class ReadConnection {
+        final Connection connection;
+        final StatementCache statements;
+        final ReentrantLock lock = new ReentrantLock();
+
+        ReadConnection(Connection connection) {
+            this.connection = connection;
+            this.statements = new StatementCache(connection, READ_STATEMENT_CACHE_SIZE);
+        }
+    }
+
     /**
      * Close database connection
      */
     public void closeConnection() {
+        closeReadConnections();
+        lock.lock();
         try {
+            if (statementCache != null) {
+                statementCache.clear();
+                statementCache = null;
+            }
             if (connection != null && !connection.isClosed()) {
                 connection.close();
                 System.out.println("Database connection closed.");
@@ -167,34 +895,39 @@ public class DatabaseManager {
         } catch (SQLException e) {
             System.err.println("Failed to close database connection!");
             e.printStackTrace();
+        } finally {
+            lock.unlock();
         }
     }
 
     /**
-     * Execute a query and return ResultSet
+     * Execute an update (INSERT, UPDATE, DELETE)
      */
-    public ResultSet executeQuery(String sql, Object... params) throws SQLException {
-        PreparedStatement pstmt = connection.prepareStatement(sql);
-        
-        // Set parameters
-        for (int i = 0; i < params.length; i++) {
-            pstmt.setObject(i + 1, params[i]);
+    public int executeUpdate(String sql, Object... params) throws SQLException {
+        lock.lock();
+        try {
+            long start = System.nanoTime();
+            PreparedStatement pstmt = prepareStatement(sql);
+            bindParameters(pstmt, params);
+            int affectedRows = pstmt.executeUpdate();
+            recordMetrics(sql, start, affectedRows, params);
+            return affectedRows;
+        } finally {
+            lock.unlock();
         }
-        
-        return pstmt.executeQuery();
     }
 
     /**
-     * Execute an update (INSERT, UPDATE, DELETE)
+     * Run a statement without parameters to completion through sqlite3_exec, bypassing the
+     * statement cache and metrics. For maintenance statements such as ANALYZE, VACUUM and
+     * PRAGMA incremental_vacuum, which a prepared statement would only step once.
      */
-    public int executeUpdate(String sql, Object... params) throws SQLException {
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            // Set parameters
-            for (int i = 0; i < params.length; i++) {
-                pstmt.setObject(i + 1, params[i]);
-            }
-            
-            return pstmt.executeUpdate();
+    public void executeMaintenance(String sql) throws SQLException {
+        lock.lock();
+        try (Statement stmt = getConnection().createStatement()) {
+            stmt.executeUpdate(sql);
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -202,50 +935,299 @@ public class DatabaseManager {
      * Execute an update and return generated key (SQLite-compatible)
      */
     public int executeUpdateWithKey(String sql, Object... params) throws SQLException {
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            // Set parameters
-            for (int i = 0; i < params.length; i++) {
-                pstmt.setObject(i + 1, params[i]);
-            }
-            
+        lock.lock();
+        try {
+            long start = System.nanoTime();
+            PreparedStatement pstmt = prepareStatement(sql);
+            bindParameters(pstmt, params);
+
             int affectedRows = pstmt.executeUpdate();
-            
+            recordMetrics(sql, start, affectedRows, params);
+
             if (affectedRows == 0) {
                 throw new SQLException("Insert failed, no rows affected.");
             }
-            
-            // Use SQLite's last_insert_rowid() to get the generated key
-            try (Statement stmt = connection.createStatement();
-                 ResultSet rs = stmt.executeQuery("SELECT last_insert_rowid()")) {
+
+            // Use SQLite's last_insert_rowid() to get the generated key (same lock, so no other insert in between)
+            try (ResultSet rs = prepareStatement("SELECT last_insert_rowid()").executeQuery()) {
                 if (rs.next()) {
                     return rs.getInt(1);
                 } else {
                     throw new SQLException("Insert failed, no ID obtained.");
                 }
             }
+        } finally {
+            lock.unlock();
         }
     }
 
     /**
-     * Begin transaction
+     * Record an execution in QueryMetrics and capture the query plan the first time it is slow
+     */
+    private void recordMetrics(String sql, long startNanos, int rows, Object... params) {
+        recordMetrics(getConnection(), sql, startNanos, rows, params);
+    }
+
+    private void recordMetrics(Connection conn, String sql, long startNanos, int rows, Object... params) {
+        if (QueryMetrics.getInstance().record(sql, startNanos, rows)) {
+            String plan = explainQueryPlan(conn, sql, params);
+            if (plan != null) {
+                QueryMetrics.getInstance().recordPlan(sql, plan);
+            }
+        }
+    }
+
+    /**
+     * Run EXPLAIN QUERY PLAN for a statement, bypassing the statement cache and metrics
+     */
+    private String explainQueryPlan(Connection conn, String sql, Object... params) {
+        try (PreparedStatement pstmt = conn.prepareStatement("EXPLAIN QUERY PLAN " + sql)) {
+            bindParameters(pstmt, params);
+            StringBuilder plan = new StringBuilder();
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    // Columns: id, parent, notused, detail
+                    plan.append(rs.getInt(2) == 0 ? "  " : "    ").append(rs.getString(4)).append('\n');
+                }
+            }
+            return plan.toString().stripTrailing();
+        } catch (SQLException e) {
+            System.err.println("Failed to explain slow query: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Bind positional parameters to a statement
+     */
+    private void bindParameters(PreparedStatement pstmt, Object... params) throws SQLException {
+        for (int i = 0; i < params.length; i++) {
+            pstmt.setObject(i + 1, params[i]);
+        }
+    }
+
+    /**
+     * Copy the live database to target with SQLite's online backup API, a few megabytes per
+     * step through a separate connection. Each step holds the database lock, so app queries
+     * wait for one step at most, and the lock is released for a pause between steps.
+     * A write in a pause makes SQLite start the copy over; after BACKUP_MAX_RESTARTS restarts
+     * the lock is kept until the copy is done.
+     */
+    public void backupTo(Path target) throws SQLException {
+        backup("main", target);
+    }
+
+    /**
+     * Copy the archive database to target the same way. Copy main first: a question archived
+     * in between is then in both copies, which a restore sorts out, rather than in neither.
+     */
+    public void backupArchiveTo(Path target) throws SQLException {
+        backup(ARCHIVE, target);
+    }
+
+    /**
+     * Copy a category partition to target the same way. Copy the partitions before main: a
+     * question asked in between then only leaves a gap in main's id sequence, rather than
+     * having an id main's copy would hand out again.
+     */
+    public void backupPartitionTo(String partition, Path target) throws SQLException {
+        if (!partitionFiles.containsKey(partition)) {
+            throw new SQLException("No partition " + partition + " is attached");
+        }
+        backup(partition, target);
+    }
+
+    private void backup(String schema, Path target) throws SQLException {
+        try (Connection source = DriverManager.getConnection("jdbc:sqlite:" + DB_PATH)) {
+            attachArchive(source);
+            Path partitionFile = partitionFiles.get(schema);
+            if (partitionFile != null) {
+                attach(source, partitionFile.toString(), schema);
+            }
+            int pageSize;
+            try (Statement stmt = source.createStatement();
+                 ResultSet rs = stmt.executeQuery("PRAGMA " + schema + ".page_size")) {
+                pageSize = rs.getInt(1);
+            }
+            int[] restarts = {0};
+            int[] lastRemaining = {Integer.MAX_VALUE};
+            DB.ProgressObserver observer = (remaining, pageCount) -> {
+                if (remaining >= lastRemaining[0] && ++restarts[0] == BACKUP_MAX_RESTARTS) {
+                    System.out.println("Backup restarted " + restarts[0] + " times by writes; finishing it under the database lock");
+                }
+                lastRemaining[0] = remaining;
+                if (remaining == 0 || restarts[0] >= BACKUP_MAX_RESTARTS) {
+                    return;
+                }
+                lock.unlock();
+                try {
+                    Thread.sleep(BACKUP_STEP_PAUSE_MS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    lock.lock();
+                }
+            };
+
+            lock.lock();
+            try {
+                int rc = ((SQLiteConnection) source).getDatabase().backup(schema, target.toString(), observer,
+                    BACKUP_BUSY_SLEEP_MS, BACKUP_BUSY_RETRIES, Math.max(1, BACKUP_BYTES_PER_STEP / pageSize));
+                if (rc != 0) {
+                    throw new SQLException("Backup to " + target + " failed with SQLite error " + rc);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Replace the live database, and the archive when archiveSnapshot is not null, with the
+     * contents of a backup, holding the database lock for the copy. The category partitions are
+     * replaced by the snapshot's (schema name -> file); a partition the snapshot has no copy of
+     * is emptied, since all its questions were asked after the snapshot was taken. Then bring
+     * the schema up to date and drop the second copies of questions the restored main has again.
+     */
+    public void restoreFrom(Path snapshot, Path archiveSnapshot, Map<String, Path> partitionSnapshots) throws SQLException {
+        closeReadConnections();
+        lock.lock();
+        try {
+            if (statementCache != null) {
+                statementCache.clear();
+                statementCache = null;
+            }
+            restore("main", snapshot);
+            if (archiveSnapshot != null) {
+                restore(ARCHIVE, archiveSnapshot);
+            }
+            for (String partition : partitions) {
+                if (!partitionSnapshots.containsKey(partition)) {
+                    emptyPartition(partition);
+                }
+            }
+            for (Map.Entry<String, Path> partition : partitionSnapshots.entrySet()) {
+                if (!partitionFiles.containsKey(partition.getKey())) {
+                    try {
+                        addPartition(partition.getKey());
+                    } catch (IOException e) {
+                        throw new SQLException("Failed to create partition " + partition.getKey(), e);
+                    }
+                }
+                restore(partition.getKey(), partition.getValue());
+            }
+            restoreGeneration++;
+            // The snapshot's tables may have their columns in another order
+            RowMapper.clearCaches();
+            initializeDatabase();
+            int dropped = dropArchivedDuplicates(getConnection(), partitions);
+            if (dropped > 0) {
+                System.out.println("Dropped the second copies of " + dropped + " restored questions");
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Number of restores so far. A restore rolls the id sequences back, so ids are handed out
+     * again and whatever was cached by id must be dropped.
+     */
+    public int getRestoreGeneration() {
+        return restoreGeneration;
+    }
+
+    private void emptyPartition(String partition) throws SQLException {
+        try (Statement stmt = getConnection().createStatement()) {
+            for (String table : List.of("answer_votes", "answer_rewards", "answers", "question_images", "questions")) {
+                stmt.executeUpdate("DELETE FROM " + partition + "." + table);
+            }
+        }
+    }
+
+    private void restore(String schema, Path snapshot) throws SQLException {
+        int rc = ((SQLiteConnection) getConnection()).getDatabase().restore(schema, snapshot.toString(), null);
+        if (rc != 0) {
+            throw new SQLException("Restore from " + snapshot + " failed with SQLite error " + rc);
+        }
+    }
+
+    /**
+     * Run PRAGMA integrity_check on a database file; returns the problems found, empty when it is sound
+     */
+    public static List<String> checkIntegrity(Path file) throws SQLException {
+        List<String> problems = new ArrayList<>();
+        try (Connection conn = DriverManager.getConnection("jdbc:sqlite:" + file);
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA integrity_check(" + INTEGRITY_MAX_ERRORS + ")")) {
+            while (rs.next()) {
+                if (!"ok".equals(rs.getString(1))) {
+                    problems.add(rs.getString(1));
+                }
+            }
+        }
+        return problems;
+    }
+
+    /**
+     * Begin transaction. The calling thread keeps the database lock until commit() or rollback().
      */
     public void beginTransaction() throws SQLException {
-        connection.setAutoCommit(false);
+        lock.lock();
+        try {
+            getConnection().setAutoCommit(false);
+            transactionOwner = Thread.currentThread();
+        } catch (SQLException e) {
+            lock.unlock();
+            throw e;
+        }
     }
 
     /**
-     * Commit transaction
+     * Commit transaction. If the commit fails the transaction is rolled back before the lock is
+     * released, so the caller's own rollback() finds nothing left to undo.
      */
     public void commit() throws SQLException {
-        connection.commit();
-        connection.setAutoCommit(true);
+        try {
+            connection.commit();
+        } catch (SQLException e) {
+            try {
+                rollback();
+            } catch (SQLException rollbackError) {
+                e.addSuppressed(rollbackError);
+            }
+            throw e;
+        }
+        try {
+            connection.setAutoCommit(true);
+        } finally {
+            releaseTransactionLock();
+        }
     }
 
     /**
-     * Rollback transaction
+     * Rollback transaction; does nothing unless the calling thread has a transaction open,
+     * so it can never undo a transaction another thread started
      */
     public void rollback() throws SQLException {
-        connection.rollback();
-        connection.setAutoCommit(true);
+        if (!lock.isHeldByCurrentThread() || transactionOwner != Thread.currentThread()) {
+            return;
+        }
+        try {
+            connection.rollback();
+        } finally {
+            try {
+                connection.setAutoCommit(true);
+            } finally {
+                releaseTransactionLock();
+            }
+        }
+    }
+
+    private void releaseTransactionLock() {
+        if (lock.isHeldByCurrentThread()) {
+            transactionOwner = null;
+            lock.unlock();
+        }
     }
 }
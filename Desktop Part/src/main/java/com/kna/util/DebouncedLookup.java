@@ -0,0 +1,96 @@
+package com.kna.util;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
+import javafx.util.Duration;
+
+/**
+ * DebouncedLookup - Runs a lookup for user input once the input stops changing for a moment.
+ * Lookups run on a background thread and their results are delivered on the FX thread. A newer
+ * request cancels a lookup that has not started yet and discards the result of one that is
+ * already running, so only the result for the latest input is ever delivered.
+ * request() and cancel() must be called on the FX thread.
+ */
+public class DebouncedLookup<Q, R> {
+
+    /**
+     * Computes the result for one input (runs on the lookup thread)
+     */
+    @FunctionalInterface
+    public interface Source<Q, R> {
+        R lookup(Q query) throws Exception;
+    }
+
+    private static final ExecutorService lookups = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "kna-lookup");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Source<Q, R> source;
+    private final Consumer<R> onResult;
+    private final PauseTransition debounce;
+
+    // FX thread only
+    private Q query;
+    private int generation;
+    private Future<?> pending;
+
+    public DebouncedLookup(Duration delay, Source<Q, R> source, Consumer<R> onResult) {
+        this.source = source;
+        this.onResult = onResult;
+        this.debounce = new PauseTransition(delay);
+        this.debounce.setOnFinished(e -> run(query));
+    }
+
+    /**
+     * Look up query after the delay, unless another request comes first
+     */
+    public void request(Q query) {
+        this.query = query;
+        supersede();
+        debounce.playFromStart();
+    }
+
+    /**
+     * Drop the waiting or running lookup
+     */
+    public void cancel() {
+        debounce.stop();
+        supersede();
+    }
+
+    private void run(Q query) {
+        supersede();
+        int requestGeneration = generation;
+        pending = lookups.submit(() -> {
+            try {
+                R result = source.lookup(query);
+                Platform.runLater(() -> {
+                    if (requestGeneration == generation) {
+                        pending = null;
+                        onResult.accept(result);
+                    }
+                });
+            } catch (Exception e) {
+                System.err.println("Lookup for '" + query + "' failed: " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Cancel the current lookup if it has not started, ignore its result otherwise
+     */
+    private void supersede() {
+        generation++;
+        if (pending != null) {
+            pending.cancel(false);
+            pending = null;
+        }
+    }
+}
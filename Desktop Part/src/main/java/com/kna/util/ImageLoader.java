@@ -146,13 +146,12 @@ public class ImageLoader {
     }
 
     /**
-     * Save image to upload directory
+     * Save image to upload directory, before its question exists
      * @param sourceFile Source file
      * @param userId User ID
-     * @param questionId Question ID
      * @return Path to saved image
      */
-    public static String saveQuestionImage(File sourceFile, int userId, int questionId) {
+    public static String saveQuestionImage(File sourceFile, int userId) {
         try {
             // Create uploads directory if not exists
             File uploadsDir = new File("uploads/questions");
@@ -160,15 +159,15 @@ public class ImageLoader {
                 uploadsDir.mkdirs();
             }
             
-            // Generate filename
+            // Unique filename (several uploads of a user may land in the same millisecond)
             String extension = getFileExtension(sourceFile.getName());
-            String filename = "q" + questionId + "_u" + userId + "_" + System.currentTimeMillis() + extension;
-            File destFile = new File(uploadsDir, filename);
+            java.nio.file.Path destFile = java.nio.file.Files.createTempFile(uploadsDir.toPath(),
+                "u" + userId + "_" + System.currentTimeMillis() + "_", extension);
             
             // Copy file
-            java.nio.file.Files.copy(sourceFile.toPath(), destFile.toPath());
+            java.nio.file.Files.copy(sourceFile.toPath(), destFile, java.nio.file.StandardCopyOption.REPLACE_EXISTING);
             
-            return destFile.getAbsolutePath();
+            return destFile.toAbsolutePath().toString();
             
         } catch (Exception e) {
             System.err.println("Failed to save image: " + e.getMessage());
@@ -176,6 +175,20 @@ public class ImageLoader {
         }
     }
 
+    /**
+     * Delete a saved image whose question was not created
+     */
+    public static void deleteQuestionImage(String imagePath) {
+        if (imagePath == null) {
+            return;
+        }
+        try {
+            java.nio.file.Files.deleteIfExists(java.nio.file.Path.of(imagePath));
+        } catch (Exception e) {
+            System.err.println("Failed to delete image: " + e.getMessage());
+        }
+    }
+
     /**
      * Get file extension
      */
@@ -0,0 +1,80 @@
+package com.kna.util;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.sql.Timestamp;
+
+import com.google.gson.ExclusionStrategy;
+import com.google.gson.FieldAttributes;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * JsonUtil - Shared JSON configuration for the HTTP server and the remote-backend client.
+ * Timestamps are written as "yyyy-MM-dd HH:mm:ss[.f]" and password hashes are never serialized.
+ */
+public final class JsonUtil {
+
+    private static final Gson GSON = new GsonBuilder()
+        .registerTypeAdapter(Timestamp.class, new TimestampAdapter())
+        .setExclusionStrategies(new ExclusionStrategy() {
+            @Override
+            public boolean shouldSkipField(FieldAttributes field) {
+                return field.getName().equals("passwordHash");
+            }
+
+            @Override
+            public boolean shouldSkipClass(Class<?> clazz) {
+                return false;
+            }
+        })
+        .serializeNulls()
+        .create();
+
+    private JsonUtil() {}
+
+    /**
+     * Get the shared Gson instance
+     */
+    public static Gson gson() {
+        return GSON;
+    }
+
+    /**
+     * Serialize an object to JSON
+     */
+    public static String toJson(Object value) {
+        return GSON.toJson(value);
+    }
+
+    /**
+     * Parse JSON into the given type (use TypeToken for generic lists)
+     */
+    public static <T> T fromJson(String json, Type type) {
+        return GSON.fromJson(json, type);
+    }
+
+    private static class TimestampAdapter extends TypeAdapter<Timestamp> {
+        @Override
+        public void write(JsonWriter out, Timestamp value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+            } else {
+                out.value(value.toString());
+            }
+        }
+
+        @Override
+        public Timestamp read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            return Timestamp.valueOf(in.nextString());
+        }
+    }
+}
@@ -0,0 +1,462 @@
+package com.kna.util;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * MinHashIndex - Finds near-duplicate texts with MinHash signatures and locality-sensitive hashing.
+ * A text is reduced to its 5-character shingles; a MinHash signature estimates the Jaccard
+ * similarity of two shingle sets, and hashing bands of the signature puts similar texts in the
+ * same bucket with high probability. Each question has two parts of bands, one over the title
+ * and one over title and description, so a title alone can already be matched.
+ *
+ * The bulk of the entries lives in a file of (band key, id) pairs sorted per band, which is
+ * memory-mapped rather than read into the heap; entries added since it was written are kept in
+ * memory. Lookups only produce candidates: callers should verify them with jaccard().
+ */
+public class MinHashIndex {
+
+    public static final int BANDS_PER_PART = 6;
+    public static final int BANDS = 2 * BANDS_PER_PART;
+    private static final int ROWS_PER_BAND = 2;
+    private static final int SHINGLE_LENGTH = 5;
+    private static final int[] HASH_SEEDS = seeds(BANDS_PER_PART * ROWS_PER_BAND);
+
+    // Candidates taken from one bucket; the newest ones are kept
+    private static final int MAX_BUCKET_SCAN = 256;
+
+    // File layout: header, then BANDS regions of count big-endian longs (key << 32 | id), each sorted
+    private static final int MAGIC = 0x4B4E4148;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 32;
+
+    private final LongBuffer base;
+    private final int baseCount;
+    private final int baseMaxId;
+    // (band << 32 | key) -> ids added since the file was written
+    private final Map<Long, List<Integer>> added = new HashMap<>();
+    private final Set<Integer> addedIds = new HashSet<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private MinHashIndex(LongBuffer base, int baseCount, int baseMaxId) {
+        this.base = base;
+        this.baseCount = baseCount;
+        this.baseMaxId = baseMaxId;
+    }
+
+    /**
+     * An index with nothing persisted
+     */
+    public static MinHashIndex empty() {
+        return new MinHashIndex(null, 0, 0);
+    }
+
+    /**
+     * Map the index file; an empty index when it is missing or was written with other parameters
+     */
+    public static MinHashIndex open(Path file) throws IOException {
+        Header header = readHeader(file);
+        if (header == null) {
+            return empty();
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            LongBuffer entries = mapped.position(HEADER_BYTES).slice().asLongBuffer();
+            return new MinHashIndex(entries, header.count, header.maxId);
+        }
+    }
+
+    /**
+     * Highest id in the index file, or -1 when there is no usable file
+     */
+    public static int persistedMaxId(Path file) {
+        Header header = readHeader(file);
+        return header != null ? header.maxId : -1;
+    }
+
+    /**
+     * Write the index file: the entries already in it merged with count new rows (keys holds
+     * BANDS keys per row). Written next to it and then moved over it, so a failed write never
+     * leaves a broken file. Must not be called while this process has the file mapped.
+     */
+    public static void write(Path file, int[] ids, int[] keys, int count) throws IOException {
+        Header old = readHeader(file);
+        int oldCount = old != null ? old.count : 0;
+        int maxId = old != null ? old.maxId : 0;
+        for (int i = 0; i < count; i++) {
+            maxId = Math.max(maxId, ids[i]);
+        }
+        long total = (long) oldCount + count;
+        if (HEADER_BYTES + total * BANDS * Long.BYTES > Integer.MAX_VALUE) {
+            throw new IOException("Similarity index too large to map: " + total + " entries");
+        }
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel in = old != null ? FileChannel.open(file, StandardOpenOption.READ) : null;
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(BANDS);
+            out.writeInt(ROWS_PER_BAND);
+            out.writeInt(SHINGLE_LENGTH);
+            out.writeInt(maxId);
+            out.writeInt((int) total);
+            out.writeInt(0);
+
+            long[] fresh = new long[count];
+            for (int band = 0; band < BANDS; band++) {
+                for (int i = 0; i < count; i++) {
+                    fresh[i] = entry(keys[i * BANDS + band], ids[i]);
+                }
+                Arrays.sort(fresh);
+                LongReader existing = new LongReader(in, HEADER_BYTES + (long) band * oldCount * Long.BYTES, oldCount);
+                int next = 0;
+                while (existing.hasNext() || next < count) {
+                    if (next == count || existing.hasNext() && existing.peek() <= fresh[next]) {
+                        out.writeLong(existing.next());
+                    } else {
+                        out.writeLong(fresh[next++]);
+                    }
+                }
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Add a row written after the index file
+     */
+    public void add(int id, int[] keys) {
+        lock.writeLock().lock();
+        try {
+            if (id <= baseMaxId || !addedIds.add(id)) {
+                return;
+            }
+            for (int band = 0; band < BANDS; band++) {
+                added.computeIfAbsent(bucket(band, keys[band]), b -> new ArrayList<>(2)).add(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove a row added since the index file was written (rows in the file stay until it is rebuilt)
+     */
+    public void remove(int id, int[] keys) {
+        lock.writeLock().lock();
+        try {
+            if (!addedIds.remove(id)) {
+                return;
+            }
+            for (int band = 0; band < BANDS; band++) {
+                List<Integer> ids = added.get(bucket(band, keys[band]));
+                if (ids != null) {
+                    ids.remove(Integer.valueOf(id));
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ids sharing at least one band with keys, most shared bands (then newest) first.
+     * withBody false only looks at the title bands.
+     */
+    public int[] candidates(int[] keys, boolean withBody, int limit) {
+        int bands = withBody ? BANDS : BANDS_PER_PART;
+        Map<Integer, Integer> hits = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            for (int band = 0; band < bands; band++) {
+                int key = keys[band];
+                if (base != null) {
+                    int start = band * baseCount;
+                    int end = start + baseCount;
+                    int from = lowerBound(start, end, entry(key, 0));
+                    int to = key == Integer.MAX_VALUE ? end : lowerBound(from, end, entry(key + 1, 0));
+                    for (int i = to - 1; i >= from && i >= to - MAX_BUCKET_SCAN; i--) {
+                        hits.merge((int) base.get(i), 1, Integer::sum);
+                    }
+                }
+                List<Integer> recent = added.get(bucket(band, key));
+                if (recent != null) {
+                    for (int id : recent) {
+                        hits.merge(id, 1, Integer::sum);
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        return hits.entrySet().stream()
+            .sorted((a, b) -> a.getValue().equals(b.getValue())
+                ? Integer.compare(b.getKey(), a.getKey())
+                : Integer.compare(b.getValue(), a.getValue()))
+            .limit(limit)
+            .mapToInt(Map.Entry::getKey)
+            .toArray();
+    }
+
+    /**
+     * Number of indexed rows
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return baseCount + addedIds.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Band keys of a question: BANDS_PER_PART over the title, then BANDS_PER_PART over title and
+     * body (left 0 when body is null, for lookups by title only)
+     */
+    public static int[] bandKeys(String title, String body) {
+        int[] keys = new int[BANDS];
+        fillBands(shingles(title), keys, 0);
+        if (body != null) {
+            fillBands(shingles(title + "\n" + body), keys, BANDS_PER_PART);
+        }
+        return keys;
+    }
+
+    /**
+     * Sorted, distinct hashes of the text's 5-character shingles (case and punctuation ignored)
+     */
+    public static int[] shingles(String text) {
+        String normalized = normalize(text);
+        if (normalized.isEmpty()) {
+            return new int[0];
+        }
+        int count = Math.max(1, normalized.length() - SHINGLE_LENGTH + 1);
+        int[] hashes = new int[count];
+        for (int i = 0; i < count; i++) {
+            int h = 0;
+            for (int j = i; j < Math.min(i + SHINGLE_LENGTH, normalized.length()); j++) {
+                h = 31 * h + normalized.charAt(j);
+            }
+            hashes[i] = mix(h);
+        }
+        Arrays.sort(hashes);
+        int distinct = 0;
+        for (int i = 0; i < hashes.length; i++) {
+            if (i == 0 || hashes[i] != hashes[i - 1]) {
+                hashes[distinct++] = hashes[i];
+            }
+        }
+        return Arrays.copyOf(hashes, distinct);
+    }
+
+    /**
+     * Jaccard similarity of two shingle sets from shingles()
+     */
+    public static double jaccard(int[] a, int[] b) {
+        if (a.length == 0 && b.length == 0) {
+            return 0;
+        }
+        int shared = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] == b[j]) {
+                shared++;
+                i++;
+                j++;
+            } else if (a[i] < b[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return (double) shared / (a.length + b.length - shared);
+    }
+
+    private static void fillBands(int[] shingles, int[] keys, int offset) {
+        int[] signature = new int[HASH_SEEDS.length];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+        for (int shingle : shingles) {
+            for (int k = 0; k < HASH_SEEDS.length; k++) {
+                int h = mix(shingle ^ HASH_SEEDS[k]);
+                if (h < signature[k]) {
+                    signature[k] = h;
+                }
+            }
+        }
+        for (int band = 0; band < BANDS_PER_PART; band++) {
+            int key = band;
+            for (int row = 0; row < ROWS_PER_BAND; row++) {
+                key = key * 0x9E3779B1 + signature[band * ROWS_PER_BAND + row];
+            }
+            keys[offset + band] = mix(key);
+        }
+    }
+
+    private static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder(text.length());
+        boolean space = false;
+        for (char c : text.toLowerCase(Locale.ROOT).toCharArray()) {
+            if (Character.isLetterOrDigit(c)) {
+                if (space && sb.length() > 0) {
+                    sb.append(' ');
+                }
+                sb.append(c);
+                space = false;
+            } else {
+                space = true;
+            }
+        }
+        return sb.toString();
+    }
+
+    // MurmurHash3 finalizer
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    private static int[] seeds(int count) {
+        // Fixed, so signatures stay comparable with the ones in the index file
+        int[] seeds = new int[count];
+        int state = 0x2545F491;
+        for (int i = 0; i < count; i++) {
+            state = mix(state + 0x9E3779B9);
+            seeds[i] = state;
+        }
+        return seeds;
+    }
+
+    private static long entry(int key, int id) {
+        return ((long) key << 32) | (id & 0xFFFFFFFFL);
+    }
+
+    private static long bucket(int band, int key) {
+        return ((long) band << 32) | (key & 0xFFFFFFFFL);
+    }
+
+    private int lowerBound(int from, int to, long value) {
+        while (from < to) {
+            int mid = (from + to) >>> 1;
+            if (base.get(mid) < value) {
+                from = mid + 1;
+            } else {
+                to = mid;
+            }
+        }
+        return from;
+    }
+
+    private static Header readHeader(Path file) {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // keep reading
+            }
+            header.flip();
+            if (header.remaining() < HEADER_BYTES || header.getInt() != MAGIC || header.getInt() != VERSION
+                    || header.getInt() != BANDS || header.getInt() != ROWS_PER_BAND || header.getInt() != SHINGLE_LENGTH) {
+                return null;
+            }
+            int maxId = header.getInt();
+            int count = header.getInt();
+            if (channel.size() != HEADER_BYTES + (long) count * BANDS * Long.BYTES) {
+                return null;
+            }
+            return new Header(maxId, count);
+        } catch (IOException e) {
+            System.err.println("Cannot read similarity index " + file + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static class Header {
+        final int maxId;
+        final int count;
+
+        Header(int maxId, int count) {
+            this.maxId = maxId;
+            this.count = count;
+        }
+    }
+
+    /**
+     * Sequential reader of count longs starting at offset of a file (nothing when channel is null)
+     */
+    private static class LongReader {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+        private long position;
+        private long remaining;
+
+        LongReader(FileChannel channel, long offset, long count) {
+            this.channel = channel;
+            this.position = offset;
+            this.remaining = channel != null ? count : 0;
+            buffer.limit(0);
+        }
+
+        boolean hasNext() {
+            return remaining > 0;
+        }
+
+        long peek() throws IOException {
+            fill();
+            return buffer.getLong(buffer.position());
+        }
+
+        long next() throws IOException {
+            fill();
+            remaining--;
+            return buffer.getLong();
+        }
+
+        private void fill() throws IOException {
+            if (buffer.remaining() >= Long.BYTES) {
+                return;
+            }
+            buffer.compact();
+            long wanted = Math.min(buffer.remaining(), remaining * Long.BYTES - buffer.position());
+            buffer.limit(buffer.position() + (int) wanted);
+            while (buffer.hasRemaining()) {
+                int read = channel.read(buffer, position);
+                if (read < 0) {
+                    throw new IOException("Similarity index ended early");
+                }
+                position += read;
+            }
+            buffer.flip();
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.kna.util;
+
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+import com.kna.dao.Page;
+import com.kna.dao.PageRequest;
+
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableRow;
+import javafx.scene.control.TableView;
+import javafx.scene.control.TextField;
+import javafx.util.Duration;
+
+/**
+ * PagedTableLoader - Fills a TableView page by page from a keyset-paginated query.
+ * The next page is fetched on a background thread when a row near the end becomes visible;
+ * sorting and filtering are done by the query, so changing them reloads from the first page.
+ */
+public class PagedTableLoader<T> {
+
+    /**
+     * Fetches one page (runs on the loader thread)
+     */
+    @FunctionalInterface
+    public interface PageSource<T> {
+        Page<T> fetch(PageRequest request) throws SQLException;
+    }
+
+    private static final int PAGE_SIZE = 100;
+    // Start loading the next page when a row this close to the end is shown
+    private static final int PREFETCH_ROWS = 30;
+
+    private static final ExecutorService loader = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "kna-table-pages");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final TableView<T> table;
+    private final PageSource<T> source;
+    private final String defaultSortKey;
+    private final boolean defaultAscending;
+    private final Map<TableColumn<T, ?>, String> sortKeys = new HashMap<>();
+    private Consumer<String> errorHandler = System.err::println;
+
+    // FX thread only
+    private String sortKey;
+    private boolean ascending;
+    private String filter;
+    private PageRequest next;
+    private boolean loading;
+    private int generation;
+
+    public PagedTableLoader(TableView<T> table, PageSource<T> source, String defaultSortKey, boolean defaultAscending) {
+        this.table = table;
+        this.source = source;
+        this.defaultSortKey = defaultSortKey;
+        this.defaultAscending = defaultAscending;
+        this.sortKey = defaultSortKey;
+        this.ascending = defaultAscending;
+    }
+
+    /**
+     * Make a column sortable by the query's sort key
+     */
+    public PagedTableLoader<T> sortBy(TableColumn<T, ?> column, String key) {
+        if (column != null) {
+            sortKeys.put(column, key);
+        }
+        return this;
+    }
+
+    /**
+     * Called with a message when a page fails to load
+     */
+    public PagedTableLoader<T> onError(Consumer<String> errorHandler) {
+        this.errorHandler = errorHandler;
+        return this;
+    }
+
+    /**
+     * Reload as the user types in the field (after a short pause)
+     */
+    public PagedTableLoader<T> filterBy(TextField field) {
+        if (field != null) {
+            PauseTransition debounce = new PauseTransition(Duration.millis(250));
+            debounce.setOnFinished(e -> setFilter(field.getText()));
+            field.textProperty().addListener((obs, oldText, newText) -> debounce.playFromStart());
+            field.setOnAction(e -> {
+                debounce.stop();
+                setFilter(field.getText());
+            });
+        }
+        return this;
+    }
+
+    /**
+     * Take over the table's rows and sorting and load the first page
+     */
+    public void install() {
+        for (TableColumn<T, ?> column : table.getColumns()) {
+            column.setSortable(sortKeys.containsKey(column));
+        }
+        table.setRowFactory(tv -> new TableRow<>() {
+            @Override
+            public void updateIndex(int index) {
+                super.updateIndex(index);
+                if (index >= 0 && index >= table.getItems().size() - PREFETCH_ROWS) {
+                    loadMore();
+                }
+            }
+        });
+        table.setSortPolicy(tv -> {
+            applySortOrder();
+            return true;
+        });
+        reload();
+    }
+
+    /**
+     * Drop the loaded rows and start again from the first page
+     */
+    public void reload() {
+        generation++;
+        loading = false;
+        next = PageRequest.first(sortKey, ascending, filter, PAGE_SIZE);
+        table.getItems().clear();
+        loadMore();
+    }
+
+    /**
+     * Filter the rows (null or blank shows all)
+     */
+    public void setFilter(String filter) {
+        String normalized = filter != null && !filter.trim().isEmpty() ? filter.trim() : null;
+        if (!Objects.equals(normalized, this.filter)) {
+            this.filter = normalized;
+            reload();
+        }
+    }
+
+    /**
+     * The table asks to be sorted whenever its sort order or items change; only reload
+     * when the requested order actually differs
+     */
+    private void applySortOrder() {
+        String key = defaultSortKey;
+        boolean asc = defaultAscending;
+        if (!table.getSortOrder().isEmpty()) {
+            TableColumn<T, ?> column = table.getSortOrder().get(0);
+            if (sortKeys.containsKey(column)) {
+                key = sortKeys.get(column);
+                asc = column.getSortType() == TableColumn.SortType.ASCENDING;
+            }
+        }
+        if (!Objects.equals(key, sortKey) || asc != ascending) {
+            sortKey = key;
+            ascending = asc;
+            reload();
+        }
+    }
+
+    private void loadMore() {
+        if (loading || next == null) {
+            return;
+        }
+        loading = true;
+        int requestGeneration = generation;
+        PageRequest request = next;
+        loader.execute(() -> {
+            try {
+                Page<T> page = source.fetch(request);
+                Platform.runLater(() -> {
+                    if (requestGeneration != generation) {
+                        return;
+                    }
+                    next = page.nextRequest();
+                    loading = false;
+                    table.getItems().addAll(page.getItems());
+                });
+            } catch (SQLException e) {
+                e.printStackTrace();
+                Platform.runLater(() -> {
+                    if (requestGeneration != generation) {
+                        return;
+                    }
+                    next = null;
+                    loading = false;
+                    errorHandler.accept("Failed to load rows: " + e.getMessage());
+                });
+            }
+        });
+    }
+}
@@ -1,5 +1,8 @@
 package com.kna.util;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
 import org.mindrot.jbcrypt.BCrypt;
 
 /**
@@ -7,8 +10,8 @@ import org.mindrot.jbcrypt.BCrypt;
  */
 public class PasswordHasher {
     
-    // BCrypt work factor (number of rounds)
-    private static final int WORK_FACTOR = 10;
+    // BCrypt work factor (log2 of the number of rounds); stored hashes with another factor are rehashed on login
+    public static final int WORK_FACTOR = Integer.getInteger("kna.bcrypt.cost", 10);
 
     /**
      * Hash a plaintext password using BCrypt
@@ -33,6 +36,43 @@ public class PasswordHasher {
         }
     }
 
+    /**
+     * Check a password against a stored value that may still be a legacy plaintext password.
+     * Plaintext values are compared in constant time.
+     */
+    public static boolean matches(String plainPassword, String storedPassword) {
+        if (plainPassword == null || storedPassword == null) {
+            return false;
+        }
+        if (isHashed(storedPassword)) {
+            return verifyPassword(plainPassword, storedPassword);
+        }
+        return MessageDigest.isEqual(plainPassword.getBytes(StandardCharsets.UTF_8),
+                                     storedPassword.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Check whether a stored password is a BCrypt hash ($2a$, $2b$ or $2y$)
+     */
+    public static boolean isHashed(String storedPassword) {
+        return storedPassword != null && storedPassword.length() == 60
+            && storedPassword.startsWith("$2") && storedPassword.charAt(3) == '$';
+    }
+
+    /**
+     * Check whether a stored password should be replaced: plaintext, or hashed with another work factor
+     */
+    public static boolean needsRehash(String storedPassword) {
+        if (!isHashed(storedPassword)) {
+            return true;
+        }
+        try {
+            return Integer.parseInt(storedPassword.substring(4, 6)) != WORK_FACTOR;
+        } catch (NumberFormatException e) {
+            return true;
+        }
+    }
+
     /**
      * Validate password strength
      * @param password The password to validate
@@ -7,13 +7,13 @@ import com.kna.dao.UserDAO;
 import com.kna.model.User;
 
 /**
- * Utility to view all user passwords (PLAIN TEXT)
- * Run this as a standalone program to see all passwords
+ * Utility to view all stored passwords: BCrypt hashes, or plaintext for rows
+ * not migrated yet. Run this as a standalone program.
  */
 public class PasswordViewer {
     
     public static void main(String[] args) {
-        System.out.println("=== KnA User Passwords (Plain Text) ===\n");
+        System.out.println("=== KnA User Passwords ===\n");
         
         try {
             // Initialize database
@@ -27,7 +27,7 @@ public class PasswordViewer {
                 return;
             }
             
-            System.out.printf("%-5s %-30s %-25s %-15s%n", "ID", "Email", "Name", "Password");
+            System.out.printf("%-5s %-30s %-25s %-15s%n", "ID", "Email", "Name", "Password (hash)");
             System.out.println("-".repeat(80));
             
             for (User user : users) {
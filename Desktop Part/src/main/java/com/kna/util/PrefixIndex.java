@@ -0,0 +1,308 @@
+package com.kna.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * PrefixIndex - In-memory word index for search-as-you-type.
+ * Each word maps to the sorted ids of the rows containing it. The words are kept sorted, so
+ * all words starting with a prefix form one contiguous range, like a subtree of a trie.
+ * A query matches rows that contain every complete word and a word starting with the last
+ * (still being typed) one; the highest (newest) ids are returned first.
+ * Thread-safe: lookups share a read lock, updates take the write lock.
+ */
+public class PrefixIndex {
+
+    // Too common to narrow anything down; leaving them out keeps the postings small
+    private static final Set<String> STOP_WORDS = Set.of(
+        "a", "an", "and", "are", "as", "at", "be", "by", "can", "do", "does", "for", "from", "how",
+        "i", "in", "is", "it", "my", "of", "on", "or", "the", "this", "to", "what", "when", "why", "with");
+
+    // Upper bound on the candidates one lookup examines, so a query matching almost nothing stays fast
+    private static final int MAX_SCAN = 50_000;
+    // Checking a candidate against more prefix words than this costs more than merging them
+    private static final int MAX_PREFIX_PROBES = 64;
+
+    private final TreeMap<String, Postings> words = new TreeMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Index the words of text under id
+     */
+    public void add(int id, String text) {
+        List<String> tokens = indexWords(text);
+        lock.writeLock().lock();
+        try {
+            for (String word : tokens) {
+                words.computeIfAbsent(word, w -> new Postings()).add(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove id from the words of text (the text it was added with)
+     */
+    public void remove(int id, String text) {
+        List<String> tokens = indexWords(text);
+        lock.writeLock().lock();
+        try {
+            for (String word : tokens) {
+                Postings postings = words.get(word);
+                if (postings != null && postings.remove(id) && postings.size == 0) {
+                    words.remove(word);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ids matching the query, newest first, at most limit of them
+     */
+    public int[] search(String query, int limit) {
+        List<String> tokens = tokenize(query);
+        if (tokens.isEmpty() || limit <= 0) {
+            return new int[0];
+        }
+        // The last word is still being typed unless the query ends with a separator
+        boolean typing = !Character.isWhitespace(query.charAt(query.length() - 1));
+        String prefix = typing ? tokens.remove(tokens.size() - 1) : null;
+        if (prefix != null && STOP_WORDS.contains(prefix) && !tokens.isEmpty()) {
+            prefix = null;
+        }
+
+        lock.readLock().lock();
+        try {
+            List<Postings> exact = new ArrayList<>();
+            for (String word : tokens) {
+                if (STOP_WORDS.contains(word)) {
+                    continue;
+                }
+                Postings postings = words.get(word);
+                if (postings == null) {
+                    return new int[0];
+                }
+                exact.add(postings);
+            }
+            Collection<Postings> prefixed = prefix != null
+                ? words.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()
+                : List.of();
+            if (prefix != null && prefixed.isEmpty() || exact.isEmpty() && prefixed.isEmpty()) {
+                return new int[0];
+            }
+            exact.sort((a, b) -> Integer.compare(a.size, b.size));
+
+            // Walk the smallest source newest-first and probe the others
+            long prefixedTotal = 0;
+            for (Postings postings : prefixed) {
+                prefixedTotal += postings.size;
+            }
+            boolean driveByPrefix = exact.isEmpty() || !prefixed.isEmpty()
+                && (prefixedTotal <= exact.get(0).size || prefixed.size() > MAX_PREFIX_PROBES);
+            IdCursor driver = driveByPrefix ? new UnionCursor(prefixed) : new PostingsCursor(exact.remove(0));
+            Collection<Postings> prefixProbes = driveByPrefix ? List.of() : prefixed;
+
+            int[] found = new int[limit];
+            int count = 0;
+            for (int scanned = 0; count < limit && scanned < MAX_SCAN; scanned++) {
+                int id = driver.next();
+                if (id < 0) {
+                    break;
+                }
+                if (containsAll(exact, id) && (prefixProbes.isEmpty() || containsAny(prefixProbes, id))) {
+                    found[count++] = id;
+                }
+            }
+            return Arrays.copyOf(found, count);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Number of distinct indexed words
+     */
+    public int wordCount() {
+        lock.readLock().lock();
+        try {
+            return words.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Number of (word, id) entries
+     */
+    public long entryCount() {
+        lock.readLock().lock();
+        try {
+            long total = 0;
+            for (Postings postings : words.values()) {
+                total += postings.size;
+            }
+            return total;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Lower-cased words of text, split on anything that is not a letter or digit
+     */
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean wordChar = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(lower.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    private static List<String> indexWords(String text) {
+        List<String> tokens = tokenize(text);
+        tokens.removeIf(STOP_WORDS::contains);
+        return tokens;
+    }
+
+    private static boolean containsAll(List<Postings> postingsList, int id) {
+        for (Postings postings : postingsList) {
+            if (!postings.contains(id)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean containsAny(Collection<Postings> postingsList, int id) {
+        for (Postings postings : postingsList) {
+            if (postings.contains(id)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Sorted, growable id list of one word. Ids normally arrive in increasing order, so adding
+     * is an append; removal shifts the tail.
+     */
+    private static final class Postings {
+        int[] ids = new int[4];
+        int size;
+
+        void add(int id) {
+            if (size > 0 && ids[size - 1] >= id) {
+                int pos = Arrays.binarySearch(ids, 0, size, id);
+                if (pos >= 0) {
+                    return;
+                }
+                insertAt(-pos - 1, id);
+                return;
+            }
+            insertAt(size, id);
+        }
+
+        boolean remove(int id) {
+            int pos = Arrays.binarySearch(ids, 0, size, id);
+            if (pos < 0) {
+                return false;
+            }
+            System.arraycopy(ids, pos + 1, ids, pos, size - pos - 1);
+            size--;
+            return true;
+        }
+
+        boolean contains(int id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+
+        private void insertAt(int pos, int id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size + (size >> 1) + 1);
+            }
+            System.arraycopy(ids, pos, ids, pos + 1, size - pos);
+            ids[pos] = id;
+            size++;
+        }
+    }
+
+    /**
+     * Ids in descending order; -1 when exhausted
+     */
+    private interface IdCursor {
+        int next();
+    }
+
+    private static final class PostingsCursor implements IdCursor {
+        private final Postings postings;
+        private int pos;
+
+        PostingsCursor(Postings postings) {
+            this.postings = postings;
+            this.pos = postings.size - 1;
+        }
+
+        int peek() {
+            return postings.ids[pos];
+        }
+
+        @Override
+        public int next() {
+            return pos >= 0 ? postings.ids[pos--] : -1;
+        }
+    }
+
+    /**
+     * Descending merge of several postings, each id once
+     */
+    private static final class UnionCursor implements IdCursor {
+        private final PriorityQueue<PostingsCursor> heads = new PriorityQueue<>(
+            (a, b) -> Integer.compare(b.peek(), a.peek()));
+        private int last = -1;
+
+        UnionCursor(Collection<Postings> postingsList) {
+            for (Postings postings : postingsList) {
+                if (postings.size > 0) {
+                    heads.add(new PostingsCursor(postings));
+                }
+            }
+        }
+
+        @Override
+        public int next() {
+            while (!heads.isEmpty()) {
+                PostingsCursor head = heads.poll();
+                int id = head.next();
+                if (head.pos >= 0) {
+                    heads.add(head);
+                }
+                if (id != last) {
+                    last = id;
+                    return id;
+                }
+            }
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,297 @@
+package com.kna.util;
+
+import java.lang.management.ManagementFactory;
+import java.sql.Timestamp;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * QueryMetrics - Singleton collecting per-statement latency, row counts and call rates,
+ * plus a bounded log of slow queries with their query plans.
+ * Statements are keyed by their SQL text, which is constant per DAO method.
+ */
+public class QueryMetrics implements QueryMetricsMXBean {
+
+    private static QueryMetrics instance;
+
+    private static final int SLOW_LOG_SIZE = 50;
+    private static final long DEFAULT_SLOW_THRESHOLD_MILLIS = 100;
+
+    private final Map<String, StatementStats> statements = new ConcurrentHashMap<>();
+    private final Map<String, String> plans = new ConcurrentHashMap<>();
+    private final Deque<SlowQuery> slowQueries = new ArrayDeque<>();
+    private final AtomicLong slowQueryCount = new AtomicLong();
+    private final AtomicLong cacheHits = new AtomicLong();
+    private final AtomicLong cacheMisses = new AtomicLong();
+    private volatile long slowThresholdMicros = DEFAULT_SLOW_THRESHOLD_MILLIS * 1000;
+    private volatile long startedAt = System.nanoTime();
+
+    private QueryMetrics() {
+        registerMBean();
+    }
+
+    /**
+     * Get singleton instance
+     */
+    public static synchronized QueryMetrics getInstance() {
+        if (instance == null) {
+            instance = new QueryMetrics();
+        }
+        return instance;
+    }
+
+    /**
+     * Record one execution. Returns true when it exceeded the slow-query threshold
+     * and no plan has been captured for this statement yet.
+     */
+    public boolean record(String sql, long startNanos, int rows) {
+        long micros = (System.nanoTime() - startNanos) / 1000;
+        StatementStats stats = statements.computeIfAbsent(sql, StatementStats::new);
+        stats.histogram.record(micros);
+        if (rows > 0) {
+            stats.rows.addAndGet(rows);
+        }
+
+        if (micros < slowThresholdMicros) {
+            return false;
+        }
+
+        slowQueryCount.incrementAndGet();
+        String plan = plans.get(sql);
+        addSlowQuery(new SlowQuery(sql, micros, plan));
+        return plan == null;
+    }
+
+    /**
+     * Attach a captured EXPLAIN QUERY PLAN to a statement and to its latest slow-log entries
+     */
+    public void recordPlan(String sql, String plan) {
+        plans.put(sql, plan);
+        synchronized (slowQueries) {
+            for (SlowQuery slowQuery : slowQueries) {
+                if (slowQuery.sql.equals(sql) && slowQuery.plan == null) {
+                    slowQuery.plan = plan;
+                }
+            }
+        }
+    }
+
+    public void recordCacheHit() {
+        cacheHits.incrementAndGet();
+    }
+
+    public void recordCacheMiss() {
+        cacheMisses.incrementAndGet();
+    }
+
+    /**
+     * Snapshot of all statements, slowest total time first
+     */
+    public List<StatementStats> getStatements() {
+        List<StatementStats> list = new ArrayList<>(statements.values());
+        list.sort(Comparator.comparingLong((StatementStats s) -> s.histogram.getTotalMicros()).reversed());
+        return list;
+    }
+
+    /**
+     * Snapshot of the slow-query log, newest first
+     */
+    public List<SlowQuery> getSlowQueryLog() {
+        synchronized (slowQueries) {
+            return new ArrayList<>(slowQueries);
+        }
+    }
+
+    @Override
+    public long getTotalCalls() {
+        long total = 0;
+        for (StatementStats stats : statements.values()) {
+            total += stats.getCalls();
+        }
+        return total;
+    }
+
+    @Override
+    public long getSlowQueryCount() {
+        return slowQueryCount.get();
+    }
+
+    @Override
+    public long getSlowQueryThresholdMillis() {
+        return slowThresholdMicros / 1000;
+    }
+
+    @Override
+    public void setSlowQueryThresholdMillis(long thresholdMillis) {
+        this.slowThresholdMicros = Math.max(0, thresholdMillis) * 1000;
+    }
+
+    @Override
+    public long getStatementCacheHits() {
+        return cacheHits.get();
+    }
+
+    @Override
+    public long getStatementCacheMisses() {
+        return cacheMisses.get();
+    }
+
+    @Override
+    public List<String> getStatementSummaries() {
+        List<String> lines = new ArrayList<>();
+        for (StatementStats stats : getStatements()) {
+            lines.add(String.format("calls=%d rate=%.2f/s mean=%.2fms p50=%.2fms p95=%.2fms p99=%.2fms max=%.2fms rows=%d | %s",
+                stats.getCalls(), stats.getCallsPerSecond(), stats.getMeanMillis(), stats.getP50Millis(),
+                stats.getP95Millis(), stats.getP99Millis(), stats.getMaxMillis(), stats.getRows(), stats.getSql()));
+        }
+        return lines;
+    }
+
+    @Override
+    public List<String> getSlowQueries() {
+        List<String> lines = new ArrayList<>();
+        for (SlowQuery slowQuery : getSlowQueryLog()) {
+            lines.add(slowQuery.toString());
+        }
+        return lines;
+    }
+
+    @Override
+    public void reset() {
+        statements.clear();
+        plans.clear();
+        synchronized (slowQueries) {
+            slowQueries.clear();
+        }
+        slowQueryCount.set(0);
+        cacheHits.set(0);
+        cacheMisses.set(0);
+        startedAt = System.nanoTime();
+    }
+
+    private void addSlowQuery(SlowQuery slowQuery) {
+        synchronized (slowQueries) {
+            slowQueries.addFirst(slowQuery);
+            while (slowQueries.size() > SLOW_LOG_SIZE) {
+                slowQueries.removeLast();
+            }
+        }
+        System.err.println("Slow query (" + slowQuery.micros / 1000 + " ms): " + slowQuery.sql);
+    }
+
+    private void registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName("com.kna:type=QueryMetrics");
+            if (!server.isRegistered(name)) {
+                server.registerMBean(this, name);
+            }
+        } catch (Exception e) {
+            System.err.println("Failed to register query metrics MBean: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Per-statement statistics
+     */
+    public class StatementStats {
+        private final String sql;
+        private final String shape;
+        private final LatencyHistogram histogram = new LatencyHistogram();
+        private final AtomicLong rows = new AtomicLong();
+
+        StatementStats(String sql) {
+            this.sql = sql;
+            this.shape = sql.replaceAll("\\s+", " ").trim();
+        }
+
+        public String getSql() {
+            return shape;
+        }
+
+        public long getCalls() {
+            return histogram.getCount();
+        }
+
+        public double getCallsPerSecond() {
+            double seconds = (System.nanoTime() - startedAt) / 1e9;
+            return seconds <= 0 ? 0 : getCalls() / seconds;
+        }
+
+        public long getRows() {
+            return rows.get();
+        }
+
+        public double getMeanMillis() {
+            return histogram.getMeanMicros() / 1000.0;
+        }
+
+        public double getP50Millis() {
+            return histogram.getPercentile(50) / 1000.0;
+        }
+
+        public double getP95Millis() {
+            return histogram.getPercentile(95) / 1000.0;
+        }
+
+        public double getP99Millis() {
+            return histogram.getPercentile(99) / 1000.0;
+        }
+
+        public double getMaxMillis() {
+            return histogram.getMaxMicros() / 1000.0;
+        }
+
+        public double getTotalMillis() {
+            return histogram.getTotalMicros() / 1000.0;
+        }
+    }
+
+    /**
+     * Slow-query log entry
+     */
+    public static class SlowQuery {
+        private final String sql;
+        private final long micros;
+        private final Timestamp at;
+        private String plan;
+
+        SlowQuery(String sql, long micros, String plan) {
+            this.sql = sql.replaceAll("\\s+", " ").trim();
+            this.micros = micros;
+            this.at = new Timestamp(System.currentTimeMillis());
+            this.plan = plan;
+        }
+
+        public String getSql() {
+            return sql;
+        }
+
+        public double getMillis() {
+            return micros / 1000.0;
+        }
+
+        public Timestamp getAt() {
+            return at;
+        }
+
+        public String getPlan() {
+            return plan;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("[%s] %.2f ms | %s%s", at, getMillis(), sql,
+                plan != null ? "\n" + plan : "");
+        }
+    }
+}
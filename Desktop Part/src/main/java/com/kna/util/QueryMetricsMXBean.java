@@ -0,0 +1,33 @@
+package com.kna.util;
+
+import java.util.List;
+
+/**
+ * QueryMetricsMXBean - JMX view of the query metrics (registered as com.kna:type=QueryMetrics)
+ */
+public interface QueryMetricsMXBean {
+
+    long getTotalCalls();
+
+    long getSlowQueryCount();
+
+    long getSlowQueryThresholdMillis();
+
+    void setSlowQueryThresholdMillis(long thresholdMillis);
+
+    long getStatementCacheHits();
+
+    long getStatementCacheMisses();
+
+    /**
+     * One line per statement shape: calls, rate, mean/p50/p95/p99/max latency and rows
+     */
+    List<String> getStatementSummaries();
+
+    /**
+     * Most recent slow queries with their EXPLAIN QUERY PLAN output
+     */
+    List<String> getSlowQueries();
+
+    void reset();
+}
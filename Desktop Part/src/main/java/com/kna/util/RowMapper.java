@@ -0,0 +1,87 @@
+package com.kna.util;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * RowMapper - Maps result rows to objects by column index.
+ * The mapper declares the column labels it reads; their positions are resolved once per
+ * SQL string from ResultSetMetaData and reused for every later row and execution.
+ * A column missing from the result resolves to index 0 and should be skipped by the mapper.
+ * Positions of SELECT * queries depend on the physical column order, so whatever changes the
+ * schema at runtime (an upgrade, a restore) calls clearCaches() to have them resolved again.
+ */
+public abstract class RowMapper<T> {
+
+    private final String[] columns;
+    // Bumped by clearCaches(); each mapper drops its cache when it sees a new generation
+    private static final AtomicInteger generation = new AtomicInteger();
+
+    private final Map<String, int[]> indexCache = new ConcurrentHashMap<>();
+    private volatile int cacheGeneration = generation.get();
+
+    protected RowMapper(String... columns) {
+        this.columns = columns;
+    }
+
+    /**
+     * Map the current row using the column positions resolved for this SQL
+     */
+    public T map(String sql, ResultSet rs) throws SQLException {
+        int current = generation.get();
+        if (cacheGeneration != current) {
+            indexCache.clear();
+            cacheGeneration = current;
+        }
+        int[] idx = indexCache.get(sql);
+        if (idx == null) {
+            idx = resolve(rs);
+            indexCache.put(sql, idx);
+        }
+        return mapRow(rs, idx);
+    }
+
+    /**
+     * Forget the resolved column positions of all mappers
+     */
+    public static void clearCaches() {
+        generation.incrementAndGet();
+    }
+
+    /**
+     * Map the current row; idx[i] is the 1-based position of the i-th declared column, or 0
+     */
+    protected abstract T mapRow(ResultSet rs, int[] idx) throws SQLException;
+
+    /**
+     * Resolve declared column labels to result positions
+     */
+    private int[] resolve(ResultSet rs) throws SQLException {
+        ResultSetMetaData meta = rs.getMetaData();
+        Map<String, Integer> positions = new HashMap<>();
+        for (int i = meta.getColumnCount(); i >= 1; i--) {
+            // Iterate backwards so the first occurrence of a duplicated label wins
+            positions.put(meta.getColumnLabel(i).toLowerCase(), i);
+        }
+
+        int[] idx = new int[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            Integer position = positions.get(columns[i]);
+            idx[i] = position != null ? position : 0;
+        }
+        return idx;
+    }
+
+    /**
+     * Read a nullable integer column
+     */
+    protected static Integer getNullableInt(ResultSet rs, int column) throws SQLException {
+        int value = rs.getInt(column);
+        return rs.wasNull() ? null : value;
+    }
+}
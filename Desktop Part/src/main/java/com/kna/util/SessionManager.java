@@ -1,32 +1,55 @@
 package com.kna.util;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.kna.model.User;
 
 /**
- * SessionManager - Manages current user session
+ * SessionManager - Manages current user session.
+ * The desktop app has one session for the whole process; the HTTP server binds a
+ * separate session to each request thread, and getInstance() returns the bound one.
  */
 public class SessionManager {
     
-    private static SessionManager instance;
-    private User currentUser;
-    private String sessionToken;
-    private Map<String, Object> sessionAttributes;
+    private static final SessionManager desktopSession = new SessionManager();
+    private static final ThreadLocal<SessionManager> boundSession = new ThreadLocal<>();
+
+    private volatile User currentUser;
+    private volatile String sessionToken;
+    private final Map<String, Object> sessionAttributes;
 
     private SessionManager() {
-        sessionAttributes = new HashMap<>();
+        sessionAttributes = new ConcurrentHashMap<>();
     }
 
     /**
-     * Get singleton instance
+     * Get the session for the current thread: the bound request session if any, else the desktop session
      */
-    public static synchronized SessionManager getInstance() {
-        if (instance == null) {
-            instance = new SessionManager();
-        }
-        return instance;
+    public static SessionManager getInstance() {
+        SessionManager session = boundSession.get();
+        return session != null ? session : desktopSession;
+    }
+
+    /**
+     * Create a new, empty session (used by the server for each client)
+     */
+    public static SessionManager create() {
+        return new SessionManager();
+    }
+
+    /**
+     * Bind a session to the current thread until unbind() is called
+     */
+    public static void bind(SessionManager session) {
+        boundSession.set(session);
+    }
+
+    /**
+     * Remove the session bound to the current thread
+     */
+    public static void unbind() {
+        boundSession.remove();
     }
 
     /**
@@ -98,7 +121,11 @@ public class SessionManager {
      * Set session attribute
      */
     public void setAttribute(String key, Object value) {
-        sessionAttributes.put(key, value);
+        if (value == null) {
+            sessionAttributes.remove(key);
+        } else {
+            sessionAttributes.put(key, value);
+        }
     }
 
     /**
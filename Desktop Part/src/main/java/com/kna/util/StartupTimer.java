@@ -0,0 +1,98 @@
+package com.kna.util;
+
+import java.lang.management.ManagementFactory;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * StartupTimer - Records how long each startup phase took and when it ran.
+ * Offsets are measured from JVM start, so the report also shows the time spent
+ * before main() (class loading, JavaFX toolkit start-up).
+ */
+public class StartupTimer {
+
+    private final long jvmStartMillis;
+    private final long originNanos;
+    private final long originMillis;
+    private final Queue<Phase> phases = new ConcurrentLinkedQueue<>();
+
+    public StartupTimer() {
+        this.originNanos = System.nanoTime();
+        this.originMillis = System.currentTimeMillis();
+        this.jvmStartMillis = ManagementFactory.getRuntimeMXBean().getStartTime();
+    }
+
+    /**
+     * Run one phase and record its duration; failures are rethrown unchecked
+     */
+    public <T> T time(String name, Callable<T> phase) {
+        long start = System.nanoTime();
+        try {
+            return phase.call();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new CompletionException(e);
+        } finally {
+            record(name, start, System.nanoTime());
+        }
+    }
+
+    /**
+     * Record a phase that ran from start until now
+     */
+    public void record(String name, long startNanos) {
+        record(name, startNanos, System.nanoTime());
+    }
+
+    /**
+     * Record a point in time (duration 0), e.g. "window shown"
+     */
+    public void mark(String name) {
+        long now = System.nanoTime();
+        record(name, now, now);
+    }
+
+    /**
+     * Milliseconds since the JVM started
+     */
+    public long elapsedSinceJvmStart() {
+        return offset(System.nanoTime());
+    }
+
+    /**
+     * One line per phase: start offset since JVM start, duration and thread
+     */
+    public String report() {
+        StringBuilder sb = new StringBuilder("Startup phases (ms since JVM start):");
+        for (Phase phase : phases) {
+            sb.append(String.format("%n  %-24s at %6d  took %6d  [%s]",
+                phase.name, offset(phase.startNanos), (phase.endNanos - phase.startNanos) / 1_000_000, phase.thread));
+        }
+        return sb.toString();
+    }
+
+    private void record(String name, long startNanos, long endNanos) {
+        phases.add(new Phase(name, startNanos, endNanos, Thread.currentThread().getName()));
+    }
+
+    private long offset(long nanos) {
+        return originMillis - jvmStartMillis + (nanos - originNanos) / 1_000_000;
+    }
+
+    private static class Phase {
+        final String name;
+        final long startNanos;
+        final long endNanos;
+        final String thread;
+
+        Phase(String name, long startNanos, long endNanos, String thread) {
+            this.name = name;
+            this.startNanos = startNanos;
+            this.endNanos = endNanos;
+            this.thread = thread;
+        }
+    }
+}
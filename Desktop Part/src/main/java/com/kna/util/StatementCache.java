@@ -0,0 +1,82 @@
+package com.kna.util;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * StatementCache - LRU cache of prepared statements bound to a single connection.
+ * Statements handed out by the cache are owned by it and must not be closed by callers;
+ * callers only close the ResultSet they obtain from them.
+ */
+public class StatementCache {
+
+    private final Connection connection;
+    private final LinkedHashMap<String, PreparedStatement> statements;
+
+    public StatementCache(Connection connection, int maxSize) {
+        this.connection = connection;
+        // Access-ordered map so the eldest entry is the least recently used statement
+        this.statements = new LinkedHashMap<>(maxSize * 2, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                if (size() > maxSize) {
+                    closeQuietly(eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Get the cached statement for this SQL, preparing it on first use.
+     * Parameters left over from the previous execution are cleared.
+     */
+    public synchronized PreparedStatement prepare(String sql) throws SQLException {
+        PreparedStatement pstmt = statements.get(sql);
+        if (pstmt == null || pstmt.isClosed()) {
+            QueryMetrics.getInstance().recordCacheMiss();
+            pstmt = connection.prepareStatement(sql);
+            statements.put(sql, pstmt);
+        } else {
+            QueryMetrics.getInstance().recordCacheHit();
+            pstmt.clearParameters();
+        }
+        return pstmt;
+    }
+
+    /**
+     * Check whether this cache belongs to the given connection
+     */
+    public boolean isFor(Connection other) {
+        return connection == other;
+    }
+
+    /**
+     * Number of statements currently cached
+     */
+    public synchronized int size() {
+        return statements.size();
+    }
+
+    /**
+     * Close and drop every cached statement
+     */
+    public synchronized void clear() {
+        for (PreparedStatement pstmt : statements.values()) {
+            closeQuietly(pstmt);
+        }
+        statements.clear();
+    }
+
+    private static void closeQuietly(PreparedStatement pstmt) {
+        try {
+            pstmt.close();
+        } catch (SQLException e) {
+            System.err.println("Failed to close cached statement: " + e.getMessage());
+        }
+    }
+}
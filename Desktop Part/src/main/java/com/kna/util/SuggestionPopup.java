@@ -0,0 +1,98 @@
+package com.kna.util;
+
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import javafx.geometry.Side;
+import javafx.scene.control.ContextMenu;
+import javafx.scene.control.CustomMenuItem;
+import javafx.scene.control.Label;
+import javafx.scene.control.TextField;
+import javafx.util.Duration;
+
+/**
+ * SuggestionPopup - Search-as-you-type list under a text field.
+ * Lookups start after a short pause in typing and run on a background thread; a newer
+ * keystroke supersedes the previous lookup (see DebouncedLookup), so only suggestions for
+ * the current text are ever shown.
+ */
+public class SuggestionPopup<T> {
+
+    private static final Duration DEBOUNCE = Duration.millis(150);
+    private static final int MIN_LENGTH = 1;
+
+    private final TextField field;
+    private final Function<T, String> text;
+    private final Consumer<T> onSelect;
+    private final ContextMenu menu = new ContextMenu();
+    private final DebouncedLookup<String, List<T>> lookup;
+
+    // FX thread only
+    private boolean selecting;
+
+    public SuggestionPopup(TextField field, DebouncedLookup.Source<String, List<T>> source,
+                           Function<T, String> text, Consumer<T> onSelect) {
+        this.field = field;
+        this.text = text;
+        this.onSelect = onSelect;
+        this.lookup = new DebouncedLookup<>(DEBOUNCE, source, this::show);
+    }
+
+    /**
+     * Start suggesting as the user types in the field
+     */
+    public void install() {
+        field.textProperty().addListener((obs, oldText, newText) -> {
+            if (selecting) {
+                return;
+            }
+            if (newText == null || newText.trim().length() < MIN_LENGTH) {
+                hide();
+            } else {
+                lookup.request(newText);
+            }
+        });
+        field.focusedProperty().addListener((obs, wasFocused, focused) -> {
+            if (!focused) {
+                hide();
+            }
+        });
+    }
+
+    /**
+     * Close the list and drop any lookup still in progress (e.g. when the search is submitted)
+     */
+    public void hide() {
+        lookup.cancel();
+        menu.hide();
+    }
+
+    private void show(List<T> suggestions) {
+        if (suggestions.isEmpty() || !field.isFocused()) {
+            menu.hide();
+            return;
+        }
+        menu.getItems().clear();
+        for (T suggestion : suggestions) {
+            Label label = new Label(text.apply(suggestion));
+            label.setPrefWidth(Math.max(field.getWidth(), 320));
+            CustomMenuItem item = new CustomMenuItem(label, true);
+            item.setOnAction(e -> select(suggestion));
+            menu.getItems().add(item);
+        }
+        if (!menu.isShowing()) {
+            menu.show(field, Side.BOTTOM, 0, 0);
+        }
+    }
+
+    private void select(T suggestion) {
+        hide();
+        selecting = true;
+        try {
+            onSelect.accept(suggestion);
+        } finally {
+            selecting = false;
+        }
+    }
+}
@@ -1,19 +1,28 @@
 package com.kna.util;
 
-import javafx.animation.FadeTransition;
-import javafx.animation.PauseTransition;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
 import javafx.geometry.Pos;
-import javafx.scene.Scene;
 import javafx.scene.control.Label;
-import javafx.scene.layout.StackPane;
 import javafx.scene.layout.VBox;
-import javafx.stage.Modality;
+import javafx.stage.Popup;
 import javafx.stage.Stage;
-import javafx.stage.StageStyle;
-import javafx.util.Duration;
+import javafx.stage.Window;
 
 /**
- * ToastNotification - Utility for showing toast/snackbar style notifications
+ * ToastNotification - Utility for showing toast/snackbar style notifications.
+ * All toasts share one overlay popup above the focused window, a small pool of labels and
+ * one animation timer. Repeated messages are merged into one toast with a counter, and
+ * toasts beyond the visible limit wait in a queue. Can be called from any thread.
  */
 public class ToastNotification {
 
@@ -24,6 +33,16 @@ public class ToastNotification {
         INFO
     }
 
+    private static final int MAX_VISIBLE = 4;
+    private static final long FADE_NANOS = 300_000_000L;
+
+    // Requests from any thread; drained on the FX thread by one scheduled task per burst
+    private static final Queue<Toast> incoming = new ConcurrentLinkedQueue<>();
+    private static final AtomicBoolean drainScheduled = new AtomicBoolean();
+
+    // Only touched on the FX thread
+    private static ToastLayer layer;
+
     /**
      * Show a toast notification
      * @param message Message to display
@@ -40,46 +59,33 @@ public class ToastNotification {
      * @param durationSeconds Duration in seconds
      */
     public static void show(String message, NotificationType type, int durationSeconds) {
-        Stage toastStage = new Stage();
-        toastStage.initModality(Modality.NONE);
-        toastStage.initStyle(StageStyle.TRANSPARENT);
-        toastStage.setAlwaysOnTop(true);
-
-        Label label = new Label(message);
-        label.setStyle(getStyleForType(type));
-        label.setMaxWidth(400);
-        label.setWrapText(true);
-
-        StackPane root = new StackPane(label);
-        root.setStyle("-fx-background-color: transparent;");
-        root.setAlignment(Pos.BOTTOM_CENTER);
-
-        Scene scene = new Scene(root, 400, 100);
-        scene.setFill(javafx.scene.paint.Color.TRANSPARENT);
-        toastStage.setScene(scene);
-
-        // Position at bottom center
-        toastStage.setX(javafx.stage.Screen.getPrimary().getVisualBounds().getWidth() / 2 - 200);
-        toastStage.setY(javafx.stage.Screen.getPrimary().getVisualBounds().getHeight() - 150);
-
-        toastStage.show();
-
-        // Fade in
-        FadeTransition fadeIn = new FadeTransition(Duration.seconds(0.3), root);
-        fadeIn.setFromValue(0);
-        fadeIn.setToValue(1);
-        fadeIn.play();
-
-        // Auto close after duration
-        PauseTransition delay = new PauseTransition(Duration.seconds(durationSeconds));
-        delay.setOnFinished(event -> {
-            FadeTransition fadeOut = new FadeTransition(Duration.seconds(0.3), root);
-            fadeOut.setFromValue(1);
-            fadeOut.setToValue(0);
-            fadeOut.setOnFinished(e -> toastStage.close());
-            fadeOut.play();
-        });
-        delay.play();
+        if (message == null) {
+            return;
+        }
+        incoming.add(new Toast(message, type != null ? type : NotificationType.INFO, durationSeconds * 1_000_000_000L));
+        if (drainScheduled.compareAndSet(false, true)) {
+            try {
+                Platform.runLater(ToastNotification::drain);
+            } catch (IllegalStateException e) {
+                // No JavaFX toolkit (e.g. running headless): nowhere to show it
+                drainScheduled.set(false);
+                Toast toast;
+                while ((toast = incoming.poll()) != null) {
+                    System.out.println(toast.type + ": " + toast.message);
+                }
+            }
+        }
+    }
+
+    private static void drain() {
+        drainScheduled.set(false);
+        if (layer == null) {
+            layer = new ToastLayer();
+        }
+        Toast toast;
+        while ((toast = incoming.poll()) != null) {
+            layer.add(toast);
+        }
     }
 
     /**
@@ -140,4 +146,191 @@ public class ToastNotification {
     public static void showInfo(String message) {
         show(message, NotificationType.INFO);
     }
+
+    /**
+     * One message; shown through a pooled label while visible
+     */
+    private static class Toast {
+        final String message;
+        final NotificationType type;
+        final long durationNanos;
+        int count = 1;
+        long shownAt;
+        long hideAt;
+        Label label;
+
+        Toast(String message, NotificationType type, long durationNanos) {
+            this.message = message;
+            this.type = type;
+            this.durationNanos = durationNanos;
+        }
+
+        boolean sameAs(Toast other) {
+            return type == other.type && message.equals(other.message);
+        }
+
+        String text() {
+            return count > 1 ? message + "  (×" + count + ")" : message;
+        }
+
+        /**
+         * Fade in after showing and out before hiding; a repeat pushes hideAt back, which
+         * also brings a toast that already started fading back to full opacity
+         */
+        double opacityAt(long now) {
+            double in = (double) (now - shownAt) / FADE_NANOS;
+            double out = (double) (hideAt - now) / FADE_NANOS;
+            return Math.max(0, Math.min(1, Math.min(in, out)));
+        }
+    }
+
+    /**
+     * The overlay: one popup, the visible toasts, the waiting ones and the shared animation
+     */
+    private static class ToastLayer {
+        private final Popup popup = new Popup();
+        private final VBox box = new VBox(8);
+        private final Deque<Label> labelPool = new ArrayDeque<>();
+        private final List<Toast> visible = new ArrayList<>();
+        private final Deque<Toast> waiting = new ArrayDeque<>();
+        private final AnimationTimer animation;
+        private boolean animating;
+
+        ToastLayer() {
+            box.setAlignment(Pos.BOTTOM_CENTER);
+            box.setStyle("-fx-background-color: transparent;");
+            popup.getContent().add(box);
+            popup.setAutoHide(false);
+            popup.setHideOnEscape(false);
+            // Keep the toasts centered on the bottom edge as they come and go
+            box.heightProperty().addListener((obs, oldHeight, newHeight) -> position());
+            box.widthProperty().addListener((obs, oldWidth, newWidth) -> position());
+
+            animation = new AnimationTimer() {
+                @Override
+                public void handle(long frameTime) {
+                    tick(System.nanoTime());
+                }
+            };
+        }
+
+        void add(Toast toast) {
+            long now = System.nanoTime();
+            for (Toast shown : visible) {
+                if (shown.sameAs(toast)) {
+                    shown.count++;
+                    shown.hideAt = Math.max(shown.hideAt, now + toast.durationNanos);
+                    shown.label.setText(shown.text());
+                    return;
+                }
+            }
+            for (Toast queued : waiting) {
+                if (queued.sameAs(toast)) {
+                    queued.count++;
+                    return;
+                }
+            }
+
+            if (visible.size() < MAX_VISIBLE) {
+                reveal(toast, now);
+            } else {
+                waiting.add(toast);
+            }
+        }
+
+        private void reveal(Toast toast, long now) {
+            Window owner = findOwner();
+            if (owner == null) {
+                System.out.println(toast.type + ": " + toast.message);
+                return;
+            }
+
+            Label label = labelPool.poll();
+            if (label == null) {
+                label = new Label();
+                label.setMaxWidth(400);
+                label.setWrapText(true);
+            }
+            label.setText(toast.text());
+            label.setStyle(getStyleForType(toast.type));
+            label.setOpacity(0);
+            // Click to dismiss
+            label.setOnMouseClicked(e -> toast.hideAt = Math.min(toast.hideAt, System.nanoTime() + FADE_NANOS));
+            toast.label = label;
+            toast.shownAt = now;
+            toast.hideAt = now + toast.durationNanos;
+            visible.add(toast);
+            box.getChildren().add(label);
+
+            if (popup.isShowing() && popup.getOwnerWindow() != owner) {
+                popup.hide();
+            }
+            if (!popup.isShowing()) {
+                popup.show(owner);
+            }
+            position();
+
+            if (!animating) {
+                animating = true;
+                animation.start();
+            }
+        }
+
+        private void tick(long now) {
+            Iterator<Toast> it = visible.iterator();
+            while (it.hasNext()) {
+                Toast toast = it.next();
+                if (now >= toast.hideAt) {
+                    it.remove();
+                    box.getChildren().remove(toast.label);
+                    toast.label.setOnMouseClicked(null);
+                    labelPool.push(toast.label);
+                    toast.label = null;
+                } else {
+                    toast.label.setOpacity(toast.opacityAt(now));
+                }
+            }
+
+            while (visible.size() < MAX_VISIBLE && !waiting.isEmpty()) {
+                reveal(waiting.poll(), now);
+            }
+
+            if (visible.isEmpty()) {
+                animation.stop();
+                animating = false;
+                popup.hide();
+            }
+        }
+
+        /**
+         * Bottom center of the owner window
+         */
+        private void position() {
+            Window owner = popup.getOwnerWindow();
+            if (owner == null || !popup.isShowing()) {
+                return;
+            }
+            popup.setX(owner.getX() + (owner.getWidth() - popup.getWidth()) / 2);
+            popup.setY(owner.getY() + owner.getHeight() - popup.getHeight() - 50);
+        }
+
+        /**
+         * The focused application window, or any showing one
+         */
+        private Window findOwner() {
+            Window fallback = null;
+            for (Window window : Window.getWindows()) {
+                if (!(window instanceof Stage) || !window.isShowing()) {
+                    continue;
+                }
+                if (window.isFocused()) {
+                    return window;
+                }
+                if (fallback == null) {
+                    fallback = window;
+                }
+            }
+            return fallback;
+        }
+    }
 }
@@ -0,0 +1,20 @@
+package com.kna.util;
+
+/**
+ * ViewLifecycle - Implemented by controllers whose view is kept warm by the ViewRegistry.
+ * initialize() only builds the UI (it may run on a background preload thread, before login);
+ * everything that depends on the session or the database belongs in onShow().
+ */
+public interface ViewLifecycle {
+
+    /**
+     * Called on the FX thread every time the view is shown; refresh its data here
+     */
+    void onShow();
+
+    /**
+     * Called on the FX thread when the view is replaced; stop timers and background work here
+     */
+    default void onHide() {
+    }
+}
@@ -0,0 +1,220 @@
+package com.kna.util;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Group;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.scene.layout.Pane;
+
+/**
+ * ViewRegistry - Loads FXML views and keeps warm instances of the frequently used ones.
+ * Views whose controller implements ViewLifecycle are loaded once (optionally preloaded on a
+ * background thread) and reused together with their Scene, so navigating to them only swaps
+ * the root and calls onShow. Other views are loaded fresh every time, as before.
+ * Apart from preload(), all methods must be called on the FX thread.
+ */
+public class ViewRegistry {
+
+    private static final String STYLESHEET = "/css/application.css";
+
+    private static ViewRegistry instance;
+
+    private final Map<String, CompletableFuture<View>> views = new ConcurrentHashMap<>();
+    private final ExecutorService preloader;
+    private final String stylesheet;
+
+    private ViewRegistry() {
+        this.preloader = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "kna-view-preload");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.NORM_PRIORITY - 1);
+            return thread;
+        });
+        this.stylesheet = ViewRegistry.class.getResource(STYLESHEET).toExternalForm();
+    }
+
+    public static synchronized ViewRegistry getInstance() {
+        if (instance == null) {
+            instance = new ViewRegistry();
+        }
+        return instance;
+    }
+
+    /**
+     * Normalize a view name ("Dashboard.fxml", "/Dashboard.fxml" or "/fxml/Dashboard.fxml") to its resource path
+     */
+    public static String normalize(String fxmlPath) {
+        if (!fxmlPath.startsWith("/")) {
+            return "/fxml/" + fxmlPath;
+        } else if (!fxmlPath.startsWith("/fxml/")) {
+            return "/fxml" + fxmlPath;
+        }
+        return fxmlPath;
+    }
+
+    /**
+     * Load views on a background thread so the first visit does not parse FXML on the FX thread.
+     * Warm views are kept; loading the others still warms class loading and FXML reflection.
+     * The returned future completes (never exceptionally) once all of them were attempted.
+     */
+    public CompletableFuture<Void> preload(String... fxmlPaths) {
+        CompletableFuture<?>[] loads = new CompletableFuture<?>[fxmlPaths.length];
+        for (int i = 0; i < fxmlPaths.length; i++) {
+            String path = normalize(fxmlPaths[i]);
+            loads[i] = views.computeIfAbsent(path, p -> CompletableFuture.supplyAsync(() -> {
+                long start = System.nanoTime();
+                try {
+                    View view = load(p);
+                    System.out.println("Preloaded " + p + " in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+                    return view;
+                } catch (IOException e) {
+                    throw new CompletionException(e);
+                }
+            }, preloader));
+        }
+        return CompletableFuture.allOf(loads).handle((ignored, e) -> null);
+    }
+
+    /**
+     * Get a view: the warm instance if there is one, otherwise a freshly loaded one
+     */
+    public View getView(String fxmlPath) throws IOException {
+        String path = normalize(fxmlPath);
+        CompletableFuture<View> pending = views.get(path);
+        if (pending != null) {
+            try {
+                View view = pending.join();
+                if (view.isWarm()) {
+                    return view;
+                }
+                // A preloaded view that is not kept: hand out this fresh instance once
+                views.remove(path, pending);
+                return view;
+            } catch (CompletionException e) {
+                // Some controls cannot be built off the FX thread; load it here instead
+                System.err.println("Preloading " + path + " failed: " + e.getCause());
+                views.remove(path, pending);
+            }
+        }
+
+        View view = load(path);
+        if (view.isWarm()) {
+            views.put(path, CompletableFuture.completedFuture(view));
+        }
+        return view;
+    }
+
+    /**
+     * Scene for showing the view as the window content; warm views reuse theirs,
+     * so the stylesheet is applied only once
+     */
+    public Scene sceneFor(View view) {
+        if (view.scene != null && view.scene.getRoot() == view.root) {
+            return view.scene;
+        }
+        detach(view);
+        Scene scene = new Scene(view.root);
+        scene.getStylesheets().add(stylesheet);
+        if (view.isWarm()) {
+            view.scene = scene;
+        }
+        return scene;
+    }
+
+    /**
+     * Root node for embedding the view inside another view
+     */
+    public Parent rootFor(View view) {
+        detach(view);
+        return view.root;
+    }
+
+    /**
+     * Tell the view's controller it is now visible
+     */
+    public void shown(View view) {
+        if (view != null && view.controller instanceof ViewLifecycle) {
+            ((ViewLifecycle) view.controller).onShow();
+        }
+    }
+
+    /**
+     * Tell the view's controller it was replaced
+     */
+    public void hidden(View view) {
+        if (view != null && view.controller instanceof ViewLifecycle) {
+            ((ViewLifecycle) view.controller).onHide();
+        }
+    }
+
+    private View load(String path) throws IOException {
+        URL resource = ViewRegistry.class.getResource(path);
+        if (resource == null) {
+            throw new IOException("View not found: " + path);
+        }
+        FXMLLoader loader = new FXMLLoader(resource);
+        Parent root = loader.load();
+        return new View(path, root, loader.getController());
+    }
+
+    /**
+     * A node can only have one parent and be the root of one scene: take a warm view out of
+     * wherever it was shown last
+     */
+    private void detach(View view) {
+        Parent root = view.root;
+        if (root.getParent() instanceof Pane) {
+            ((Pane) root.getParent()).getChildren().remove(root);
+        }
+        Scene scene = root.getScene();
+        if (scene != null && scene.getRoot() == root) {
+            scene.setRoot(new Group());
+            view.scene = null;
+        }
+    }
+
+    /**
+     * A loaded view: root node, controller and (for warm views) the scene it was last shown in
+     */
+    public static class View {
+        private final String path;
+        private final Parent root;
+        private final Object controller;
+        private Scene scene;
+
+        View(String path, Parent root, Object controller) {
+            this.path = path;
+            this.root = root;
+            this.controller = controller;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public Parent getRoot() {
+            return root;
+        }
+
+        @SuppressWarnings("unchecked")
+        public <T> T getController() {
+            return (T) controller;
+        }
+
+        /**
+         * Warm views are kept and reused; their controllers refresh in onShow
+         */
+        public boolean isWarm() {
+            return controller instanceof ViewLifecycle;
+        }
+    }
+}
@@ -44,6 +44,14 @@ CREATE TABLE IF NOT EXISTS questions (
     is_evaluated BOOLEAN DEFAULT 0,
     accepted_answer_id INTEGER,
     view_count INTEGER DEFAULT 0,
+    -- Time-decayed activity score relative to hot_score_epoch; NULL until scored
+    hot_score REAL,
+    -- Kept from answers and votes by the write paths; NULL until the repair job has counted them
+    answer_count INTEGER,
+    -- Net votes (up - down) of the question's answers
+    score INTEGER,
+    -- Last new answer or vote (or the question itself)
+    last_activity_at TIMESTAMP,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     FOREIGN KEY (user_id) REFERENCES users(user_id) ON DELETE CASCADE
@@ -68,6 +76,8 @@ CREATE TABLE IF NOT EXISTS answers (
     rating INTEGER DEFAULT 0,
     upvotes INTEGER DEFAULT 0,
     downvotes INTEGER DEFAULT 0,
+    -- upvotes - downvotes, kept by the vote path for idx_answers_question_order; NULL until backfilled
+    net_score INTEGER,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     FOREIGN KEY (question_id) REFERENCES questions(question_id) ON DELETE CASCADE,
@@ -181,20 +191,45 @@ CREATE TABLE IF NOT EXISTS leaderboard (
     FOREIGN KEY (user_id) REFERENCES users(user_id) ON DELETE CASCADE
 );
 
+-- Reference time (julian day) of questions.hot_score; a single row, moved forward by rebasing.
+-- While a rebase is under way, questions up to rebase_cursor are already relative to next_epoch.
+CREATE TABLE IF NOT EXISTS hot_score_epoch (
+    epoch_id INTEGER PRIMARY KEY CHECK(epoch_id = 1),
+    epoch REAL NOT NULL,
+    next_epoch REAL,
+    rebase_cursor INTEGER
+);
+
 -- Create indexes for better query performance
 CREATE INDEX IF NOT EXISTS idx_users_email ON users(email);
 CREATE INDEX IF NOT EXISTS idx_sessions_token ON sessions(session_token);
 CREATE INDEX IF NOT EXISTS idx_sessions_user ON sessions(user_id);
+CREATE INDEX IF NOT EXISTS idx_sessions_expires ON sessions(expires_at);
 CREATE INDEX IF NOT EXISTS idx_questions_user ON questions(user_id);
+CREATE INDEX IF NOT EXISTS idx_questions_user_status ON questions(user_id, is_answered, is_urgent);
 CREATE INDEX IF NOT EXISTS idx_questions_category ON questions(category);
 CREATE INDEX IF NOT EXISTS idx_questions_urgent ON questions(is_urgent);
 CREATE INDEX IF NOT EXISTS idx_questions_answered ON questions(is_answered);
 CREATE INDEX IF NOT EXISTS idx_questions_evaluated ON questions(is_evaluated);
 CREATE INDEX IF NOT EXISTS idx_questions_created ON questions(created_at);
+CREATE INDEX IF NOT EXISTS idx_questions_urgent_created ON questions(is_urgent, created_at);
+CREATE INDEX IF NOT EXISTS idx_questions_category_created ON questions(category, is_urgent, created_at);
+CREATE INDEX IF NOT EXISTS idx_questions_reward ON questions(coin_reward);
+CREATE INDEX IF NOT EXISTS idx_questions_hot ON questions(hot_score);
+CREATE INDEX IF NOT EXISTS idx_questions_category_hot ON questions(category, hot_score);
+CREATE INDEX IF NOT EXISTS idx_questions_category_open ON questions(category, question_id) WHERE is_answered = 0;
+CREATE INDEX IF NOT EXISTS idx_questions_uncounted ON questions(question_id) WHERE answer_count IS NULL;
+CREATE INDEX IF NOT EXISTS idx_question_images_question ON question_images(question_id);
 CREATE INDEX IF NOT EXISTS idx_answers_question ON answers(question_id);
+CREATE INDEX IF NOT EXISTS idx_answers_question_order ON answers(question_id, is_accepted DESC, net_score DESC, created_at);
+CREATE INDEX IF NOT EXISTS idx_answers_unscored ON answers(answer_id) WHERE net_score IS NULL;
 CREATE INDEX IF NOT EXISTS idx_answers_user ON answers(user_id);
+CREATE INDEX IF NOT EXISTS idx_answers_user_accepted ON answers(user_id, is_accepted);
 CREATE INDEX IF NOT EXISTS idx_answer_votes_answer ON answer_votes(answer_id);
+CREATE INDEX IF NOT EXISTS idx_answer_rewards_answer ON answer_rewards(answer_id);
 CREATE INDEX IF NOT EXISTS idx_coin_transactions_user ON coin_transactions(user_id);
+CREATE INDEX IF NOT EXISTS idx_coin_transactions_user_type ON coin_transactions(user_id, reference_type, transaction_type, amount);
+CREATE INDEX IF NOT EXISTS idx_coin_transactions_reference ON coin_transactions(reference_id, reference_type);
 CREATE INDEX IF NOT EXISTS idx_notifications_user ON notifications(user_id);
 CREATE INDEX IF NOT EXISTS idx_notifications_read ON notifications(is_read);
 CREATE INDEX IF NOT EXISTS idx_reports_status ON reports(status);